@@ -5,38 +5,35 @@ package glModelLoader;
 
 /**
  * Face contains indices of vertices.
+ * Face is a view of the index data stored in the mesh, indices are read from the mesh when they are requested.
  * @author Haoqian Stephen Xu
  *
  */
 public final class Face{
 	//Variables
-	private float[] VertexIndex = {0.0f, 0.0f, 0.0f};
-	private float[] TextureCoordinateIndex = {0.0f, 0.0f, 0.0f};
-	private float[] NormalIndex = {0.0f, 0.0f, 0.0f};
-	
+	private final GLIntArray VertexIndex;
+	private final GLIntArray TextureCoordinateIndex;
+	private final GLIntArray NormalIndex;
+	/**
+	 * The position of the face in the mesh
+	 */
+	private final int Position;
+
 	/**
 	 * Face contains indices of vertices.
 	 * Once the datas are specified, it cannot be changed.
-	 * Parameters are given in GLVector3 which is defined in float, and the class will convert
-	 * float into integer when outputting data.
-	 * @param VertexIndex Provide index of vertex
-	 * @param TextureCoordinateIndex Provide index of texture coordinate
-	 * @param NormalIndex Provide index of normal
+	 * @param vertexIndex Index of vertex of all faces in the mesh
+	 * @param textureCoordinateIndex Index of texture coordinate of all faces in the mesh
+	 * @param normalIndex Index of normal of all faces in the mesh
+	 * @param position The position of this face in the mesh
 	 */
-	Face(GLVector3 vertexIndex, GLVector3 textureCoordinateIndex, GLVector3 normalIndex){
-		VertexIndex[0] = vertexIndex.getComponentX();
-		VertexIndex[1] = vertexIndex.getComponentY();
-		VertexIndex[2] = vertexIndex.getComponentZ();
-		
-		TextureCoordinateIndex[0] = textureCoordinateIndex.getComponentX();
-		TextureCoordinateIndex[1] = textureCoordinateIndex.getComponentY();
-		TextureCoordinateIndex[2] = textureCoordinateIndex.getComponentZ();
-		
-		NormalIndex[0] = normalIndex.getComponentX();
-		NormalIndex[1] = normalIndex.getComponentY();
-		NormalIndex[2] = normalIndex.getComponentZ();
+	Face(GLIntArray vertexIndex, GLIntArray textureCoordinateIndex, GLIntArray normalIndex, int position){
+		VertexIndex = vertexIndex;
+		TextureCoordinateIndex = textureCoordinateIndex;
+		NormalIndex = normalIndex;
+		Position = position;
 	}
-	
+
 	/**
 	 * Return the indices stored in the class
 	 * @param IndexType Define the type of returning index.
@@ -44,25 +41,33 @@ public final class Face{
 	 */
 	public int[] getIndex(Mesh.GLModelDataType IndexType) {
 		int[] returnValue = new int[3];
-		
+		getIndex(IndexType, returnValue, 0);
+		return returnValue;
+	}
+
+	/**
+	 * Copy the indices stored in the class to the given array, no array is created
+	 * @param IndexType Define the type of returning index.
+	 * @param Destination The array to be written with the three indices
+	 * @param Offset The position in the destination to start writing
+	 */
+	public void getIndex(Mesh.GLModelDataType IndexType, int[] Destination, int Offset) {
+		GLIntArray source = null;
 		switch(IndexType) {
-		case Vertices : returnValue[0] = (int)VertexIndex[0];
-		returnValue[1] = (int)VertexIndex[1];
-		returnValue[2] = (int)VertexIndex[2];
+		case Vertices : 
+		case Tangents : source = VertexIndex;
 		break;
-		case TextureCoordinates : returnValue[0] = (int)TextureCoordinateIndex[0];
-		returnValue[1] = (int)TextureCoordinateIndex[1];
-		returnValue[2] = (int)TextureCoordinateIndex[2];
+		case TextureCoordinates : source = TextureCoordinateIndex;
 		break;
-		case Normals : returnValue[0] = (int)NormalIndex[0];
-		returnValue[1] = (int)NormalIndex[1];
-		returnValue[2] = (int)NormalIndex[2];
+		case Normals : source = NormalIndex;
 		break;
 		default:
-			break;
+			return;
 		}
-		return returnValue;
+		Destination[Offset] = source.get(3 * Position);
+		Destination[Offset + 1] = source.get(3 * Position + 1);
+		Destination[Offset + 2] = source.get(3 * Position + 2);
 	}
-	
-	
-}
\ No newline at end of file
+
+
+}
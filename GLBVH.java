@@ -0,0 +1,509 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GLBVH is a bounding volume hierarchy over the triangles of a mesh for ray picking and closest point queries on the CPU.
+ * The tree is built with the surface area heuristic by {@link GLBVHBuilder} and stored in flat arrays in depth first order:
+ * <ul>
+ * <li>Nodes: {First, Count} of each node. If Count is 0 the node has two children at First and First + 1, otherwise the node is
+ * a leaf with Count triangles starting at First in the triangle array</li>
+ * <li>Node bounds: {MinX, MinY, MinZ, MaxX, MaxY, MaxZ} of each node, the root is the first node</li>
+ * <li>Triangles: the face index in the mesh of each triangle of the leaves</li>
+ * </ul>
+ * Queries are given in batches and a batch is split across the common fork/join pool. The vertices of the mesh are used by
+ * the queries, so the hierarchy stays valid as long as the mesh exists. The arrays are not copied when they are retrieved,
+ * they should not be modified.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLBVH {
+	//Constant
+	/**
+	 * Number of int of each node in the node array
+	 */
+	public static final int NODE_STRIDE = 2;
+	/**
+	 * Number of float of each node in the bound array
+	 */
+	public static final int BOUNDS_STRIDE = 6;
+	/**
+	 * Number of float of each ray: {OriginX, OriginY, OriginZ, DirectionX, DirectionY, DirectionZ, MinDistance, MaxDistance}
+	 */
+	public static final int RAY_STRIDE = 8;
+	/**
+	 * Number of float of each hit: {Distance, U, V}, the hit point is (1 - U - V) * A + U * B + V * C of the triangle ABC
+	 */
+	public static final int HIT_STRIDE = 3;
+	/**
+	 * Number of float of each closest point: {X, Y, Z, Distance}
+	 */
+	public static final int CLOSEST_STRIDE = 4;
+	/**
+	 * The largest number of triangles in a leaf when it is cheaper than splitting
+	 */
+	static final int MAX_LEAF_SIZE = 8;
+	/**
+	 * Batches with fewer queries are not split further
+	 */
+	private static final int QUERY_SPLIT = 1024;
+
+	//Variables
+	private final int[] Nodes;
+	private final float[] Node_bounds;
+	private final int[] Triangles;
+	/**
+	 * The vertex index of the triangles in the order of the triangle array, three for each triangle
+	 */
+	private final int[] Index;
+	private final float[] Position;
+	/**
+	 * The largest number of nodes from the root to a leaf, the size of the traversal stack
+	 */
+	private final int Depth;
+
+	private GLBVH(int[] nodes, float[] node_bounds, int[] triangles, int[] index, float[] position, int depth){
+		Nodes = nodes;
+		Node_bounds = node_bounds;
+		Triangles = triangles;
+		Index = index;
+		Position = position;
+		Depth = depth;
+	}
+
+	/**
+	 * Build the hierarchy of the triangles of a mesh, the upper levels of the tree are built in parallel.
+	 * @param Source The mesh, its vertex index must start from zero
+	 * @param Parallelism The number of threads used, 1 means the tree is built on the calling thread
+	 * @return The hierarchy of the mesh
+	 * @throws GLModelLoadingException If the parallelism is less than one or a vertex index is out of range
+	 */
+	public static GLBVH build(Mesh Source, int Parallelism) throws GLModelLoadingException{
+		if(Parallelism < 1) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Parallelism Must Be At Least One", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//Variables
+		final int faces = Source.getFaceSize();
+		final int vertices = Source.getVertexSize();
+		final int[] index = Source.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+		final float[] position = Source.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		for(int i = 0; i < 3 * faces; i++) {
+			if(index[i] < 0 || index[i] >= vertices) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Vertex Index Is Out Of Range", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+		}
+
+		final GLBVHBuilder builder = new GLBVHBuilder(position, index, faces, Parallelism > 1);
+		if(Parallelism == 1) {
+			builder.invoke();
+		}else {
+			ForkJoinPool pool = new ForkJoinPool(Parallelism);
+			try {
+				pool.invoke(builder);
+			}finally {
+				pool.shutdown();
+			}
+		}
+
+		//put the nodes into depth first order, the children of a node are still next to each other
+		final int size = builder.Node_size.get();
+		final int[] nodes = new int[NODE_STRIDE * size];
+		final float[] node_bounds = new float[BOUNDS_STRIDE * size];
+		final int[] stack = new int[2 * size];//{old node, new node}
+		int top = 0, next = 1, depth = 1;
+		final int[] level = new int[size];//depth of each new node
+		stack[top++] = 0;
+		stack[top++] = 0;
+		level[0] = 1;
+		while(top != 0) {
+			final int to = stack[--top], from = stack[--top];
+			System.arraycopy(builder.Node_bounds, BOUNDS_STRIDE * from, node_bounds, BOUNDS_STRIDE * to, BOUNDS_STRIDE);
+			depth = Math.max(depth, level[to]);
+			if(builder.Nodes[NODE_STRIDE * from + 1] != 0 || faces == 0) {//leaf
+				nodes[NODE_STRIDE * to] = builder.Nodes[NODE_STRIDE * from];
+				nodes[NODE_STRIDE * to + 1] = builder.Nodes[NODE_STRIDE * from + 1];
+				continue;
+			}
+			final int child = next;
+			next += 2;
+			nodes[NODE_STRIDE * to] = child;
+			nodes[NODE_STRIDE * to + 1] = 0;
+			level[child] = level[to] + 1;
+			level[child + 1] = level[to] + 1;
+			stack[top++] = builder.Nodes[NODE_STRIDE * from] + 1;
+			stack[top++] = child + 1;
+			stack[top++] = builder.Nodes[NODE_STRIDE * from];
+			stack[top++] = child;
+		}
+		final int[] triangle_index = new int[3 * faces];
+		for(int i = 0; i < faces; i++) {
+			System.arraycopy(index, 3 * builder.Order[i], triangle_index, 3 * i, 3);
+		}
+		return new GLBVH(nodes, node_bounds, builder.Order, triangle_index, position, depth);
+	}
+
+	/**
+	 * Find the nearest triangle hit by each ray. Both sides of the triangles are hit.
+	 * @param Rays The rays given as {OriginX, OriginY, OriginZ, DirectionX, DirectionY, DirectionZ, MinDistance, MaxDistance} for
+	 * each ray, the distance is measured in the length of the direction
+	 * @param Count The number of rays
+	 * @param Hits The array to be written with {Distance, U, V} of each ray, {@link #HIT_STRIDE} * Count
+	 * @param Faces The array to be written with the face index hit by each ray, -1 if the ray hits nothing
+	 * @return The number of rays which hit a triangle
+	 */
+	public int intersect(float[] Rays, int Count, float[] Hits, int[] Faces) {
+		final Query query = new Query(this, Rays, Hits, Faces, 0.0f, true, 0, Count);
+		query.invoke();
+		return query.Found;
+	}
+
+	/**
+	 * Find the closest point on the triangles to each point
+	 * @param Points The points given as {X0, Y0, Z0, X1, ...}
+	 * @param Count The number of points
+	 * @param MaxDistance Triangles further than the distance are not searched, infinity to search all triangles
+	 * @param Closest The array to be written with {X, Y, Z, Distance} of each point, {@link #CLOSEST_STRIDE} * Count
+	 * @param Faces The array to be written with the face index of the closest point, -1 if no triangle is within the distance
+	 * @return The number of points which have a triangle within the distance
+	 */
+	public int closestPoints(float[] Points, int Count, float MaxDistance, float[] Closest, int[] Faces) {
+		final Query query = new Query(this, Points, Closest, Faces, MaxDistance, false, 0, Count);
+		query.invoke();
+		return query.Found;
+	}
+
+	/**
+	 * A range of queries in a batch, the range is split in half until it is small enough
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	private static final class Query extends RecursiveAction{
+		/**
+		 * Serial Number
+		 */
+		private static final long serialVersionUID = 0x71756572L;
+		private final GLBVH bvh;
+		private final float[] input, output;
+		private final int[] faces;
+		private final float max_distance;
+		private final boolean ray;
+		private final int from, to;
+		/**
+		 * Number of queries in the range which found a triangle
+		 */
+		int Found = 0;
+
+		Query(GLBVH BVH, float[] Input, float[] Output, int[] Faces, float MaxDistance, boolean Ray, int From, int To){
+			bvh = BVH;
+			input = Input;
+			output = Output;
+			faces = Faces;
+			max_distance = MaxDistance;
+			ray = Ray;
+			from = From;
+			to = To;
+		}
+
+		@Override
+		protected void compute() {
+			if(to - from > QUERY_SPLIT) {
+				final int middle = (from + to) >>> 1;
+				final Query left = new Query(bvh, input, output, faces, max_distance, ray, from, middle);
+				final Query right = new Query(bvh, input, output, faces, max_distance, ray, middle, to);
+				invokeAll(left, right);
+				Found = left.Found + right.Found;
+				return;
+			}
+			final int[] stack = new int[bvh.Depth + 1];
+			final float[] distance = new float[bvh.Depth + 1];
+			final float[] point = new float[3];
+			for(int i = from; i < to; i++) {
+				final int face = ray ? bvh.intersect(input, i, output, stack, distance) : bvh.closestPoint(input, i, max_distance, output, stack, distance, point);
+				faces[i] = face;
+				Found += face != -1 ? 1 : 0;
+			}
+		}
+	}
+
+	/**
+	 * Find the distance where a ray enters a node. The near plane of each axis is chosen from the sign of the direction once for
+	 * each ray, so the planes never have to be swapped for each node.
+	 * @param nx The offset of the near plane on the x axis in the bounds, 3 if the direction is negative or 0 otherwise
+	 * @return The distance, infinity if the ray misses the node before the max distance
+	 */
+	private float enter(int Node, float ox, float oy, float oz, float ix, float iy, float iz, int nx, int ny, int nz, float Min, float Max) {
+		final int b = BOUNDS_STRIDE * Node;
+		final float near = Math.max(Math.max((Node_bounds[b + nx] - ox) * ix, (Node_bounds[b + 1 + ny] - oy) * iy), Math.max((Node_bounds[b + 2 + nz] - oz) * iz, Min));
+		final float far = Math.min(Math.min((Node_bounds[b + 3 - nx] - ox) * ix, (Node_bounds[b + 4 - ny] - oy) * iy), Math.min((Node_bounds[b + 5 - nz] - oz) * iz, Max));
+		return near <= far ? near : Float.POSITIVE_INFINITY;
+	}
+
+	private static float getInverse(float Direction) {
+		return Math.max(-Float.MAX_VALUE, Math.min(Float.MAX_VALUE, 1.0f / Direction));
+	}
+
+	/**
+	 * Find the nearest triangle hit by one ray
+	 * @return The face index, -1 if the ray hits nothing
+	 */
+	private int intersect(float[] Rays, int Ray, float[] Hits, int[] Stack, float[] Distance) {
+		//Variables
+		final int r = RAY_STRIDE * Ray;
+		final float ox = Rays[r], oy = Rays[r + 1], oz = Rays[r + 2];
+		final float dx = Rays[r + 3], dy = Rays[r + 4], dz = Rays[r + 5];
+		//a zero direction gives the largest float instead of infinity, so the distance to a plane the origin is on is zero but not a number
+		final float ix = getInverse(dx), iy = getInverse(dy), iz = getInverse(dz);
+		final int nx = ix < 0.0f ? 3 : 0, ny = iy < 0.0f ? 3 : 0, nz = iz < 0.0f ? 3 : 0;
+		final float min = Rays[r + 6];
+		float max = Rays[r + 7];
+		float hit_u = 0.0f, hit_v = 0.0f;
+		int hit = -1;
+		int top = 0;
+
+		int node = 0;
+		//an empty tree has no node to enter, NaN is never less than the distance so nothing is visited
+		float near = Triangles.length != 0 ? enter(0, ox, oy, oz, ix, iy, iz, nx, ny, nz, min, max) : Float.NaN;
+		while(true) {
+			if(near < max) {
+				final int first = Nodes[NODE_STRIDE * node], count = Nodes[NODE_STRIDE * node + 1];
+				if(count == 0) {
+					final float left = enter(first, ox, oy, oz, ix, iy, iz, nx, ny, nz, min, max);
+					final float right = enter(first + 1, ox, oy, oz, ix, iy, iz, nx, ny, nz, min, max);
+					//visit the nearer child first and keep the other one for later, a missed child is at infinity which is never less than the
+					//max distance, even when the max distance is infinity
+					if(left <= right) {
+						if(right < max) {
+							Stack[top] = first + 1;
+							Distance[top++] = right;
+						}
+						node = first;
+						near = left;
+					}else {
+						if(left < max) {
+							Stack[top] = first;
+							Distance[top++] = left;
+						}
+						node = first + 1;
+						near = right;
+					}
+					continue;
+				}
+				for(int i = first; i < first + count; i++) {
+					final int a = 3 * Index[3 * i], b = 3 * Index[3 * i + 1], c = 3 * Index[3 * i + 2];
+					final float e1x = Position[b] - Position[a], e1y = Position[b + 1] - Position[a + 1], e1z = Position[b + 2] - Position[a + 2];
+					final float e2x = Position[c] - Position[a], e2y = Position[c + 1] - Position[a + 1], e2z = Position[c + 2] - Position[a + 2];
+					final float px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+					final float determinant = e1x * px + e1y * py + e1z * pz;
+					if(determinant == 0.0f) {//the ray is parallel to the triangle
+						continue;
+					}
+					final float inverse = 1.0f / determinant;
+					final float sx = ox - Position[a], sy = oy - Position[a + 1], sz = oz - Position[a + 2];
+					final float u = (sx * px + sy * py + sz * pz) * inverse;
+					if(u < 0.0f || u > 1.0f) {
+						continue;
+					}
+					final float qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+					final float v = (dx * qx + dy * qy + dz * qz) * inverse;
+					if(v < 0.0f || u + v > 1.0f) {
+						continue;
+					}
+					final float t = (e2x * qx + e2y * qy + e2z * qz) * inverse;
+					if(t >= min && t < max) {
+						max = t;
+						hit_u = u;
+						hit_v = v;
+						hit = i;
+					}
+				}
+			}
+			if(top == 0) {
+				break;
+			}
+			node = Stack[--top];
+			near = Distance[top];
+		}
+
+		final int h = HIT_STRIDE * Ray;
+		Hits[h] = hit != -1 ? max : Float.POSITIVE_INFINITY;
+		Hits[h + 1] = hit_u;
+		Hits[h + 2] = hit_v;
+		return hit != -1 ? Triangles[hit] : -1;
+	}
+
+	/**
+	 * Find the squared distance from a point to a node
+	 */
+	private float getDistance(int Node, float x, float y, float z) {
+		final int b = BOUNDS_STRIDE * Node;
+		final float dx = Math.max(0.0f, Math.max(Node_bounds[b] - x, x - Node_bounds[b + 3]));
+		final float dy = Math.max(0.0f, Math.max(Node_bounds[b + 1] - y, y - Node_bounds[b + 4]));
+		final float dz = Math.max(0.0f, Math.max(Node_bounds[b + 2] - z, z - Node_bounds[b + 5]));
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	/**
+	 * Find the closest point on the triangles to one point
+	 * @return The face index, -1 if no triangle is within the distance
+	 */
+	private int closestPoint(float[] Points, int Point, float MaxDistance, float[] Closest, int[] Stack, float[] Distance, float[] point) {
+		//Variables
+		final float x = Points[3 * Point], y = Points[3 * Point + 1], z = Points[3 * Point + 2];
+		float best = MaxDistance * MaxDistance;
+		float cx = 0.0f, cy = 0.0f, cz = 0.0f;
+		int hit = -1;
+		int top = 0;
+
+		int node = 0;
+		float near = Triangles.length != 0 ? getDistance(0, x, y, z) : Float.NaN;
+		while(true) {
+			if(near <= best) {
+				final int first = Nodes[NODE_STRIDE * node], count = Nodes[NODE_STRIDE * node + 1];
+				if(count == 0) {
+					final float left = getDistance(first, x, y, z), right = getDistance(first + 1, x, y, z);
+					if(left <= right) {
+						Stack[top] = first + 1;
+						Distance[top++] = right;
+						node = first;
+						near = left;
+					}else {
+						Stack[top] = first;
+						Distance[top++] = left;
+						node = first + 1;
+						near = right;
+					}
+					continue;
+				}
+				for(int i = first; i < first + count; i++) {
+					getClosestPoint(3 * Index[3 * i], 3 * Index[3 * i + 1], 3 * Index[3 * i + 2], x, y, z, point);
+					final float dx = point[0] - x, dy = point[1] - y, dz = point[2] - z;
+					final float distance = dx * dx + dy * dy + dz * dz;
+					if(distance <= best) {
+						best = distance;
+						cx = point[0];
+						cy = point[1];
+						cz = point[2];
+						hit = i;
+					}
+				}
+			}
+			if(top == 0) {
+				break;
+			}
+			node = Stack[--top];
+			near = Distance[top];
+		}
+
+		final int c = CLOSEST_STRIDE * Point;
+		Closest[c] = cx;
+		Closest[c + 1] = cy;
+		Closest[c + 2] = cz;
+		Closest[c + 3] = hit != -1 ? (float)Math.sqrt(best) : Float.POSITIVE_INFINITY;
+		return hit != -1 ? Triangles[hit] : -1;
+	}
+
+	/**
+	 * Find the closest point on a triangle by the region of the triangle which the point projects to
+	 * @param a The offset of the first vertex
+	 * @param b The offset of the second vertex
+	 * @param c The offset of the third vertex
+	 * @param Result The array to be written with {X, Y, Z} of the closest point
+	 */
+	private void getClosestPoint(int a, int b, int c, float x, float y, float z, float[] Result) {
+		final float abx = Position[b] - Position[a], aby = Position[b + 1] - Position[a + 1], abz = Position[b + 2] - Position[a + 2];
+		final float acx = Position[c] - Position[a], acy = Position[c + 1] - Position[a + 1], acz = Position[c + 2] - Position[a + 2];
+		final float apx = x - Position[a], apy = y - Position[a + 1], apz = z - Position[a + 2];
+		final float d1 = abx * apx + aby * apy + abz * apz, d2 = acx * apx + acy * apy + acz * apz;
+		if(d1 <= 0.0f && d2 <= 0.0f) {//vertex A
+			setPoint(Result, a, 0.0f, 0.0f, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float bpx = x - Position[b], bpy = y - Position[b + 1], bpz = z - Position[b + 2];
+		final float d3 = abx * bpx + aby * bpy + abz * bpz, d4 = acx * bpx + acy * bpy + acz * bpz;
+		if(d3 >= 0.0f && d4 <= d3) {//vertex B
+			setPoint(Result, a, 1.0f, 0.0f, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float vc = d1 * d4 - d3 * d2;
+		if(vc <= 0.0f && d1 >= 0.0f && d3 <= 0.0f) {//edge AB
+			setPoint(Result, a, d1 / (d1 - d3), 0.0f, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float cpx = x - Position[c], cpy = y - Position[c + 1], cpz = z - Position[c + 2];
+		final float d5 = abx * cpx + aby * cpy + abz * cpz, d6 = acx * cpx + acy * cpy + acz * cpz;
+		if(d6 >= 0.0f && d5 <= d6) {//vertex C
+			setPoint(Result, a, 0.0f, 1.0f, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float vb = d5 * d2 - d1 * d6;
+		if(vb <= 0.0f && d2 >= 0.0f && d6 <= 0.0f) {//edge AC
+			setPoint(Result, a, 0.0f, d2 / (d2 - d6), abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float va = d3 * d6 - d5 * d4;
+		if(va <= 0.0f && d4 - d3 >= 0.0f && d5 - d6 >= 0.0f) {//edge BC
+			final float w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+			setPoint(Result, a, 1.0f - w, w, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		final float denominator = va + vb + vc;
+		if(!(denominator != 0.0f)) {//the triangle has no area
+			setPoint(Result, a, 0.0f, 0.0f, abx, aby, abz, acx, acy, acz);
+			return;
+		}
+		setPoint(Result, a, vb / denominator, vc / denominator, abx, aby, abz, acx, acy, acz);
+	}
+
+	private void setPoint(float[] Result, int a, float u, float v, float abx, float aby, float abz, float acx, float acy, float acz) {
+		Result[0] = Position[a] + abx * u + acx * v;
+		Result[1] = Position[a + 1] + aby * u + acy * v;
+		Result[2] = Position[a + 2] + abz * u + acz * v;
+	}
+
+	/**
+	 * Retrieve the number of nodes
+	 * @return The number of nodes
+	 */
+	public int getNodeSize() {
+		return Nodes.length / NODE_STRIDE;
+	}
+
+	/**
+	 * Retrieve the nodes given as {First, Count} of each node
+	 * @return The node array
+	 */
+	public int[] getNodes() {
+		return Nodes;
+	}
+
+	/**
+	 * Retrieve the bounding box given as {MinX, MinY, MinZ, MaxX, MaxY, MaxZ} of each node
+	 * @return The bound array
+	 */
+	public float[] getNodeBounds() {
+		return Node_bounds;
+	}
+
+	/**
+	 * Retrieve the face index of each triangle of the leaves
+	 * @return The triangle array
+	 */
+	public int[] getTriangles() {
+		return Triangles;
+	}
+
+	/**
+	 * Retrieve the largest number of nodes from the root to a leaf
+	 * @return The depth of the tree
+	 */
+	public int getDepth() {
+		return Depth;
+	}
+
+}
@@ -0,0 +1,342 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * GLBVHBuilder builds the bounding volume hierarchy of the triangles of a mesh with the surface area heuristic.
+ * The centroids of the triangles in a node are put into bins along each axis, and the node is split at the bin boundary with
+ * the smallest expected cost of a ray passing through it. Nodes with many triangles give one child to another task, so the
+ * upper part of the tree is built in parallel on fork/join while smaller subtrees are built in a loop by one task.
+ * Children are allocated in pairs while building, the nodes are put into depth first order by {@link GLBVH} afterwards.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLBVHBuilder extends RecursiveAction{
+	/**
+	 * Serial Number
+	 */
+	private static final long serialVersionUID = 0x62766862L;
+	//Constant
+	/**
+	 * Number of bins along each axis
+	 */
+	private static final int BINS = 16;
+	/**
+	 * Nodes with more triangles give one child to another task
+	 */
+	private static final int PARALLEL_SIZE = 1 << 15;
+	/**
+	 * The cost of visiting a node relative to intersecting a triangle
+	 */
+	private static final float TRAVERSAL_COST = 1.0f;
+
+	//Input
+	/**
+	 * Bounding box of each triangle given as {MinX, MinY, MinZ, MaxX, MaxY, MaxZ}, in the same order as the triangles in the
+	 * order array. The boxes are moved together with the triangles, so each node reads its boxes one after another.
+	 */
+	private final float[] triangle_bounds;
+	private final boolean parallel;
+
+	//Output
+	/**
+	 * Triangles of the nodes, each leaf owns a range of this array
+	 */
+	final int[] Order;
+	/**
+	 * {First, Count} of each node, First is the left child of a pair if Count is 0 or the first triangle in the order otherwise
+	 */
+	final int[] Nodes;
+	/**
+	 * {MinX, MinY, MinZ, MaxX, MaxY, MaxZ} of each node
+	 */
+	final float[] Node_bounds;
+	/**
+	 * Number of nodes allocated
+	 */
+	final AtomicInteger Node_size;
+
+	//Range of the task
+	private final int root, begin, end;
+
+	/**
+	 * Initialise the builder of the whole tree
+	 * @param Position The vertices given as {X0, Y0, Z0, X1, ...}
+	 * @param Index The vertex index of each face, three for each face
+	 * @param FaceSize The number of faces
+	 * @param Parallel True if the subtrees can be built by other tasks
+	 */
+	GLBVHBuilder(float[] Position, int[] Index, int FaceSize, boolean Parallel){
+		triangle_bounds = new float[6 * FaceSize];
+		for(int f = 0; f < FaceSize; f++) {
+			for(int axis = 0; axis < 3; axis++) {
+				final float a = Position[3 * Index[3 * f] + axis], b = Position[3 * Index[3 * f + 1] + axis], c = Position[3 * Index[3 * f + 2] + axis];
+				triangle_bounds[6 * f + axis] = Math.min(a, Math.min(b, c));
+				triangle_bounds[6 * f + 3 + axis] = Math.max(a, Math.max(b, c));
+			}
+		}
+		parallel = Parallel;
+		Order = new int[FaceSize];
+		for(int f = 0; f < FaceSize; f++) {
+			Order[f] = f;
+		}
+		//a binary tree with one triangle in each leaf has 2 * FaceSize - 1 nodes
+		final int capacity = Math.max(1, 2 * FaceSize - 1);
+		Nodes = new int[2 * capacity];
+		Node_bounds = new float[6 * capacity];
+		Node_size = new AtomicInteger(1);
+		root = 0;
+		begin = 0;
+		end = FaceSize;
+	}
+
+	private GLBVHBuilder(GLBVHBuilder Parent, int Root, int Begin, int End) {
+		triangle_bounds = Parent.triangle_bounds;
+		parallel = Parent.parallel;
+		Order = Parent.Order;
+		Nodes = Parent.Nodes;
+		Node_bounds = Parent.Node_bounds;
+		Node_size = Parent.Node_size;
+		root = Root;
+		begin = Begin;
+		end = End;
+	}
+
+	@Override
+	protected void compute() {
+		//Variables
+		final ArrayList<GLBVHBuilder> forked = new ArrayList<GLBVHBuilder>(0);
+		final int[] bin_count = new int[3 * BINS];
+		final float[] bin_bounds = new float[18 * BINS];
+		final float[] right_area = new float[BINS];
+		final float[] centroid_bounds = new float[9];//{min, max, bins per unit} of the centroids on each axis
+		final int[] split = new int[2];//{axis, bin}
+		int[] stack = new int[3 * 64];//{node, begin, end} of the nodes to be built
+		int size = 0;
+		stack[size++] = root;
+		stack[size++] = begin;
+		stack[size++] = end;
+
+		while(size != 0) {
+			final int to = stack[--size], from = stack[--size], node = stack[--size];
+
+			final float area = setBounds(node, from, to, centroid_bounds);
+			final int count = to - from;
+			final float leaf_cost = count;
+			float split_cost = Float.POSITIVE_INFINITY;
+			if(count > 1) {
+				split_cost = TRAVERSAL_COST + findSplit(from, to, centroid_bounds, bin_count, bin_bounds, right_area, split) / area;
+			}
+			if(count <= 1 || count <= GLBVH.MAX_LEAF_SIZE && !(split_cost < leaf_cost)) {
+				Nodes[2 * node] = from;
+				Nodes[2 * node + 1] = count;
+				continue;
+			}
+
+			int middle;
+			if(split_cost < Float.POSITIVE_INFINITY) {
+				middle = partition(from, to, split[0], split[1], centroid_bounds);
+			}else {//all centroids are at the same place, the triangles are split in half
+				middle = (from + to) >>> 1;
+			}
+			if(middle == from || middle == to) {
+				middle = (from + to) >>> 1;
+			}
+			final int child = Node_size.getAndAdd(2);
+			Nodes[2 * node] = child;
+			Nodes[2 * node + 1] = 0;
+			if(size + 6 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			if(parallel && to - middle >= PARALLEL_SIZE) {
+				final GLBVHBuilder task = new GLBVHBuilder(this, child + 1, middle, to);
+				task.fork();
+				forked.add(task);
+			}else {
+				stack[size++] = child + 1;
+				stack[size++] = middle;
+				stack[size++] = to;
+			}
+			stack[size++] = child;
+			stack[size++] = from;
+			stack[size++] = middle;
+		}
+		for(GLBVHBuilder task : forked) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Find the bounding box of the triangles of a node and the bounding box of their centroids
+	 * @param Centroid The array to be written with {MinX, MinY, MinZ, MaxX, MaxY, MaxZ} of the centroids and the number of bins
+	 * per unit length on each axis, zero if the centroids cannot be split on the axis
+	 * @return The surface area of the node
+	 */
+	private float setBounds(int Node, int From, int To, float[] Centroid) {
+		//Variables
+		float minx = Float.POSITIVE_INFINITY, miny = Float.POSITIVE_INFINITY, minz = Float.POSITIVE_INFINITY;
+		float maxx = Float.NEGATIVE_INFINITY, maxy = Float.NEGATIVE_INFINITY, maxz = Float.NEGATIVE_INFINITY;
+		float cminx = Float.POSITIVE_INFINITY, cminy = Float.POSITIVE_INFINITY, cminz = Float.POSITIVE_INFINITY;
+		float cmaxx = Float.NEGATIVE_INFINITY, cmaxy = Float.NEGATIVE_INFINITY, cmaxz = Float.NEGATIVE_INFINITY;
+		for(int i = From; i < To; i++) {
+			final int t = 6 * i;
+			final float x0 = triangle_bounds[t], y0 = triangle_bounds[t + 1], z0 = triangle_bounds[t + 2];
+			final float x1 = triangle_bounds[t + 3], y1 = triangle_bounds[t + 4], z1 = triangle_bounds[t + 5];
+			minx = Math.min(minx, x0);
+			miny = Math.min(miny, y0);
+			minz = Math.min(minz, z0);
+			maxx = Math.max(maxx, x1);
+			maxy = Math.max(maxy, y1);
+			maxz = Math.max(maxz, z1);
+			cminx = Math.min(cminx, x0 + x1);
+			cminy = Math.min(cminy, y0 + y1);
+			cminz = Math.min(cminz, z0 + z1);
+			cmaxx = Math.max(cmaxx, x0 + x1);
+			cmaxy = Math.max(cmaxy, y0 + y1);
+			cmaxz = Math.max(cmaxz, z0 + z1);
+		}
+		Node_bounds[6 * Node] = minx;
+		Node_bounds[6 * Node + 1] = miny;
+		Node_bounds[6 * Node + 2] = minz;
+		Node_bounds[6 * Node + 3] = maxx;
+		Node_bounds[6 * Node + 4] = maxy;
+		Node_bounds[6 * Node + 5] = maxz;
+		Centroid[0] = cminx;
+		Centroid[1] = cminy;
+		Centroid[2] = cminz;
+		Centroid[3] = cmaxx;
+		Centroid[4] = cmaxy;
+		Centroid[5] = cmaxz;
+		for(int axis = 0; axis < 3; axis++) {
+			final float extent = Centroid[axis + 3] - Centroid[axis];
+			Centroid[axis + 6] = extent > 0.0f ? BINS / extent : 0.0f;
+		}
+		return getArea(maxx - minx, maxy - miny, maxz - minz);
+	}
+
+	private static float getArea(float x, float y, float z) {
+		return x * y + y * z + z * x;
+	}
+
+	/**
+	 * Put the centroids into bins along each axis and find the bin boundary with the smallest cost
+	 * @param Split The array to be written with {axis, first bin of the right child}
+	 * @return The sum of the area times the number of triangles of both children, infinity if the centroids cannot be split
+	 */
+	private float findSplit(int From, int To, float[] Centroid, int[] Count, float[] Bounds, float[] Right, int[] Split) {
+		//Variables
+		float best = Float.POSITIVE_INFINITY;
+		for(int i = 0; i < 3 * BINS; i++) {
+			Count[i] = 0;
+			for(int axis = 0; axis < 3; axis++) {
+				Bounds[6 * i + axis] = Float.POSITIVE_INFINITY;
+				Bounds[6 * i + 3 + axis] = Float.NEGATIVE_INFINITY;
+			}
+		}
+		for(int i = From; i < To; i++) {
+			final int t = 6 * i;
+			final float x0 = triangle_bounds[t], y0 = triangle_bounds[t + 1], z0 = triangle_bounds[t + 2];
+			final float x1 = triangle_bounds[t + 3], y1 = triangle_bounds[t + 4], z1 = triangle_bounds[t + 5];
+			for(int axis = 0; axis < 3; axis++) {
+				if(Centroid[axis + 6] == 0.0f) {
+					continue;
+				}
+				final int b = axis * BINS + getBin(triangle_bounds[t + axis] + triangle_bounds[t + 3 + axis], Centroid[axis], Centroid[axis + 6]);
+				final int k = 6 * b;
+				Count[b]++;
+				Bounds[k] = Math.min(Bounds[k], x0);
+				Bounds[k + 1] = Math.min(Bounds[k + 1], y0);
+				Bounds[k + 2] = Math.min(Bounds[k + 2], z0);
+				Bounds[k + 3] = Math.max(Bounds[k + 3], x1);
+				Bounds[k + 4] = Math.max(Bounds[k + 4], y1);
+				Bounds[k + 5] = Math.max(Bounds[k + 5], z1);
+			}
+		}
+
+		for(int axis = 0; axis < 3; axis++) {
+			if(Centroid[axis + 6] == 0.0f) {
+				continue;
+			}
+			//sweep from the right to find the area of the right child of each boundary
+			float minx = Float.POSITIVE_INFINITY, miny = Float.POSITIVE_INFINITY, minz = Float.POSITIVE_INFINITY;
+			float maxx = Float.NEGATIVE_INFINITY, maxy = Float.NEGATIVE_INFINITY, maxz = Float.NEGATIVE_INFINITY;
+			for(int b = BINS - 1; b > 0; b--) {
+				final int i = 6 * (axis * BINS + b);
+				minx = Math.min(minx, Bounds[i]);
+				miny = Math.min(miny, Bounds[i + 1]);
+				minz = Math.min(minz, Bounds[i + 2]);
+				maxx = Math.max(maxx, Bounds[i + 3]);
+				maxy = Math.max(maxy, Bounds[i + 4]);
+				maxz = Math.max(maxz, Bounds[i + 5]);
+				Right[b] = maxx >= minx ? getArea(maxx - minx, maxy - miny, maxz - minz) : 0.0f;
+			}
+			//sweep from the left and combine
+			minx = Float.POSITIVE_INFINITY;
+			miny = Float.POSITIVE_INFINITY;
+			minz = Float.POSITIVE_INFINITY;
+			maxx = Float.NEGATIVE_INFINITY;
+			maxy = Float.NEGATIVE_INFINITY;
+			maxz = Float.NEGATIVE_INFINITY;
+			int left = 0;
+			for(int b = 0; b < BINS - 1; b++) {
+				final int i = 6 * (axis * BINS + b);
+				minx = Math.min(minx, Bounds[i]);
+				miny = Math.min(miny, Bounds[i + 1]);
+				minz = Math.min(minz, Bounds[i + 2]);
+				maxx = Math.max(maxx, Bounds[i + 3]);
+				maxy = Math.max(maxy, Bounds[i + 4]);
+				maxz = Math.max(maxz, Bounds[i + 5]);
+				left += Count[axis * BINS + b];
+				final int right = To - From - left;
+				if(left == 0 || right == 0) {
+					continue;
+				}
+				final float cost = getArea(maxx - minx, maxy - miny, maxz - minz) * left + Right[b + 1] * right;
+				if(cost < best) {
+					best = cost;
+					Split[0] = axis;
+					Split[1] = b + 1;
+				}
+			}
+		}
+		return best;
+	}
+
+	private static int getBin(float Centroid, float Min, float Scale) {
+		return Math.min(BINS - 1, (int)((Centroid - Min) * Scale));
+	}
+
+	/**
+	 * Move the triangles which centroids are in the bins before the split to the front of the range
+	 * @return The first triangle of the right child
+	 */
+	private int partition(int From, int To, int Axis, int Bin, float[] Centroid) {
+		//Variables
+		final float scale = Centroid[Axis + 6];
+		int i = From, j = To - 1;
+		while(i <= j) {
+			final int t = 6 * i;
+			if(getBin(triangle_bounds[t + Axis] + triangle_bounds[t + 3 + Axis], Centroid[Axis], scale) < Bin) {
+				i++;
+			}else {
+				final int swap = Order[i];
+				Order[i] = Order[j];
+				Order[j] = swap;
+				for(int k = 0; k < 6; k++) {
+					final float bound = triangle_bounds[t + k];
+					triangle_bounds[t + k] = triangle_bounds[6 * j + k];
+					triangle_bounds[6 * j + k] = bound;
+				}
+				j--;
+			}
+		}
+		return i;
+	}
+
+}
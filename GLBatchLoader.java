@@ -0,0 +1,404 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GLBatchLoader imports many obj files at the same time. Each model is imported in two steps: the obj file and the material library
+ * declared in it are read by a fixed number of read threads, then the meshes are post processed by a fixed number of post processing
+ * threads, so slow disks and expensive post processing can be bounded separately. A model which has been read waits for a post
+ * processing thread, and no more models are read while too many are waiting, so the memory used does not grow with the number of files.
+ * <p>
+ * The results are given by {@link #take()} in the order the models complete. A model which cannot be imported gives a result with
+ * its exception, the other models are still imported. Every model is imported with {@link GLModelLoader#READER_CHANNEL}, the other
+ * settings can be given to the loader of each model by a {@link Configurator}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLBatchLoader {
+	//Constant
+	/**
+	 * The number of models which can wait for each post processing thread after they are read
+	 */
+	private static final int PENDING_PER_THREAD = 2;
+
+	//Variables
+	private final int size;
+	private final ExecutorService reader, processor;
+	/**
+	 * The permits of the models being read or waiting to be post processed
+	 */
+	private final Semaphore pending;
+	/**
+	 * The results in the order they complete
+	 */
+	private final LinkedBlockingQueue<Result> completed = new LinkedBlockingQueue<Result>();
+	/**
+	 * The number of results which have not been taken, including the models still being imported
+	 */
+	private final AtomicInteger untaken;
+	private final AtomicInteger finished = new AtomicInteger(), failed = new AtomicInteger();
+	private final AtomicLong bytes = new AtomicLong(), read_time = new AtomicLong(), post_process_time = new AtomicLong();
+	private final long start_time = System.nanoTime();
+	private volatile long end_time = 0L;
+
+	/**
+	 * Configurator changes the settings of the loader of each model in the batch, such as the post processing types.
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	public interface Configurator {
+
+		/**
+		 * Called on a read thread before the model is imported, it can be called by several threads at the same time
+		 * @param Loader The loader of the model, it should not import the model or be dumped
+		 * @throws GLModelLoadingException If a setting cannot be applied, the model fails with the exception
+		 */
+		public abstract void configure(GLModelLoader Loader) throws GLModelLoadingException;
+	}
+
+	/**
+	 * The result of one model in the batch
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	public static final class Result {
+		private final File Obj;
+		private File Mtl = null;
+		private Mesh[] Meshes = null;
+		private Material[] Materials = null;
+		private GLTexturePrefetcher Textures = null;
+		private GLModelLoadingException Error = null;
+		private long Bytes = 0L, ReadTime = 0L, PostProcessTime = 0L;
+
+		private Result(File obj) {
+			Obj = obj;
+		}
+
+		/**
+		 * @return The obj file
+		 */
+		public File getObj() {
+			return Obj;
+		}
+
+		/**
+		 * @return The material library declared in the obj file, null if there is none
+		 */
+		public File getMtl() {
+			return Mtl;
+		}
+
+		/**
+		 * @return The meshes in the obj file, null if the model failed
+		 */
+		public Mesh[] getMeshes() {
+			return Meshes;
+		}
+
+		/**
+		 * @return The materials in the material library, null if the obj file does not declare one or the model failed
+		 */
+		public Material[] getMaterials() {
+			return Materials;
+		}
+
+		/**
+		 * @return The textures of the materials, null if texture prefetch is not enabled by the configurator
+		 */
+		public GLTexturePrefetcher getTextures() {
+			return Textures;
+		}
+
+		/**
+		 * @return The exception which stopped the import of the model, null if the model is imported
+		 */
+		public GLModelLoadingException getError() {
+			return Error;
+		}
+
+		/**
+		 * @return True if the model is imported
+		 */
+		public boolean isSuccessful() {
+			return Error == null;
+		}
+
+		/**
+		 * @return The size in bytes of the obj file and the material library
+		 */
+		public long getBytes() {
+			return Bytes;
+		}
+
+		/**
+		 * @return The time in nanoseconds spent to read the obj file and the material library
+		 */
+		public long getReadTime() {
+			return ReadTime;
+		}
+
+		/**
+		 * @return The time in nanoseconds spent to post process the meshes
+		 */
+		public long getPostProcessTime() {
+			return PostProcessTime;
+		}
+	}
+
+	private GLBatchLoader(int Size, int ReadThreads, int PostProcessThreads){
+		size = Size;
+		untaken = new AtomicInteger(Size);
+		reader = Executors.newFixedThreadPool(ReadThreads, GLExecutors.getThreadFactory("GLBatchLoader-Read"));
+		processor = Executors.newFixedThreadPool(PostProcessThreads, GLExecutors.getThreadFactory("GLBatchLoader-PostProcess"));
+		pending = new Semaphore(ReadThreads + PENDING_PER_THREAD * PostProcessThreads);
+	}
+
+	/**
+	 * Start importing the obj files. The method returns at once, the results are given by {@link #take()}.
+	 * The material library of each model is the mtl file declared in the obj file, found relative to the folder of the obj file.
+	 * @param ObjFiles The obj files
+	 * @param ReadThreads The number of models read at the same time
+	 * @param PostProcessThreads The number of models post processed at the same time
+	 * @param Configurator The settings of each loader, null to use the default settings
+	 * @return The batch
+	 * @throws GLModelLoadingException If a number of threads is less than one
+	 */
+	public static GLBatchLoader start(Collection<File> ObjFiles, int ReadThreads, int PostProcessThreads, Configurator Configurator) throws GLModelLoadingException{
+		if(ReadThreads < 1 || PostProcessThreads < 1) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Number Of Threads Must Be At Least One", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//Variables
+		final ArrayList<File> files = new ArrayList<File>(ObjFiles);
+		final GLBatchLoader batch = new GLBatchLoader(files.size(), ReadThreads, PostProcessThreads);
+		for(final File file : files) {
+			batch.reader.execute(new Runnable() {
+				@Override
+				public void run() {
+					batch.read(file, Configurator);
+				}
+			});
+		}
+		batch.reader.shutdown();//the threads stop after the submitted models
+		if(files.isEmpty()) {
+			batch.processor.shutdown();
+			batch.end_time = System.nanoTime();
+		}
+		return batch;
+	}
+
+	/**
+	 * Read a model and give it to a post processing thread
+	 * @param Obj The obj file
+	 * @param Configurator The settings of the loader, null to use the default settings
+	 */
+	private void read(File Obj, Configurator Configurator) {
+		//Variables
+		final Result result = new Result(Obj);
+		GLModelImporter importer = null;
+		ArrayList<Mesh> raw = null;
+
+		pending.acquireUninterruptibly();
+		final long time = System.nanoTime();
+		try {
+			importer = new GLModelImporter(Obj, GLModelLoader.READER_CHANNEL);
+			if(Configurator != null) {
+				Configurator.configure(importer);
+			}
+			result.Meshes = importer.ImportWaveFrontObjCache();
+			if(result.Meshes == null) {
+				raw = importer.ReadWaveFrontObj();
+			}
+			result.Bytes = Obj.length();
+			if(importer.getMtl() != null) {
+				final File mtl = new File(importer.getMtl());
+				result.Mtl = mtl.isAbsolute() ? mtl : new File(Obj.getAbsoluteFile().getParentFile(), importer.getMtl());
+				importer.openMtl(result.Mtl);
+				result.Materials = importer.ImportWaveFrontMtl();
+				result.Textures = importer.getTextures();
+				result.Bytes += result.Mtl.length();
+			}
+		}catch(Throwable th) {
+			fail(result, th);
+		}finally {
+			result.ReadTime = System.nanoTime() - time;
+			read_time.addAndGet(result.ReadTime);
+			if(importer != null) {
+				try {
+					importer.dump();
+				}catch(GLModelLoadingException e) {
+					//the files have been read, an error when closing them does not fail the model
+				}
+			}
+		}
+
+		if(raw == null || result.Error != null) {//the meshes are in the cache file or the model failed
+			pending.release();
+			complete(result);
+			return;
+		}
+		final GLModelImporter loader = importer;
+		final ArrayList<Mesh> meshes = raw;
+		processor.execute(new Runnable() {
+			@Override
+			public void run() {
+				postProcess(result, loader, meshes);
+			}
+		});
+	}
+
+	/**
+	 * Post process a model which has been read
+	 * @param Model The result of the model
+	 * @param Importer The importer which read the model
+	 * @param Raw_data The meshes before post processing
+	 */
+	private void postProcess(Result Model, GLModelImporter Importer, ArrayList<Mesh> Raw_data) {
+		final long time = System.nanoTime();
+		try {
+			Model.Meshes = Importer.PostProcessWaveFrontObj(Raw_data);
+		}catch(Throwable th) {
+			fail(Model, th);
+		}finally {
+			Model.PostProcessTime = System.nanoTime() - time;
+			post_process_time.addAndGet(Model.PostProcessTime);
+			pending.release();
+		}
+		complete(Model);
+	}
+
+	/**
+	 * Record the exception of a failed model
+	 * @param Model The result of the model
+	 * @param Error The exception
+	 */
+	private static void fail(Result Model, Throwable Error) {
+		Model.Meshes = null;
+		Model.Materials = null;
+		Model.Textures = null;
+		Model.Error = Error instanceof GLModelLoadingException ? (GLModelLoadingException)Error
+				: new GLModelLoadingException(Error.getMessage(), Error.getCause(), Error.getStackTrace(), Error.getClass().getSimpleName());
+	}
+
+	/**
+	 * Give the result of a model to {@link #take()}
+	 * @param Model The result of the model
+	 */
+	private void complete(Result Model) {
+		if(Model.Error != null) {
+			failed.incrementAndGet();
+		}else {
+			bytes.addAndGet(Model.Bytes);
+		}
+		if(finished.incrementAndGet() == size) {
+			end_time = System.nanoTime();
+			processor.shutdown();
+		}
+		completed.add(Model);
+	}
+
+	/**
+	 * Get the next model which completes, waiting if no model has completed yet. Each result is given once.
+	 * @return The result of the model, null if the results of all models have been taken
+	 * @throws InterruptedException If the thread is interrupted while waiting
+	 */
+	public Result take() throws InterruptedException{
+		int count;
+		do {
+			count = untaken.get();
+			if(count == 0) {
+				return null;
+			}
+		}while(!untaken.compareAndSet(count, count - 1));
+		try {
+			return completed.take();
+		}catch(InterruptedException e) {
+			untaken.incrementAndGet();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return True if all models have completed
+	 */
+	public boolean isDone() {
+		return finished.get() == size;
+	}
+
+	/**
+	 * @return The number of models in the batch
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * @return The number of models which have completed, including the failed models
+	 */
+	public int getCompleted() {
+		return finished.get();
+	}
+
+	/**
+	 * @return The number of models which have failed
+	 */
+	public int getFailed() {
+		return failed.get();
+	}
+
+	/**
+	 * @return The size in bytes of the obj files and material libraries of the imported models
+	 */
+	public long getBytes() {
+		return bytes.get();
+	}
+
+	/**
+	 * @return The time in nanoseconds from the start of the batch until all models completed, or until now if it is not done
+	 */
+	public long getElapsedTime() {
+		final long end = end_time;
+		return (end != 0L ? end : System.nanoTime()) - start_time;
+	}
+
+	/**
+	 * @return The number of bytes of the imported models per second
+	 */
+	public double getThroughput() {
+		return getBytes() * 1e9 / Math.max(1L, getElapsedTime());
+	}
+
+	/**
+	 * @return The number of completed models per second, including the failed models
+	 */
+	public double getModelThroughput() {
+		return getCompleted() * 1e9 / Math.max(1L, getElapsedTime());
+	}
+
+	/**
+	 * @return The time in nanoseconds spent by all read threads, it can be compared with {@link #getPostProcessTime()} to choose
+	 * the numbers of threads
+	 */
+	public long getReadTime() {
+		return read_time.get();
+	}
+
+	/**
+	 * @return The time in nanoseconds spent by all post processing threads
+	 */
+	public long getPostProcessTime() {
+		return post_process_time.get();
+	}
+
+}
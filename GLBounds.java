@@ -0,0 +1,175 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+/**
+ * GLBounds stores the axis aligned bounding box and the bounding sphere of the vertices of a mesh. The bounds are updated
+ * when each vertex is added, so they are ready when the import finishes without another pass over the vertices.
+ * The sphere is grown in the way of Ritter: when a vertex is outside, the sphere is moved towards the vertex and enlarged just
+ * enough to contain both the old sphere and the vertex. The sphere around the bounding box is given instead when it is smaller,
+ * which is usually the case for boxy meshes.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLBounds {
+	//Variables
+	private float MinX = Float.POSITIVE_INFINITY, MinY = Float.POSITIVE_INFINITY, MinZ = Float.POSITIVE_INFINITY;
+	private float MaxX = Float.NEGATIVE_INFINITY, MaxY = Float.NEGATIVE_INFINITY, MaxZ = Float.NEGATIVE_INFINITY;
+	private float CentreX = 0.0f, CentreY = 0.0f, CentreZ = 0.0f;
+	/**
+	 * Radius of the sphere, -1 if there is no vertex
+	 */
+	private float Radius = -1.0f;
+
+	/**
+	 * Initialise empty bounds
+	 */
+	GLBounds(){
+
+	}
+
+	/**
+	 * Enlarge the bounds to contain a vertex
+	 * @param x X component of the vertex
+	 * @param y Y component of the vertex
+	 * @param z Z component of the vertex
+	 */
+	void add(float x, float y, float z) {
+		MinX = Math.min(MinX, x);
+		MinY = Math.min(MinY, y);
+		MinZ = Math.min(MinZ, z);
+		MaxX = Math.max(MaxX, x);
+		MaxY = Math.max(MaxY, y);
+		MaxZ = Math.max(MaxZ, z);
+
+		if(Radius < 0.0f) {//the first vertex
+			CentreX = x;
+			CentreY = y;
+			CentreZ = z;
+			Radius = 0.0f;
+			return;
+		}
+		final double dx = (double)x - CentreX, dy = (double)y - CentreY, dz = (double)z - CentreZ;
+		final double squared = dx * dx + dy * dy + dz * dz;
+		if(!(squared > (double)Radius * Radius)) {//inside, or not a number
+			return;
+		}
+		final double distance = Math.sqrt(squared);
+		final double radius = 0.5 * (Radius + distance);
+		final double shift = (radius - Radius) / distance;
+		final float cx = (float)(CentreX + dx * shift), cy = (float)(CentreY + dy * shift), cz = (float)(CentreZ + dz * shift);
+		//the centre is rounded to float, so the radius is found again from the rounded centre to still contain everything
+		final double ox = (double)cx - CentreX, oy = (double)cy - CentreY, oz = (double)cz - CentreZ;
+		final double px = (double)x - cx, py = (double)y - cy, pz = (double)z - cz;
+		final double needed = Math.max(Math.sqrt(ox * ox + oy * oy + oz * oz) + Radius, Math.sqrt(px * px + py * py + pz * pz));
+		CentreX = cx;
+		CentreY = cy;
+		CentreZ = cz;
+		Radius = Math.nextUp((float)needed);
+	}
+
+	/**
+	 * Enlarge the bounds to contain a number of vertices
+	 * @param Source The vertices given as {X0, Y0, Z0, X1, ...}
+	 * @param Index The position of the first vertex in the source
+	 * @param Count The number of vertices
+	 */
+	void add(float[] Source, int Index, int Count) {
+		for(int i = 3 * Index; i < 3 * (Index + Count); i += 3) {
+			add(Source[i], Source[i + 1], Source[i + 2]);
+		}
+	}
+
+	/**
+	 * Copy the bounds of another mesh which has the same vertices
+	 * @param Source The bounds to be copied
+	 */
+	void set(GLBounds Source) {
+		set(Source.toArray());
+	}
+
+	/**
+	 * Set the bounds from the values given by {@link #toArray()}
+	 * @param Data {MinX, MinY, MinZ, MaxX, MaxY, MaxZ, CentreX, CentreY, CentreZ, Radius}
+	 */
+	void set(float[] Data) {
+		MinX = Data[0];
+		MinY = Data[1];
+		MinZ = Data[2];
+		MaxX = Data[3];
+		MaxY = Data[4];
+		MaxZ = Data[5];
+		CentreX = Data[6];
+		CentreY = Data[7];
+		CentreZ = Data[8];
+		Radius = Data[9];
+	}
+
+	/**
+	 * Check if the bounds contain any vertex
+	 * @return True if no vertex has been added
+	 */
+	public boolean isEmpty() {
+		return Radius < 0.0f;
+	}
+
+	/**
+	 * Get the corner of the bounding box with the smallest components
+	 * @return The minimum of each component, positive infinity if there is no vertex
+	 */
+	public GLVector3 getMin() {
+		return new GLVector3(MinX, MinY, MinZ);
+	}
+
+	/**
+	 * Get the corner of the bounding box with the largest components
+	 * @return The maximum of each component, negative infinity if there is no vertex
+	 */
+	public GLVector3 getMax() {
+		return new GLVector3(MaxX, MaxY, MaxZ);
+	}
+
+	/**
+	 * Get the centre of the bounding sphere
+	 * @return The centre of the sphere, which may not be the centre of the bounding box
+	 */
+	public GLVector3 getCentre() {
+		final float[] sphere = getSphere();
+		return new GLVector3(sphere[0], sphere[1], sphere[2]);
+	}
+
+	/**
+	 * Get the radius of the bounding sphere
+	 * @return The radius, -1 if there is no vertex
+	 */
+	public float getRadius() {
+		return getSphere()[3];
+	}
+
+	/**
+	 * Get all bounds in one array
+	 * @return {MinX, MinY, MinZ, MaxX, MaxY, MaxZ, CentreX, CentreY, CentreZ, Radius}
+	 */
+	public float[] toArray() {
+		final float[] sphere = getSphere();
+		return new float[] {MinX, MinY, MinZ, MaxX, MaxY, MaxZ, sphere[0], sphere[1], sphere[2], sphere[3]};
+	}
+
+	/**
+	 * Choose the smaller one of the grown sphere and the sphere around the bounding box
+	 * @return {CentreX, CentreY, CentreZ, Radius}
+	 */
+	private float[] getSphere() {
+		if(Radius <= 0.0f) {
+			return new float[] {CentreX, CentreY, CentreZ, Radius};
+		}
+		final float cx = (float)(0.5 * ((double)MinX + MaxX)), cy = (float)(0.5 * ((double)MinY + MaxY)), cz = (float)(0.5 * ((double)MinZ + MaxZ));
+		//the farthest corner of the box from the rounded centre
+		final double dx = Math.max((double)MaxX - cx, (double)cx - MinX), dy = Math.max((double)MaxY - cy, (double)cy - MinY);
+		final double dz = Math.max((double)MaxZ - cz, (double)cz - MinZ);
+		final float radius = Math.nextUp((float)Math.sqrt(dx * dx + dy * dy + dz * dz));
+		return radius < Radius ? new float[] {cx, cy, cz, radius} : new float[] {CentreX, CentreY, CentreZ, Radius};
+	}
+
+}
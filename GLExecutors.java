@@ -0,0 +1,70 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * GLExecutors gives the threads used by the asynchronous imports. The default executor runs each import on its own virtual thread
+ * when the java runtime supports them (java 21 or later), so an import waiting for the disk does not hold a platform thread.
+ * Older runtimes use a shared pool of daemon threads instead. The threads are daemon threads so they never keep the application alive.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLExecutors {
+
+	/**
+	 * The default executor is only created when the first asynchronous import is started
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	private static final class Default{
+		private static final Executor EXECUTOR = create();
+	}
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLExecutors() {
+
+	}
+
+	/**
+	 * @return The executor of the asynchronous imports when the user does not give one
+	 */
+	static Executor getDefault() {
+		return Default.EXECUTOR;
+	}
+
+	/**
+	 * Get a factory of daemon threads
+	 * @param Name The name of the threads
+	 * @return The thread factory
+	 */
+	static ThreadFactory getThreadFactory(final String Name) {
+		return new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable Task) {
+				final Thread thread = new Thread(Task, Name);
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+	}
+
+	/**
+	 * Create the executor of virtual threads, the method is found by reflection so the library still runs on older java
+	 * @return The executor of virtual threads, or a cached pool of daemon threads if virtual threads are not supported
+	 */
+	private static Executor create() {
+		try {
+			return (Executor)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}catch(ReflectiveOperationException | RuntimeException e) {//not found, or a preview feature which is not enabled
+			return Executors.newCachedThreadPool(getThreadFactory("GLModelLoader"));
+		}
+	}
+
+}
@@ -0,0 +1,133 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of float, elements are stored in a primitive array so no object is created for each element.
+ * Vectors are stored as consecutive components, for example {X0, Y0, Z0, X1, Y1, Z1, ...}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLFloatArray {
+	//Variables
+	private float[] data;
+	private int size = 0;
+
+	/**
+	 * Initialise an empty array
+	 */
+	GLFloatArray(){
+		this(48);
+	}
+
+	/**
+	 * Initialise an empty array
+	 * @param Capacity The number of floats that can be stored before growing
+	 */
+	GLFloatArray(int Capacity){
+		data = new float[Math.max(Capacity, 3)];
+	}
+
+	/**
+	 * Add a vector of three components to the end of the array
+	 * @param x X component of a vector
+	 * @param y Y component of a vector
+	 * @param z Z component of a vector
+	 */
+	void add(float x, float y, float z) {
+		if(size + 3 > data.length) {
+			grow(size + 3);
+		}
+		data[size] = x;
+		data[size + 1] = y;
+		data[size + 2] = z;
+		size += 3;
+	}
+
+	/**
+	 * Add a range of floats to the end of the array
+	 * @param Source The floats to be added
+	 * @param Offset The index of the first float in the source
+	 * @param Length The number of floats to be added
+	 */
+	void add(float[] Source, int Offset, int Length) {
+		if(size + Length > data.length) {
+			grow(size + Length);
+		}
+		System.arraycopy(Source, Offset, data, size, Length);
+		size += Length;
+	}
+
+	/**
+	 * Get one float from the array
+	 * @param Index The index of the float
+	 * @return The float
+	 * @throws IndexOutOfBoundsException If the index is out of range
+	 */
+	float get(int Index) throws IndexOutOfBoundsException{
+		if(Index < 0 || Index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + Index + ", Size: " + size);
+		}
+		return data[Index];
+	}
+
+	/**
+	 * Get the vector at the given position as a GLVector3
+	 * @param Index The position of the vector(not the position of the float)
+	 * @return The vector
+	 * @throws IndexOutOfBoundsException If the index is out of range
+	 */
+	GLVector3 getVector3(int Index) throws IndexOutOfBoundsException{
+		if(Index < 0 || 3 * Index + 2 >= size) {
+			throw new IndexOutOfBoundsException("Index: " + Index + ", Size: " + size / 3);
+		}
+		return new GLVector3(data[3 * Index], data[3 * Index + 1], data[3 * Index + 2]);
+	}
+
+	/**
+	 * @return The number of floats in the array
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all floats, the capacity is kept
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Get the backing array, only the first {@link #size()} floats are valid.
+	 * The returned array must be got again after adding new floats.
+	 * @return The backing array
+	 */
+	float[] array() {
+		return data;
+	}
+
+	/**
+	 * @return A copy of the floats in the array with the exact length
+	 */
+	float[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	/**
+	 * Release the unused capacity
+	 */
+	void trim() {
+		if(data.length > size) {
+			data = Arrays.copyOf(data, Math.max(size, 3));
+		}
+	}
+
+	private void grow(int MinCapacity) {
+		data = Arrays.copyOf(data, Math.max(MinCapacity, data.length + (data.length >> 1)));
+	}
+
+}
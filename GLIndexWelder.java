@@ -0,0 +1,104 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+/**
+ * GLIndexWelder merges the vertex/texture coordinate/normal index of each face corner into one index.
+ * Each unique combination of {vertex, texture coordinate, normal} index becomes one output vertex, so corners
+ * shared by several faces are only stored once and the index data is kept.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLIndexWelder {
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLIndexWelder() {
+
+	}
+
+	/**
+	 * Weld the index of the mesh
+	 * @param Raw_data The mesh which needs to be welded, the original mesh is not changed
+	 * @return The welded mesh. Vertex, texture coordinate and normal share the same index, or texture coordinate
+	 * and normal index are zero if the mesh does not contain them.
+	 * @throws IndexOutOfBoundsException If any index is out of range
+	 */
+	static Mesh weld(Mesh Raw_data) throws IndexOutOfBoundsException{
+		//Variables
+		final Mesh returning = new Mesh();
+		final int corners = 3 * Raw_data.getFaceSize();
+		final int[] vertex = Raw_data.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+		final int[] texture = Raw_data.getIndexArray(Mesh.GLModelDataType.TextureCoordinates).array();
+		final int[] normal = Raw_data.getIndexArray(Mesh.GLModelDataType.Normals).array();
+		final boolean has_texture = Raw_data.getTextureCoordinateSize() != 0;
+		final boolean has_normal = Raw_data.getNormalSize() != 0;
+		//open addressing hash table, each slot stores the output index + 1, 0 means empty
+		final int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, corners)) << 2)];
+		final int mask = table.length - 1;
+		//the first corner of each output vertex, used to compare the keys
+		final int[] first_corner = new int[corners];
+		final int[] remap = new int[corners];
+		int unique = 0;
+
+		for(int c = 0; c < corners; c++) {
+			final int v = vertex[c];
+			final int t = has_texture ? texture[c] : 0;
+			final int n = has_normal ? normal[c] : 0;
+			int slot = hash(v, t, n) & mask;
+			while(true) {
+				final int stored = table[slot];
+				if(stored == 0) {//a new combination
+					first_corner[unique] = c;
+					table[slot] = ++unique;
+					remap[c] = unique - 1;
+					break;
+				}
+				final int other = first_corner[stored - 1];
+				if(vertex[other] == v && (!has_texture || texture[other] == t) && (!has_normal || normal[other] == n)) {
+					remap[c] = stored - 1;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+
+		//misc
+		returning.setMeshName(Raw_data.getMeshName());
+		returning.setMtl(Raw_data.getMtl());
+		returning.Index_Eliminated = true;
+		//vertex data in the order of their first appearance
+		final GLFloatArray vertices = Raw_data.getDataArray(Mesh.GLModelDataType.Vertices);
+		final GLFloatArray textures = Raw_data.getDataArray(Mesh.GLModelDataType.TextureCoordinates);
+		final GLFloatArray normals = Raw_data.getDataArray(Mesh.GLModelDataType.Normals);
+		for(int i = 0; i < unique; i++) {
+			final int c = first_corner[i];
+			returning.newVertex(vertices.get(3 * vertex[c]), vertices.get(3 * vertex[c] + 1), vertices.get(3 * vertex[c] + 2));
+			if(has_texture) {
+				returning.newTextureCoordinate(textures.get(3 * texture[c]), textures.get(3 * texture[c] + 1), textures.get(3 * texture[c] + 2));
+			}
+			if(has_normal) {
+				returning.newNormal(normals.get(3 * normal[c]), normals.get(3 * normal[c] + 1), normals.get(3 * normal[c] + 2));
+			}
+		}
+		//index
+		final int[] none = new int[corners];
+		returning.newFaces(remap, has_texture ? remap : none, has_normal ? remap : none, corners / 3);
+
+		return returning;
+	}
+
+	/**
+	 * Hash the index combination
+	 * @return The hash value
+	 */
+	private static int hash(int v, int t, int n) {
+		int h = v * 0x9E3779B1;
+		h = (h ^ (h >>> 15) ^ t) * 0x85EBCA77;
+		h = (h ^ (h >>> 13) ^ n) * 0xC2B2AE3D;
+		return h ^ (h >>> 16);
+	}
+
+}
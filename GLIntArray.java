@@ -0,0 +1,131 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of int, elements are stored in a primitive array so no object is created for each element.
+ * Indices of faces are stored as consecutive elements, for example {A0, B0, C0, A1, B1, C1, ...}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLIntArray {
+	//Variables
+	private int[] data;
+	private int size = 0;
+
+	/**
+	 * Initialise an empty array
+	 */
+	GLIntArray(){
+		this(48);
+	}
+
+	/**
+	 * Initialise an empty array
+	 * @param Capacity The number of ints that can be stored before growing
+	 */
+	GLIntArray(int Capacity){
+		data = new int[Math.max(Capacity, 3)];
+	}
+
+	/**
+	 * Add one int to the end of the array
+	 * @param x The int
+	 */
+	void add(int x) {
+		if(size + 1 > data.length) {
+			grow(size + 1);
+		}
+		data[size++] = x;
+	}
+
+	/**
+	 * Add three ints to the end of the array
+	 * @param x The first int
+	 * @param y The second int
+	 * @param z The third int
+	 */
+	void add(int x, int y, int z) {
+		if(size + 3 > data.length) {
+			grow(size + 3);
+		}
+		data[size] = x;
+		data[size + 1] = y;
+		data[size + 2] = z;
+		size += 3;
+	}
+
+	/**
+	 * Add a range of ints to the end of the array
+	 * @param Source The ints to be added
+	 * @param Offset The index of the first int in the source
+	 * @param Length The number of ints to be added
+	 */
+	void add(int[] Source, int Offset, int Length) {
+		if(size + Length > data.length) {
+			grow(size + Length);
+		}
+		System.arraycopy(Source, Offset, data, size, Length);
+		size += Length;
+	}
+
+	/**
+	 * Get one int from the array
+	 * @param Index The index of the int
+	 * @return The int
+	 * @throws IndexOutOfBoundsException If the index is out of range
+	 */
+	int get(int Index) throws IndexOutOfBoundsException{
+		if(Index < 0 || Index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + Index + ", Size: " + size);
+		}
+		return data[Index];
+	}
+
+	/**
+	 * @return The number of ints in the array
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Remove all ints, the capacity is kept
+	 */
+	void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Get the backing array, only the first {@link #size()} ints are valid.
+	 * The returned array must be got again after adding new ints.
+	 * @return The backing array
+	 */
+	int[] array() {
+		return data;
+	}
+
+	/**
+	 * @return A copy of the ints in the array with the exact length
+	 */
+	int[] toArray() {
+		return Arrays.copyOf(data, size);
+	}
+
+	/**
+	 * Release the unused capacity
+	 */
+	void trim() {
+		if(data.length > size) {
+			data = Arrays.copyOf(data, Math.max(size, 3));
+		}
+	}
+
+	private void grow(int MinCapacity) {
+		data = Arrays.copyOf(data, Math.max(MinCapacity, data.length + (data.length >> 1)));
+	}
+
+}
@@ -0,0 +1,187 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GLMaterialLibraryCache keeps the parsed material libraries in memory for the whole process, so obj files which use the same
+ * mtl file do not parse it again. A library is found by its canonical path, size and last modified time, a changed file is parsed
+ * again. The first import of a library parses it while the other imports of the same library wait for the result, so a library is
+ * never parsed twice at the same time. The least recently used libraries are evicted when there are more than the capacity.
+ * The materials are shared by every import of the library, they should not be modified.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLMaterialLibraryCache {
+	//Constant
+	/**
+	 * The number of libraries kept when the capacity is not set
+	 */
+	private static final int DEFAULT_CAPACITY = 64;
+
+	//Variables
+	private static int capacity = DEFAULT_CAPACITY;
+	private static final AtomicLong hits = new AtomicLong(), misses = new AtomicLong(), evictions = new AtomicLong();
+	/**
+	 * The parsed or parsing libraries in the order of use, guarded by itself
+	 */
+	private static final LinkedHashMap<Key, CompletableFuture<Material[]>> libraries = new LinkedHashMap<Key, CompletableFuture<Material[]>>(16, 0.75f, true) {
+		/**
+		 * Serial Number
+		 */
+		private static final long serialVersionUID = 0x6d746c63L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, CompletableFuture<Material[]>> Eldest) {
+			if(size() > capacity) {
+				evictions.incrementAndGet();
+				return true;
+			}
+			return false;
+		}
+	};
+
+	/**
+	 * The key of a library
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	private static final class Key{
+		private final String Path;
+		private final long Size, Modified;
+
+		private Key(File Source) {
+			String path;
+			try {
+				path = Source.getCanonicalPath();
+			}catch(IOException e) {
+				path = Source.getAbsolutePath();
+			}
+			Path = path;
+			Size = Source.length();
+			Modified = Source.lastModified();
+		}
+
+		@Override
+		public boolean equals(Object Other) {
+			if(!(Other instanceof Key)) {
+				return false;
+			}
+			final Key key = (Key)Other;
+			return Path.equals(key.Path) && Size == key.Size && Modified == key.Modified;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * (31 * Path.hashCode() + Long.hashCode(Size)) + Long.hashCode(Modified);
+		}
+	}
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLMaterialLibraryCache() {
+
+	}
+
+	/**
+	 * Get the materials of a library, the library is parsed by the importer if it is not in the cache
+	 * @param Source The mtl file
+	 * @param Importer The importer which has opened the mtl file, it parses the file when the library is not in the cache
+	 * @return The materials of the library
+	 * @throws GLModelLoadingException If the library cannot be parsed, the same exception is thrown to every import waiting for it
+	 */
+	static Material[] get(File Source, GLModelImporter Importer) throws GLModelLoadingException{
+		//Variables
+		final Key key = new Key(Source);
+		final CompletableFuture<Material[]> created = new CompletableFuture<Material[]>();
+		CompletableFuture<Material[]> existing;
+		synchronized(libraries) {
+			existing = libraries.get(key);
+			if(existing == null && capacity > 0) {
+				libraries.put(key, created);
+			}
+		}
+
+		if(existing != null) {
+			hits.incrementAndGet();
+			try {
+				return existing.join().clone();
+			}catch(CancellationException e) {//the import parsing it has been cancelled and the entry removed, so it is parsed again
+				return get(Source, Importer);
+			}catch(CompletionException e) {
+				if(e.getCause() instanceof GLModelLoadingException) {
+					throw (GLModelLoadingException)e.getCause();
+				}
+				throw new GLModelLoadingException("Material Library Cannot Be Parsed", e.getCause(), e.getStackTrace(), "CompletionException");
+			}
+		}
+		misses.incrementAndGet();
+		try {
+			final Material[] materials = Importer.ImportWaveFrontMtlFile();
+			created.complete(materials);
+			return materials.clone();
+		}catch(GLModelLoadingException | RuntimeException e) {
+			//the failed library is not kept so it is parsed again next time
+			synchronized(libraries) {
+				libraries.remove(key, created);
+			}
+			created.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Set the largest number of libraries kept in the cache, the least recently used libraries are evicted at once
+	 * @param Capacity The number of libraries, 0 to disable the cache
+	 */
+	static void setCapacity(int Capacity) {
+		synchronized(libraries) {
+			capacity = Math.max(0, Capacity);
+			while(libraries.size() > capacity) {
+				libraries.remove(libraries.keySet().iterator().next());
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Remove all libraries from the cache, the counters are not reset
+	 */
+	static void clear() {
+		synchronized(libraries) {
+			libraries.clear();
+		}
+	}
+
+	/**
+	 * @return The number of imports which used a library parsed or being parsed by another import
+	 */
+	static long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return The number of imports which parsed the library
+	 */
+	static long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return The number of libraries evicted because of the capacity
+	 */
+	static long getEvictions() {
+		return evictions.get();
+	}
+
+}
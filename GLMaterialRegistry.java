@@ -0,0 +1,115 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.HashMap;
+
+/**
+ * GLMaterialRegistry finds the materials used by meshes by name. It is built once from the materials given by
+ * {@link GLModelLoader#ImportWaveFrontMtl()}, each material gets a dense id which is its index in the material array,
+ * and the names are looked up in a hash map instead of comparing against every material for each mesh.
+ * If several materials have the same name, the first one is used, which is the same as {@link Material#GetMeshMatrialIndex(Mesh[], Material[])}.
+ * A registry is not changed after it is built, so it can be shared between threads.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLMaterialRegistry {
+	//Constant
+	/**
+	 * The id of a name which is not registered
+	 */
+	public static final int NOT_FOUND = -1;
+
+	//Variables
+	private final Material[] Materials;
+	private final HashMap<String, Integer> Ids;
+
+	private GLMaterialRegistry(Material[] materials, HashMap<String, Integer> ids){
+		Materials = materials;
+		Ids = ids;
+	}
+
+	/**
+	 * Build the registry of the materials
+	 * @param Materials The materials imported from a material library
+	 * @return The registry, the id of each material is its index in the array
+	 * @throws GLModelLoadingException If a material is null
+	 */
+	public static GLMaterialRegistry build(Material[] Materials) throws GLModelLoadingException{
+		//Variables
+		final HashMap<String, Integer> ids = new HashMap<String, Integer>(Math.max(16, 2 * Materials.length));
+		for(int i = 0; i < Materials.length; i++) {
+			if(Materials[i] == null) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Material Cannot Be Null", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+			ids.putIfAbsent(Materials[i].getMtlName(), i);
+		}
+		return new GLMaterialRegistry(Materials.clone(), ids);
+	}
+
+	/**
+	 * Get the id of a material
+	 * @param Name The name of the material
+	 * @return The id of the material, {@link #NOT_FOUND} if there is no material with the name
+	 */
+	public int getId(String Name) {
+		final Integer id = Ids.get(Name);
+		return id != null ? id : NOT_FOUND;
+	}
+
+	/**
+	 * Get the material of an id
+	 * @param Id The id of the material
+	 * @return The material
+	 */
+	public Material getMaterial(int Id) {
+		return Materials[Id];
+	}
+
+	/**
+	 * @return The number of materials in the registry
+	 */
+	public int getSize() {
+		return Materials.length;
+	}
+
+	/**
+	 * Find the id of the material used by each mesh
+	 * @param Meshes The meshes
+	 * @param Fallback The id given to meshes which have no material or use a material which is not registered, it can be
+	 * {@link #NOT_FOUND} or the id of a default material
+	 * @return The id of the material of each mesh
+	 * @throws GLModelLoadingException If the fallback is neither {@link #NOT_FOUND} nor a registered id
+	 */
+	public int[] resolve(Mesh[] Meshes, int Fallback) throws GLModelLoadingException{
+		if(Fallback < NOT_FOUND || Fallback >= Materials.length) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Fallback Material Is Out Of Range", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//Variables
+		final int[] Result = new int[Meshes.length];
+		for(int i = 0; i < Meshes.length; i++) {
+			final Integer id = Meshes[i].getMtl() != null ? Ids.get(Meshes[i].getMtl()) : null;
+			Result[i] = id != null ? id : Fallback;
+		}
+		return Result;
+	}
+
+	/**
+	 * Find the id of the material used by each mesh and store it in the mesh, so it can be read by {@link Mesh#getMtlId()}
+	 * @param Meshes The meshes
+	 * @param Fallback The id given to meshes which have no material or use a material which is not registered
+	 * @return The id of the material of each mesh
+	 * @throws GLModelLoadingException If the fallback is neither {@link #NOT_FOUND} nor a registered id
+	 */
+	public int[] assign(Mesh[] Meshes, int Fallback) throws GLModelLoadingException{
+		final int[] Result = resolve(Meshes, Fallback);
+		for(int i = 0; i < Meshes.length; i++) {
+			Meshes[i].setMtlId(Result[i]);
+		}
+		return Result;
+	}
+
+}
@@ -0,0 +1,467 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+/**
+ * GLMeshCodec compresses the index and vertex buffers exported by {@link Mesh} or {@link GLQuantizedMesh} without losing any data.
+ * <ul>
+ * <li>Triangles are encoded with a FIFO of recently used edges and a FIFO of recently used vertices. A triangle sharing an edge
+ * with a recent triangle is usually stored in one byte, especially after the vertex cache optimisation. Triangles may be rotated
+ * but their winding and order are kept.</li>
+ * <li>Vertices are encoded in blocks, each byte of the vertex is stored as a plane of deltas from the previous vertex, and each
+ * group of 16 deltas is packed with 0, 2, 4 or 8 bits. It works best on quantized vertices reordered by the vertex cache optimisation.</li>
+ * </ul>
+ * Encoding is static, decoding uses the working arrays of a codec instance so nothing is allocated while decoding once the arrays
+ * are large enough. One codec instance should only be used by one thread.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLMeshCodec {
+	//Constant
+	private static final int INDEX_VERSION = 0xE1;
+	private static final int VERTEX_VERSION = 0xA1;
+	/**
+	 * Size of the edge FIFO, the high half of the code byte is the position in the edge FIFO or 15 for a triangle without a known edge
+	 */
+	private static final int EDGE_FIFO = 15;
+	/**
+	 * Size of the vertex FIFO, the low half of the code byte is 0 for the next new vertex, 1 to 14 for the position in the vertex FIFO
+	 * or 15 for a vertex given as a delta
+	 */
+	private static final int VERTEX_FIFO = 14;
+	private static final int EXPLICIT = 15;
+	private static final int BLOCK_SIZE = 256;
+	private static final int GROUP_SIZE = 16;
+
+	//Variables
+	private final int[] edge_fifo = new int[2 * EDGE_FIFO];
+	private final int[] vertex_fifo = new int[VERTEX_FIFO];
+	/**
+	 * The decoded vertices of one block
+	 */
+	private byte[] block_data = new byte[0];
+
+	/**
+	 * Initialise a codec for decoding
+	 */
+	public GLMeshCodec(){
+
+	}
+
+	/**
+	 * Compress the indices, three indices for each triangle
+	 * @param Indices The indices from the position to the limit of the buffer, the buffer is not changed
+	 * @return The compressed indices
+	 * @throws GLModelLoadingException If the number of indices is not a multiple of 3 or an index is negative
+	 */
+	public static byte[] encodeIndices(IntBuffer Indices) throws GLModelLoadingException{
+		//Variables
+		final int count = Indices.remaining();
+		final int start = Indices.position();
+		final ByteArrayOutputStream output = new ByteArrayOutputStream(count + 16);
+		final int[] edge = new int[2 * EDGE_FIFO];
+		final int[] vertex = new int[VERTEX_FIFO];
+		final int[] triangle = new int[3];
+		int edge_head = 0, vertex_head = 0;
+		int next = 0, last = 0;
+		if(count % 3 != 0) {
+			throw newException("Number Of Indices Must Be A Multiple Of Three");
+		}
+		Arrays.fill(edge, -1);
+		Arrays.fill(vertex, -1);
+		output.write(INDEX_VERSION);
+		writeVarint(output, count);
+
+		for(int i = 0; i < count; i += 3) {
+			for(int j = 0; j < 3; j++) {
+				triangle[j] = Indices.get(start + i + j);
+				if(triangle[j] < 0) {
+					throw newException("Index Must Not Be Negative");
+				}
+			}
+			//find an edge of the triangle in the FIFO, starting from the most recent one
+			int found = -1, rotation = 0;
+			for(int f = 0; f < EDGE_FIFO && found == -1; f++) {
+				final int e = 2 * ((edge_head - 1 - f + 2 * EDGE_FIFO) % EDGE_FIFO);
+				for(int r = 0; r < 3; r++) {
+					if(edge[e] == triangle[r] && edge[e + 1] == triangle[(r + 1) % 3]) {
+						found = f;
+						rotation = r;
+						break;
+					}
+				}
+			}
+			if(found != -1) {
+				final int a = triangle[rotation], b = triangle[(rotation + 1) % 3], c = triangle[(rotation + 2) % 3];
+				int code;
+				if(c == next) {
+					code = 0;
+					next++;
+				}else {
+					code = EXPLICIT;
+					for(int f = 0; f < VERTEX_FIFO; f++) {
+						if(vertex[(vertex_head - 1 - f + 2 * VERTEX_FIFO) % VERTEX_FIFO] == c) {
+							code = f + 1;
+							break;
+						}
+					}
+				}
+				output.write(found << 4 | code);
+				if(code == EXPLICIT) {
+					writeVarint(output, zigzag(c - last));
+					last = c;
+				}
+				if(code == 0 || code == EXPLICIT) {
+					vertex[vertex_head] = c;
+					vertex_head = (vertex_head + 1) % VERTEX_FIFO;
+				}
+				edge_head = pushEdge(edge, edge_head, c, b);
+				edge_head = pushEdge(edge, edge_head, a, c);
+			}else {
+				int code = EDGE_FIFO << 4;
+				int expected = next;
+				for(int j = 0; j < 3; j++) {
+					if(triangle[j] == expected) {
+						code |= 1 << j;
+						expected++;
+					}
+				}
+				output.write(code);
+				for(int j = 0; j < 3; j++) {
+					if(triangle[j] == next) {
+						next++;
+					}else {
+						writeVarint(output, zigzag(triangle[j] - last));
+						last = triangle[j];
+					}
+					vertex[vertex_head] = triangle[j];
+					vertex_head = (vertex_head + 1) % VERTEX_FIFO;
+				}
+				edge_head = pushEdge(edge, edge_head, triangle[1], triangle[0]);
+				edge_head = pushEdge(edge, edge_head, triangle[2], triangle[1]);
+				edge_head = pushEdge(edge, edge_head, triangle[0], triangle[2]);
+			}
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * Decompress indices created by {@link #encodeIndices(IntBuffer)}
+	 * @param Encoded The compressed indices from the position of the buffer, the position is moved to the end of the compressed data
+	 * @param Destination The buffer to be written from its position, it must have at least {@link #getIndexSize(ByteBuffer)} ints remaining.
+	 * The position is moved to the end of the written data.
+	 * @throws GLModelLoadingException If the compressed data is corrupted
+	 * @throws BufferOverflowException If the destination is too small
+	 */
+	public void decodeIndices(ByteBuffer Encoded, IntBuffer Destination) throws GLModelLoadingException{
+		try {
+			if((Encoded.get() & 0xFF) != INDEX_VERSION) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			final int count = readVarint(Encoded);
+			if(count < 0 || count % 3 != 0) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			if(Destination.remaining() < count) {
+				throw new BufferOverflowException();
+			}
+			final int[] edge = edge_fifo, vertex = vertex_fifo;
+			int edge_head = 0, vertex_head = 0;
+			int next = 0, last = 0;
+			for(int i = 0; i < count; i += 3) {
+				final int code = Encoded.get() & 0xFF;
+				final int found = code >>> 4, low = code & 0xF;
+				if(found != EDGE_FIFO) {
+					final int e = 2 * ((edge_head - 1 - found + 2 * EDGE_FIFO) % EDGE_FIFO);
+					final int a = edge[e], b = edge[e + 1];
+					final int c;
+					if(low == 0) {
+						c = next++;
+					}else if(low == EXPLICIT) {
+						c = last += unzigzag(readVarint(Encoded));
+					}else {
+						c = vertex[(vertex_head - low + 2 * VERTEX_FIFO) % VERTEX_FIFO];
+					}
+					if(low == 0 || low == EXPLICIT) {
+						vertex[vertex_head] = c;
+						vertex_head = vertex_head == VERTEX_FIFO - 1 ? 0 : vertex_head + 1;
+					}
+					Destination.put(a).put(b).put(c);
+					edge_head = pushEdge(edge, edge_head, c, b);
+					edge_head = pushEdge(edge, edge_head, a, c);
+				}else {
+					final int a = (low & 1) != 0 ? next++ : (last += unzigzag(readVarint(Encoded)));
+					final int b = (low & 2) != 0 ? next++ : (last += unzigzag(readVarint(Encoded)));
+					final int c = (low & 4) != 0 ? next++ : (last += unzigzag(readVarint(Encoded)));
+					vertex[vertex_head] = a;
+					vertex_head = vertex_head == VERTEX_FIFO - 1 ? 0 : vertex_head + 1;
+					vertex[vertex_head] = b;
+					vertex_head = vertex_head == VERTEX_FIFO - 1 ? 0 : vertex_head + 1;
+					vertex[vertex_head] = c;
+					vertex_head = vertex_head == VERTEX_FIFO - 1 ? 0 : vertex_head + 1;
+					Destination.put(a).put(b).put(c);
+					edge_head = pushEdge(edge, edge_head, b, a);
+					edge_head = pushEdge(edge, edge_head, c, b);
+					edge_head = pushEdge(edge, edge_head, a, c);
+				}
+			}
+		}catch(BufferUnderflowException bue) {
+			throw newException("Compressed Data Is Corrupted");
+		}
+	}
+
+	/**
+	 * Compress the vertices
+	 * @param Vertices The vertices from the position to the limit of the buffer, the buffer is not changed
+	 * @param Stride The number of bytes of one vertex, between 1 and 256
+	 * @return The compressed vertices
+	 * @throws GLModelLoadingException If the stride is out of range or the data is not a whole number of vertices
+	 */
+	public static byte[] encodeVertices(ByteBuffer Vertices, int Stride) throws GLModelLoadingException{
+		if(Stride < 1 || Stride > 256 || Vertices.remaining() % Stride != 0) {
+			throw newException("Vertices Do Not Match The Stride");
+		}
+		//Variables
+		final int count = Vertices.remaining() / Stride;
+		final int start = Vertices.position();
+		final ByteArrayOutputStream output = new ByteArrayOutputStream(Vertices.remaining() / 2 + 16);
+		final byte[] previous = new byte[Stride];
+		final int[] delta = new int[BLOCK_SIZE];
+		output.write(VERTEX_VERSION);
+		writeVarint(output, count);
+		writeVarint(output, Stride);
+
+		for(int block = 0; block < count; block += BLOCK_SIZE) {
+			final int size = Math.min(BLOCK_SIZE, count - block);
+			final int groups = (size + GROUP_SIZE - 1) / GROUP_SIZE;
+			for(int k = 0; k < Stride; k++) {
+				//byte plane of deltas
+				for(int i = 0; i < size; i++) {
+					final byte value = Vertices.get(start + (block + i) * Stride + k);
+					delta[i] = zigzag8((byte)(value - previous[k]));
+					previous[k] = value;
+				}
+				for(int i = size; i < groups * GROUP_SIZE; i++) {
+					delta[i] = 0;
+				}
+				//2 bits for each group to choose 0, 2, 4 or 8 bits
+				int header = 0, header_bits = 0;
+				final int[] mode = new int[groups];
+				for(int g = 0; g < groups; g++) {
+					int max = 0;
+					for(int i = g * GROUP_SIZE; i < (g + 1) * GROUP_SIZE; i++) {
+						max |= delta[i];
+					}
+					mode[g] = max == 0 ? 0 : max < 4 ? 1 : max < 16 ? 2 : 3;
+					header |= mode[g] << header_bits;
+					header_bits += 2;
+					if(header_bits == 8) {
+						output.write(header);
+						header = 0;
+						header_bits = 0;
+					}
+				}
+				if(header_bits != 0) {
+					output.write(header);
+				}
+				for(int g = 0; g < groups; g++) {
+					if(mode[g] == 0) {
+						continue;
+					}
+					final int bits = 1 << mode[g];
+					int packed = 0, packed_bits = 0;
+					for(int i = g * GROUP_SIZE; i < (g + 1) * GROUP_SIZE; i++) {
+						packed |= delta[i] << packed_bits;
+						packed_bits += bits;
+						if(packed_bits == 8) {
+							output.write(packed);
+							packed = 0;
+							packed_bits = 0;
+						}
+					}
+				}
+			}
+		}
+		return output.toByteArray();
+	}
+
+	/**
+	 * Decompress vertices created by {@link #encodeVertices(ByteBuffer, int)}
+	 * @param Encoded The compressed vertices from the position of the buffer, the position is moved to the end of the compressed data
+	 * @param Destination The buffer to be written from its position, it must have at least {@link #getVertexSize(ByteBuffer)} times
+	 * {@link #getVertexStride(ByteBuffer)} bytes remaining. The position is moved to the end of the written data.
+	 * @throws GLModelLoadingException If the compressed data is corrupted
+	 * @throws BufferOverflowException If the destination is too small
+	 */
+	public void decodeVertices(ByteBuffer Encoded, ByteBuffer Destination) throws GLModelLoadingException{
+		try {
+			if((Encoded.get() & 0xFF) != VERTEX_VERSION) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			final int count = readVarint(Encoded);
+			final int stride = readVarint(Encoded);
+			if(count < 0 || stride < 1 || stride > 256) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			if((long)Destination.remaining() < (long)count * stride) {
+				throw new BufferOverflowException();
+			}
+			if(block_data.length < BLOCK_SIZE * stride) {
+				block_data = new byte[BLOCK_SIZE * 256];
+			}
+			//the last vertex of the previous block is kept at the start of the block data
+			final byte[] data = block_data;
+			for(int k = 0; k < stride; k++) {
+				data[k] = 0;
+			}
+			final int start = Destination.position();
+
+			for(int block = 0; block < count; block += BLOCK_SIZE) {
+				final int size = Math.min(BLOCK_SIZE, count - block);
+				final int groups = (size + GROUP_SIZE - 1) / GROUP_SIZE;
+				if(block != 0) {
+					System.arraycopy(data, (BLOCK_SIZE - 1) * stride, data, 0, stride);
+				}
+				for(int k = 0; k < stride; k++) {
+					final int header_offset = Encoded.position();
+					if(header_offset + (groups + 3) / 4 > Encoded.limit()) {//truncated data
+						throw newException("Compressed Data Is Corrupted");
+					}
+					Encoded.position(header_offset + (groups + 3) / 4);
+					int value = data[k];
+					int address = k;
+					for(int g = 0; g < groups; g++) {
+						final int mode = (Encoded.get(header_offset + (g >> 2)) >>> ((g & 3) << 1)) & 3;
+						final int end = Math.min(GROUP_SIZE, size - g * GROUP_SIZE);
+						if(mode == 0) {
+							for(int i = 0; i < end; i++) {
+								data[address] = (byte)value;
+								address += stride;
+							}
+							continue;
+						}
+						final int bits = 1 << mode, mask = (1 << bits) - 1, per_byte = 8 / bits;
+						for(int i = 0; i < GROUP_SIZE; i += per_byte) {
+							final int packed = Encoded.get() & 0xFF;
+							for(int j = 0; j < per_byte && i + j < end; j++) {
+								value += unzigzag8((packed >>> (j * bits)) & mask);
+								data[address] = (byte)value;
+								address += stride;
+							}
+						}
+					}
+				}
+				Destination.position(start + block * stride);
+				Destination.put(data, 0, size * stride);
+			}
+			Destination.position(start + count * stride);
+		}catch(BufferUnderflowException | IndexOutOfBoundsException ex) {
+			throw newException("Compressed Data Is Corrupted");
+		}
+	}
+
+	/**
+	 * Read the number of indices of compressed indices without decoding
+	 * @param Encoded The compressed indices from the position of the buffer, the buffer is not changed
+	 * @return The number of indices
+	 * @throws GLModelLoadingException If the compressed data is corrupted
+	 */
+	public static int getIndexSize(ByteBuffer Encoded) throws GLModelLoadingException{
+		return readHeader(Encoded, INDEX_VERSION, 0);
+	}
+
+	/**
+	 * Read the number of vertices of compressed vertices without decoding
+	 * @param Encoded The compressed vertices from the position of the buffer, the buffer is not changed
+	 * @return The number of vertices
+	 * @throws GLModelLoadingException If the compressed data is corrupted
+	 */
+	public static int getVertexSize(ByteBuffer Encoded) throws GLModelLoadingException{
+		return readHeader(Encoded, VERTEX_VERSION, 0);
+	}
+
+	/**
+	 * Read the number of bytes of one vertex of compressed vertices without decoding
+	 * @param Encoded The compressed vertices from the position of the buffer, the buffer is not changed
+	 * @return The stride in bytes
+	 * @throws GLModelLoadingException If the compressed data is corrupted
+	 */
+	public static int getVertexStride(ByteBuffer Encoded) throws GLModelLoadingException{
+		return readHeader(Encoded, VERTEX_VERSION, 1);
+	}
+
+	private static int readHeader(ByteBuffer Encoded, int Version, int Field) throws GLModelLoadingException{
+		final ByteBuffer header = Encoded.duplicate();
+		try {
+			if((header.get() & 0xFF) != Version) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			int returnValue = readVarint(header);
+			for(int i = 0; i < Field; i++) {
+				returnValue = readVarint(header);
+			}
+			if(returnValue < 0) {
+				throw newException("Compressed Data Is Corrupted");
+			}
+			return returnValue;
+		}catch(BufferUnderflowException bue) {
+			throw newException("Compressed Data Is Corrupted");
+		}
+	}
+
+	private static int pushEdge(int[] Edge, int Head, int a, int b) {
+		Edge[2 * Head] = a;
+		Edge[2 * Head + 1] = b;
+		return Head == EDGE_FIFO - 1 ? 0 : Head + 1;
+	}
+
+	private static int zigzag(int Value) {
+		return (Value << 1) ^ (Value >> 31);
+	}
+
+	private static int unzigzag(int Value) {
+		return (Value >>> 1) ^ -(Value & 1);
+	}
+
+	private static int zigzag8(byte Value) {
+		return ((Value << 1) ^ (Value >> 7)) & 0xFF;
+	}
+
+	private static int unzigzag8(int Value) {
+		return (Value >>> 1) ^ -(Value & 1);
+	}
+
+	private static void writeVarint(ByteArrayOutputStream Output, int Value) {
+		while((Value & ~0x7F) != 0) {
+			Output.write((Value & 0x7F) | 0x80);
+			Value >>>= 7;
+		}
+		Output.write(Value);
+	}
+
+	private static int readVarint(ByteBuffer Input) throws GLModelLoadingException{
+		int returnValue = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			final int b = Input.get();
+			returnValue |= (b & 0x7F) << shift;
+			if(b >= 0) {
+				return returnValue;
+			}
+		}
+		throw newException("Compressed Data Is Corrupted");
+	}
+
+	private static GLModelLoadingException newException(String Message) {
+		Throwable th = new Throwable("GLModelLoadingException");
+		return new GLModelLoadingException(Message, th, th.getStackTrace(), "GLModelLoadingException");
+	}
+
+}
@@ -0,0 +1,479 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * GLMeshSimplifier reduces the number of triangles of a welded or eliminated mesh by collapsing edges with the least quadric error.
+ * Vertices with the same position, texture coordinate and normal are used as one vertex, so the copies made by index elimination
+ * are not mistaken for seams.
+ * A vertex is always collapsed onto one of its neighbours so the vertex data of the remaining vertices are not changed.
+ * The cost of a collapse is the quadric error of the position plus the difference of texture coordinate and normal weighted by the area
+ * around the vertex. Vertices on open borders and on seams, where vertices at the same position have different texture coordinates
+ * or normals, are never moved so borders and seams keep their shape.
+ * Edges are collapsed in passes: in each pass the edges are sorted by cost and collapsed in order, skipping edges near a vertex
+ * which has been changed in the same pass.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLMeshSimplifier {
+	//Constant
+	/**
+	 * Weight of the squared distance between texture coordinates
+	 */
+	private static final double TEXTURE_WEIGHT = 1.0;
+	/**
+	 * Weight of the squared distance between normals
+	 */
+	private static final double NORMAL_WEIGHT = 0.5;
+	/**
+	 * Number of double used for one quadric, the symmetric 4x4 matrix is stored as {a2, ab, ac, ad, b2, bc, bd, c2, cd, d2}
+	 */
+	private static final int QUADRIC = 10;
+
+	//Input
+	private final Mesh source;
+	private final int vertices;
+	private final float[] position, texture, normal;
+	/**
+	 * Position is scaled by it so the error is relative to the size of the mesh
+	 */
+	private final float scale;
+	/**
+	 * The first vertex with the same position, texture coordinate and normal of each vertex, the index only refers to these vertices
+	 */
+	private final int[] weld;
+	/**
+	 * The first vertex at the same position of each vertex
+	 */
+	private final int[] remap;
+	/**
+	 * True if the vertex can be moved
+	 */
+	private final boolean[] movable;
+
+	//Working data
+	private int[] index;
+	private int faces;
+	private final double[] quadric;
+	private final double[] area;
+	private float error = 0.0f;
+
+	/**
+	 * Initialise the simplifier, the source mesh is not changed
+	 * @param Source The mesh which vertex, texture coordinate and normal share the same index
+	 */
+	GLMeshSimplifier(Mesh Source){
+		source = Source;
+		vertices = Source.getVertexSize();
+		faces = Source.getFaceSize();
+		position = Source.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		texture = Source.getTextureCoordinateSize() == vertices ? Source.getDataArray(Mesh.GLModelDataType.TextureCoordinates).array() : null;
+		normal = Source.getNormalSize() == vertices ? Source.getDataArray(Mesh.GLModelDataType.Normals).array() : null;
+		index = Source.getIndexArray(Mesh.GLModelDataType.Vertices).toArray();
+		weld = getAttributeRemap();
+		for(int i = 0; i < 3 * faces; i++) {
+			index[i] = weld[index[i]];
+		}
+		remap = getPositionRemap();
+		scale = getScale();
+		movable = getMovable();
+		quadric = new double[QUADRIC * vertices];
+		area = new double[vertices];
+		for(int t = 0; t < faces; t++) {
+			addTriangleQuadric(t);
+		}
+	}
+
+	/**
+	 * Collapse edges until the number of triangles is not more than the target or no edge can be collapsed within the error
+	 * @param TargetFaceSize The number of triangles to be reached
+	 * @param MaxError The largest error allowed, relative to the size of the mesh, infinity means the error is not limited
+	 * @return The simplified mesh, the error is recorded in the mesh
+	 */
+	Mesh simplify(int TargetFaceSize, float MaxError) {
+		final double limit = (double)MaxError * MaxError;
+		while(faces > TargetFaceSize) {
+			if(collapsePass(TargetFaceSize, limit) == 0) {
+				break;
+			}
+			removeDegenerate();
+		}
+		return toMesh();
+	}
+
+	/**
+	 * Run one pass of edge collapses
+	 * @return The number of edges collapsed
+	 */
+	private int collapsePass(int TargetFaceSize, double Limit) {
+		//triangles around each position, stored as {triangles of position 0, triangles of position 1, ...}
+		final GLVertexAdjacency triangles = new GLVertexAdjacency(index, remap, faces, vertices, true);
+		final int[] start = triangles.start;
+		final int[] adjacency = triangles.adjacency;
+
+		//the best collapse of each edge, stored as {from, to}
+		final int[] edge = new int[6 * faces];
+		final double[] cost = new double[3 * faces];
+		int edges = 0;
+		for(int i = 0; i < 3 * faces; i++) {
+			final int a = index[i];
+			final int b = index[i - i % 3 + (i + 1) % 3];
+			if(!movable[a] && !movable[b]) {//the costs are not compared so an infinite limit cannot let a locked vertex move
+				continue;
+			}
+			final double ab = movable[a] ? getCost(a, b) : Double.MAX_VALUE;
+			final double ba = movable[b] ? getCost(b, a) : Double.MAX_VALUE;
+			if(Math.min(ab, ba) > Limit) {//both directions are not allowed
+				continue;
+			}
+			edge[2 * edges] = ab <= ba ? a : b;
+			edge[2 * edges + 1] = ab <= ba ? b : a;
+			cost[edges++] = Math.min(ab, ba);
+		}
+		//sort edges by cost
+		final long[] order = new long[edges];
+		for(int e = 0; e < edges; e++) {
+			order[e] = (Double.doubleToLongBits(cost[e]) & ~0xFFFFFFFFL) | e;//cost is not negative so the bits have the same order
+		}
+		Arrays.sort(order);
+
+		//Variables
+		final boolean[] touched = new boolean[vertices];
+		final int[] stamp = new int[vertices];
+		int collapsed = 0;
+		int removed = 0;
+		for(int k = 0; k < edges && faces - removed > TargetFaceSize; k++) {
+			final int e = (int)(order[k] & 0xFFFFFFFFL);
+			final int from = edge[2 * e], to = edge[2 * e + 1];
+			final int pf = remap[from], pt = remap[to];
+			if(touched[pf] || touched[pt] || pf == pt) {
+				continue;
+			}
+			if(!isLinked(pf, pt, start, adjacency, stamp, k + 1) || isFlipped(from, to, start, adjacency)) {
+				continue;
+			}
+			//move the vertex and remove the triangles on the edge
+			for(int j = start[pf]; j < start[pf + 1]; j++) {
+				final int t = adjacency[j];
+				boolean degenerate = false;
+				for(int c = 0; c < 3; c++) {
+					degenerate |= remap[index[3 * t + c]] == pt;
+				}
+				for(int c = 0; c < 3; c++) {
+					touched[remap[index[3 * t + c]]] = true;
+					if(index[3 * t + c] == from) {
+						index[3 * t + c] = to;
+					}
+				}
+				if(degenerate) {
+					removed++;
+				}
+			}
+			for(int q = 0; q < QUADRIC; q++) {
+				quadric[QUADRIC * pt + q] += quadric[QUADRIC * pf + q];
+			}
+			area[pt] += area[pf];
+			error = Math.max(error, (float)Math.sqrt(cost[e]));
+			collapsed++;
+		}
+		return collapsed;
+	}
+
+	/**
+	 * Check that the two positions only share the neighbours of the triangles on the edge, so the mesh stays manifold after the collapse
+	 */
+	private boolean isLinked(int a, int b, int[] Start, int[] Adjacency, int[] Stamp, int Mark) {
+		//mark the neighbours of a
+		for(int j = Start[a]; j < Start[a + 1]; j++) {
+			final int t = Adjacency[j];
+			for(int c = 0; c < 3; c++) {
+				Stamp[remap[index[3 * t + c]]] = Mark;
+			}
+		}
+		int shared = 0, opposite = 0;
+		for(int j = Start[b]; j < Start[b + 1]; j++) {
+			final int t = Adjacency[j];
+			boolean edge = false;
+			for(int c = 0; c < 3; c++) {
+				edge |= remap[index[3 * t + c]] == a;
+			}
+			if(edge) {
+				opposite++;
+			}
+			for(int c = 0; c < 3; c++) {
+				final int p = remap[index[3 * t + c]];
+				if(p != a && p != b && Stamp[p] == Mark) {
+					Stamp[p] = -Mark;//count each neighbour once
+					shared++;
+				}
+			}
+		}
+		return shared <= opposite;
+	}
+
+	/**
+	 * Check if any triangle around the vertex turns over when the vertex is moved
+	 */
+	private boolean isFlipped(int From, int To, int[] Start, int[] Adjacency) {
+		final int pf = remap[From], pt = remap[To];
+		for(int j = Start[pf]; j < Start[pf + 1]; j++) {
+			final int t = Adjacency[j];
+			int corner = -1;
+			boolean edge = false;
+			for(int c = 0; c < 3; c++) {
+				corner = index[3 * t + c] == From ? c : corner;
+				edge |= remap[index[3 * t + c]] == pt;
+			}
+			if(edge || corner == -1) {//the triangle will be removed
+				continue;
+			}
+			final int a = index[3 * t + (corner + 1) % 3], b = index[3 * t + (corner + 2) % 3];
+			final double[] before = getNormal(From, a, b), after = getNormal(To, a, b);
+			if(before[0] * after[0] + before[1] * after[1] + before[2] * after[2] <= 0.0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return The cost of moving vertex a to vertex b
+	 */
+	private double getCost(int a, int b) {
+		final int q = QUADRIC * remap[a];
+		final double x = position[3 * b] * scale, y = position[3 * b + 1] * scale, z = position[3 * b + 2] * scale;
+		double cost = quadric[q] * x * x + 2 * quadric[q + 1] * x * y + 2 * quadric[q + 2] * x * z + 2 * quadric[q + 3] * x
+				+ quadric[q + 4] * y * y + 2 * quadric[q + 5] * y * z + 2 * quadric[q + 6] * y
+				+ quadric[q + 7] * z * z + 2 * quadric[q + 8] * z
+				+ quadric[q + 9];
+		final double weight = area[remap[a]];
+		if(texture != null) {
+			cost += TEXTURE_WEIGHT * weight * distance(texture, a, b);
+		}
+		if(normal != null) {
+			cost += NORMAL_WEIGHT * weight * distance(normal, a, b);
+		}
+		//the quadric is area weighted, divide by the area so the cost is a squared distance
+		return weight > 0.0 ? Math.max(cost, 0.0) / weight : 0.0;
+	}
+
+	private static double distance(float[] Data, int a, int b) {
+		final double x = Data[3 * a] - Data[3 * b], y = Data[3 * a + 1] - Data[3 * b + 1], z = Data[3 * a + 2] - Data[3 * b + 2];
+		return x * x + y * y + z * z;
+	}
+
+	/**
+	 * @return The not normalised normal of the triangle
+	 */
+	private double[] getNormal(int a, int b, int c) {
+		final double ux = position[3 * b] - position[3 * a], uy = position[3 * b + 1] - position[3 * a + 1], uz = position[3 * b + 2] - position[3 * a + 2];
+		final double vx = position[3 * c] - position[3 * a], vy = position[3 * c + 1] - position[3 * a + 1], vz = position[3 * c + 2] - position[3 * a + 2];
+		return new double[] {uy * vz - uz * vy, uz * vx - ux * vz, ux * vy - uy * vx};
+	}
+
+	/**
+	 * Add the plane of the triangle to the quadric of its three positions, weighted by the area
+	 */
+	private void addTriangleQuadric(int t) {
+		final int a = index[3 * t], b = index[3 * t + 1], c = index[3 * t + 2];
+		final double[] n = getNormal(a, b, c);
+		final double length = Math.sqrt(n[0] * n[0] + n[1] * n[1] + n[2] * n[2]);
+		if(length == 0.0) {
+			return;
+		}
+		final double weight = 0.5 * length * scale * scale;
+		final double nx = n[0] / length, ny = n[1] / length, nz = n[2] / length;
+		final double d = -(nx * position[3 * a] + ny * position[3 * a + 1] + nz * position[3 * a + 2]) * scale;
+		final double[] plane = {nx * nx, nx * ny, nx * nz, nx * d, ny * ny, ny * nz, ny * d, nz * nz, nz * d, d * d};
+		for(int corner = 0; corner < 3; corner++) {
+			final int p = remap[index[3 * t + corner]];
+			for(int q = 0; q < QUADRIC; q++) {
+				quadric[QUADRIC * p + q] += plane[q] * weight;
+			}
+			area[p] += weight;
+		}
+	}
+
+	/**
+	 * Remove the triangles which have two corners at the same position
+	 */
+	private void removeDegenerate() {
+		int written = 0;
+		for(int t = 0; t < faces; t++) {
+			final int a = index[3 * t], b = index[3 * t + 1], c = index[3 * t + 2];
+			if(remap[a] == remap[b] || remap[b] == remap[c] || remap[a] == remap[c]) {
+				continue;
+			}
+			index[3 * written] = a;
+			index[3 * written + 1] = b;
+			index[3 * written + 2] = c;
+			written++;
+		}
+		faces = written;
+	}
+
+	/**
+	 * Find the first vertex with the same position, texture coordinate and normal of each vertex
+	 */
+	private int[] getAttributeRemap() {
+		final int[] returnValue = new int[vertices];
+		final int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, vertices)) << 2)];
+		final int mask = table.length - 1;
+		for(int v = 0; v < vertices; v++) {
+			final int x = Float.floatToIntBits(position[3 * v]), y = Float.floatToIntBits(position[3 * v + 1]), z = Float.floatToIntBits(position[3 * v + 2]);
+			int slot = ((x * 0x9E3779B1) ^ (y * 0x85EBCA77) ^ (z * 0xC2B2AE3D)) >>> 7 & mask;
+			while(true) {
+				final int stored = table[slot];
+				if(stored == 0) {
+					table[slot] = v + 1;
+					returnValue[v] = v;
+					break;
+				}
+				if(isSameVertex(stored - 1, v)) {
+					returnValue[v] = stored - 1;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		return returnValue;
+	}
+
+	/**
+	 * @return True if the two vertices have the same bits in position, texture coordinate and normal
+	 */
+	private boolean isSameVertex(int a, int b) {
+		final float[][] data = {position, texture, normal};
+		for(float[] attribute : data) {
+			if(attribute == null) {
+				continue;
+			}
+			for(int k = 0; k < 3; k++) {
+				if(Float.floatToIntBits(attribute[3 * a + k]) != Float.floatToIntBits(attribute[3 * b + k])) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Find the first vertex at the same position of each vertex
+	 */
+	private int[] getPositionRemap() {
+		final int[] returnValue = new int[vertices];
+		final int[] table = new int[Math.max(2, Integer.highestOneBit(Math.max(1, vertices)) << 2)];
+		final int mask = table.length - 1;
+		for(int v = 0; v < vertices; v++) {
+			final int x = Float.floatToIntBits(position[3 * v]), y = Float.floatToIntBits(position[3 * v + 1]), z = Float.floatToIntBits(position[3 * v + 2]);
+			int slot = ((x * 0x9E3779B1) ^ (y * 0x85EBCA77) ^ (z * 0xC2B2AE3D)) >>> 7 & mask;
+			while(true) {
+				final int stored = table[slot];
+				if(stored == 0) {
+					table[slot] = v + 1;
+					returnValue[v] = v;
+					break;
+				}
+				final int other = stored - 1;
+				if(Float.floatToIntBits(position[3 * other]) == x && Float.floatToIntBits(position[3 * other + 1]) == y && Float.floatToIntBits(position[3 * other + 2]) == z) {
+					returnValue[v] = other;
+					break;
+				}
+				slot = (slot + 1) & mask;
+			}
+		}
+		return returnValue;
+	}
+
+	/**
+	 * @return The reciprocal of the largest extent of the mesh
+	 */
+	private float getScale() {
+		final float[] bounds = source.getBounds().toArray();
+		final float extent = Math.max(bounds[3] - bounds[0], Math.max(bounds[4] - bounds[1], bounds[5] - bounds[2]));
+		return extent > 0.0f ? 1.0f / extent : 1.0f;
+	}
+
+	/**
+	 * Vertices on seams, where several vertices with different texture coordinates or normals share the position, and vertices
+	 * on open borders cannot be moved
+	 */
+	private boolean[] getMovable() {
+		final boolean[] returnValue = new boolean[vertices];
+		Arrays.fill(returnValue, true);
+		for(int v = 0; v < vertices; v++) {
+			if(weld[v] == v && remap[v] != v) {//copies of a vertex are not used by the index so they do not make a seam
+				returnValue[v] = false;
+				returnValue[remap[v]] = false;
+			}
+		}
+		//an edge is open if the opposite edge does not exist
+		final long[] edges = new long[3 * faces];
+		for(int i = 0; i < 3 * faces; i++) {
+			final int a = remap[index[i]], b = remap[index[i - i % 3 + (i + 1) % 3]];
+			edges[i] = (long)a << 32 | b;
+		}
+		final long[] sorted = edges.clone();
+		Arrays.sort(sorted);
+		for(int i = 0; i < 3 * faces; i++) {
+			final long opposite = (edges[i] << 32) | (edges[i] >>> 32);
+			if(Arrays.binarySearch(sorted, opposite) < 0) {
+				returnValue[(int)(edges[i] >>> 32)] = false;
+				returnValue[(int)edges[i]] = false;
+			}
+		}
+		for(int v = 0; v < vertices; v++) {//seam and border vertices are recorded on the first vertex at the position
+			returnValue[v] = returnValue[remap[v]];
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Create a mesh from the remaining triangles, vertices which are no longer used are removed
+	 */
+	private Mesh toMesh() {
+		//Variables
+		final Mesh returning = new Mesh();
+		final int[] used = new int[vertices];
+		Arrays.fill(used, -1);
+		int next = 0;
+		final int[] triangles = new int[3 * faces];
+		for(int i = 0; i < 3 * faces; i++) {
+			if(used[index[i]] == -1) {
+				used[index[i]] = next++;
+			}
+			triangles[i] = used[index[i]];
+		}
+
+		returning.setMeshName(source.getMeshName());
+		returning.setMtl(source.getMtl());
+		returning.setMtlId(source.getMtlId());
+		returning.Index_Eliminated = true;
+		returning.Simplification_Error = error;
+		final float[][] data = {position, texture, normal};
+		final Mesh.GLModelDataType[] type = {Mesh.GLModelDataType.Vertices, Mesh.GLModelDataType.TextureCoordinates, Mesh.GLModelDataType.Normals};
+		for(int i = 0; i < 3; i++) {
+			if(data[i] == null) {
+				continue;
+			}
+			final float[] copy = new float[3 * next];
+			for(int v = 0; v < vertices; v++) {
+				if(used[v] != -1) {
+					System.arraycopy(data[i], 3 * v, copy, 3 * used[v], 3);
+				}
+			}
+			if(type[i] == Mesh.GLModelDataType.Vertices) {//the bounds shrink with the removed vertices
+				returning.newVertices(copy, 0, next);
+			}else {
+				returning.getDataArray(type[i]).add(copy, 0, copy.length);
+			}
+		}
+		final int[] none = new int[3 * faces];
+		returning.newFaces(triangles, texture != null ? triangles : none, normal != null ? triangles : none, faces);
+		return returning;
+	}
+
+}
@@ -0,0 +1,266 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GLMeshletBuilder splits the triangles of one indexed mesh into meshlets. A meshlet is grown from a triangle by adding the
+ * neighbouring triangle which needs the fewest new vertices, until the vertex or triangle limit is reached or no neighbour fits.
+ * Triangles which share fewer not yet used triangles are preferred, so the remaining triangles do not get split into small islands.
+ * The builder is a task so meshes can be split in parallel on a ForkJoinPool, see {@link GLMeshlets#build(Mesh[], int, int, int)}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLMeshletBuilder extends RecursiveAction{
+	/**
+	 * Serial Number
+	 */
+	private static final long serialVersionUID = 0x3e51e7b1L;
+
+	//Input
+	private final Mesh mesh;
+	private final int max_vertices, max_triangles;
+
+	//Output
+	GLMeshlets Meshlets = null;
+
+	/**
+	 * Initialise the builder
+	 * @param Raw_data The mesh which vertex, texture coordinate and normal share the same index
+	 * @param MaxVertices The largest number of vertices in one meshlet
+	 * @param MaxTriangles The largest number of triangles in one meshlet
+	 */
+	GLMeshletBuilder(Mesh Raw_data, int MaxVertices, int MaxTriangles){
+		mesh = Raw_data;
+		max_vertices = MaxVertices;
+		max_triangles = MaxTriangles;
+	}
+
+	@Override
+	protected void compute() {
+		//Variables
+		final int faces = mesh.getFaceSize();
+		final int vertices = mesh.getVertexSize();
+		final int[] index = mesh.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+		final float[] position = mesh.getDataArray(Mesh.GLModelDataType.Vertices).array();
+
+		//triangles using each vertex, stored as {triangles of vertex 0, triangles of vertex 1, ...}
+		final GLVertexAdjacency triangles = new GLVertexAdjacency(index, null, faces, vertices, true);
+		final int[] start = triangles.start;
+		final int[] adjacency = triangles.adjacency;
+		final int[] live = new int[vertices];//number of triangles using the vertex which are not in a meshlet yet
+		for(int v = 0; v < vertices; v++) {
+			live[v] = triangles.getSize(v);
+		}
+
+		//the number of meshlets is not known, the arrays grow as meshlets are added
+		final GLIntArray descriptor = new GLIntArray(GLMeshlets.DESCRIPTOR_STRIDE * (faces / max_triangles + 1));
+		final GLIntArray remap = new GLIntArray(vertices + 1);
+		final byte[] micro = new byte[3 * faces];
+		final boolean[] emitted = new boolean[faces];
+		final int[] local = new int[vertices];//the local index of the vertex in the current meshlet, -1 if it is not in it
+		Arrays.fill(local, -1);
+		final int[] meshlet_vertex = new int[max_vertices];
+		int vertex_count = 0, triangle_count = 0;
+		int triangle_start = 0;
+		int scan = 0;//all triangles before it have been emitted
+
+		for(int added = 0; added < faces; added++) {
+			int next = -1;
+			if(triangle_count < max_triangles) {
+				next = getBestNeighbour(index, start, adjacency, live, local, meshlet_vertex, vertex_count);
+			}
+			if(next == -1) {
+				while(emitted[scan]) {
+					scan++;
+				}
+				next = scan;
+				if(getNewVertices(index, next, local) + vertex_count > max_vertices || triangle_count == max_triangles) {
+					//the meshlet is full, start a new one with this triangle
+					finish(descriptor, remap, meshlet_vertex, vertex_count, triangle_start, triangle_count, local);
+					triangle_start += triangle_count;
+					vertex_count = 0;
+					triangle_count = 0;
+				}
+			}
+			emitted[next] = true;
+			for(int j = 0; j < 3; j++) {
+				final int v = index[3 * next + j];
+				if(local[v] == -1) {
+					local[v] = vertex_count;
+					meshlet_vertex[vertex_count++] = v;
+				}
+				micro[3 * (triangle_start + triangle_count) + j] = (byte)local[v];
+				//the triangle no longer uses the vertex
+				for(int k = start[v]; k < start[v] + live[v]; k++) {
+					if(adjacency[k] == next) {
+						adjacency[k] = adjacency[start[v] + live[v] - 1];
+						live[v]--;
+						break;
+					}
+				}
+			}
+			triangle_count++;
+		}
+		if(triangle_count != 0) {
+			finish(descriptor, remap, meshlet_vertex, vertex_count, triangle_start, triangle_count, local);
+		}
+
+		final int meshlets = descriptor.size() / GLMeshlets.DESCRIPTOR_STRIDE;
+		final int[] descriptors = descriptor.toArray();
+		final float[] bounds = new float[GLMeshlets.BOUNDS_STRIDE * meshlets];
+		final int[] vertex = remap.toArray();
+		for(int m = 0; m < meshlets; m++) {
+			computeBounds(position, descriptors, vertex, micro, m, bounds);
+		}
+		Meshlets = new GLMeshlets(descriptors, vertex, micro, bounds);
+	}
+
+	/**
+	 * Find the triangle which is connected to the meshlet and needs the fewest new vertices
+	 * @return The triangle, or -1 if no connected triangle fits into the meshlet
+	 */
+	private int getBestNeighbour(int[] Index, int[] Start, int[] Adjacency, int[] Live, int[] Local, int[] MeshletVertex, int VertexCount) {
+		int best = -1;
+		int best_new = 3, best_live = Integer.MAX_VALUE;
+		for(int i = 0; i < VertexCount; i++) {
+			final int v = MeshletVertex[i];
+			for(int k = Start[v]; k < Start[v] + Live[v]; k++) {
+				final int t = Adjacency[k];
+				final int extra = getNewVertices(Index, t, Local);
+				if(VertexCount + extra > max_vertices) {
+					continue;
+				}
+				//triangles with fewer remaining neighbours are taken first so they are not left alone
+				final int neighbours = Live[Index[3 * t]] + Live[Index[3 * t + 1]] + Live[Index[3 * t + 2]];
+				if(extra < best_new || extra == best_new && neighbours < best_live) {
+					best = t;
+					best_new = extra;
+					best_live = neighbours;
+				}
+			}
+			if(best_new == 0) {//no better triangle exists
+				break;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return The number of vertices of the triangle which are not in the meshlet yet
+	 */
+	private static int getNewVertices(int[] Index, int Triangle, int[] Local) {
+		return (Local[Index[3 * Triangle]] == -1 ? 1 : 0) + (Local[Index[3 * Triangle + 1]] == -1 ? 1 : 0) + (Local[Index[3 * Triangle + 2]] == -1 ? 1 : 0);
+	}
+
+	/**
+	 * Record the descriptor and vertices of the meshlet, and clear the local index of its vertices
+	 */
+	private static void finish(GLIntArray Descriptor, GLIntArray Remap, int[] MeshletVertex, int VertexCount, int TriangleStart, int TriangleCount, int[] Local) {
+		Descriptor.add(new int[] {Remap.size(), VertexCount, TriangleStart, TriangleCount}, 0, GLMeshlets.DESCRIPTOR_STRIDE);
+		Remap.add(MeshletVertex, 0, VertexCount);
+		for(int i = 0; i < VertexCount; i++) {
+			Local[MeshletVertex[i]] = -1;
+		}
+	}
+
+	/**
+	 * Calculate the bounding sphere and the normal cone of one meshlet
+	 */
+	private static void computeBounds(float[] Position, int[] Descriptor, int[] Vertex, byte[] Micro, int Meshlet, float[] Bounds) {
+		final int d = GLMeshlets.DESCRIPTOR_STRIDE * Meshlet;
+		final int vertex_offset = Descriptor[d], vertex_count = Descriptor[d + 1];
+		final int triangle_offset = Descriptor[d + 2], triangle_count = Descriptor[d + 3];
+
+		//sphere around the centre of the bounding box
+		float minx = Float.POSITIVE_INFINITY, miny = Float.POSITIVE_INFINITY, minz = Float.POSITIVE_INFINITY;
+		float maxx = Float.NEGATIVE_INFINITY, maxy = Float.NEGATIVE_INFINITY, maxz = Float.NEGATIVE_INFINITY;
+		for(int i = vertex_offset; i < vertex_offset + vertex_count; i++) {
+			final int p = 3 * Vertex[i];
+			minx = Math.min(minx, Position[p]);
+			miny = Math.min(miny, Position[p + 1]);
+			minz = Math.min(minz, Position[p + 2]);
+			maxx = Math.max(maxx, Position[p]);
+			maxy = Math.max(maxy, Position[p + 1]);
+			maxz = Math.max(maxz, Position[p + 2]);
+		}
+		final float cx = 0.5f * (minx + maxx), cy = 0.5f * (miny + maxy), cz = 0.5f * (minz + maxz);
+		float radius = 0.0f;
+		for(int i = vertex_offset; i < vertex_offset + vertex_count; i++) {
+			final int p = 3 * Vertex[i];
+			final float x = Position[p] - cx, y = Position[p + 1] - cy, z = Position[p + 2] - cz;
+			radius = Math.max(radius, x * x + y * y + z * z);
+		}
+		radius = (float)Math.sqrt(radius);
+
+		//the cone axis is the average of the triangle normals
+		final float[] normal = new float[3 * triangle_count];
+		float ax = 0.0f, ay = 0.0f, az = 0.0f;
+		for(int t = 0; t < triangle_count; t++) {
+			final int base = 3 * (triangle_offset + t);
+			final int a = 3 * Vertex[vertex_offset + (Micro[base] & 0xFF)];
+			final int b = 3 * Vertex[vertex_offset + (Micro[base + 1] & 0xFF)];
+			final int c = 3 * Vertex[vertex_offset + (Micro[base + 2] & 0xFF)];
+			final float ux = Position[b] - Position[a], uy = Position[b + 1] - Position[a + 1], uz = Position[b + 2] - Position[a + 2];
+			final float vx = Position[c] - Position[a], vy = Position[c + 1] - Position[a + 1], vz = Position[c + 2] - Position[a + 2];
+			final float nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+			final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			if(length > 0.0f) {//degenerated triangles are ignored
+				normal[3 * t] = nx / length;
+				normal[3 * t + 1] = ny / length;
+				normal[3 * t + 2] = nz / length;
+				ax += normal[3 * t];
+				ay += normal[3 * t + 1];
+				az += normal[3 * t + 2];
+			}
+		}
+		final float axis_length = (float)Math.sqrt(ax * ax + ay * ay + az * az);
+		float cutoff = 1.0f;//the meshlet is never culled by the cone
+		float apex_t = 0.0f;
+		if(axis_length > 0.0f) {
+			ax /= axis_length;
+			ay /= axis_length;
+			az /= axis_length;
+			float min_dot = 1.0f;
+			for(int t = 0; t < triangle_count; t++) {
+				final float dot = normal[3 * t] * ax + normal[3 * t + 1] * ay + normal[3 * t + 2] * az;
+				if(normal[3 * t] != 0.0f || normal[3 * t + 1] != 0.0f || normal[3 * t + 2] != 0.0f) {
+					min_dot = Math.min(min_dot, dot);
+				}
+			}
+			if(min_dot > 0.0f) {//the normals are within a half space
+				cutoff = (float)Math.sqrt(1.0f - min_dot * min_dot);
+				//move the apex back along the axis until all triangle planes are in front of it
+				for(int t = 0; t < triangle_count; t++) {
+					final int a = 3 * Vertex[vertex_offset + (Micro[3 * (triangle_offset + t)] & 0xFF)];
+					final float dn = normal[3 * t] * ax + normal[3 * t + 1] * ay + normal[3 * t + 2] * az;
+					if(dn <= 0.0f) {
+						continue;
+					}
+					//the apex at centre - axis * t is behind the plane when dot(centre - corner, normal) - t * dn <= 0
+					final float dc = (cx - Position[a]) * normal[3 * t] + (cy - Position[a + 1]) * normal[3 * t + 1] + (cz - Position[a + 2]) * normal[3 * t + 2];
+					apex_t = Math.max(apex_t, dc / dn);
+				}
+			}else {
+				ax = ay = az = 0.0f;
+			}
+		}
+
+		final int o = GLMeshlets.BOUNDS_STRIDE * Meshlet;
+		Bounds[o] = cx;
+		Bounds[o + 1] = cy;
+		Bounds[o + 2] = cz;
+		Bounds[o + 3] = radius;
+		Bounds[o + 4] = cx - ax * apex_t;
+		Bounds[o + 5] = cy - ay * apex_t;
+		Bounds[o + 6] = cz - az * apex_t;
+		Bounds[o + 7] = ax;
+		Bounds[o + 8] = ay;
+		Bounds[o + 9] = az;
+		Bounds[o + 10] = cutoff;
+	}
+
+}
@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GLMeshlets stores the meshlets of one mesh for cluster based rendering. All data are kept in flat arrays:
+ * <ul>
+ * <li>Descriptors: {VertexOffset, VertexCount, TriangleOffset, TriangleCount} of each meshlet</li>
+ * <li>Vertices: the mesh vertex index of each local vertex, the local vertices of a meshlet start at its VertexOffset</li>
+ * <li>Triangles: three unsigned byte local indices for each triangle, the triangles of a meshlet start at 3 * TriangleOffset</li>
+ * <li>Bounds: {CentreX, CentreY, CentreZ, Radius, ApexX, ApexY, ApexZ, AxisX, AxisY, AxisZ, Cutoff} of each meshlet</li>
+ * </ul>
+ * A meshlet faces away from a camera and can be culled if dot(normalize(Apex - Camera), Axis) >= Cutoff.
+ * The cutoff is 1 when the normals of the meshlet are spread too much for cone culling.
+ * The arrays are not copied when they are retrieved, they should not be modified.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLMeshlets {
+	//Constant
+	/**
+	 * Number of int of each meshlet in the descriptor array
+	 */
+	public static final int DESCRIPTOR_STRIDE = 4;
+	/**
+	 * Number of float of each meshlet in the bound array
+	 */
+	public static final int BOUNDS_STRIDE = 11;
+	/**
+	 * The largest number of vertices in one meshlet, so the local index fits in one unsigned byte
+	 */
+	public static final int MAX_VERTICES = 256;
+	/**
+	 * The largest number of triangles in one meshlet
+	 */
+	public static final int MAX_TRIANGLES = 512;
+
+	//Variables
+	private final int[] Descriptors;
+	private final int[] Vertices;
+	private final byte[] Triangles;
+	private final float[] Bounds;
+
+	/**
+	 * Initialise with the data created by {@link GLMeshletBuilder}
+	 */
+	GLMeshlets(int[] descriptors, int[] vertices, byte[] triangles, float[] bounds){
+		Descriptors = descriptors;
+		Vertices = vertices;
+		Triangles = triangles;
+		Bounds = bounds;
+	}
+
+	/**
+	 * Split each mesh into meshlets, meshes are split in parallel.
+	 * @param Meshes The meshes which index has been eliminated or welded
+	 * @param MaxVertices The largest number of vertices in one meshlet, between 3 and {@link #MAX_VERTICES}, for example 64
+	 * @param MaxTriangles The largest number of triangles in one meshlet, between 1 and {@link #MAX_TRIANGLES}, for example 124
+	 * @param Parallelism The number of threads used, 1 means the meshes are split on the calling thread
+	 * @return The meshlets of each mesh in the same order
+	 * @throws GLModelLoadingException If the limits are out of range or the index of a mesh is not eliminated
+	 */
+	public static GLMeshlets[] build(Mesh[] Meshes, int MaxVertices, int MaxTriangles, int Parallelism) throws GLModelLoadingException{
+		if(MaxVertices < 3 || MaxVertices > MAX_VERTICES || MaxTriangles < 1 || MaxTriangles > MAX_TRIANGLES) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Meshlet Limits Are Out Of Range", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		if(Parallelism < 1) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Parallelism Must Be At Least One", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//Variables
+		final GLMeshletBuilder[] builders = new GLMeshletBuilder[Meshes.length];
+		final GLMeshlets[] returnValue = new GLMeshlets[Meshes.length];
+		for(int i = 0; i < Meshes.length; i++) {
+			if(!Meshes[i].Index_Eliminated) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Index Must Be Eliminated Before Building Meshlets", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+			builders[i] = new GLMeshletBuilder(Meshes[i], MaxVertices, MaxTriangles);
+		}
+
+		if(Parallelism == 1 || Meshes.length < 2) {
+			for(int i = 0; i < Meshes.length; i++) {
+				builders[i].invoke();
+				returnValue[i] = builders[i].Meshlets;
+			}
+			return returnValue;
+		}
+		ForkJoinPool pool = new ForkJoinPool(Math.min(Parallelism, Meshes.length));
+		try {
+			for(GLMeshletBuilder builder : builders) {
+				pool.execute(builder);
+			}
+			for(int i = 0; i < Meshes.length; i++) {
+				builders[i].join();
+				returnValue[i] = builders[i].Meshlets;
+			}
+		}finally {
+			pool.shutdown();
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Retrieve the number of meshlets
+	 * @return The number of meshlets
+	 */
+	public int getMeshletSize() {
+		return Descriptors.length / DESCRIPTOR_STRIDE;
+	}
+
+	/**
+	 * Retrieve the descriptors given as {VertexOffset, VertexCount, TriangleOffset, TriangleCount} of each meshlet
+	 * @return The descriptor array
+	 */
+	public int[] getDescriptors() {
+		return Descriptors;
+	}
+
+	/**
+	 * Retrieve the mesh vertex index of each local vertex
+	 * @return The vertex remap array
+	 */
+	public int[] getVertices() {
+		return Vertices;
+	}
+
+	/**
+	 * Retrieve the local indices of each triangle, three unsigned bytes for each triangle
+	 * @return The micro-index array
+	 */
+	public byte[] getTriangles() {
+		return Triangles;
+	}
+
+	/**
+	 * Retrieve the bounding sphere and normal cone given as {CentreX, CentreY, CentreZ, Radius, ApexX, ApexY, ApexZ, AxisX, AxisY, AxisZ, Cutoff}
+	 * of each meshlet
+	 * @return The bound array
+	 */
+	public float[] getBounds() {
+		return Bounds;
+	}
+
+}
@@ -0,0 +1,528 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * GLModelCache stores the post-processed meshes and materials in a binary file so that the same obj or mtl file does not need
+ * to be parsed again. The cache file starts with a versioned header which records the source file and the import settings,
+ * followed by raw little-endian attribute and index blocks. The cache is only used when the whole header matches, so a changed
+ * source file or different settings will cause the source file to be parsed and the cache to be rewritten.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLModelCache {
+	//Constant
+	private static final int MAGIC = 0x434D4C47;//"GLMC" in little-endian
+	/**
+	 * Needs to be increased when the layout of the cache file is changed
+	 */
+	private static final int VERSION = 5;
+	private static final int KIND_OBJ = 1;
+	private static final int KIND_MTL = 2;
+	/**
+	 * The order of maps in a material
+	 */
+	private static final int MAP_SIZE = 7;
+
+	//Variables
+	/**
+	 * The folder where cache files are stored, cache is disabled if it is null
+	 */
+	private static volatile File directory = null;
+
+	/**
+	 * The key of a cache file, it is written at the start of the file
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	static final class Key{
+		private final int Kind;
+		private final String Path;
+		private final long Size, Modified;
+		private final int Setting, Behaviour;
+		/**
+		 * The bits of the overdraw threshold and the crease angle, 0 when they are not used by the settings
+		 */
+		private final int Threshold, Crease;
+
+		/**
+		 * Create the key of a source file
+		 * @param kind Type of the source file
+		 * @param Source The source file
+		 * @param setting The post processing flags as bits
+		 * @param behaviour The index behaviour
+		 * @param threshold The bits of the overdraw threshold
+		 * @param crease The bits of the crease angle
+		 */
+		private Key(int kind, File Source, int setting, int behaviour, int threshold, int crease) {
+			Kind = kind;
+			Path = Source.getAbsolutePath();
+			Size = Source.length();
+			Modified = Source.lastModified();
+			Setting = setting;
+			Behaviour = behaviour;
+			Threshold = threshold;
+			Crease = crease;
+		}
+
+		/**
+		 * Get the cache file of this key, the hash only spreads the settings over different files, the settings in the header
+		 * are compared exactly when the file is read
+		 * @return The cache file of this key in the cache folder
+		 */
+		private File getFile(File Directory) {
+			final String name = new File(Path).getName();
+			final int hash = 31 * (31 * (31 * (31 * Path.hashCode() + Setting) + Behaviour) + Threshold) + Crease;
+			return new File(Directory, name + "." + Integer.toHexString(hash) + ".glcache");
+		}
+	}
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLModelCache() {
+
+	}
+
+	/**
+	 * Set the folder where cache files are stored
+	 * @param Directory The folder, or null to disable cache
+	 */
+	static void setDirectory(File Directory) {
+		directory = Directory;
+	}
+
+	/**
+	 * Create the key of an obj file
+	 * @param Source The obj file
+	 * @param PostProcess The state of each post processing type
+	 * @param Behaviour The index behaviour
+	 * @param OverdrawThreshold The threshold of overdraw optimisation, only part of the key when it is enabled
+	 * @param CreaseAngle The crease angle of normal generation, only part of the key when it is enabled
+	 * @return The key, or null if cache is disabled
+	 */
+	static Key getObjKey(File Source, boolean[] PostProcess, int Behaviour, float OverdrawThreshold, float CreaseAngle) {
+		if(directory == null) {
+			return null;
+		}
+		int setting = 0;
+		for(int i = 0; i < PostProcess.length; i++) {
+			setting |= PostProcess[i] ? 1 << i : 0;
+		}
+		final int threshold = PostProcess[6] ? Float.floatToIntBits(OverdrawThreshold) : 0;
+		final int crease = PostProcess[7] || PostProcess[8] ? Float.floatToIntBits(CreaseAngle) : 0;
+		return new Key(KIND_OBJ, Source, setting, Behaviour, threshold, crease);
+	}
+
+	/**
+	 * Create the key of a mtl file
+	 * @param Source The mtl file
+	 * @return The key, or null if cache is disabled
+	 */
+	static Key getMtlKey(File Source) {
+		return directory == null ? null : new Key(KIND_MTL, Source, 0, 0, 0, 0);
+	}
+
+	/**
+	 * Read the meshes from the cache
+	 * @param key The key of the obj file
+	 * @param Info The array to be written with {copyright info, material library}
+	 * @return The meshes, or null if there is no valid cache
+	 */
+	static Mesh[] readObj(Key key, String[] Info) {
+		final ByteBuffer buffer = map(key);
+		if(buffer == null) {
+			return null;
+		}
+		try {
+			Info[0] = readString(buffer);
+			Info[1] = readString(buffer);
+			final Mesh[] returnValue = new Mesh[buffer.getInt()];
+			for(int i = 0; i < returnValue.length; i++) {
+				final Mesh mesh = new Mesh();
+				mesh.setMeshName(readString(buffer));
+				mesh.setMtl(readString(buffer));
+				mesh.Index_Eliminated = buffer.getInt() != 0;
+				mesh.ACMR_Before = buffer.getFloat();
+				mesh.ACMR_After = buffer.getFloat();
+				readFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.Vertices));
+				final float[] bounds = new float[10];
+				for(int j = 0; j < bounds.length; j++) {
+					bounds[j] = buffer.getFloat();
+				}
+				mesh.getBounds().set(bounds);
+				readFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.TextureCoordinates));
+				readFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.Normals));
+				readInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.Vertices));
+				readInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.TextureCoordinates));
+				readInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.Normals));
+				returnValue[i] = mesh;
+			}
+			return returnValue;
+		}catch(BufferUnderflowException | IllegalArgumentException e) {//broken cache file
+			return null;
+		}
+	}
+
+	/**
+	 * Write the meshes to the cache, the source file will still be used if the cache cannot be written
+	 * @param key The key of the obj file
+	 * @param Copyright The copyright info
+	 * @param Mtl_lib The material library
+	 * @param Data The meshes
+	 */
+	static void writeObj(Key key, String Copyright, String Mtl_lib, Mesh[] Data) {
+		//Variables
+		long size = 64L + 4L * key.Path.length() + 8L * length(Copyright) + (Mtl_lib == null ? 0L : 8L * Mtl_lib.length());
+		for(Mesh mesh : Data) {
+			size += 104L + 8L * length(mesh.getMeshName()) + 8L * length(mesh.getMtl());
+			for(Mesh.GLModelDataType type : new Mesh.GLModelDataType[] {Mesh.GLModelDataType.Vertices, Mesh.GLModelDataType.TextureCoordinates, Mesh.GLModelDataType.Normals}) {
+				size += 4L * mesh.getDataArray(type).size() + 4L * mesh.getIndexArray(type).size();
+			}
+		}
+		if(size > Integer.MAX_VALUE) {
+			return;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		writeHeader(buffer, key);
+		writeString(buffer, Copyright);
+		writeString(buffer, Mtl_lib);
+		buffer.putInt(Data.length);
+		for(Mesh mesh : Data) {
+			writeString(buffer, mesh.getMeshName());
+			writeString(buffer, mesh.getMtl());
+			buffer.putInt(mesh.Index_Eliminated ? 1 : 0);
+			buffer.putFloat(mesh.ACMR_Before);
+			buffer.putFloat(mesh.ACMR_After);
+			writeFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.Vertices));
+			for(float bound : mesh.getBounds().toArray()) {
+				buffer.putFloat(bound);
+			}
+			writeFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.TextureCoordinates));
+			writeFloats(buffer, mesh.getDataArray(Mesh.GLModelDataType.Normals));
+			writeInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.Vertices));
+			writeInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.TextureCoordinates));
+			writeInts(buffer, mesh.getIndexArray(Mesh.GLModelDataType.Normals));
+		}
+		save(key, buffer);
+	}
+
+	/**
+	 * Read the materials from the cache
+	 * @param key The key of the mtl file
+	 * @return The materials, or null if there is no valid cache
+	 */
+	static Material[] readMtl(Key key) {
+		final ByteBuffer buffer = map(key);
+		if(buffer == null) {
+			return null;
+		}
+		try {
+			final Material[] returnValue = new Material[buffer.getInt()];
+			for(int i = 0; i < returnValue.length; i++) {
+				final Material material = new Material();
+				material.setMtlName(readString(buffer));
+				material.setNs(buffer.getFloat());
+				material.setd(buffer.getFloat());
+				material.setTr(buffer.getFloat());
+				material.setNi(buffer.getFloat());
+				material.setIllum(buffer.getInt());
+				final float[] tf = readVector(buffer);
+				if(tf != null) {
+					material.setTf(tf[0], tf[1], tf[2]);
+				}
+				for(Material.GLMaterialDataType type : new Material.GLMaterialDataType[] {Material.GLMaterialDataType.Ambient, Material.GLMaterialDataType.Diffuse,
+						Material.GLMaterialDataType.Specular, Material.GLMaterialDataType.Emissive_Coeficient}) {
+					final float[] value = readVector(buffer);
+					if(value != null) {
+						material.setK_Para(type, value);
+					}
+				}
+				final Material.Map[] maps = new Material.Map[MAP_SIZE];
+				for(int j = 0; j < MAP_SIZE; j++) {
+					maps[j] = readMap(buffer, material);
+				}
+				material.Ambient_Map = maps[0];
+				material.Diffuse_Map = maps[1];
+				material.Specular_Map = maps[2];
+				material.Normal_Map = maps[3];
+				material.Displacement_Map = maps[4];
+				material.Decal_Map = maps[5];
+				material.Reflection_Map = maps[6];
+				returnValue[i] = material;
+			}
+			return returnValue;
+		}catch(BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException | GLModelLoadingException e) {//broken cache file
+			return null;
+		}
+	}
+
+	/**
+	 * Write the materials to the cache, the source file will still be used if the cache cannot be written
+	 * @param key The key of the mtl file
+	 * @param Data The materials
+	 */
+	static void writeMtl(Key key, Material[] Data) {
+		//Variables
+		long size = 64L + 4L * key.Path.length();
+		for(Material material : Data) {
+			size += 128L + 8L * length(material.getMtlName());
+			for(Material.Map map : getMaps(material)) {
+				size += 128L + (map == null ? 0L : 8L * length(map.getLocation()));
+			}
+		}
+		if(size > Integer.MAX_VALUE) {
+			return;
+		}
+		final ByteBuffer buffer = ByteBuffer.allocate((int)size).order(ByteOrder.LITTLE_ENDIAN);
+		writeHeader(buffer, key);
+		buffer.putInt(Data.length);
+		for(Material material : Data) {
+			writeString(buffer, material.getMtlName());
+			buffer.putFloat(material.getNs());
+			buffer.putFloat(material.getd());
+			buffer.putFloat(material.getTr());
+			buffer.putFloat(material.getNi());
+			buffer.putInt(material.getIllum());
+			writeVector(buffer, material.getTf());
+			writeVector(buffer, material.getK_Para(Material.GLMaterialDataType.Ambient));
+			writeVector(buffer, material.getK_Para(Material.GLMaterialDataType.Diffuse));
+			writeVector(buffer, material.getK_Para(Material.GLMaterialDataType.Specular));
+			writeVector(buffer, material.getK_Para(Material.GLMaterialDataType.Emissive_Coeficient));
+			for(Material.Map map : getMaps(material)) {
+				writeMap(buffer, map);
+			}
+		}
+		save(key, buffer);
+	}
+
+	/**
+	 * Memory-map the cache file and check the header
+	 * @param key The key of the source file
+	 * @return The buffer positioned after the header, or null if the cache does not exist or does not match the key
+	 */
+	private static ByteBuffer map(Key key) {
+		final File Directory = directory;
+		if(key == null || Directory == null) {
+			return null;
+		}
+		final File file = key.getFile(Directory);
+		if(!file.isFile()) {
+			return null;
+		}
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			//the mapping stays valid after the channel is closed
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != key.Kind || !key.Path.equals(readString(buffer))
+					|| buffer.getLong() != key.Size || buffer.getLong() != key.Modified || buffer.getInt() != key.Setting || buffer.getInt() != key.Behaviour
+					|| buffer.getInt() != key.Threshold || buffer.getInt() != key.Crease) {
+				return null;
+			}
+			return buffer;
+		}catch(IOException | BufferUnderflowException | IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Write the buffer to the cache file, the file is written to a temporary file first then renamed so that
+	 * other loaders never read a half-written cache
+	 * @param key The key of the source file
+	 * @param Buffer The content of the cache file
+	 */
+	private static void save(Key key, ByteBuffer Buffer) {
+		final File Directory = directory;
+		if(Directory == null) {
+			return;
+		}
+		File temp = null;
+		try {
+			Directory.mkdirs();
+			temp = File.createTempFile("glcache", null, Directory);
+			Buffer.flip();
+			try(FileChannel channel = FileChannel.open(temp.toPath(), StandardOpenOption.WRITE)){
+				while(Buffer.hasRemaining()) {
+					channel.write(Buffer);
+				}
+			}
+			Files.move(temp.toPath(), key.getFile(Directory).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}catch(IOException | SecurityException e) {
+			if(temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	private static void writeHeader(ByteBuffer Buffer, Key key) {
+		Buffer.putInt(MAGIC);
+		Buffer.putInt(VERSION);
+		Buffer.putInt(key.Kind);
+		writeString(Buffer, key.Path);
+		Buffer.putLong(key.Size);
+		Buffer.putLong(key.Modified);
+		Buffer.putInt(key.Setting);
+		Buffer.putInt(key.Behaviour);
+		Buffer.putInt(key.Threshold);
+		Buffer.putInt(key.Crease);
+	}
+
+	private static Material.Map[] getMaps(Material material) {
+		return new Material.Map[] {material.Ambient_Map, material.Diffuse_Map, material.Specular_Map, material.Normal_Map,
+				material.Displacement_Map, material.Decal_Map, material.Reflection_Map};
+	}
+
+	private static void writeMap(ByteBuffer Buffer, Material.Map map) {
+		if(map == null) {
+			Buffer.putInt(-1);
+			return;
+		}
+		Buffer.putInt(map.getMapType().ordinal());
+		writeString(Buffer, map.getLocation());
+		writeVector(Buffer, map.getO());
+		writeVector(Buffer, map.getS());
+		writeVector(Buffer, map.getT());
+		Buffer.putFloat(map.getBm());
+		Buffer.putInt(map.getClamp() ? 1 : 0);
+		Buffer.putInt(map.getcc() ? 1 : 0);
+		Buffer.putInt(map.getInfchan());
+		Buffer.putInt(map.isImfchanGiven() ? 1 : 0);
+		Buffer.putInt(map.getTexres());
+		if(map.getmm() == null) {
+			Buffer.putInt(0);
+		}else {
+			Buffer.putInt(1);
+			Buffer.putFloat(map.getmm().getBase());
+			Buffer.putFloat(map.getmm().getGain());
+		}
+		if(map.getBlend() == null) {
+			Buffer.putInt(0);
+		}else {
+			Buffer.putInt(1);
+			Buffer.putInt(map.getBlend().getBlendu() ? 1 : 0);
+			Buffer.putInt(map.getBlend().getBlendv() ? 1 : 0);
+		}
+	}
+
+	private static Material.Map readMap(ByteBuffer Buffer, Material material) throws GLModelLoadingException{
+		final int type = Buffer.getInt();
+		if(type == -1) {
+			return null;
+		}
+		final Material.Map map = material.new Map(Material.GLMaterialDataType.values()[type], readString(Buffer));
+		final float[] o = readVector(Buffer);
+		final float[] s = readVector(Buffer);
+		final float[] t = readVector(Buffer);
+		map.setO(o[0], o[1], o[2]);
+		map.setS(s[0], s[1], s[2]);
+		map.setT(t[0], t[1], t[2]);
+		map.setBm(Buffer.getFloat());
+		map.setClamp(Buffer.getInt() != 0);
+		map.setcc(Buffer.getInt() != 0);
+		final int channel = Buffer.getInt();
+		if(Buffer.getInt() != 0) {//the default channel is kept if -imfchan is not given
+			map.setImfchan(channel);
+		}
+		map.setTexres(Buffer.getInt());
+		if(Buffer.getInt() != 0) {
+			map.setmm(Buffer.getFloat(), Buffer.getFloat());
+		}
+		if(Buffer.getInt() != 0) {
+			map.setBlend(Buffer.getInt() != 0, Buffer.getInt() != 0);
+		}
+		return map;
+	}
+
+	private static void writeVector(ByteBuffer Buffer, GLVector3 Vector) {
+		if(Vector == null) {
+			Buffer.putInt(0);
+		}else {
+			Buffer.putInt(1);
+			Buffer.putFloat(Vector.getComponentX());
+			Buffer.putFloat(Vector.getComponentY());
+			Buffer.putFloat(Vector.getComponentZ());
+		}
+	}
+
+	private static float[] readVector(ByteBuffer Buffer) {
+		return Buffer.getInt() == 0 ? null : new float[] {Buffer.getFloat(), Buffer.getFloat(), Buffer.getFloat()};
+	}
+
+	private static void writeFloats(ByteBuffer Buffer, GLFloatArray Data) {
+		Buffer.putInt(Data.size());
+		Buffer.asFloatBuffer().put(Data.array(), 0, Data.size());
+		Buffer.position(Buffer.position() + 4 * Data.size());
+	}
+
+	private static void readFloats(ByteBuffer Buffer, GLFloatArray Destination) {
+		final int size = Buffer.getInt();
+		if(size < 0 || 4L * size > Buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		final float[] data = new float[size];
+		Buffer.asFloatBuffer().get(data);
+		Buffer.position(Buffer.position() + 4 * size);
+		Destination.add(data, 0, size);
+	}
+
+	private static void writeInts(ByteBuffer Buffer, GLIntArray Data) {
+		Buffer.putInt(Data.size());
+		Buffer.asIntBuffer().put(Data.array(), 0, Data.size());
+		Buffer.position(Buffer.position() + 4 * Data.size());
+	}
+
+	private static void readInts(ByteBuffer Buffer, GLIntArray Destination) {
+		final int size = Buffer.getInt();
+		if(size < 0 || 4L * size > Buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		final int[] data = new int[size];
+		Buffer.asIntBuffer().get(data);
+		Buffer.position(Buffer.position() + 4 * size);
+		Destination.add(data, 0, size);
+	}
+
+	/**
+	 * Write a String as its length and UTF-8 bytes, null is written as length -1
+	 */
+	private static void writeString(ByteBuffer Buffer, String Value) {
+		if(Value == null) {
+			Buffer.putInt(-1);
+			return;
+		}
+		final byte[] bytes = Value.getBytes(StandardCharsets.UTF_8);
+		Buffer.putInt(bytes.length);
+		Buffer.put(bytes);
+	}
+
+	private static String readString(ByteBuffer Buffer) {
+		final int length = Buffer.getInt();
+		if(length == -1) {
+			return null;
+		}
+		if(length < 0 || length > Buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		final byte[] bytes = new byte[length];
+		Buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static int length(String Value) {
+		return Value == null ? 0 : Value.length();
+	}
+
+}
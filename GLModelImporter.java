@@ -5,7 +5,18 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 
@@ -16,7 +27,10 @@ import java.util.ArrayList;
 final class GLModelImporter implements GLModelLoader{
 	//Variables
 	private BufferedReader objreader = null;
+	private FileChannel objchannel = null;
 	private BufferedReader mtlreader = null;
+	private File obj_file = null;
+	private File mtl_file = null;
 	private String Copyright = "N/A";
 	private String mtl_lib = null;
 	/**
@@ -25,16 +39,53 @@ final class GLModelImporter implements GLModelLoader{
 	 * 0: FLIP_UV</br>
 	 * 1: TRIANGULATE</br>
 	 * 2: INDEX_CORRECTION</br>
-	 * 3: INDEX_ELIMINATION
+	 * 3: INDEX_ELIMINATION</br>
+	 * 4: INDEX_WELDING</br>
+	 * 5: OPTIMIZE_VERTEX_CACHE</br>
+	 * 6: OPTIMIZE_OVERDRAW</br>
+	 * 7: GENERATE_NORMALS</br>
+	 * 8: REGENERATE_NORMALS
 	 * </html>
 	 * 
 	 */
-	private boolean[] post_process_state = new boolean[] {false, false, false, false};
+	private boolean[] post_process_state = new boolean[] {false, false, false, false, false, false, false, false, false};
 	private boolean MtlLoaded = false;
 	private int behaviour_index = 20001;
+	private int reader_mode = READER_BUFFERED;
+	private int parallelism = 1;
+	private float overdraw_threshold = 1.05f;
+	private float crease_angle = 180.0f;
+	/**
+	 * Number of threads decoding the textures after the mtl file is imported, 0 if textures are not prefetched
+	 */
+	private int texture_threads = 0;
+	private GLTexturePrefetcher textures = null;
+	/**
+	 * The key of the obj file in the cache file, null if the cache is disabled
+	 */
+	private GLModelCache.Key obj_key = null;
+	/**
+	 * The executor of the asynchronous imports, null for {@link GLExecutors#getDefault()}
+	 */
+	private Executor executor = null;
+	/**
+	 * The futures of the asynchronous imports being parsed, the parsers stop when they are cancelled. Null for a synchronous import.
+	 */
+	private volatile CompletableFuture<Mesh[]> obj_task = null;
+	private volatile CompletableFuture<Material[]> mtl_task = null;
+	private int smoothing_group = GLNormalGenerator.SMOOTHING_DEFAULT;//smoothing group of the faces being read
+	private final GLTriangulator triangulator = new GLTriangulator();
+	private float[] polygon_position = new float[24];
+	private int[] polygon_triangle = new int[24];
+	private final int[][] triangle = new int[3][];
+	private final int[] correction = new int[3];
 	
 	//constant
-	private static final String[] Data_Instrctor = {"v  ", "vt ", "vn ", "f ", "mtllib ", "usemtl ", "v "};
+	/**
+	 * The cancellation of an asynchronous import is checked once every 1024 lines
+	 */
+	static final int CANCEL_MASK = 1023;
+	private static final String[] Data_Instrctor = {"v  ", "vt ", "vn ", "f ", "mtllib ", "usemtl ", "v ", "s "};
 	private static final String[] Mtl_Instrctor = {"newmtl", "Ns", "d", "Tr", "Tf", "Ni", "Ka",
 			"Kd", "Ks", "Ke", "map_Ka", "map_Kd", "map_Ks", "illum ", "map_Bump",
 			"disp", "decal", "bump", "map_Ns", "map_d"};
@@ -45,6 +96,16 @@ final class GLModelImporter implements GLModelLoader{
 	 * @throws GLModelLoadingException - If file does not exist or for some reason it cannot be read or the file is not a obj file.
 	 */
 	GLModelImporter(File ObjPath) throws GLModelLoadingException{
+		this(ObjPath, READER_BUFFERED);
+	}
+	/**
+	 * Initialisation of the ObjLoader
+	 * @param ObjPath Specify the location of the obj file
+	 * @param ReaderMode Specify how the obj file is read
+	 * @throws GLModelLoadingException - If file does not exist or for some reason it cannot be read or the file is not a obj file,
+	 * or a wrong reader mode is given.
+	 */
+	GLModelImporter(File ObjPath, int ReaderMode) throws GLModelLoadingException{
 		//Variable
 		final String Filename = ObjPath.getName();
 		try {
@@ -52,7 +113,7 @@ final class GLModelImporter implements GLModelLoader{
 				Throwable th = new Throwable("GLModelLoadingException");
 				throw new GLModelLoadingException("Not A Obj File", th, th.getStackTrace(), "GLModelLoadingException");
 			}else {
-				objreader = new BufferedReader(new FileReader(ObjPath));
+				openObj(ObjPath, ReaderMode);
 				MtlLoaded = false;
 			}
 		}catch(FileNotFoundException fne) {
@@ -66,6 +127,17 @@ final class GLModelImporter implements GLModelLoader{
 	 * @throws GLModelLoadingException If file does not exist or for some reason it cannot be read or the file is not a obj or mtl file.
 	 */
 	GLModelImporter(File ObjPath, File MtlPath) throws GLModelLoadingException{
+		this(ObjPath, MtlPath, READER_BUFFERED);
+	}
+	/**
+	 * Initialisation of the ObjLoader
+	 * @param ObjPath Specify the location of the obj file
+	 * @param MtlPath Specify the location of the mtl file
+	 * @param ReaderMode Specify how the obj file is read
+	 * @throws GLModelLoadingException If file does not exist or for some reason it cannot be read or the file is not a obj or mtl file,
+	 * or a wrong reader mode is given.
+	 */
+	GLModelImporter(File ObjPath, File MtlPath, int ReaderMode) throws GLModelLoadingException{
 		//Variables
 		final String ObjName = ObjPath.getName();
 		final String MtlName = MtlPath.getName();
@@ -78,28 +150,244 @@ final class GLModelImporter implements GLModelLoader{
 				throw new GLModelLoadingException("Not A Mtl File", th, th.getStackTrace(), "GLModelLoadingException");
 				
 			}else {
-				objreader = new BufferedReader(new FileReader(ObjPath));
-				mtlreader = new BufferedReader(new FileReader(MtlPath));
-				MtlLoaded = true;
+				openObj(ObjPath, ReaderMode);
+				openMtl(MtlPath);
 			}
 		}catch(FileNotFoundException fne) {
 			throw new GLModelLoadingException(fne.getMessage(), fne.getCause(), fne.getStackTrace(), "FileNotFoundException");
 		}
 	}
 	
+	/**
+	 * Open the obj file with the given reader
+	 * @param ObjPath The location of the obj file
+	 * @param ReaderMode Specify how the obj file is read
+	 * @throws FileNotFoundException If the file does not exist
+	 * @throws GLModelLoadingException If the file cannot be opened or a wrong reader mode is given
+	 */
+	private void openObj(File ObjPath, int ReaderMode) throws FileNotFoundException, GLModelLoadingException{
+		obj_file = ObjPath;
+		switch(ReaderMode) {
+		case READER_BUFFERED : objreader = new BufferedReader(new FileReader(ObjPath));
+		break;
+		case READER_CHANNEL :
+			try {
+				objchannel = FileChannel.open(ObjPath.toPath(), StandardOpenOption.READ);
+			}catch(NoSuchFileException nse) {
+				throw new FileNotFoundException(nse.getMessage());
+			}catch(IOException ioe) {
+				throw new GLModelLoadingException(ioe.getMessage(), ioe.getCause(), ioe.getStackTrace(), "IOException");
+			}
+		break;
+		default:
+			StackTraceElement ste = new StackTraceElement("GLObjLoader", "GLObjLoader", null, -1);
+			Throwable th = new Throwable();
+			throw new GLModelLoadingException("Wrong Enum Is Given", th, new StackTraceElement[] {ste}, "GLModelLoadingException");
+		}
+		reader_mode = ReaderMode;
+	}
+	
+	/**
+	 * Open the mtl file, it is also used by {@link GLBatchLoader} to open the material library declared in the obj file
+	 * @param MtlPath The location of the mtl file
+	 * @throws FileNotFoundException If the file does not exist
+	 */
+	void openMtl(File MtlPath) throws FileNotFoundException{
+		mtlreader = new BufferedReader(new FileReader(MtlPath));
+		mtl_file = MtlPath;
+		MtlLoaded = true;
+	}
+	
 	@Override
 	public Mesh[] ImportWaveFrontObj() throws GLModelLoadingException{
+		final Mesh[] cached = ImportWaveFrontObjCache();
+		return cached != null ? cached : PostProcessWaveFrontObj(ReadWaveFrontObj());
+	}
+	
+	/**
+	 * Import the obj file from the cache file. The import is split into this method, {@link #ReadWaveFrontObj()} and
+	 * {@link #PostProcessWaveFrontObj(ArrayList)} so {@link GLBatchLoader} can read and post process the file on different threads.
+	 * @return The meshes in the cache file, null if the cache is disabled or the file has not been cached with the same settings
+	 * @throws GLModelLoadingException If the post processing types cannot be applied together
+	 */
+	Mesh[] ImportWaveFrontObjCache() throws GLModelLoadingException{
+		checkPostProcessing();
+		//the settings are part of the key so the cache can only be looked up now
+		obj_key = GLModelCache.getObjKey(obj_file, post_process_state, behaviour_index, overdraw_threshold, crease_angle);
+		if(obj_key != null) {
+			final String[] info = new String[2];
+			final Mesh[] cached = GLModelCache.readObj(obj_key, info);
+			if(cached != null) {
+				Copyright = info[0];
+				mtl_lib = info[1];
+				return cached;
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Check the post processing types before the file is read.
+	 * Normals are generated from the vertex indices of the faces, which are only positions in the mesh after index correction.
+	 * A negative index in the file depends on the number of vertices when its face is read, so it cannot be corrected afterwards.
+	 * @throws GLModelLoadingException If GENERATE_NORMALS or REGENERATE_NORMALS is enabled without INDEX_CORRECTION
+	 */
+	private void checkPostProcessing() throws GLModelLoadingException{
+		if((post_process_state[7] || post_process_state[8]) && !post_process_state[2]) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("GENERATE_NORMALS And REGENERATE_NORMALS Require INDEX_CORRECTION", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+	}
+	
+	/**
+	 * Parse the obj file with the reader of this importer, only the post processing done while reading is applied
+	 * @return The meshes in the obj file before post processing
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard obj file
+	 */
+	ArrayList<Mesh> ReadWaveFrontObj() throws GLModelLoadingException{
+		return reader_mode != READER_CHANNEL ? ImportWaveFrontObjBuffered()
+				: parallelism > 1 ? ImportWaveFrontObjParallel() : ImportWaveFrontObjChannel();
+	}
+	
+	/**
+	 * Post process the meshes given by {@link #ReadWaveFrontObj()} and write them to the cache file if the cache is enabled
+	 * @param Raw_data The meshes before post processing
+	 * @return The imported meshes
+	 * @throws GLModelLoadingException If an index is out of range
+	 */
+	Mesh[] PostProcessWaveFrontObj(ArrayList<Mesh> Raw_data) throws GLModelLoadingException{
+		try {
+			final Mesh[] returnValue = PostProcess_Index(Raw_data);
+			if(obj_key != null) {
+				GLModelCache.writeObj(obj_key, Copyright, mtl_lib, returnValue);
+			}
+			return returnValue;
+		}catch(IndexOutOfBoundsException iob) {
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", iob.getCause(), iob.getStackTrace(), "GLModelLoadingException");
+		}
+	}
+	
+	@Override
+	public void ImportWaveFrontObj(GLModelVisitor Visitor) throws GLModelLoadingException{
+		//Variables
+		int[][][] faces = new int[3][][];//{v, vt, vn} for each number of corners
+		int[][] indices = new int[3][3];//{{X_ver, X_tex, X_nor},{Y_ver,....},{}}
+		int[] size = {0, 0, 0};//number of {vertex, texture coordinate, normal} in the current mesh
+		
+		//the line reader does not read bytes so a channel is opened for the byte tokenizer
+		try(FileChannel channel = objchannel != null ? null : FileChannel.open(obj_file.toPath(), StandardOpenOption.READ)){
+			final FileChannel source = objchannel != null ? objchannel : channel;
+			final GLObjTokenizer tokenizer = new GLObjTokenizer(source, 0L, source.size());
+			boolean unread = tokenizer.nextLine();
+			if(unread) {
+				Copyright = tokenizer.getString(2);//the first line always contains copyright info
+			}
+			while(unread) {
+				switch(tokenizer.getDirective()) {
+				case GLObjTokenizer.MATERIAL_LIBRARY : 
+					mtl_lib = tokenizer.getName();
+					Visitor.onMtlLib(mtl_lib);
+				break;
+				case GLObjTokenizer.OBJECT :
+					size[0] = 0;
+					size[1] = 0;
+					size[2] = 0;
+					Visitor.onObject(tokenizer.getName());
+				break;
+				case GLObjTokenizer.VERTEX :
+					Visitor.onVertex(tokenizer.nextFloat(), tokenizer.nextFloat(), tokenizer.nextFloat());
+					size[0]++;
+				break;
+				case GLObjTokenizer.TEXTURE_COORDINATE :
+					final float u = tokenizer.nextFloat();
+					final float v = tokenizer.nextFloat();
+					final float w = tokenizer.hasNext() ? tokenizer.nextFloat() : 0.0f;//if it has uvw coordinate
+					if(post_process_state[0]) {//flip UV
+						Visitor.onTexCoord(v, u, w);
+					}else {
+						Visitor.onTexCoord(u, v, w);
+					}
+					size[1]++;
+				break;
+				case GLObjTokenizer.NORMAL :
+					Visitor.onNormal(tokenizer.nextFloat(), tokenizer.nextFloat(), tokenizer.nextFloat());
+					size[2]++;
+				break;
+				case GLObjTokenizer.FACE :
+					int count = 0;
+					do {
+						indices = ensureCorner(indices, count + 1);
+						tokenizer.nextCorner(indices[count++]);
+					}while(count < 3 || tokenizer.hasNext());
+					if(faces.length <= count) {
+						faces = Arrays.copyOf(faces, 2 * count);
+					}
+					if(faces[count] == null) {
+						faces[count] = new int[3][count];
+					}
+					final int[][] face = faces[count];
+					final int[] offset = getCorrection(size[0], size[1], size[2]);
+					for(int i = 0; i < count; i++) {
+						for(int j = 0; j < 3; j++) {
+							face[j][i] = indices[i][j] + offset[j];
+						}
+					}
+					Visitor.onFace(face[0], face[1], face[2]);
+				break;
+				case GLObjTokenizer.USE_MATERIAL : Visitor.onUseMtl(tokenizer.getName());
+				break;
+				default:
+					break;
+				}
+				unread = tokenizer.nextLine();
+			}
+		}catch(IOException ioe) {
+			throw new GLModelLoadingException(ioe.getMessage(), ioe.getCause(), ioe.getStackTrace(), "IOException");
+		}catch(NumberFormatException ne) {
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", ne.getCause(), ne.getStackTrace(), "GLModelLoadingException");
+		}
+	}
+	
+	@Override
+	public CompletableFuture<Mesh[]> ImportWaveFrontObjAsync() {
+		//Variables
+		final CompletableFuture<Mesh[]> future = new CompletableFuture<Mesh[]>();
+		execute(future, new Runnable() {
+			@Override
+			public void run() {
+				if(future.isDone()) {//cancelled before it starts
+					return;
+				}
+				obj_task = future;
+				try {
+					future.complete(ImportWaveFrontObj());
+				}catch(Throwable th) {
+					future.completeExceptionally(th);//nothing happens if the future has been cancelled
+				}finally {
+					obj_task = null;
+				}
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Import obj model file line by line
+	 * @return The mesh in the obj file before post processing.
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard obj file
+	 */
+	private ArrayList<Mesh> ImportWaveFrontObjBuffered() throws GLModelLoadingException{
 		//Variables
 		String line = "";
 		ArrayList<Mesh> object = new ArrayList<Mesh>(0);
 		String[] vector = new String[3];
-		String[] raw_face = null;
-		float[][] indices = new float[3][3];//{{X_ver, X_tex, X_nor},{Y_ver,....},{}}
-		GLVector3[] faces = new GLVector3[3];
-		Mesh[] returnValue = null;
-		int[] size = {0,0,0};
+		int[][] indices = new int[3][3];//{{X_ver, X_tex, X_nor},{Y_ver,....},{}}
+		
+		final Future<?> task = obj_task;
+		int lines = 0;
 		
 		int CurrentMesh = -1;//as a index for mesh[]
+		smoothing_group = GLNormalGenerator.SMOOTHING_DEFAULT;
 		try {
 			line = objreader.readLine();
 			Copyright = line.substring(2);//the first line always contains copyright info
@@ -122,80 +410,52 @@ final class GLModelImporter implements GLModelLoader{
 				}else if(line.startsWith(Data_Instrctor[0])||line.startsWith(Data_Instrctor[6])) {//vertex data
 					if(line.startsWith(Data_Instrctor[0])){
 						vector = getVector3(line, 3);
-						object.get(CurrentMesh).newVertex(Float.parseFloat(vector[0]), Float.parseFloat(vector[1]), Float.parseFloat(vector[2]));
+						object.get(CurrentMesh).newVertex(GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[2]));
 					}else {
 						vector = getVector3(line, 2);
-						object.get(CurrentMesh).newVertex(Float.parseFloat(vector[0]), Float.parseFloat(vector[1]), Float.parseFloat(vector[2]));
+						object.get(CurrentMesh).newVertex(GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[2]));
 					}
 					
 				}else if(line.startsWith(Data_Instrctor[1])) {//texture coordinate
 					vector = getVector3(line, 3);
 					if(post_process_state[0]) {//flip UV
 						if(vector.length == 3) {//if it has uvw coordinate
-							object.get(CurrentMesh).newTextureCoordinate(Float.parseFloat(vector[1]), Float.parseFloat(vector[0]), Float.parseFloat(vector[2]));
+							object.get(CurrentMesh).newTextureCoordinate(GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[2]));
 						}else {
-							object.get(CurrentMesh).newTextureCoordinate(Float.parseFloat(vector[1]), Float.parseFloat(vector[0]), 0.0f);
+							object.get(CurrentMesh).newTextureCoordinate(GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[0]), 0.0f);
 						}
 					}else {
 						if(vector.length == 3) {
-							object.get(CurrentMesh).newTextureCoordinate(Float.parseFloat(vector[0]), Float.parseFloat(vector[1]), Float.parseFloat(vector[2]));
+							object.get(CurrentMesh).newTextureCoordinate(GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[2]));
 						}else {
-							object.get(CurrentMesh).newTextureCoordinate(Float.parseFloat(vector[0]), Float.parseFloat(vector[1]), 0.0f);
+							object.get(CurrentMesh).newTextureCoordinate(GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[1]), 0.0f);
 						}
 					}
 					
 				}else if(line.startsWith(Data_Instrctor[2])) {//normal
 					vector = getVector3(line, 3);
-					object.get(CurrentMesh).newNormal(Float.parseFloat(vector[0]), Float.parseFloat(vector[1]), Float.parseFloat(vector[2]));
+					object.get(CurrentMesh).newNormal(GLNumberParser.parseFloat(vector[0]), GLNumberParser.parseFloat(vector[1]), GLNumberParser.parseFloat(vector[2]));
 					
 				}else if(line.startsWith(Data_Instrctor[3])) {//face
-					vector = getVector3(line, 2);
+					vector = getPolygon(line, 2);
+					indices = ensureCorner(indices, vector.length);
 					for(int i = 0; i <= vector.length - 1; i++) {
-						raw_face = vector[i].split("/");
-						indices[i][0] = Float.parseFloat(raw_face[0]);
-						if(raw_face.length == 2) {//only contains vertex and texture coordinate index
-							indices[i][1] = Float.parseFloat(raw_face[1]);
-							indices[i][2] = 0.0f;
-						}else if(raw_face.length == 3) {
-							if(raw_face[1].isEmpty()) {//means there is no texture coordinate
-								indices[i][1] = 0.0f;
-							}else {
-								indices[i][1] = Float.parseFloat(raw_face[1]);
-							}
-							indices[i][2] = Float.parseFloat(raw_face[2]);
-						}
-					}
-					
-					if(post_process_state[2]) {//index correction
-						//Different Behaviours of exporter
-						if(behaviour_index == START_FROM_NEGATIVE_NUM_OF_ELEMENT) {
-							size[0] = object.get(CurrentMesh).getVertexSize();
-							size[1] = object.get(CurrentMesh).getTextureCoordinateSize();
-							size[2] = object.get(CurrentMesh).getNormalSize();
-							
-							faces[0] = new GLVector3(new float[] {indices[0][0] + size[0], indices[1][0] + size[0], indices[2][0] + size[0]});//vertex
-							faces[1] = new GLVector3(new float[] {indices[0][1] + size[1], indices[1][1] + size[1], indices[2][1] + size[1]});//texture coordinate
-							faces[2] = new GLVector3(new float[] {indices[0][2] + size[2], indices[1][2] + size[2], indices[2][2] + size[2]});//normal
-						}else if(behaviour_index == START_FROM_ONE) {
-							faces[0] = new GLVector3(new float[] {indices[0][0] - 1, indices[1][0] - 1, indices[2][0] - 1});//vertex
-							faces[1] = new GLVector3(new float[] {indices[0][1] - 1, indices[1][1] - 1, indices[2][1] - 1});//texture coordinate
-							faces[2] = new GLVector3(new float[] {indices[0][2] - 1, indices[1][2] - 1, indices[2][2] - 1});//normal
-						}
-					}else if(post_process_state[2] == false||behaviour_index == START_FROM_ZERO){
-						faces[0] = new GLVector3(new float[] {indices[0][0], indices[1][0], indices[2][0]});//vertex
-						faces[1] = new GLVector3(new float[] {indices[0][1], indices[1][1], indices[2][1]});//texture coordinate
-						faces[2] = new GLVector3(new float[] {indices[0][2], indices[1][2], indices[2][2]});//normal
+						getCorner(vector[i], indices[i]);
 					}
-					object.get(CurrentMesh).newFace(new Face(faces[0], faces[1], faces[2]));
+					uploadPolygon(object.get(CurrentMesh), indices, vector.length);
 					
 				}else if(line.startsWith(Data_Instrctor[5])) {//using material
 					object.get(CurrentMesh).setMtl(line.substring(7));
+				}else if(line.startsWith(Data_Instrctor[7])) {//smoothing group
+					smoothing_group = GLObjTokenizer.parseSmoothingGroup(line.substring(2));
+				}
+				if((++lines & CANCEL_MASK) == 0) {
+					checkCancelled(task);
 				}
 				line = objreader.readLine();
 			}
 			
-			returnValue = PostProcess_EliminateIndex(post_process_state[3], object);
-			return returnValue;
+			return object;
 			
 		}catch(IOException ioe) {
 			throw new GLModelLoadingException(ioe.getMessage(), ioe.getCause(), ioe.getStackTrace(), "IOException");
@@ -206,13 +466,456 @@ final class GLModelImporter implements GLModelLoader{
 		}
 	}
 	
+	/**
+	 * Import obj model file using the byte tokenizer, the result is the same as reading the file line by line
+	 * @return The mesh in the obj file before post processing.
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard obj file
+	 */
+	private ArrayList<Mesh> ImportWaveFrontObjChannel() throws GLModelLoadingException{
+		//Variables
+		ArrayList<Mesh> object = new ArrayList<Mesh>(0);
+		float[] vector = new float[3];
+		int[][] indices = new int[3][3];//{{X_ver, X_tex, X_nor},{Y_ver,....},{}}
+		final Future<?> task = obj_task;
+		int lines = 0;
+		
+		int CurrentMesh = -1;//as a index for mesh[]
+		smoothing_group = GLNormalGenerator.SMOOTHING_DEFAULT;
+		try {
+			final GLObjTokenizer tokenizer = new GLObjTokenizer(objchannel, 0L, objchannel.size());
+			boolean unread = tokenizer.nextLine();
+			if(unread) {
+				Copyright = tokenizer.getString(2);//the first line always contains copyright info
+			}
+			while(unread) {
+				switch(tokenizer.getDirective()) {
+				case GLObjTokenizer.MATERIAL_LIBRARY : mtl_lib = tokenizer.getName();
+				break;
+				case GLObjTokenizer.OBJECT ://a new MESH found!!!
+					object.add(new Mesh());
+					CurrentMesh++;
+					object.get(CurrentMesh).setMeshName(tokenizer.getName());
+					object.get(CurrentMesh).Index_Eliminated = post_process_state[3];
+				break;
+				case GLObjTokenizer.VERTEX :
+					vector[0] = tokenizer.nextFloat();
+					vector[1] = tokenizer.nextFloat();
+					vector[2] = tokenizer.nextFloat();
+					object.get(CurrentMesh).newVertex(vector[0], vector[1], vector[2]);
+				break;
+				case GLObjTokenizer.TEXTURE_COORDINATE :
+					vector[0] = tokenizer.nextFloat();
+					vector[1] = tokenizer.nextFloat();
+					vector[2] = tokenizer.hasNext() ? tokenizer.nextFloat() : 0.0f;//if it has uvw coordinate
+					if(post_process_state[0]) {//flip UV
+						object.get(CurrentMesh).newTextureCoordinate(vector[1], vector[0], vector[2]);
+					}else {
+						object.get(CurrentMesh).newTextureCoordinate(vector[0], vector[1], vector[2]);
+					}
+				break;
+				case GLObjTokenizer.NORMAL :
+					vector[0] = tokenizer.nextFloat();
+					vector[1] = tokenizer.nextFloat();
+					vector[2] = tokenizer.nextFloat();
+					object.get(CurrentMesh).newNormal(vector[0], vector[1], vector[2]);
+				break;
+				case GLObjTokenizer.FACE :
+					int count = 0;
+					do {
+						indices = ensureCorner(indices, count + 1);
+						tokenizer.nextCorner(indices[count++]);
+					}while(count < 3 || tokenizer.hasNext());
+					uploadPolygon(object.get(CurrentMesh), indices, count);
+				break;
+				case GLObjTokenizer.USE_MATERIAL : object.get(CurrentMesh).setMtl(tokenizer.getName());
+				break;
+				case GLObjTokenizer.SMOOTHING_GROUP : smoothing_group = tokenizer.getSmoothingGroup();
+				break;
+				default:
+					break;
+				}
+				if((++lines & CANCEL_MASK) == 0) {
+					checkCancelled(task);
+				}
+				unread = tokenizer.nextLine();
+			}
+			
+			return object;
+			
+		}catch(IOException ioe) {
+			throw new GLModelLoadingException(ioe.getMessage(), ioe.getCause(), ioe.getStackTrace(), "IOException");
+		}catch(NumberFormatException ne) {//if this exception throw, that probably means the file is not a obj file or it is not triangulated.
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", ne.getCause(), ne.getStackTrace(), "GLModelLoadingException");
+		}catch(IndexOutOfBoundsException iob) {//data is given before any mesh
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", iob.getCause(), iob.getStackTrace(), "GLModelLoadingException");
+		}
+	}
+	
+	/**
+	 * Import obj model file by splitting the file into chunks on line boundaries and parsing them on a ForkJoinPool.
+	 * The chunks are stitched together in file order so the result is the same as the sequential import.
+	 * @return The mesh in the obj file before post processing.
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard obj file
+	 */
+	private ArrayList<Mesh> ImportWaveFrontObjParallel() throws GLModelLoadingException{
+		//Variables
+		ArrayList<Mesh> object = new ArrayList<Mesh>(0);
+		int[][] indices = new int[3][3];//{{X_ver, X_tex, X_nor},{Y_ver,....},{}}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		final Future<?> task = obj_task;
+		
+		int CurrentMesh = -1;//as a index for mesh[]
+		smoothing_group = GLNormalGenerator.SMOOTHING_DEFAULT;
+		try {
+			final long[] boundary = getChunkBoundary(objchannel.size());
+			final GLObjChunk[] chunks = new GLObjChunk[boundary.length - 1];
+			for(int i = 0; i < chunks.length; i++) {
+				chunks[i] = new GLObjChunk(objchannel, boundary[i], boundary[i + 1], post_process_state[0], post_process_state[1], task);
+				pool.execute(chunks[i]);
+			}
+			
+			for(GLObjChunk chunk : chunks) {//stitch in file order
+				chunk.join();
+				checkCancelled(task);//a cancelled chunk stops early
+				if(chunk.Error instanceof GLModelLoadingException) {
+					throw (GLModelLoadingException)chunk.Error;
+				}else if(chunk.Error instanceof IOException) {
+					throw (IOException)chunk.Error;
+				}else if(chunk.Error instanceof NumberFormatException) {
+					throw (NumberFormatException)chunk.Error;
+				}
+				if(chunk.Copyright != null) {
+					Copyright = chunk.Copyright;
+				}
+				if(chunk.Mtl_lib != null) {
+					mtl_lib = chunk.Mtl_lib;
+				}
+				
+				for(GLObjChunk.Segment segment : chunk.Segments) {
+					if(segment.Name != null) {//a new MESH found!!!
+						object.add(new Mesh());
+						CurrentMesh++;
+						object.get(CurrentMesh).setMeshName(segment.Name);
+						object.get(CurrentMesh).Index_Eliminated = post_process_state[3];
+					}else if(segment.isEmpty()) {
+						continue;
+					}
+					final Mesh mesh = object.get(CurrentMesh);
+					//number of elements in the mesh before this segment
+					final int[] size = {mesh.getVertexSize(), mesh.getTextureCoordinateSize(), mesh.getNormalSize()};
+					
+					mesh.newVertices(chunk.Vertices.array(), segment.VertexStart, segment.VertexEnd - segment.VertexStart);
+					mesh.newTextureCoordinates(chunk.TextureCoordinates.array(), segment.TextureCoordinateStart, segment.TextureCoordinateEnd - segment.TextureCoordinateStart);
+					mesh.newNormals(chunk.Normals.array(), segment.NormalStart, segment.NormalEnd - segment.NormalStart);
+					for(int offset = segment.FaceStart; offset < segment.FaceEnd; offset += GLObjChunk.getFaceStride(chunk.Faces[offset])) {
+						final int count = chunk.Faces[offset];
+						indices = ensureCorner(indices, count);
+						for(int j = 0; j < 3 * count; j++) {
+							indices[j / 3][j % 3] = chunk.Faces[offset + 1 + j];
+						}
+						final int element = offset + 1 + 3 * count;
+						if(chunk.Faces[element + 3] != GLObjChunk.CONTINUE_GROUP) {
+							smoothing_group = chunk.Faces[element + 3];
+						}
+						uploadPolygon(mesh, indices, count, size[0] + chunk.Faces[element], size[1] + chunk.Faces[element + 1], size[2] + chunk.Faces[element + 2]);
+					}
+					if(segment.Mtl != null) {
+						mesh.setMtl(segment.Mtl);
+					}
+				}
+				if(chunk.LastGroup != GLObjChunk.CONTINUE_GROUP) {//an "s" line may not be followed by a face in its chunk
+					smoothing_group = chunk.LastGroup;
+				}
+			}
+			
+			return object;
+			
+		}catch(IOException ioe) {
+			throw new GLModelLoadingException(ioe.getMessage(), ioe.getCause(), ioe.getStackTrace(), "IOException");
+		}catch(NumberFormatException ne) {//if this exception throw, that probably means the file is not a obj file or it is not triangulated.
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", ne.getCause(), ne.getStackTrace(), "GLModelLoadingException");
+		}catch(IndexOutOfBoundsException iob) {//data is given before any mesh
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Standard Obj File)", iob.getCause(), iob.getStackTrace(), "GLModelLoadingException");
+		}finally {
+			pool.shutdown();
+		}
+	}
+	
+	/**
+	 * Split the obj file into chunks, each chunk starts right after a line feed.
+	 * Several chunks are given to each thread so that the work can be balanced.
+	 * @param FileSize The size of the obj file
+	 * @return The position of each chunk boundary, starting with 0 and ending with the file size
+	 * @throws IOException If an I/O error occurs
+	 */
+	private long[] getChunkBoundary(long FileSize) throws IOException{
+		//Variables
+		final long min_chunk = GLObjTokenizer.CHUNK_SIZE;
+		final int count = (int)Math.max(1L, Math.min(4L * parallelism, FileSize / min_chunk));
+		final ByteBuffer probe = ByteBuffer.allocate(4096);
+		long[] boundary = new long[count + 1];
+		int found = 1;
+		
+		boundary[0] = 0L;
+		for(int i = 1; i < count; i++) {
+			long position = Math.max(FileSize * i / count, boundary[found - 1]);
+			long split = -1L;
+			//search for the next line feed
+			while(split == -1L && position < FileSize) {
+				probe.clear();
+				final int read = objchannel.read(probe, position);
+				if(read <= 0) {
+					break;
+				}
+				for(int j = 0; j < read; j++) {
+					if(probe.get(j) == '\n') {
+						split = position + j + 1;
+						break;
+					}
+				}
+				position += read;
+			}
+			if(split == -1L || split >= FileSize) {//no more lines
+				break;
+			}
+			if(split > boundary[found - 1]) {
+				boundary[found++] = split;
+			}
+		}
+		boundary[found++] = FileSize;
+		return Arrays.copyOf(boundary, found);
+	}
+	
+	/**
+	 * Make sure the corner array can hold the given number of corners, the corners already read are kept
+	 * @param indices {{X_ver, X_tex, X_nor},{Y_ver,....},{}}
+	 * @param Count The number of corners
+	 * @return The corner array
+	 */
+	private static int[][] ensureCorner(int[][] indices, int Count) {
+		if(indices.length >= Count) {
+			return indices;
+		}
+		int[][] returnValue = Arrays.copyOf(indices, Math.max(Count, 2 * indices.length));
+		for(int i = indices.length; i < returnValue.length; i++) {
+			returnValue[i] = new int[3];
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Split one polygon face into triangles if triangulation is enabled, then apply index correction and add them to the mesh
+	 * @param mesh The mesh which the face belongs to
+	 * @param indices {{X_ver, X_tex, X_nor},{Y_ver,....},{}} read from the obj file
+	 * @param Count The number of corners of the face
+	 * @throws GLModelLoadingException If the face is not a triangle and triangulation is disabled
+	 */
+	private void uploadPolygon(Mesh mesh, int[][] indices, int Count) throws GLModelLoadingException{
+		uploadPolygon(mesh, indices, Count, mesh.getVertexSize(), mesh.getTextureCoordinateSize(), mesh.getNormalSize());
+	}
+	
+	/**
+	 * Split one polygon face into triangles if triangulation is enabled, then apply index correction and add them to the mesh
+	 * @param mesh The mesh which the face belongs to
+	 * @param indices {{X_ver, X_tex, X_nor},{Y_ver,....},{}} read from the obj file
+	 * @param Count The number of corners of the face
+	 * @param VertexSize The number of vertices in the mesh when the face is read
+	 * @param TextureSize The number of texture coordinates in the mesh when the face is read
+	 * @param NormalSize The number of normals in the mesh when the face is read
+	 * @throws GLModelLoadingException If the face is not a triangle and triangulation is disabled
+	 */
+	private void uploadPolygon(Mesh mesh, int[][] indices, int Count, int VertexSize, int TextureSize, int NormalSize) throws GLModelLoadingException{
+		if(Count == 3) {
+			uploadFace(mesh, indices, VertexSize, TextureSize, NormalSize);
+			return;
+		}
+		if(Count < 3 || !post_process_state[1]) {//face is not a triangle
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("File Cannot Be Input(Non-Triangulated Obj File)", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//the position of each corner is needed to find the concave corners
+		if(polygon_position.length < 3 * Count) {
+			polygon_position = new float[6 * Count];
+			polygon_triangle = new int[6 * Count];
+		}
+		final float[] vertices = mesh.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		float[] position = polygon_position;
+		for(int i = 0; i < Count && position != null; i++) {
+			final int vertex = getPolygonVertex(indices[i][0], VertexSize);
+			if(vertex < 0 || vertex >= mesh.getVertexSize()) {//position is unknown, the face will be split as a fan
+				position = null;
+			}else {
+				System.arraycopy(vertices, 3 * vertex, position, 3 * i, 3);
+			}
+		}
+		final int triangles = triangulator.triangulate(position, Count, polygon_triangle);
+		for(int i = 0; i < triangles; i++) {
+			triangle[0] = indices[polygon_triangle[3 * i]];
+			triangle[1] = indices[polygon_triangle[3 * i + 1]];
+			triangle[2] = indices[polygon_triangle[3 * i + 2]];
+			uploadFace(mesh, triangle, VertexSize, TextureSize, NormalSize);
+		}
+	}
+	
+	/**
+	 * Find the vertex which a corner of a polygon face points to
+	 * @param Index The vertex index read from the obj file
+	 * @param VertexSize The number of vertices in the mesh when the face is read
+	 * @return The position of the vertex in the mesh
+	 */
+	private int getPolygonVertex(int Index, int VertexSize) {
+		if(post_process_state[2]) {//index correction
+			if(behaviour_index == START_FROM_NEGATIVE_NUM_OF_ELEMENT) {
+				return Index + VertexSize;
+			}else if(behaviour_index == START_FROM_ONE) {
+				return Index - 1;
+			}
+			return Index;
+		}
+		//obj standard
+		return Index > 0 ? Index - 1 : Index + VertexSize;
+	}
+	
+	/**
+	 * Apply index correction to the indices of one face and add it to the mesh
+	 * @param mesh The mesh which the face belongs to
+	 * @param indices {{X_ver, X_tex, X_nor},{Y_ver,....},{}} read from the obj file
+	 * @param VertexSize The number of vertices in the mesh when the face is read
+	 * @param TextureSize The number of texture coordinates in the mesh when the face is read
+	 * @param NormalSize The number of normals in the mesh when the face is read
+	 */
+	private void uploadFace(Mesh mesh, int[][] indices, int VertexSize, int TextureSize, int NormalSize) {
+		//Variables
+		final int[] offset = getCorrection(VertexSize, TextureSize, NormalSize);
+		
+		mesh.newFace(
+				new int[] {indices[0][0] + offset[0], indices[1][0] + offset[0], indices[2][0] + offset[0]},//vertex
+				new int[] {indices[0][1] + offset[1], indices[1][1] + offset[1], indices[2][1] + offset[1]},//texture coordinate
+				new int[] {indices[0][2] + offset[2], indices[1][2] + offset[2], indices[2][2] + offset[2]}//normal
+				);
+		mesh.SmoothingGroups.add(smoothing_group);
+	}
+	
+	/**
+	 * Find the value which needs to be added to each index by index correction
+	 * @param VertexSize The number of vertices in the mesh when the face is read
+	 * @param TextureSize The number of texture coordinates in the mesh when the face is read
+	 * @param NormalSize The number of normals in the mesh when the face is read
+	 * @return {vertex, texture coordinate, normal} offset, all zero if index correction is disabled
+	 */
+	private int[] getCorrection(int VertexSize, int TextureSize, int NormalSize) {
+		//Variables
+		final int[] offset = correction;
+		offset[0] = 0;
+		offset[1] = 0;
+		offset[2] = 0;
+		
+		if(post_process_state[2]) {//index correction
+			//Different Behaviours of exporter
+			if(behaviour_index == START_FROM_NEGATIVE_NUM_OF_ELEMENT) {
+				offset[0] = VertexSize;
+				offset[1] = TextureSize;
+				offset[2] = NormalSize;
+			}else if(behaviour_index == START_FROM_ONE) {
+				offset[0] = -1;
+				offset[1] = -1;
+				offset[2] = -1;
+			}
+		}
+		return offset;
+	}
+	
 	@Override
 	public Material[] ImportWaveFrontMtl() throws GLModelLoadingException{
+		final Material[] returnValue = mtl_file != null ? GLMaterialLibraryCache.get(mtl_file, this) : ImportWaveFrontMtlFile();
+		if(texture_threads > 0) {//start decoding before the obj file is imported
+			textures = GLTexturePrefetcher.prefetch(returnValue, mtl_file != null ? mtl_file.getAbsoluteFile().getParentFile() : null, texture_threads);
+		}
+		return returnValue;
+	}
+	
+	@Override
+	public CompletableFuture<Material[]> ImportWaveFrontMtlAsync() {
+		//Variables
+		final CompletableFuture<Material[]> future = new CompletableFuture<Material[]>();
+		execute(future, new Runnable() {
+			@Override
+			public void run() {
+				if(future.isDone()) {//cancelled before it starts
+					return;
+				}
+				mtl_task = future;
+				try {
+					future.complete(ImportWaveFrontMtl());
+				}catch(Throwable th) {
+					future.completeExceptionally(th);//nothing happens if the future has been cancelled
+				}finally {
+					mtl_task = null;
+				}
+			}
+		});
+		return future;
+	}
+	
+	/**
+	 * Run an asynchronous import on the executor
+	 * @param Future The future of the import, it completes exceptionally if the executor does not accept the import
+	 * @param Task The import
+	 */
+	private void execute(CompletableFuture<?> Future, Runnable Task) {
+		try {
+			(executor != null ? executor : GLExecutors.getDefault()).execute(Task);
+		}catch(RejectedExecutionException ree) {
+			Future.completeExceptionally(ree);
+		}
+	}
+	
+	/**
+	 * Stop the import if its future has been cancelled or completed by the user
+	 * @param Task The future of the asynchronous import, null for a synchronous import
+	 * @throws CancellationException If the import should stop
+	 */
+	private static void checkCancelled(Future<?> Task) throws CancellationException{
+		if(Task != null && Task.isDone()) {
+			throw new CancellationException("Import Is Cancelled");
+		}
+	}
+	
+	/**
+	 * Import the mtl file of this importer from the cache file or by parsing it, used by {@link GLMaterialLibraryCache} when the
+	 * library is not in memory
+	 * @return The materials in the mtl file
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard mtl file
+	 */
+	Material[] ImportWaveFrontMtlFile() throws GLModelLoadingException{
+		final GLModelCache.Key key = mtl_file == null ? null : GLModelCache.getMtlKey(mtl_file);
+		if(key != null) {
+			final Material[] cached = GLModelCache.readMtl(key);
+			if(cached != null) {
+				return cached;
+			}
+		}
+		
+		final Material[] returnValue = ImportWaveFrontMtlBuffered();
+		if(key != null) {
+			GLModelCache.writeMtl(key, returnValue);
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Import mtl material file line by line
+	 * @return The materials in the mtl file.
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard mtl file
+	 */
+	private Material[] ImportWaveFrontMtlBuffered() throws GLModelLoadingException{
 		//Variables
 		String line = "";
 		String[] part = null;
 		ArrayList<Material> object = new ArrayList<Material>(0);
 		float[] vector = new float[3];
+		final Future<?> task = mtl_task;
+		int lines = 0;
 		
 		int CurrentMtl = -1;
 		try {
@@ -227,20 +930,20 @@ final class GLModelImporter implements GLModelLoader{
 					
 					object.get(CurrentMtl).setMtlName(part[1]);
 				}else if(part[0].equals(Mtl_Instrctor[1])) {//specular exponent(shininess)
-					object.get(CurrentMtl).setNs(Float.parseFloat(part[1]));
+					object.get(CurrentMtl).setNs(GLNumberParser.parseFloat(part[1]));
 					
 				}else if(part[0].equals(Mtl_Instrctor[2])) {//dissolved
-					object.get(CurrentMtl).setd(Float.parseFloat(part[1]));
+					object.get(CurrentMtl).setd(GLNumberParser.parseFloat(part[1]));
 					
 				}else if(part[0].equals(Mtl_Instrctor[3])) {//Inverted dissolved
-					object.get(CurrentMtl).setTr(Float.parseFloat(part[1]));
+					object.get(CurrentMtl).setTr(GLNumberParser.parseFloat(part[1]));
 					
 				}else if(part[0].equals(Mtl_Instrctor[4])) {//transmission filter
 					vector = getColor3(part, 1);
 					object.get(CurrentMtl).setTf(vector[0], vector[1], vector[2]);
 					
 				}else if(part[0].equals(Mtl_Instrctor[5])) {//refractive index
-					object.get(CurrentMtl).setNi(Float.parseFloat(part[1]));
+					object.get(CurrentMtl).setNi(GLNumberParser.parseFloat(part[1]));
 					
 				}else if(part[0].equals(Mtl_Instrctor[6])) {//ambient color
 					object.get(CurrentMtl).setK_Para(Material.GLMaterialDataType.Ambient, getColor3(part, 1));
@@ -270,7 +973,7 @@ final class GLModelImporter implements GLModelLoader{
 					object.get(CurrentMtl).Specular_Map = map;
 					
 				}else if(part[0].equals(Mtl_Instrctor[13])) {//illumination enum
-					object.get(CurrentMtl).setIllum(Integer.parseInt(part[1]));
+					object.get(CurrentMtl).setIllum(GLNumberParser.parseInt(part[1]));
 					
 				}else if(part[0].equals(Mtl_Instrctor[14]) || part[0].equals(Mtl_Instrctor[17])) {//normal map/bump map
 					map = object.get(CurrentMtl).new Map(Material.GLMaterialDataType.Normal, part[part.length - 1]);
@@ -288,6 +991,9 @@ final class GLModelImporter implements GLModelLoader{
 					object.get(CurrentMtl).Decal_Map = map;
 					
 				}
+				if((++lines & CANCEL_MASK) == 0) {
+					checkCancelled(task);
+				}
 				line = mtlreader.readLine();
 			}
 		}catch(IOException ioe) {
@@ -314,11 +1020,71 @@ final class GLModelImporter implements GLModelLoader{
 		break;
 		case INDEX_ELIMINATION : post_process_state[3] = Enabled;
 		break;
+		case INDEX_WELDING : post_process_state[4] = Enabled;
+		break;
+		case OPTIMIZE_VERTEX_CACHE : post_process_state[5] = Enabled;
+		break;
+		case OPTIMIZE_OVERDRAW : post_process_state[6] = Enabled;
+		break;
+		case GENERATE_NORMALS : post_process_state[7] = Enabled;
+		break;
+		case REGENERATE_NORMALS : post_process_state[8] = Enabled;
+		break;
 		default:
 			break;
 		}
 	}
 	
+	@Override
+	public void setOverdrawThreshold(float Threshold) throws GLModelLoadingException{
+		if(!(Threshold >= 1.0f)) {
+			StackTraceElement ste = new StackTraceElement("GLObjLoader", "GLObjLoader", null, -1);
+			Throwable th = new Throwable();
+			throw new GLModelLoadingException("Overdraw Threshold Must Be At Least One", th, new StackTraceElement[] {ste}, "GLModelLoadingException");
+		}
+		overdraw_threshold = Threshold;
+	}
+	
+	@Override
+	public void setCreaseAngle(float Angle) throws GLModelLoadingException{
+		if(!(Angle >= 0.0f && Angle <= 180.0f)) {
+			StackTraceElement ste = new StackTraceElement("GLObjLoader", "GLObjLoader", null, -1);
+			Throwable th = new Throwable();
+			throw new GLModelLoadingException("Crease Angle Must Be Between 0 And 180", th, new StackTraceElement[] {ste}, "GLModelLoadingException");
+		}
+		crease_angle = Angle;
+	}
+	
+	@Override
+	public void setTexturePrefetch(int Threads) throws GLModelLoadingException{
+		if(Threads < 0) {
+			StackTraceElement ste = new StackTraceElement("GLObjLoader", "GLObjLoader", null, -1);
+			Throwable th = new Throwable();
+			throw new GLModelLoadingException("Number Of Threads Cannot Be Negative", th, new StackTraceElement[] {ste}, "GLModelLoadingException");
+		}
+		texture_threads = Threads;
+	}
+	
+	@Override
+	public GLTexturePrefetcher getTextures() {
+		return textures;
+	}
+	
+	@Override
+	public void setExecutor(Executor Executor) {
+		executor = Executor;
+	}
+	
+	@Override
+	public void setParallelism(int Parallelism) throws GLModelLoadingException{
+		if(Parallelism < 1) {
+			StackTraceElement ste = new StackTraceElement("GLObjLoader", "GLObjLoader", null, -1);
+			Throwable th = new Throwable();
+			throw new GLModelLoadingException("Parallelism Must Be At Least One", th, new StackTraceElement[] {ste}, "GLModelLoadingException");
+		}
+		parallelism = Parallelism;
+	}
+	
 	@Override
 	public void setIndexBehaviour(int IndexMode) throws GLModelLoadingException{
 		switch(IndexMode) {
@@ -344,6 +1110,43 @@ final class GLModelImporter implements GLModelLoader{
 		return Line.substring(offset).split(" ", 3);//To eliminate the beginning of the line such as "v  "
 	}
 	
+	/**
+	 * Split all corners of a face from the line data
+	 * @param Line The line contains face data
+	 * @param offset Index to start with
+	 * @return The String of each corner
+	 */
+	private final String[] getPolygon(String Line, int offset) {
+		return Line.substring(offset).split(" ");
+	}
+	
+	/**
+	 * Parse one face corner which is given as v, v/vt, v//vn or v/vt/vn without splitting the String.
+	 * Index that does not exist will be zero.
+	 * @param Corner The String of the face corner
+	 * @param Index The array to be written with {vertex, texture coordinate, normal} index
+	 * @throws NumberFormatException If the String is not a face corner
+	 */
+	private final void getCorner(String Corner, int[] Index) throws NumberFormatException{
+		final int length = Corner.length();
+		final int first = Corner.indexOf('/');
+		final int second = first == -1 ? -1 : Corner.indexOf('/', first + 1);
+		
+		Index[0] = GLNumberParser.parseInt(Corner, 0, first == -1 ? length : first);
+		Index[1] = 0;
+		Index[2] = 0;
+		if(first != -1) {
+			if(second == -1) {//only contains vertex and texture coordinate index
+				Index[1] = GLNumberParser.parseInt(Corner, first + 1, length);
+			}else {
+				if(second > first + 1) {//means there is texture coordinate
+					Index[1] = GLNumberParser.parseInt(Corner, first + 1, second);
+				}
+				Index[2] = GLNumberParser.parseInt(Corner, second + 1, length);
+			}
+		}
+	}
+	
 	/**
 	 * Convert a array which contains RGB value info to a float array
 	 * @param ValuePart a lie contains RGB value
@@ -351,7 +1154,90 @@ final class GLModelImporter implements GLModelLoader{
 	 * @return
 	 */
 	private final float[] getColor3(String[] ValuePart, int offset) {
-		return new float[] {Float.parseFloat(ValuePart[offset]), Float.parseFloat(ValuePart[1 + offset]), Float.parseFloat(ValuePart[2 + offset])};
+		return new float[] {GLNumberParser.parseFloat(ValuePart[offset]), GLNumberParser.parseFloat(ValuePart[1 + offset]), GLNumberParser.parseFloat(ValuePart[2 + offset])};
+	}
+	
+	/**
+	 * Part of post processing operation, normals are generated first, then welding is used if both welding and elimination are enabled,
+	 * then the vertex cache and overdraw are optimised
+	 * @param Raw_data The mesh array which needs to be processed
+	 * @return Mesh array after welding or eliminating index, or the raw data if neither is enabled
+	 * @throws IndexOutOfBoundsException
+	 * @throws CancellationException If the asynchronous import is cancelled between two steps
+	 */
+	private Mesh[] PostProcess_Index(ArrayList<Mesh> Raw_data) throws IndexOutOfBoundsException, CancellationException{
+		final Future<?> task = obj_task;
+		checkCancelled(task);
+		if(post_process_state[7] || post_process_state[8]) {
+			PostProcess_GenerateNormals(Raw_data);
+		}
+		checkCancelled(task);
+		final Mesh[] returnValue = post_process_state[4] ? PostProcess_WeldIndex(Raw_data) : PostProcess_EliminateIndex(post_process_state[3], Raw_data);
+		checkCancelled(task);
+		if(post_process_state[5] && (post_process_state[3] || post_process_state[4])) {
+			PostProcess_OptimizeVertexCache(returnValue);
+		}
+		checkCancelled(task);
+		if(post_process_state[6] && (post_process_state[3] || post_process_state[4])) {
+			PostProcess_OptimizeOverdraw(returnValue);
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Part of post processing operation, the normals of each mesh without normals are generated from its faces and smoothing groups.
+	 * The normals in the file are replaced as well if REGENERATE_NORMALS is enabled.
+	 * @param Raw_data The mesh array which index has not been eliminated
+	 * @throws IndexOutOfBoundsException If a vertex index is out of range
+	 */
+	private void PostProcess_GenerateNormals(ArrayList<Mesh> Raw_data) throws IndexOutOfBoundsException{
+		for(Mesh mesh : Raw_data) {
+			if(mesh.getNormalSize() != 0 && !post_process_state[8] || mesh.getFaceSize() == 0) {
+				continue;
+			}
+			final int[] group = mesh.SmoothingGroups.size() == mesh.getFaceSize() ? mesh.SmoothingGroups.array() : null;
+			final int[] normal_index = new int[3 * mesh.getFaceSize()];
+			final float[] normals = GLNormalGenerator.generate(mesh.getDataArray(Mesh.GLModelDataType.Vertices).array(), mesh.getIndexArray(Mesh.GLModelDataType.Vertices).array(), 
+					group, mesh.getFaceSize(), mesh.getVertexSize(), crease_angle, normal_index);
+			mesh.getDataArray(Mesh.GLModelDataType.Normals).clear();
+			mesh.getDataArray(Mesh.GLModelDataType.Normals).add(normals, 0, normals.length);
+			mesh.getIndexArray(Mesh.GLModelDataType.Normals).clear();
+			mesh.getIndexArray(Mesh.GLModelDataType.Normals).add(normal_index, 0, normal_index.length);
+		}
+	}
+	
+	/**
+	 * Part of post processing operation, each mesh in the array is replaced by the optimised mesh
+	 * @param Data The mesh array which vertex, texture coordinate and normal share the same index
+	 */
+	private void PostProcess_OptimizeOverdraw(Mesh[] Data) {
+		for(int i = 0; i < Data.length; i++) {
+			Data[i] = GLOverdrawOptimizer.optimize(Data[i], overdraw_threshold);
+		}
+	}
+	
+	/**
+	 * Part of post processing operation, each mesh in the array is replaced by the optimised mesh
+	 * @param Data The mesh array which vertex, texture coordinate and normal share the same index
+	 */
+	private void PostProcess_OptimizeVertexCache(Mesh[] Data) {
+		for(int i = 0; i < Data.length; i++) {
+			Data[i] = GLVertexCacheOptimizer.optimize(Data[i]);
+		}
+	}
+	
+	/**
+	 * Part of post processing operation
+	 * @param Raw_data The mesh array which needs to be welded index
+	 * @return Mesh array which each unique combination of vertex/texture coordinate/normal is stored once and shares the same index
+	 * @throws IndexOutOfBoundsException
+	 */
+	private Mesh[] PostProcess_WeldIndex(ArrayList<Mesh> Raw_data) throws IndexOutOfBoundsException{
+		Mesh[] returning = new Mesh[Raw_data.size()];
+		for(int i = 0; i < returning.length; i++) {
+			returning[i] = GLIndexWelder.weld(Raw_data.get(i));
+		}
+		return returning;
 	}
 	
 	/**
@@ -366,8 +1252,10 @@ final class GLModelImporter implements GLModelLoader{
 		if(Enabled) {
 			//Variables
 			ArrayList<Mesh> returning = new ArrayList<Mesh>(0);
-			int[] face = null;
-			GLVector3[] vector = new GLVector3[3];
+			int[] face = new int[3];
+			int[][] vector = new int[3][];
+			final int[] none = {0, 0, 0};
+			float[] source = null;
 			
 			for(int i = 0; i < Raw_data.size(); i++) {//operate mesh[]
 				returning.add(new Mesh());
@@ -375,40 +1263,41 @@ final class GLModelImporter implements GLModelLoader{
 				returning.get(i).setMeshName(Raw_data.get(i).getMeshName());
 				returning.get(i).setMtl(Raw_data.get(i).getMtl());
 				returning.get(i).Index_Eliminated = true;
+				final float[] vertices = Raw_data.get(i).toFloatArray(Mesh.GLModelDataType.Vertices);
+				final float[] textures = Raw_data.get(i).toFloatArray(Mesh.GLModelDataType.TextureCoordinates);
+				final float[] normals = Raw_data.get(i).toFloatArray(Mesh.GLModelDataType.Normals);
 				for(int j = 0; j < Raw_data.get(i).getFaceSize(); j++) {//operate face[]
 					//vertex
-					face = Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.Vertices);
-					returning.get(i).newVertex(Raw_data.get(i).getVertex(face[0]).getComponentX(), Raw_data.get(i).getVertex(face[0]).getComponentY(), Raw_data.get(i).getVertex(face[0]).getComponentZ());
-					returning.get(i).newVertex(Raw_data.get(i).getVertex(face[1]).getComponentX(), Raw_data.get(i).getVertex(face[1]).getComponentY(), Raw_data.get(i).getVertex(face[1]).getComponentZ());
-					returning.get(i).newVertex(Raw_data.get(i).getVertex(face[2]).getComponentX(), Raw_data.get(i).getVertex(face[2]).getComponentY(), Raw_data.get(i).getVertex(face[2]).getComponentZ());
+					Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.Vertices, face, 0);
+					source = vertices;
+					for(int k = 0; k < 3; k++) {
+						checkIndex(face[k], source);
+						returning.get(i).newVertices(source, face[k], 1);
+					}
 					//texture
-					if(Raw_data.get(i).getTextureCoordinateSize() != 0) {//There are Texture Coordinates in this model
-						face = Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.TextureCoordinates);
-						returning.get(i).newTextureCoordinate(Raw_data.get(i).getTextureCoordinate(face[0]).getComponentX(), Raw_data.get(i).getTextureCoordinate(face[0]).getComponentY(), Raw_data.get(i).getTextureCoordinate(face[0]).getComponentZ());
-						returning.get(i).newTextureCoordinate(Raw_data.get(i).getTextureCoordinate(face[1]).getComponentX(), Raw_data.get(i).getTextureCoordinate(face[1]).getComponentY(), Raw_data.get(i).getTextureCoordinate(face[1]).getComponentZ());
-						returning.get(i).newTextureCoordinate(Raw_data.get(i).getTextureCoordinate(face[2]).getComponentX(), Raw_data.get(i).getTextureCoordinate(face[2]).getComponentY(), Raw_data.get(i).getTextureCoordinate(face[2]).getComponentZ());
+					if(textures.length != 0) {//There are Texture Coordinates in this model
+						Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.TextureCoordinates, face, 0);
+						source = textures;
+						for(int k = 0; k < 3; k++) {
+							checkIndex(face[k], source);
+							returning.get(i).newTextureCoordinates(source, face[k], 1);
+						}
 					}
 					//normal
-					if(Raw_data.get(i).getNormalSize() != 0) {//There are normals in this model
-						face = Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.Normals);
-						returning.get(i).newNormal(Raw_data.get(i).getNormal(face[0]).getComponentX(), Raw_data.get(i).getNormal(face[0]).getComponentY(), Raw_data.get(i).getNormal(face[0]).getComponentZ());
-						returning.get(i).newNormal(Raw_data.get(i).getNormal(face[1]).getComponentX(), Raw_data.get(i).getNormal(face[1]).getComponentY(), Raw_data.get(i).getNormal(face[1]).getComponentZ());
-						returning.get(i).newNormal(Raw_data.get(i).getNormal(face[2]).getComponentX(), Raw_data.get(i).getNormal(face[2]).getComponentY(), Raw_data.get(i).getNormal(face[2]).getComponentZ());
+					if(normals.length != 0) {//There are normals in this model
+						Raw_data.get(i).getFace(j).getIndex(Mesh.GLModelDataType.Normals, face, 0);
+						source = normals;
+						for(int k = 0; k < 3; k++) {
+							checkIndex(face[k], source);
+							returning.get(i).newNormals(source, face[k], 1);
+						}
 					}
 					//index
-					vector[0] = new GLVector3(new float[] {3 * j, 3 * j + 1, 3 * j + 2});
-					if(Raw_data.get(i).getTextureCoordinateSize() == 0) {
-						vector[1] = new GLVector3(new float[] {0.0f, 0.0f, 0.0f});
-					}else {
-						vector[1] = new GLVector3(new float[] {3 * j, 3 * j + 1, 3 * j + 2});
-					}
-					if(Raw_data.get(i).getNormalSize()== 0) {
-						vector[2] = new GLVector3(new float[] {0.0f, 0.0f, 0.0f});
-					}else {
-						vector[2] = new GLVector3(new float[] {3 * j, 3 * j + 1, 3 * j + 2});
-					}
+					vector[0] = new int[] {3 * j, 3 * j + 1, 3 * j + 2};
+					vector[1] = textures.length == 0 ? none : vector[0];
+					vector[2] = normals.length == 0 ? none : vector[0];
 					
-					returning.get(i).newFace(new Face(vector[0], vector[1], vector[2]));
+					returning.get(i).newFace(vector[0], vector[1], vector[2]);
 				}
 			}
 			
@@ -422,6 +1311,18 @@ final class GLModelImporter implements GLModelLoader{
 	}
 	}
 	
+	/**
+	 * Check if the index points to a vector in the array
+	 * @param Index The index of the vector
+	 * @param Data The vector data given as {X0, Y0, Z0, X1, ...}
+	 * @throws IndexOutOfBoundsException If the index is out of range
+	 */
+	private static void checkIndex(int Index, float[] Data) throws IndexOutOfBoundsException{
+		if(Index < 0 || 3 * Index + 2 >= Data.length) {
+			throw new IndexOutOfBoundsException("Index: " + Index + ", Size: " + Data.length / 3);
+		}
+	}
+	
 	/**
 	 * Find the map parameter from the line which contains the data we want
 	 * @param Line_data The line contains map parameter
@@ -461,28 +1362,28 @@ final class GLModelImporter implements GLModelLoader{
 				}
 				switch(i) {
 				case 0: //-o
-				vector[0] = Float.parseFloat(Line[index + 1]);
-				vector[1] = Float.parseFloat(Line[index + 2]);
-				vector[2] = Float.parseFloat(Line[index + 3]);
+				vector[0] = GLNumberParser.parseFloat(Line[index + 1]);
+				vector[1] = GLNumberParser.parseFloat(Line[index + 2]);
+				vector[2] = GLNumberParser.parseFloat(Line[index + 3]);
 				map.setO(vector[0], vector[1], vector[2]);
 				break;
 				case 1: //-s
-				vector[0] = Float.parseFloat(Line[index + 1]);
-				vector[1] = Float.parseFloat(Line[index + 2]);
-				vector[2] = Float.parseFloat(Line[index + 3]);
+				vector[0] = GLNumberParser.parseFloat(Line[index + 1]);
+				vector[1] = GLNumberParser.parseFloat(Line[index + 2]);
+				vector[2] = GLNumberParser.parseFloat(Line[index + 3]);
 				map.setS(vector[0], vector[1], vector[2]);
 				break;
 				case 2: //-t
-				vector[0] = Float.parseFloat(Line[index + 1]);
-				vector[1] = Float.parseFloat(Line[index + 2]);
-				vector[2] = Float.parseFloat(Line[index + 3]);
+				vector[0] = GLNumberParser.parseFloat(Line[index + 1]);
+				vector[1] = GLNumberParser.parseFloat(Line[index + 2]);
+				vector[2] = GLNumberParser.parseFloat(Line[index + 3]);
 				map.setT(vector[0], vector[1], vector[2]);
 				break;
 				case 3: //-bm
-				map.setBm(Float.parseFloat(Line[index + 1]));
+				map.setBm(GLNumberParser.parseFloat(Line[index + 1]));
 				break;
 				case 4: //-mm
-				map.setmm(Float.parseFloat(Line[index + 1]), Float.parseFloat(Line[index + 2]));
+				map.setmm(GLNumberParser.parseFloat(Line[index + 1]), GLNumberParser.parseFloat(Line[index + 2]));
 				break;
 				case 5: //-clamp
 				map.setClamp(Material.toSwitch(Line[index + 1]));
@@ -497,7 +1398,7 @@ final class GLModelImporter implements GLModelLoader{
 				map.setImfchan(Material.toChannel(Line[index + 1]));
 				break;
 				case 9: //-texres
-				map.setTexres(Integer.parseInt(Line[index + 1]));
+				map.setTexres(GLNumberParser.parseInt(Line[index + 1]));
 				break;
 				case 10: //-cc
 				map.setcc(Material.toSwitch(Line[index + 1]));
@@ -527,7 +1428,12 @@ final class GLModelImporter implements GLModelLoader{
 	@Override
 	public void dump() throws GLModelLoadingException{
 		try {
-			objreader.close();
+			if(objreader != null) {
+				objreader.close();
+			}
+			if(objchannel != null) {
+				objchannel.close();
+			}
 			if(MtlLoaded) {
 				mtlreader.close();
 			}
@@ -1,5 +1,8 @@
 package glModelLoader;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * GLModerloader is a open source obj model importer and it is fully supportive to java opengl libaray.
  * @author Haoqian Stephen Xu
@@ -20,6 +23,17 @@ public interface GLModelLoader {
 	 * Index start from -(number of element). For example, if there are 20 vertices, vertex index starts from -20.
 	 */
 	public final static int START_FROM_NEGATIVE_NUM_OF_ELEMENT = 20201;
+	//Reader Preference
+	/**
+	 * Read the obj file line by line using BufferedReader (default form)
+	 */
+	public final static int READER_BUFFERED = 30001;
+	/**
+	 * Read the obj file as raw bytes from a FileChannel in large chunks. Directives are found by the first bytes of each
+	 * line and numbers are parsed straight from the bytes, so no String is created for each line. It is recommended 
+	 * for very large obj files. The imported meshes are the same as {@link #READER_BUFFERED}.
+	 */
+	public final static int READER_CHANNEL = 30101;
 	
 	/**
 	 * Import obj model file from local computer.
@@ -29,12 +43,37 @@ public interface GLModelLoader {
 	public abstract Mesh[] ImportWaveFrontObj() throws GLModelLoadingException;
 	
 	/**
-	 * Import mtl model file from local computer.
+	 * Import obj model file from local computer without creating any mesh, the data is given to the visitor in file order.
+	 * Only FLIP_UV and INDEX_CORRECTION are applied, the other post processing types need the whole mesh and are ignored.
+	 * @param Visitor The visitor which receives the data
+	 * @throws GLModelLoadingException If the file is non-accessible or it is not a standard obj file
+	 */
+	public abstract void ImportWaveFrontObj(GLModelVisitor Visitor) throws GLModelLoadingException;
+	
+	/**
+	 * Import obj model file on the executor without blocking the calling thread, see {@link #setExecutor(Executor)}.
+	 * It can run at the same time as {@link #ImportWaveFrontMtlAsync()} because the two files are read separately, but only one
+	 * obj import of the loader may run at a time and the settings should not be changed until it completes.
+	 * Cancelling the future stops the parser after about a thousand lines or the current post processing step.
+	 * @return The future of the meshes in the obj file, it completes exceptionally with the GLModelLoadingException if the file cannot be imported
+	 */
+	public abstract CompletableFuture<Mesh[]> ImportWaveFrontObjAsync();
+	
+	/**
+	 * Import mtl model file from local computer. The parsed materials are kept in memory and shared by every import of the same
+	 * unchanged mtl file, see {@link GLoaderInitiator#setMaterialCacheCapacity(int)}.
 	 * @return The material in the mtl file. Note that one mtl file may contain several material configurations
 	 * @throws GLModelLoadingException - Only IOException will be thrown in this method, when the file is non-accessible.
 	 */
 	public abstract Material[] ImportWaveFrontMtl() throws GLModelLoadingException;
 	
+	/**
+	 * Import mtl model file on the executor without blocking the calling thread, see {@link #setExecutor(Executor)}.
+	 * It can run at the same time as {@link #ImportWaveFrontObjAsync()}. Cancelling the future stops the parser after about a thousand lines.
+	 * @return The future of the materials in the mtl file, it completes exceptionally with the GLModelLoadingException if the file cannot be imported
+	 */
+	public abstract CompletableFuture<Material[]> ImportWaveFrontMtlAsync();
+	
 	/**
 	 * Given the thing that need to be adjusted when importing model. 
 	 * The post process will be completed BEFORE importing obj file.
@@ -51,6 +90,53 @@ public interface GLModelLoader {
 	 */
 	public abstract void setIndexBehaviour(int IndexMode)  throws GLModelLoadingException;
 	
+	/**
+	 * Set the number of threads used to import the obj file. The file is split into chunks on line boundaries
+	 * which are parsed at the same time, and the chunks are put together in file order so the imported meshes are the same 
+	 * as importing with one thread. 
+	 * The setting only affect when the obj file is read by {@link #READER_CHANNEL}.
+	 * @param Parallelism The number of threads, 1 (default) to import on the calling thread.
+	 * @throws GLModelLoadingException If the number of threads is less than one
+	 */
+	public abstract void setParallelism(int Parallelism) throws GLModelLoadingException;
+	
+	/**
+	 * Set the executor which runs {@link #ImportWaveFrontObjAsync()} and {@link #ImportWaveFrontMtlAsync()}.
+	 * @param Executor The executor, null (default) to run each import on a virtual thread, or on a shared pool of daemon threads
+	 * if the java runtime does not support virtual threads.
+	 */
+	public abstract void setExecutor(Executor Executor);
+	
+	/**
+	 * Set how much the average cache miss ratio is allowed to increase by OPTIMIZE_OVERDRAW. A larger threshold gives smaller
+	 * clusters and less overdraw but more vertices are transformed.
+	 * @param Threshold The ratio of the average cache miss ratio after and before the optimisation, 1.05 by default.
+	 * @throws GLModelLoadingException If the threshold is less than one
+	 */
+	public abstract void setOverdrawThreshold(float Threshold) throws GLModelLoadingException;
+	
+	/**
+	 * Set the largest angle between two faces which are smoothed together by GENERATE_NORMALS and REGENERATE_NORMALS.
+	 * Faces meeting at a sharper edge keep their own normals even if they are in the same smoothing group.
+	 * @param Angle The angle in degree between 0 and 180, 180 (default) means only the smoothing groups are used.
+	 * @throws GLModelLoadingException If the angle is out of range
+	 */
+	public abstract void setCreaseAngle(float Angle) throws GLModelLoadingException;
+	
+	/**
+	 * Set the number of threads which read and decode the images of the maps as soon as {@link #ImportWaveFrontMtl()} finishes,
+	 * so the textures are decoded while the obj file is imported. See {@link GLTexturePrefetcher}.
+	 * @param Threads The number of images decoded at the same time, 0 (default) to not prefetch the textures
+	 * @throws GLModelLoadingException If the number is negative
+	 */
+	public abstract void setTexturePrefetch(int Threads) throws GLModelLoadingException;
+	
+	/**
+	 * Get the textures prefetched after the last call of {@link #ImportWaveFrontMtl()}
+	 * @return The prefetcher, null if texture prefetch is disabled or the mtl file has not been imported
+	 */
+	public GLTexturePrefetcher getTextures();
+	
 	/**
 	 * Get copyright info of the imported obj file.
 	 * @return The copyright info of the imported obj file. If there is no copyright info, null is returned.
@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+/**
+ * GLModelVisitor receives the data of an obj file in file order while the file is being parsed, no mesh is created.
+ * It can be used to stream the model into another storage, so the memory used does not depend on the size of the file.
+ * Only FLIP_UV and INDEX_CORRECTION are applied before the data is given to the visitor, faces are given as they are in the file.
+ * See {@link GLModelLoader#ImportWaveFrontObj(GLModelVisitor)}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public interface GLModelVisitor {
+	
+	/**
+	 * Called when the material library is declared
+	 * @param MtlLib The name of the material library
+	 */
+	public abstract void onMtlLib(String MtlLib);
+	
+	/**
+	 * Called when a new mesh is declared, the following data belongs to this mesh
+	 * @param Name The name of the mesh
+	 */
+	public abstract void onObject(String Name);
+	
+	/**
+	 * Called when a vertex is read
+	 * @param x X component of the vertex
+	 * @param y Y component of the vertex
+	 * @param z Z component of the vertex
+	 */
+	public abstract void onVertex(float x, float y, float z);
+	
+	/**
+	 * Called when a texture coordinate is read
+	 * @param u U component of the texture coordinate
+	 * @param v V component of the texture coordinate
+	 * @param w W component of the texture coordinate, 0 if it is not given
+	 */
+	public abstract void onTexCoord(float u, float v, float w);
+	
+	/**
+	 * Called when a normal is read
+	 * @param x X component of the normal
+	 * @param y Y component of the normal
+	 * @param z Z component of the normal
+	 */
+	public abstract void onNormal(float x, float y, float z);
+	
+	/**
+	 * Called when a face is read. The arrays are reused by the next face with the same number of corners,
+	 * so they need to be copied if they are kept after the call.
+	 * @param v The vertex index of each corner
+	 * @param vt The texture coordinate index of each corner, 0 if it is not given
+	 * @param vn The normal index of each corner, 0 if it is not given
+	 */
+	public abstract void onFace(int[] v, int[] vt, int[] vn);
+	
+	/**
+	 * Called when a material is used by the current mesh
+	 * @param Mtl The name of the material
+	 */
+	public abstract void onUseMtl(String Mtl);
+	
+}
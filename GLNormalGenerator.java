@@ -0,0 +1,335 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GLNormalGenerator calculates smooth vertex normals from the positions of the faces. The normal of a corner is the sum of the
+ * normals of the faces around its vertex, weighted by the angle of each face at the vertex, so the result does not depend on how
+ * the surface is split into triangles. Only faces in the same smoothing group whose normals are within the crease angle of
+ * the face of the corner are summed; faces in group {@link #SMOOTHING_OFF} are always flat.
+ * The corners of a vertex are sorted by smoothing group first, so the crease angle is only compared between faces of one group.
+ * Corners of one vertex which end up with the same normal share one normal, so a vertex is only split where there is a crease.
+ * The work is split by ranges of faces and then ranges of vertices on fork/join, only arrays of the task are written so
+ * several meshes can be calculated at the same time.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLNormalGenerator extends RecursiveAction{
+	/**
+	 * Serial Number
+	 */
+	private static final long serialVersionUID = 0x4e6f726dL;
+	//Constant
+	/**
+	 * Ranges with fewer faces or vertices are not split further
+	 */
+	private static final int SPLIT_SIZE = 4096;
+	/**
+	 * The smoothing group of faces declared by "s off" or "s 0", these faces are not smoothed with any other face
+	 */
+	static final int SMOOTHING_OFF = 0;
+	/**
+	 * The smoothing group of faces read before any "s" line, they are smoothed together like one group
+	 */
+	static final int SMOOTHING_DEFAULT = -1;
+
+	//Input
+	private final float[] position;
+	private final int[] index, group;
+	/**
+	 * Cosine of the crease angle, faces with a smaller cosine between their normals are not smoothed together
+	 */
+	private final float crease;
+	/**
+	 * Corners of each vertex, stored as {corners of vertex 0, corners of vertex 1, ...}
+	 */
+	private final int[] start, corner;
+
+	//Working data
+	/**
+	 * Unit normal of each face, zero if the face has no area
+	 */
+	private final float[] face_normal;
+	/**
+	 * Angle of each corner
+	 */
+	private final float[] angle;
+
+	//Output
+	/**
+	 * Normal of each corner
+	 */
+	private final float[] corner_normal;
+	/**
+	 * Position of the normal of each corner among the distinct normals of its vertex
+	 */
+	private final int[] local;
+	/**
+	 * Number of distinct normals of each vertex
+	 */
+	private final int[] unique;
+
+	//Range of the task
+	private final boolean face_pass;
+	private final int from, to;
+
+	private GLNormalGenerator(GLNormalGenerator Parent, boolean FacePass, int From, int To) {
+		position = Parent.position;
+		index = Parent.index;
+		group = Parent.group;
+		crease = Parent.crease;
+		start = Parent.start;
+		corner = Parent.corner;
+		face_normal = Parent.face_normal;
+		angle = Parent.angle;
+		corner_normal = Parent.corner_normal;
+		local = Parent.local;
+		unique = Parent.unique;
+		face_pass = FacePass;
+		from = From;
+		to = To;
+	}
+
+	private GLNormalGenerator(float[] Position, int[] Index, int[] Group, int FaceSize, int VertexSize, float Crease) {
+		position = Position;
+		index = Index;
+		group = Group;
+		crease = Crease;
+		final GLVertexAdjacency adjacency = new GLVertexAdjacency(Index, null, FaceSize, VertexSize, false);
+		start = adjacency.start;
+		corner = adjacency.adjacency;
+		face_normal = new float[3 * FaceSize];
+		angle = new float[3 * FaceSize];
+		corner_normal = new float[9 * FaceSize];
+		local = new int[3 * FaceSize];
+		unique = new int[VertexSize];
+		face_pass = true;
+		from = 0;
+		to = FaceSize;
+	}
+
+	/**
+	 * Calculate the normals, the calling thread joins the work on the common fork/join pool
+	 * @param Position The vertices given as {X0, Y0, Z0, X1, ...}
+	 * @param Index The vertex index of each face, three for each face
+	 * @param Group The smoothing group of each face, or null if all faces are in one group
+	 * @param FaceSize The number of faces
+	 * @param VertexSize The number of vertices
+	 * @param CreaseAngle The largest angle in degree between two faces which are smoothed together
+	 * @param NormalIndex The array to be written with the normal index of each corner, 3 * FaceSize
+	 * @return The normals given as {X0, Y0, Z0, X1, ...}
+	 * @throws IndexOutOfBoundsException If a vertex index is out of range
+	 */
+	static float[] generate(float[] Position, int[] Index, int[] Group, int FaceSize, int VertexSize, float CreaseAngle, int[] NormalIndex) throws IndexOutOfBoundsException{
+		for(int i = 0; i < 3 * FaceSize; i++) {
+			if(Index[i] < 0 || Index[i] >= VertexSize) {
+				throw new IndexOutOfBoundsException("Index: " + Index[i] + ", Size: " + VertexSize);
+			}
+		}
+		//the cosine is lowered a little so faces exactly at the crease angle are still smoothed
+		final float crease = CreaseAngle >= 180.0f ? -2.0f : (float)Math.cos(Math.toRadians(CreaseAngle)) - 1e-6f;
+		final GLNormalGenerator faces = new GLNormalGenerator(Position, Index, Group, FaceSize, VertexSize, crease);
+		faces.invoke();
+		new GLNormalGenerator(faces, false, 0, VertexSize).invoke();
+
+		//the distinct normals of each vertex are stored one vertex after another
+		final int[] offset = new int[VertexSize + 1];
+		for(int v = 0; v < VertexSize; v++) {
+			offset[v + 1] = offset[v] + faces.unique[v];
+		}
+		final float[] returnValue = new float[3 * offset[VertexSize]];
+		for(int i = 0; i < 3 * FaceSize; i++) {
+			final int n = offset[Index[i]] + faces.local[i];
+			returnValue[3 * n] = faces.corner_normal[3 * i];
+			returnValue[3 * n + 1] = faces.corner_normal[3 * i + 1];
+			returnValue[3 * n + 2] = faces.corner_normal[3 * i + 2];
+			NormalIndex[i] = n;
+		}
+		return returnValue;
+	}
+
+	@Override
+	protected void compute() {
+		if(to - from > SPLIT_SIZE) {
+			final int middle = (from + to) >>> 1;
+			invokeAll(new GLNormalGenerator(this, face_pass, from, middle), new GLNormalGenerator(this, face_pass, middle, to));
+		}else if(face_pass) {
+			for(int f = from; f < to; f++) {
+				computeFace(f);
+			}
+		}else {
+			int valence = 0;
+			for(int v = from; v < to; v++) {
+				valence = Math.max(valence, start[v + 1] - start[v]);
+			}
+			final long[] sorted = new long[valence];
+			final int[] table = new int[getTableSize(valence)];
+			for(int v = from; v < to; v++) {
+				computeVertex(v, sorted, table);
+			}
+		}
+	}
+
+	private void computeFace(int f) {
+		final int a = 3 * index[3 * f], b = 3 * index[3 * f + 1], c = 3 * index[3 * f + 2];
+		final float e1x = position[b] - position[a], e1y = position[b + 1] - position[a + 1], e1z = position[b + 2] - position[a + 2];
+		final float e2x = position[c] - position[a], e2y = position[c + 1] - position[a + 1], e2z = position[c + 2] - position[a + 2];
+		final float nx = e1y * e2z - e1z * e2y, ny = e1z * e2x - e1x * e2z, nz = e1x * e2y - e1y * e2x;
+		final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if(!(length > 0.0f)) {
+			return;
+		}
+		face_normal[3 * f] = nx / length;
+		face_normal[3 * f + 1] = ny / length;
+		face_normal[3 * f + 2] = nz / length;
+		for(int j = 0; j < 3; j++) {
+			final int p = 3 * index[3 * f + j];
+			final int q = 3 * index[3 * f + (j + 1) % 3], r = 3 * index[3 * f + (j + 2) % 3];
+			final float ax = position[q] - position[p], ay = position[q + 1] - position[p + 1], az = position[q + 2] - position[p + 2];
+			final float bx = position[r] - position[p], by = position[r + 1] - position[p + 1], bz = position[r + 2] - position[p + 2];
+			final float edge_length = (float)Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+			angle[3 * f + j] = edge_length > 0.0f ? (float)Math.acos(Math.max(-1.0f, Math.min(1.0f, (ax * bx + ay * by + az * bz) / edge_length))) : 0.0f;
+		}
+	}
+
+	/**
+	 * Calculate the normals of the corners of a vertex
+	 * @param v The vertex
+	 * @param Sorted Working array for the corners sorted by smoothing group, at least the number of corners of the vertex
+	 * @param Table Working hash table for the first corner with each distinct normal, at least the table size of the vertex
+	 */
+	private void computeVertex(int v, long[] Sorted, int[] Table) {
+		//Variables
+		final int size = start[v + 1] - start[v];
+		int count = 0;
+
+		//the corners are sorted by smoothing group keeping their order, so faces are only compared with the faces of their own group
+		for(int k = 0; k < size; k++) {
+			final int c = corner[start[v] + k];
+			Sorted[k] = group != null ? (long)group[c / 3] << 32 | c : c;
+		}
+		if(group != null) {
+			Arrays.sort(Sorted, 0, size);
+		}
+		for(int s = 0, e = 0; s < size; s = e) {
+			final long bucket = Sorted[s] >> 32;
+			while(e < size && Sorted[e] >> 32 == bucket) {
+				e++;
+			}
+			final boolean flat = group != null && bucket == SMOOTHING_OFF;
+			float sx = 0.0f, sy = 0.0f, sz = 0.0f;//sum of the group, which is the same for all its corners if there is no crease angle
+			for(int k = s; k < e; k++) {
+				final int c = (int)Sorted[k], f = c / 3;
+				float nx = 0.0f, ny = 0.0f, nz = 0.0f;
+				if(flat) {//only the corners of its own face, which are next to each other
+					int l = k;
+					while(l > s && (int)Sorted[l - 1] / 3 == f) {
+						l--;
+					}
+					for(; l < e && (int)Sorted[l] / 3 == f; l++) {
+						nx += face_normal[3 * f] * angle[(int)Sorted[l]];
+						ny += face_normal[3 * f + 1] * angle[(int)Sorted[l]];
+						nz += face_normal[3 * f + 2] * angle[(int)Sorted[l]];
+					}
+				}else if(crease < -1.0f) {
+					if(k == s) {
+						for(int l = s; l < e; l++) {
+							final int g = (int)Sorted[l] / 3;
+							sx += face_normal[3 * g] * angle[(int)Sorted[l]];
+							sy += face_normal[3 * g + 1] * angle[(int)Sorted[l]];
+							sz += face_normal[3 * g + 2] * angle[(int)Sorted[l]];
+						}
+					}
+					nx = sx;
+					ny = sy;
+					nz = sz;
+				}else {
+					for(int l = s; l < e; l++) {
+						final int g = (int)Sorted[l] / 3;
+						if(g == f || isSmooth(f, g)) {
+							nx += face_normal[3 * g] * angle[(int)Sorted[l]];
+							ny += face_normal[3 * g + 1] * angle[(int)Sorted[l]];
+							nz += face_normal[3 * g + 2] * angle[(int)Sorted[l]];
+						}
+					}
+				}
+				final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+				if(length > 0.0f) {
+					nx /= length;
+					ny /= length;
+					nz /= length;
+				}else {//only faces without area, take the face normal which may be zero
+					nx = face_normal[3 * f];
+					ny = face_normal[3 * f + 1];
+					nz = face_normal[3 * f + 2];
+				}
+				corner_normal[3 * c] = nx;
+				corner_normal[3 * c + 1] = ny;
+				corner_normal[3 * c + 2] = nz;
+			}
+		}
+
+		//share the normal with an earlier corner of the vertex if they are the same, the first corner of each normal is kept in a hash
+		//table as corner + 1, 0 is an empty slot
+		final int mask = getTableSize(size) - 1;
+		Arrays.fill(Table, 0, mask + 1, 0);
+		for(int k = start[v]; k < start[v + 1]; k++) {
+			final int c = corner[k];
+			//-0 is the same as 0, NaN is never the same as any normal
+			final float nx = corner_normal[3 * c] + 0.0f, ny = corner_normal[3 * c + 1] + 0.0f, nz = corner_normal[3 * c + 2] + 0.0f;
+			int id = count;
+			if(nx == nx && ny == ny && nz == nz) {
+				int hash = (Float.floatToIntBits(nx) * 31 + Float.floatToIntBits(ny)) * 31 + Float.floatToIntBits(nz);
+				hash *= 0x9E3779B9;
+				int slot = (hash ^ hash >>> 16) & mask;
+				while(Table[slot] != 0) {
+					final int d = 3 * (Table[slot] - 1);
+					if(corner_normal[d] == nx && corner_normal[d + 1] == ny && corner_normal[d + 2] == nz) {
+						id = local[Table[slot] - 1];
+						break;
+					}
+					slot = (slot + 1) & mask;
+				}
+				if(id == count) {
+					Table[slot] = c + 1;
+				}
+			}
+			local[c] = id;
+			if(id == count) {
+				count++;
+			}
+		}
+		unique[v] = count;
+	}
+
+	/**
+	 * @param Corners The number of corners of a vertex
+	 * @return The size of the hash table for the distinct normals of the vertex, a power of two which is at least twice the corners
+	 */
+	private static int getTableSize(int Corners) {
+		return 4 * Integer.highestOneBit(Math.max(1, Corners));
+	}
+
+	/**
+	 * Check if two faces sharing a vertex are smoothed together
+	 * @param f The face of the corner
+	 * @param g The other face
+	 * @return True if the normal of g is added to the corner of f
+	 */
+	private boolean isSmooth(int f, int g) {
+		if(group != null && (group[f] == SMOOTHING_OFF || group[f] != group[g])) {
+			return false;
+		}
+		final float cosine = face_normal[3 * f] * face_normal[3 * g] + face_normal[3 * f + 1] * face_normal[3 * g + 1]
+				+ face_normal[3 * f + 2] * face_normal[3 * g + 2];
+		//a face without area has no direction, it follows the group only
+		final boolean degenerate = (face_normal[3 * f] == 0.0f && face_normal[3 * f + 1] == 0.0f && face_normal[3 * f + 2] == 0.0f)
+				|| (face_normal[3 * g] == 0.0f && face_normal[3 * g + 1] == 0.0f && face_normal[3 * g + 2] == 0.0f);
+		return degenerate || cosine >= crease;
+	}
+
+}
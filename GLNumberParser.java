@@ -0,0 +1,322 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * GLNumberParser parses the numbers in the obj and mtl file straight from a range of bytes or characters, so no
+ * temporary String is needed. Plain decimal numbers with or without exponent are computed directly and the result is
+ * rounded in the same way as {@link Float#parseFloat(String)}; other inputs (such as NaN, Infinity, hexadecimal or
+ * very long numbers) fall back to {@link Float#parseFloat(String)}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLNumberParser {
+	/**
+	 * Power of ten that can be represented exactly in double
+	 */
+	private static final double[] DOUBLE_POW10 = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+	/**
+	 * The largest mantissa that can be represented exactly in double
+	 */
+	private static final long MAX_EXACT_MANTISSA = 1L << 53;
+	/**
+	 * The lowest 29 bits of a double which are dropped when converting to float, and the pattern of a double that lies
+	 * exactly in the middle of two floats
+	 */
+	private static final long FLOAT_DROPPED_BITS = (1L << 29) - 1L;
+	private static final long FLOAT_HALF_WAY = 1L << 28;
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLNumberParser() {
+
+	}
+
+	/**
+	 * Parse a float number from a String
+	 * @param Value The String which contains only the number
+	 * @return The float number
+	 * @throws NumberFormatException If the String is not a number
+	 */
+	static float parseFloat(String Value) throws NumberFormatException{
+		return parseFloat(Value, 0, Value.length());
+	}
+
+	/**
+	 * Parse a float number from a range of characters
+	 * @param Value The characters contain the number
+	 * @param Start The index of the first character of the number
+	 * @param End The index after the last character of the number
+	 * @return The float number
+	 * @throws NumberFormatException If the range is not a number
+	 */
+	static float parseFloat(CharSequence Value, int Start, int End) throws NumberFormatException{
+		//Variables
+		boolean negative = false;
+		boolean numeric = false;
+		long mantissa = 0L;
+		int digits = 0;
+		int exponent = 0;
+		int i = Start;
+		char c = i < End ? Value.charAt(i) : 0;
+
+		if(c == '-' || c == '+') {
+			negative = c == '-';
+			c = ++i < End ? Value.charAt(i) : 0;
+		}
+		while(c >= '0' && c <= '9') {//integer part
+			if(digits < 18) {
+				mantissa = mantissa * 10 + (c - '0');
+			}else {
+				exponent++;
+			}
+			if(mantissa != 0) {
+				digits++;
+			}
+			numeric = true;
+			c = ++i < End ? Value.charAt(i) : 0;
+		}
+		if(c == '.') {//fraction part
+			c = ++i < End ? Value.charAt(i) : 0;
+			while(c >= '0' && c <= '9') {
+				if(digits < 18) {
+					mantissa = mantissa * 10 + (c - '0');
+					exponent--;
+				}
+				if(mantissa != 0) {
+					digits++;
+				}
+				numeric = true;
+				c = ++i < End ? Value.charAt(i) : 0;
+			}
+		}
+		if(numeric && (c == 'e' || c == 'E')) {//exponent part
+			c = ++i < End ? Value.charAt(i) : 0;
+			boolean negative_exp = false;
+			int exp = 0;
+			if(c == '-' || c == '+') {
+				negative_exp = c == '-';
+				c = ++i < End ? Value.charAt(i) : 0;
+			}
+			final int first = i;
+			while(c >= '0' && c <= '9') {
+				exp = Math.min(exp * 10 + (c - '0'), 10000);
+				c = ++i < End ? Value.charAt(i) : 0;
+			}
+			if(i == first) {
+				numeric = false;//exponent without digits
+			}
+			exponent += negative_exp ? -exp : exp;
+		}
+
+		if(numeric && i == End) {
+			final float value = toFloat(negative, mantissa, digits, exponent);
+			if(value == value) {//not NaN
+				return value;
+			}
+		}
+		//fallback
+		return Float.parseFloat(Value.subSequence(Start, End).toString());
+	}
+
+	/**
+	 * Parse a float number from a range of bytes
+	 * @param Value The bytes contain the number
+	 * @param Start The index of the first byte of the number
+	 * @param End The index after the last byte of the number
+	 * @return The float number
+	 * @throws NumberFormatException If the range is not a number
+	 */
+	static float parseFloat(ByteBuffer Value, int Start, int End) throws NumberFormatException{
+		//Variables
+		boolean negative = false;
+		boolean numeric = false;
+		long mantissa = 0L;
+		int digits = 0;
+		int exponent = 0;
+		int i = Start;
+		byte b = i < End ? Value.get(i) : 0;
+
+		if(b == '-' || b == '+') {
+			negative = b == '-';
+			b = ++i < End ? Value.get(i) : 0;
+		}
+		while(b >= '0' && b <= '9') {//integer part
+			if(digits < 18) {
+				mantissa = mantissa * 10 + (b - '0');
+			}else {
+				exponent++;
+			}
+			if(mantissa != 0) {
+				digits++;
+			}
+			numeric = true;
+			b = ++i < End ? Value.get(i) : 0;
+		}
+		if(b == '.') {//fraction part
+			b = ++i < End ? Value.get(i) : 0;
+			while(b >= '0' && b <= '9') {
+				if(digits < 18) {
+					mantissa = mantissa * 10 + (b - '0');
+					exponent--;
+				}
+				if(mantissa != 0) {
+					digits++;
+				}
+				numeric = true;
+				b = ++i < End ? Value.get(i) : 0;
+			}
+		}
+		if(numeric && (b == 'e' || b == 'E')) {//exponent part
+			b = ++i < End ? Value.get(i) : 0;
+			boolean negative_exp = false;
+			int exp = 0;
+			if(b == '-' || b == '+') {
+				negative_exp = b == '-';
+				b = ++i < End ? Value.get(i) : 0;
+			}
+			final int first = i;
+			while(b >= '0' && b <= '9') {
+				exp = Math.min(exp * 10 + (b - '0'), 10000);
+				b = ++i < End ? Value.get(i) : 0;
+			}
+			if(i == first) {
+				numeric = false;//exponent without digits
+			}
+			exponent += negative_exp ? -exp : exp;
+		}
+
+		if(numeric && i == End) {
+			final float value = toFloat(negative, mantissa, digits, exponent);
+			if(value == value) {//not NaN
+				return value;
+			}
+		}
+		//fallback
+		final byte[] raw = new byte[End - Start];
+		for(int j = 0; j < raw.length; j++) {
+			raw[j] = Value.get(Start + j);
+		}
+		return Float.parseFloat(new String(raw, StandardCharsets.ISO_8859_1));
+	}
+
+	/**
+	 * Compute mantissa * 10^exponent in float. The decimal value is first rounded to double exactly, it is only
+	 * used if rounding it again to float gives the same result as rounding the decimal value to float directly.
+	 * @param negative The sign of the number
+	 * @param mantissa All significant digits of the number
+	 * @param digits The number of significant digits
+	 * @param exponent The decimal exponent
+	 * @return The float number, or NaN if the number cannot be computed exactly and it needs to fall back
+	 */
+	private static float toFloat(boolean negative, long mantissa, int digits, int exponent) {
+		if(mantissa == 0L) {
+			return negative ? -0.0f : 0.0f;
+		}
+		if(digits > 18 || mantissa > MAX_EXACT_MANTISSA || exponent < -22 || exponent > 22) {
+			return Float.NaN;
+		}
+		final double value = exponent < 0 ? mantissa / DOUBLE_POW10[-exponent] : mantissa * DOUBLE_POW10[exponent];
+		//subnormal and overflowed float are rounded differently
+		if(value < Float.MIN_NORMAL || value > Float.MAX_VALUE) {
+			return Float.NaN;
+		}
+		//a double exactly between two floats may be rounded to the wrong one
+		if((Double.doubleToRawLongBits(value) & FLOAT_DROPPED_BITS) == FLOAT_HALF_WAY) {
+			return Float.NaN;
+		}
+		return negative ? -(float)value : (float)value;
+	}
+
+	/**
+	 * Parse a signed integer from a range of characters
+	 * @param Value The characters contain the integer
+	 * @param Start The index of the first character of the integer
+	 * @param End The index after the last character of the integer
+	 * @return The integer
+	 * @throws NumberFormatException If the range is not an integer or it is out of range
+	 */
+	static int parseInt(CharSequence Value, int Start, int End) throws NumberFormatException{
+		int i = Start;
+		boolean negative = false;
+		long result = 0L;
+		if(i < End && (Value.charAt(i) == '-' || Value.charAt(i) == '+')) {
+			negative = Value.charAt(i) == '-';
+			i++;
+		}
+		if(i == End) {
+			throw new NumberFormatException("For input string: \"" + Value.subSequence(Start, End) + "\"");
+		}
+		for(; i < End; i++) {
+			final char c = Value.charAt(i);
+			if(c < '0' || c > '9') {
+				throw new NumberFormatException("For input string: \"" + Value.subSequence(Start, End) + "\"");
+			}
+			result = result * 10 + (c - '0');
+			if(result > Integer.MAX_VALUE + 1L) {
+				throw new NumberFormatException("Integer Out Of Range: \"" + Value.subSequence(Start, End) + "\"");
+			}
+		}
+		return toInt(negative, result);
+	}
+
+	/**
+	 * Parse a signed integer from a String
+	 * @param Value The String which contains only the integer
+	 * @return The integer
+	 * @throws NumberFormatException If the String is not an integer or it is out of range
+	 */
+	static int parseInt(String Value) throws NumberFormatException{
+		return parseInt(Value, 0, Value.length());
+	}
+
+	/**
+	 * Parse a signed integer from a range of bytes
+	 * @param Value The bytes contain the integer
+	 * @param Start The index of the first byte of the integer
+	 * @param End The index after the last byte of the integer
+	 * @return The integer
+	 * @throws NumberFormatException If the range is not an integer or it is out of range
+	 */
+	static int parseInt(ByteBuffer Value, int Start, int End) throws NumberFormatException{
+		int i = Start;
+		boolean negative = false;
+		long result = 0L;
+		if(i < End && (Value.get(i) == '-' || Value.get(i) == '+')) {
+			negative = Value.get(i) == '-';
+			i++;
+		}
+		if(i == End) {
+			throw new NumberFormatException("Illegal Integer At Byte " + Start);
+		}
+		for(; i < End; i++) {
+			final byte b = Value.get(i);
+			if(b < '0' || b > '9') {
+				throw new NumberFormatException("Illegal Integer At Byte " + Start);
+			}
+			result = result * 10 + (b - '0');
+			if(result > Integer.MAX_VALUE + 1L) {
+				throw new NumberFormatException("Integer Out Of Range At Byte " + Start);
+			}
+		}
+		return toInt(negative, result);
+	}
+
+	private static int toInt(boolean negative, long magnitude) throws NumberFormatException{
+		if(negative) {
+			return (int)-magnitude;
+		}else if(magnitude > Integer.MAX_VALUE) {
+			throw new NumberFormatException("Integer Out Of Range: " + magnitude);
+		}
+		return (int)magnitude;
+	}
+
+}
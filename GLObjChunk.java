@@ -0,0 +1,240 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GLObjChunk parses a range of bytes in the obj file, the range always starts and ends at line boundaries.
+ * Since a chunk does not know which mesh it starts with, the data is recorded in segments split by the mesh
+ * declarations; the segments from all chunks are stitched together in file order by {@link GLModelImporter}.
+ * Face indices are recorded as they are in the file, together with the number of elements read in the segment
+ * at the time the face is read, so index correction can be applied after stitching. The smoothing group of a face read before
+ * any "s" line in the chunk is recorded as {@link #CONTINUE_GROUP}, it is the group of the previous chunk.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLObjChunk extends RecursiveAction{
+	/**
+	 * Serial Number
+	 */
+	private static final long serialVersionUID = 0x0b1c4a2fL;
+	/**
+	 * Number of int recorded for each face besides the indices: the number of corners before the indices, the number of
+	 * {vertex, texture coordinate, normal} in the segment when the face is read and the smoothing group after the indices.
+	 */
+	private static final int FACE_HEADER = 5;
+	/**
+	 * The smoothing group of faces which continue the smoothing group of the previous chunk
+	 */
+	static final int CONTINUE_GROUP = Integer.MIN_VALUE;
+
+	//Input
+	private final FileChannel channel;
+	private final long start, end;
+	private final boolean flipUV, triangulate;
+	/**
+	 * The future of the asynchronous import, the chunk stops when it is done. Null for a synchronous import.
+	 */
+	private final Future<?> task;
+
+	//Output
+	final GLFloatArray Vertices = new GLFloatArray(3 * 1024);
+	final GLFloatArray TextureCoordinates = new GLFloatArray(3 * 1024);
+	final GLFloatArray Normals = new GLFloatArray(3 * 1024);
+	/**
+	 * Faces given as {Count, {X_ver, X_tex, X_nor},{Y_ver,....},..., VertexSize, TextureCoordinateSize, NormalSize, SmoothingGroup} one after another,
+	 * polygons are kept as they are and split into triangles when they are stitched
+	 */
+	int[] Faces = new int[(FACE_HEADER + 9) * 1024];
+	int VertexSize = 0, TextureCoordinateSize = 0, NormalSize = 0;
+	/**
+	 * Number of int used in the face array
+	 */
+	int FaceSize = 0;
+	final ArrayList<Segment> Segments = new ArrayList<Segment>(1);
+	/**
+	 * The first line of the file, only available in the first chunk
+	 */
+	String Copyright = null;
+	/**
+	 * The last material library declared in this chunk, null if there is none
+	 */
+	String Mtl_lib = null;
+	/**
+	 * The smoothing group at the end of the chunk, {@link #CONTINUE_GROUP} if there is no "s" line in the chunk.
+	 * It is the group of the first faces of the next chunk even if no face follows the "s" line in this chunk.
+	 */
+	int LastGroup = CONTINUE_GROUP;
+	/**
+	 * The exception thrown during parsing, null if the chunk is parsed successfully
+	 */
+	Exception Error = null;
+
+	/**
+	 * A part of the chunk which belongs to one mesh. Start and end are given in number of elements, or number of int for faces.
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	static final class Segment{
+		/**
+		 * The name of the new mesh, null if the segment continues the mesh from the previous segment
+		 */
+		final String Name;
+		/**
+		 * The last material used in this segment, null if there is none
+		 */
+		String Mtl = null;
+		int VertexStart, VertexEnd;
+		int TextureCoordinateStart, TextureCoordinateEnd;
+		int NormalStart, NormalEnd;
+		int FaceStart, FaceEnd;
+
+		Segment(String name){
+			Name = name;
+		}
+
+		/**
+		 * @return True if the segment does not contain any data
+		 */
+		boolean isEmpty() {
+			return Mtl == null && VertexStart == VertexEnd && TextureCoordinateStart == TextureCoordinateEnd
+					&& NormalStart == NormalEnd && FaceStart == FaceEnd;
+		}
+	}
+
+	/**
+	 * Initialise the chunk
+	 * @param Channel The channel of the obj file
+	 * @param Start The position in the file to start with, it must be the start of a line
+	 * @param End The position in the file to stop with(exclusive), it must be the end of a line
+	 * @param FlipUV True if the UV texture coordinates should be flipped
+	 * @param Triangulate True if faces which are not triangles are allowed
+	 * @param Task The future of the asynchronous import, the chunk stops early if it is cancelled. Null for a synchronous import.
+	 */
+	GLObjChunk(FileChannel Channel, long Start, long End, boolean FlipUV, boolean Triangulate, Future<?> Task){
+		channel = Channel;
+		start = Start;
+		end = End;
+		flipUV = FlipUV;
+		triangulate = Triangulate;
+		task = Task;
+	}
+	
+	/**
+	 * Get the number of int recorded for a face
+	 * @param Count The number of corners of the face
+	 * @return The number of int
+	 */
+	static int getFaceStride(int Count) {
+		return FACE_HEADER + 3 * Count;
+	}
+
+	@Override
+	protected void compute() {
+		//Variables
+		final int[] corner = new int[3];
+		int group = CONTINUE_GROUP;
+		Segment current = new Segment(null);
+		Segments.add(current);
+		int lines = 0;
+
+		try {
+			final GLObjTokenizer tokenizer = new GLObjTokenizer(channel, start, end);
+			boolean unread = tokenizer.nextLine();
+			if(unread && start == 0L) {
+				Copyright = tokenizer.getString(2);//the first line always contains copyright info
+			}
+			while(unread) {
+				switch(tokenizer.getDirective()) {
+				case GLObjTokenizer.MATERIAL_LIBRARY : Mtl_lib = tokenizer.getName();
+				break;
+				case GLObjTokenizer.OBJECT ://a new MESH found!!!
+					closeSegment(current);
+					current = new Segment(tokenizer.getName());
+					openSegment(current);
+					Segments.add(current);
+				break;
+				case GLObjTokenizer.VERTEX :
+					Vertices.add(tokenizer.nextFloat(), tokenizer.nextFloat(), tokenizer.nextFloat());
+					VertexSize++;
+				break;
+				case GLObjTokenizer.TEXTURE_COORDINATE :
+					final float u = tokenizer.nextFloat();
+					final float v = tokenizer.nextFloat();
+					final float w = tokenizer.hasNext() ? tokenizer.nextFloat() : 0.0f;
+					TextureCoordinates.add(flipUV ? v : u, flipUV ? u : v, w);
+					TextureCoordinateSize++;
+				break;
+				case GLObjTokenizer.NORMAL :
+					Normals.add(tokenizer.nextFloat(), tokenizer.nextFloat(), tokenizer.nextFloat());
+					NormalSize++;
+				break;
+				case GLObjTokenizer.FACE :
+					int offset = FaceSize + 1;
+					int count = 0;
+					do {
+						Faces = ensure(Faces, offset + 3 + FACE_HEADER);
+						tokenizer.nextCorner(corner);
+						Faces[offset] = corner[0];
+						Faces[offset + 1] = corner[1];
+						Faces[offset + 2] = corner[2];
+						offset += 3;
+						count++;
+					}while(count < 3 || tokenizer.hasNext());
+					if(count != 3 && !triangulate) {//face is not a triangle
+						Throwable th = new Throwable("GLModelLoadingException");
+						throw new GLModelLoadingException("File Cannot Be Input(Non-Triangulated Obj File)", th, th.getStackTrace(), "GLModelLoadingException");
+					}
+					Faces[FaceSize] = count;
+					Faces[offset] = VertexSize - current.VertexStart;
+					Faces[offset + 1] = TextureCoordinateSize - current.TextureCoordinateStart;
+					Faces[offset + 2] = NormalSize - current.NormalStart;
+					Faces[offset + 3] = group;
+					FaceSize = offset + 4;
+				break;
+				case GLObjTokenizer.USE_MATERIAL : current.Mtl = tokenizer.getName();
+				break;
+				case GLObjTokenizer.SMOOTHING_GROUP :
+					group = tokenizer.getSmoothingGroup();
+					LastGroup = group;
+				break;
+				default:
+					break;
+				}
+				if((++lines & GLModelImporter.CANCEL_MASK) == 0 && task != null && task.isDone()) {
+					return;//the importer finds the cancellation after joining the chunk
+				}
+				unread = tokenizer.nextLine();
+			}
+			closeSegment(current);
+		}catch(IOException | NumberFormatException | GLModelLoadingException e) {
+			Error = e;
+		}
+	}
+
+	private void openSegment(Segment segment) {
+		segment.VertexStart = VertexSize;
+		segment.TextureCoordinateStart = TextureCoordinateSize;
+		segment.NormalStart = NormalSize;
+		segment.FaceStart = FaceSize;
+	}
+
+	private void closeSegment(Segment segment) {
+		segment.VertexEnd = VertexSize;
+		segment.TextureCoordinateEnd = TextureCoordinateSize;
+		segment.NormalEnd = NormalSize;
+		segment.FaceEnd = FaceSize;
+	}
+
+	private static int[] ensure(int[] array, int length) {
+		return length <= array.length ? array : Arrays.copyOf(array, Math.max(length, array.length * 2));
+	}
+
+}
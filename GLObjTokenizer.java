@@ -0,0 +1,369 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * GLObjTokenizer reads a obj file as raw bytes from a FileChannel and parses the data straight from the bytes,
+ * so no String will be created for each line. Only names (mesh, material, etc.) are converted to String.
+ * The file is read in large chunks into a direct buffer, and one line is always kept in the buffer as a whole.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLObjTokenizer {
+	//Constant of directive
+	static final int NONE = 0;
+	static final int VERTEX = 1;
+	static final int TEXTURE_COORDINATE = 2;
+	static final int NORMAL = 3;
+	static final int FACE = 4;
+	static final int OBJECT = 5;
+	static final int USE_MATERIAL = 6;
+	static final int MATERIAL_LIBRARY = 7;
+	static final int SMOOTHING_GROUP = 8;
+
+	/**
+	 * The default size of the chunk read from the channel in each time
+	 */
+	static final int CHUNK_SIZE = 1 << 20;
+	private static final byte[] OBJECT_COMMENT = {'#', ' ', 'o', 'b', 'j', 'e', 'c', 't', ' '};
+	private static final byte[] USE_MTL = {'u', 's', 'e', 'm', 't', 'l', ' '};
+	private static final byte[] MTL_LIB = {'m', 't', 'l', 'l', 'i', 'b', ' '};
+
+	//Variables
+	private final FileChannel channel;
+	private final long end;
+	private long position;
+	private boolean eof = false;
+	private ByteBuffer buffer;
+	/**
+	 * Start of the current line, end of the current line(exclusive), the reading position within the current line
+	 * and the start of the next line in the buffer.
+	 */
+	private int lineStart = 0, lineEnd = 0, cursor = 0, next = 0;
+	/**
+	 * Offset where the name of the current directive starts
+	 */
+	private int nameOffset = 0;
+
+	/**
+	 * Initialise the tokenizer
+	 * @param Channel The channel of the obj file
+	 * @param Start The position in the file to start with, it must be the start of a line
+	 * @param End The position in the file to stop with(exclusive)
+	 */
+	GLObjTokenizer(FileChannel Channel, long Start, long End){
+		channel = Channel;
+		position = Start;
+		end = End;
+		buffer = ByteBuffer.allocateDirect((int)Math.max(1L, Math.min(CHUNK_SIZE, End - Start)));
+		buffer.limit(0);
+	}
+
+	/**
+	 * Move to the next line in the file
+	 * @return True if there is a line, false if the end of the range has been reached
+	 * @throws IOException If an I/O error occurs
+	 */
+	boolean nextLine() throws IOException{
+		int scan = next;
+		while(true) {
+			final int limit = buffer.limit();
+			for(int i = scan; i < limit; i++) {
+				final byte b = buffer.get(i);
+				if(b == '\n' || b == '\r') {//line terminator
+					lineStart = next;
+					lineEnd = i;
+					cursor = lineStart;
+					next = i + 1;
+					if(b == '\r' && next < limit && buffer.get(next) == '\n') {
+						next++;
+					}
+					return true;
+				}
+			}
+			if(eof) {
+				if(next < limit) {//the last line does not have a terminator
+					lineStart = next;
+					lineEnd = limit;
+					cursor = lineStart;
+					next = limit;
+					return true;
+				}
+				return false;
+			}
+			scan = limit - next;
+			refill();
+		}
+	}
+
+	/**
+	 * Move the unread bytes to the start of the buffer and fill the rest of it from the channel.
+	 * The buffer grows if a single line is larger than the buffer.
+	 * @throws IOException If an I/O error occurs
+	 */
+	private void refill() throws IOException{
+		final int remaining = buffer.limit() - next;
+		if(next == 0 && remaining == buffer.capacity()) {//the line does not fit
+			ByteBuffer larger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+			buffer.position(0);
+			larger.put(buffer);
+			buffer = larger;
+		}else {
+			buffer.position(next);
+			buffer.compact();
+		}
+		next = 0;
+		buffer.limit((int)Math.min(buffer.capacity(), remaining + end - position));
+		while(buffer.hasRemaining()) {
+			final int read = channel.read(buffer, position);
+			if(read < 0) {
+				break;
+			}
+			position += read;
+		}
+		if(position >= end || buffer.hasRemaining()) {
+			eof = true;
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * Find the type of the current line by its first bytes, and move the cursor to the start of the data
+	 * @return The type of the directive
+	 */
+	int getDirective() {
+		final int length = lineEnd - lineStart;
+		if(length < 2) {
+			return NONE;
+		}
+		final byte first = buffer.get(lineStart);
+		final byte second = buffer.get(lineStart + 1);
+		int type = NONE;
+		int offset = 0;
+		switch(first) {
+		case 'v':
+			if(second == ' ') {
+				type = VERTEX;
+				offset = 2;
+			}else if(length > 2 && buffer.get(lineStart + 2) == ' ') {
+				if(second == 't') {
+					type = TEXTURE_COORDINATE;
+				}else if(second == 'n') {
+					type = NORMAL;
+				}
+				offset = 3;
+			}
+			break;
+		case 'f':
+			if(second == ' ') {
+				type = FACE;
+				offset = 2;
+			}
+			break;
+		case 'o':
+			if(second == ' ') {
+				type = OBJECT;
+				offset = 2;
+			}
+			break;
+		case 's':
+			if(second == ' ') {
+				type = SMOOTHING_GROUP;
+				offset = 2;
+			}
+			break;
+		case '#':
+			if(startsWith(OBJECT_COMMENT)) {
+				type = OBJECT;
+				offset = OBJECT_COMMENT.length;
+			}
+			break;
+		case 'u':
+			if(startsWith(USE_MTL)) {
+				type = USE_MATERIAL;
+				offset = USE_MTL.length;
+			}
+			break;
+		case 'm':
+			if(startsWith(MTL_LIB)) {
+				type = MATERIAL_LIBRARY;
+				offset = MTL_LIB.length;
+			}
+			break;
+		default:
+			break;
+		}
+		nameOffset = offset;
+		cursor = lineStart + offset;
+		return type;
+	}
+
+	/**
+	 * Check if the current line starts with the given bytes
+	 * @param Prefix The bytes to be checked
+	 * @return True if the line starts with the prefix
+	 */
+	private boolean startsWith(byte[] Prefix) {
+		if(lineEnd - lineStart < Prefix.length) {
+			return false;
+		}
+		for(int i = 0; i < Prefix.length; i++) {
+			if(buffer.get(lineStart + i) != Prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Convert the rest of the line after the directive to String, the only place where String is created
+	 * @return The name given by the directive
+	 */
+	String getName() {
+		return getString(nameOffset);
+	}
+
+	/**
+	 * Read the smoothing group given by the "s" directive
+	 * @return The smoothing group, {@link GLNormalGenerator#SMOOTHING_OFF} if smoothing is turned off
+	 * @throws NumberFormatException If the group is neither a number nor "off"
+	 */
+	int getSmoothingGroup() throws NumberFormatException{
+		return parseSmoothingGroup(getName());
+	}
+
+	/**
+	 * Read the smoothing group given after the "s" directive
+	 * @param Group The rest of the line after the directive
+	 * @return The smoothing group, {@link GLNormalGenerator#SMOOTHING_OFF} if smoothing is turned off
+	 * @throws NumberFormatException If the group is neither a number nor "off"
+	 */
+	static int parseSmoothingGroup(String Group) throws NumberFormatException{
+		final String group = Group.trim();
+		return group.equals("off") ? GLNormalGenerator.SMOOTHING_OFF : Integer.parseInt(group);
+	}
+
+	/**
+	 * Convert the current line to String from the given offset
+	 * @param Offset The number of bytes to be skipped from the start of the line
+	 * @return The String of the line, or empty String if the line is shorter than the offset
+	 */
+	String getString(int Offset) {
+		final int start = lineStart + Offset;
+		if(start >= lineEnd) {
+			return "";
+		}
+		final byte[] raw = new byte[lineEnd - start];
+		for(int i = 0; i < raw.length; i++) {
+			raw[i] = buffer.get(start + i);
+		}
+		return new String(raw, Charset.defaultCharset());
+	}
+
+	/**
+	 * Skip all spaces and check if there is any data left in the current line
+	 * @return True if there is unread data in the line
+	 */
+	boolean hasNext() {
+		skipSpace();
+		return cursor < lineEnd;
+	}
+
+	private void skipSpace() {
+		while(cursor < lineEnd) {
+			final byte b = buffer.get(cursor);
+			if(b != ' ' && b != '\t') {
+				break;
+			}
+			cursor++;
+		}
+	}
+
+	/**
+	 * Parse the next number in the line
+	 * @return The float number
+	 * @throws NumberFormatException If the next token is not a number
+	 */
+	float nextFloat() throws NumberFormatException{
+		skipSpace();
+		final int start = cursor;
+		while(!isDelimiter(peek())) {
+			cursor++;
+		}
+		return GLNumberParser.parseFloat(buffer, start, cursor);
+	}
+
+	/**
+	 * Parse the next face corner which is given as v, v/vt, v//vn or v/vt/vn. Index that does not exist will be zero.
+	 * @param Corner The array to be written with {vertex, texture coordinate, normal} index
+	 * @throws NumberFormatException If the next token is not a face corner
+	 */
+	void nextCorner(int[] Corner) throws NumberFormatException{
+		skipSpace();
+		Corner[0] = nextInt();
+		Corner[1] = 0;
+		Corner[2] = 0;
+		if(peek() == '/') {
+			cursor++;
+			if(peek() != '/') {
+				Corner[1] = nextInt();
+			}
+			if(peek() == '/') {
+				cursor++;
+				Corner[2] = nextInt();
+			}
+		}
+		if(!isDelimiter(peek())) {
+			throw new NumberFormatException("Illegal Face Corner: " + getToken(lineStart));
+		}
+	}
+
+	/**
+	 * Parse a signed integer at the cursor
+	 * @return The integer
+	 * @throws NumberFormatException If there is no integer at the cursor or it is out of range
+	 */
+	private int nextInt() throws NumberFormatException{
+		final int start = cursor;
+		byte b = peek();
+		while(b != '/' && !isDelimiter(b)) {
+			b = advance();
+		}
+		return GLNumberParser.parseInt(buffer, start, cursor);
+	}
+
+	/**
+	 * @return The byte at the cursor, or zero if it reaches the end of the line
+	 */
+	private byte peek() {
+		return cursor < lineEnd ? buffer.get(cursor) : 0;
+	}
+
+	/**
+	 * Move the cursor forward by one byte
+	 * @return The byte at the new cursor position
+	 */
+	private byte advance() {
+		cursor++;
+		return peek();
+	}
+
+	private static boolean isDelimiter(byte b) {
+		return b == 0 || b == ' ' || b == '\t';
+	}
+
+	private String getToken(int Start) {
+		final byte[] raw = new byte[cursor - Start];
+		for(int i = 0; i < raw.length; i++) {
+			raw[i] = buffer.get(Start + i);
+		}
+		return new String(raw, Charset.defaultCharset());
+	}
+
+}
@@ -0,0 +1,190 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * GLOverdrawOptimizer reorders the triangles of an indexed mesh so that triangles which are likely to occlude others are drawn
+ * first and more pixels are rejected by the early depth test. Triangles are split into clusters along the current order, which
+ * is usually the order given by the vertex cache optimisation, and clusters facing away from the centre of the mesh are drawn
+ * first. The clusters are only split where it keeps the average cache miss ratio within the given threshold.
+ * This is the overdraw part of Sander et al. "Fast Triangle Reordering for Vertex Locality and Reduced Overdraw".
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLOverdrawOptimizer {
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLOverdrawOptimizer() {
+
+	}
+
+	/**
+	 * Reorder the triangles and vertices of the mesh, the original mesh is not changed
+	 * @param Raw_data The mesh which vertex, texture coordinate and normal share the same index
+	 * @param Threshold How much worse the average cache miss ratio of a cluster can be than the original order, at least 1
+	 * @return The optimised mesh
+	 */
+	static Mesh optimize(Mesh Raw_data, float Threshold) {
+		//Variables
+		final int faces = Raw_data.getFaceSize();
+		final int vertices = Raw_data.getVertexSize();
+		final int[] index = Raw_data.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+		final float[] position = Raw_data.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		if(faces == 0) {
+			return Raw_data;
+		}
+
+		final int[] cluster = getClusters(index, faces, vertices, Threshold);
+		final int clusters = cluster.length - 1;
+		//the centre of the mesh
+		float cx = 0.0f, cy = 0.0f, cz = 0.0f;
+		for(int i = 0; i < 3 * faces; i++) {
+			cx += position[3 * index[i]];
+			cy += position[3 * index[i] + 1];
+			cz += position[3 * index[i] + 2];
+		}
+		cx /= 3 * faces;
+		cy /= 3 * faces;
+		cz /= 3 * faces;
+
+		//clusters facing away from the centre are likely to occlude the others
+		final long[] key = new long[clusters];
+		for(int c = 0; c < clusters; c++) {
+			float area = 0.0f;
+			float px = 0.0f, py = 0.0f, pz = 0.0f;
+			float nx = 0.0f, ny = 0.0f, nz = 0.0f;
+			for(int t = cluster[c]; t < cluster[c + 1]; t++) {
+				final int a = 3 * index[3 * t], b = 3 * index[3 * t + 1], d = 3 * index[3 * t + 2];
+				final float ux = position[b] - position[a], uy = position[b + 1] - position[a + 1], uz = position[b + 2] - position[a + 2];
+				final float vx = position[d] - position[a], vy = position[d + 1] - position[a + 1], vz = position[d + 2] - position[a + 2];
+				//area weighted normal
+				final float fx = uy * vz - uz * vy, fy = uz * vx - ux * vz, fz = ux * vy - uy * vx;
+				final float weight = (float)Math.sqrt(fx * fx + fy * fy + fz * fz);
+				nx += fx;
+				ny += fy;
+				nz += fz;
+				px += (position[a] + position[b] + position[d]) * weight;
+				py += (position[a + 1] + position[b + 1] + position[d + 1]) * weight;
+				pz += (position[a + 2] + position[b + 2] + position[d + 2]) * weight;
+				area += weight;
+			}
+			final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			float score = 0.0f;
+			if(area > 0.0f && length > 0.0f) {
+				final float inv = 1.0f / (3.0f * area);
+				score = ((px * inv - cx) * nx + (py * inv - cy) * ny + (pz * inv - cz) * nz) / length;
+			}
+			//sort by the score in descending order, then by the original order
+			key[c] = ((long)~toOrderedInt(score) << 32) | c;
+		}
+		Arrays.sort(key);
+
+		final int[] order = new int[faces];
+		int written = 0;
+		for(int i = 0; i < clusters; i++) {
+			final int c = (int)key[i];
+			for(int t = cluster[c]; t < cluster[c + 1]; t++) {
+				order[written++] = t;
+			}
+		}
+		return GLVertexCacheOptimizer.reorder(Raw_data, order);
+	}
+
+	/**
+	 * Split the triangles into clusters. A new cluster starts where no vertex of the triangle is in the cache, and a cluster is also
+	 * split once its average cache miss ratio is within the threshold of the whole cluster.
+	 * @param Index The vertex index of each triangle
+	 * @param FaceSize The number of triangles
+	 * @param VertexSize The number of vertices
+	 * @param Threshold The allowed ratio of the average cache miss ratio
+	 * @return The first triangle of each cluster followed by the number of triangles
+	 */
+	private static int[] getClusters(int[] Index, int FaceSize, int VertexSize, float Threshold) {
+		//Variables
+		final int[] entered = new int[VertexSize];
+		final int[] hard = new int[FaceSize + 1];
+		final int[] miss = new int[FaceSize];
+		int hard_size = 0;
+
+		//hard boundaries, the cache is reset anyway
+		Arrays.fill(entered, -GLVertexCacheOptimizer.CACHE_SIZE);
+		int misses = 0;
+		for(int t = 0; t < FaceSize; t++) {
+			final int before = misses;
+			misses = updateCache(Index, t, entered, misses);
+			miss[t] = misses - before;
+			if(miss[t] == 3) {
+				hard[hard_size++] = t;
+			}
+		}
+		if(hard_size == 0 || hard[0] != 0) {//the first triangle always starts a cluster
+			System.arraycopy(hard, 0, hard, 1, hard_size);
+			hard[0] = 0;
+			hard_size++;
+		}
+		hard[hard_size] = FaceSize;
+
+		//soft boundaries
+		final int[] returnValue = new int[FaceSize + 1];
+		int size = 0;
+		for(int h = 0; h < hard_size; h++) {
+			int cluster_misses = 0;
+			for(int t = hard[h]; t < hard[h + 1]; t++) {
+				cluster_misses += miss[t];
+			}
+			final float limit = Threshold * cluster_misses / (hard[h + 1] - hard[h]);
+
+			returnValue[size++] = hard[h];
+			misses = resetCache(misses);
+			int start = hard[h], start_misses = misses;
+			for(int t = hard[h]; t < hard[h + 1]; t++) {
+				misses = updateCache(Index, t, entered, misses);
+				if(t + 1 < hard[h + 1] && (float)(misses - start_misses) / (t + 1 - start) <= limit) {
+					returnValue[size++] = t + 1;
+					misses = resetCache(misses);
+					start = t + 1;
+					start_misses = misses;
+				}
+			}
+		}
+		returnValue[size] = FaceSize;
+		return Arrays.copyOf(returnValue, size + 1);
+	}
+
+	/**
+	 * Make all vertices not in the cache, by counting enough misses that all vertices have left the cache
+	 * @return The number of misses to continue with
+	 */
+	private static int resetCache(int Misses) {
+		return Misses + GLVertexCacheOptimizer.CACHE_SIZE;
+	}
+
+	/**
+	 * Simulate the first-in-first-out cache for one triangle
+	 * @return The number of misses after the triangle
+	 */
+	private static int updateCache(int[] Index, int Triangle, int[] Entered, int Misses) {
+		for(int j = 0; j < 3; j++) {
+			final int v = Index[3 * Triangle + j];
+			if(Misses - Entered[v] >= GLVertexCacheOptimizer.CACHE_SIZE) {
+				Misses++;
+				Entered[v] = Misses;
+			}
+		}
+		return Misses;
+	}
+
+	/**
+	 * @return An int which has the same order as the float
+	 */
+	private static int toOrderedInt(float Value) {
+		final int bits = Float.floatToIntBits(Value);
+		return bits < 0 ? bits ^ 0x7FFFFFFF : bits;
+	}
+
+}
@@ -30,5 +30,37 @@ public enum GLPostProcessingType {
 	 * After the elimination process, faces data will be REMOVEN and become UNAVAILABLE.
 	 */
 	INDEX_ELIMINATION,
+	/**
+	 * To align vertex/texture coordinate/normal using index data like {@link #INDEX_ELIMINATION}, but each unique
+	 * combination of vertex/texture coordinate/normal index is only stored once and faces are kept as a single index
+	 * shared by all three. It uses much less memory than elimination for meshes where corners are shared by faces.
+	 * If both are enabled, welding is used.
+	 */
+	INDEX_WELDING,
+	/**
+	 * To reorder triangles so that vertices are reused while they are in the post-transform cache of the GPU, then reorder
+	 * vertices in the order they are first used. It is only applied when INDEX_WELDING or INDEX_ELIMINATION is enabled,
+	 * and it is only useful for welded meshes. The average cache miss ratio before and after is recorded in each mesh.
+	 */
+	OPTIMIZE_VERTEX_CACHE,
+	/**
+	 * To reorder triangles so that triangles which are likely to occlude others are drawn first, which reduces overdraw.
+	 * Triangles are grouped into clusters along the order given by OPTIMIZE_VERTEX_CACHE, and the average cache miss ratio
+	 * is kept within the threshold given by {@link GLModelLoader#setOverdrawThreshold(float)}.
+	 * It is only applied when INDEX_WELDING or INDEX_ELIMINATION is enabled.
+	 */
+	OPTIMIZE_OVERDRAW,
+	/**
+	 * To generate a normal for each corner of the meshes which have no normals in the file. The faces around a vertex are
+	 * smoothed together, weighted by their angles at the vertex, if they are in the same smoothing group given by the "s" lines and
+	 * the angle between them is within {@link GLModelLoader#setCreaseAngle(float)}. Faces after "s off" are flat and faces before 
+	 * any "s" line are in one group. Normals are generated before INDEX_WELDING or INDEX_ELIMINATION from the corrected indices,
+	 * so INDEX_CORRECTION must be enabled as well, otherwise the import throws a GLModelLoadingException.
+	 */
+	GENERATE_NORMALS,
+	/**
+	 * To generate normals like {@link #GENERATE_NORMALS}, and the normals given in the file are replaced as well.
+	 */
+	REGENERATE_NORMALS,
 	
 }
@@ -0,0 +1,471 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * GLQuantizedMesh stores the vertex data of a mesh with fewer bits for streaming and uploading:
+ * <ul>
+ * <li>Positions are unsigned normalized 16-bit integers within the bounding box of the mesh, decoded by Offset + Value * Scale
+ * in each axis, see {@link #getPositionOffset()} and {@link #getPositionScale()}</li>
+ * <li>Normals and tangents are unit vectors projected onto an octahedron and stored as two signed normalized 16-bit or 8-bit integers</li>
+ * <li>Texture coordinates are half floats, or unsigned normalized 16-bit integers within the bounding box of the texture coordinates</li>
+ * </ul>
+ * The largest error of each attribute is measured after encoding. The vertices are exported interleaved as
+ * {X, Y, Z, W, normal, tangent, U, V}, the normal and tangent are padded to 4 bytes together, see {@link #getStride()}
+ * and {@link #getOffset(Mesh.GLModelDataType)} for the vertex attribute pointers. W is the bitangent sign stored as 65535 for 1
+ * and 0 for -1, or 0 if there is no tangent.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLQuantizedMesh {
+	//Constant of encoding
+	/**
+	 * Normals and tangents are stored as two signed normalized 16-bit integers
+	 */
+	public static final int OCTAHEDRAL_16 = 60001;
+	/**
+	 * Normals and tangents are stored as two signed normalized 8-bit integers
+	 */
+	public static final int OCTAHEDRAL_8 = 60101;
+	/**
+	 * Texture coordinates are stored as half floats
+	 */
+	public static final int HALF_FLOAT = 61001;
+	/**
+	 * Texture coordinates are stored as unsigned normalized 16-bit integers within the bounds of the texture coordinates
+	 */
+	public static final int UNORM_16 = 61101;
+
+	//Variables
+	private final int Vertex_size;
+	private final int Normal_encoding, Texture_encoding;
+	/**
+	 * Stored as {X0, Y0, Z0, X1, ...}, read as unsigned
+	 */
+	private final short[] Positions;
+	/**
+	 * Stored as {X0, Y0, X1, ...}, null if the attribute does not exist
+	 */
+	private final short[] Normals, Tangents, TextureCoordinates;
+	/**
+	 * The bitangent sign of each vertex, null if there is no tangent
+	 */
+	private final float[] Tangent_signs;
+	private final float[] Position_offset = new float[3], Position_scale = new float[3];
+	private final float[] Texture_offset = new float[2], Texture_scale = {1.0f, 1.0f};
+	private float Position_error = 0.0f, Normal_error = 0.0f, Tangent_error = 0.0f, Texture_error = 0.0f;
+
+	/**
+	 * Quantize the vertex data of the mesh, the mesh is not changed
+	 * @param Source The mesh which vertex, texture coordinate and normal share the same index
+	 * @param NormalEncoding {@link #OCTAHEDRAL_16} or {@link #OCTAHEDRAL_8}, used for both normals and tangents
+	 * @param TextureEncoding {@link #HALF_FLOAT} or {@link #UNORM_16}
+	 * @throws GLModelLoadingException If a wrong enum is given or the index of the mesh is not eliminated
+	 */
+	public GLQuantizedMesh(Mesh Source, int NormalEncoding, int TextureEncoding) throws GLModelLoadingException{
+		if(NormalEncoding != OCTAHEDRAL_16 && NormalEncoding != OCTAHEDRAL_8 || TextureEncoding != HALF_FLOAT && TextureEncoding != UNORM_16) {
+			throw newException("Wrong Enum Is Given");
+		}
+		if(!Source.Index_Eliminated) {
+			throw newException("Index Must Be Eliminated Before Quantization");
+		}
+		Vertex_size = Source.getVertexSize();
+		Normal_encoding = NormalEncoding;
+		Texture_encoding = TextureEncoding;
+		Positions = encodePositions(Source.getDataArray(Mesh.GLModelDataType.Vertices).array(), Source.getBounds().toArray());
+
+		final GLFloatArray normal = Source.getDataArray(Mesh.GLModelDataType.Normals);
+		Normals = normal.size() == 3 * Vertex_size ? encodeUnitVectors(normal.array(), true) : null;
+		final GLFloatArray tangent = Source.getDataArray(Mesh.GLModelDataType.Tangents);
+		Tangents = tangent.size() == 3 * Vertex_size ? encodeUnitVectors(tangent.array(), false) : null;
+		Tangent_signs = Tangents != null ? Source.getTangentSigns().clone() : null;
+		final GLFloatArray texture = Source.getDataArray(Mesh.GLModelDataType.TextureCoordinates);
+		TextureCoordinates = texture.size() == 3 * Vertex_size ? encodeTextureCoordinates(texture.array()) : null;
+	}
+
+	private static GLModelLoadingException newException(String Message) {
+		Throwable th = new Throwable("GLModelLoadingException");
+		return new GLModelLoadingException(Message, th, th.getStackTrace(), "GLModelLoadingException");
+	}
+
+	private short[] encodePositions(float[] Position, float[] Bounds) {
+		//Variables
+		final short[] returnValue = new short[3 * Vertex_size];
+		for(int axis = 0; axis < 3; axis++) {//the bounding box of the mesh is found when the vertices are read
+			Position_offset[axis] = Vertex_size == 0 ? 0.0f : Bounds[axis];
+			Position_scale[axis] = Vertex_size == 0 ? 0.0f : (Bounds[axis + 3] - Bounds[axis]) / 65535.0f;
+		}
+		for(int v = 0; v < Vertex_size; v++) {
+			float error = 0.0f;
+			for(int axis = 0; axis < 3; axis++) {
+				final float value = Position[3 * v + axis];
+				final int q = Position_scale[axis] > 0.0f ? Math.round((value - Position_offset[axis]) / Position_scale[axis]) : 0;
+				returnValue[3 * v + axis] = (short)Math.max(0, Math.min(65535, q));
+				final float difference = Position_offset[axis] + (returnValue[3 * v + axis] & 0xFFFF) * Position_scale[axis] - value;
+				error += difference * difference;
+			}
+			Position_error = Math.max(Position_error, (float)Math.sqrt(error));
+		}
+		return returnValue;
+	}
+
+	private short[] encodeUnitVectors(float[] Vector, boolean Normal) {
+		//Variables
+		final short[] returnValue = new short[2 * Vertex_size];
+		final int limit = Normal_encoding == OCTAHEDRAL_16 ? 32767 : 127;
+		final double[] decoded = new double[3];
+		double error = 0.0;
+		for(int v = 0; v < Vertex_size; v++) {
+			final float x = Vector[3 * v], y = Vector[3 * v + 1], z = Vector[3 * v + 2];
+			final double length = Math.sqrt((double)x * x + (double)y * y + (double)z * z);
+			if(!(length > 0.0)) {//zero vectors cannot be encoded, they are decoded as (0, 0, 1)
+				continue;
+			}
+			//project onto the octahedron and unfold the lower half
+			final float l1 = Math.abs(x) + Math.abs(y) + Math.abs(z);
+			float u = x / l1, w = y / l1;
+			if(z < 0.0f) {
+				final float fu = (1.0f - Math.abs(w)) * Math.signum(u == 0.0f ? 1.0f : u);
+				final float fw = (1.0f - Math.abs(u)) * Math.signum(w == 0.0f ? 1.0f : w);
+				u = fu;
+				w = fw;
+			}
+			//try rounding each component both ways and keep the closest direction
+			final int fu = (int)Math.floor(u * limit), fw = (int)Math.floor(w * limit);
+			double best = -2.0;
+			for(int i = 0; i < 4; i++) {
+				final int qu = Math.max(-limit, Math.min(limit, fu + (i & 1)));
+				final int qw = Math.max(-limit, Math.min(limit, fw + (i >> 1)));
+				decodeOctahedral((double)qu / limit, (double)qw / limit, decoded);
+				final double dot = (decoded[0] * x + decoded[1] * y + decoded[2] * z) / length;
+				if(dot > best) {
+					best = dot;
+					returnValue[2 * v] = (short)qu;
+					returnValue[2 * v + 1] = (short)qw;
+				}
+			}
+			error = Math.max(error, Math.acos(Math.min(1.0, best)));
+		}
+		if(Normal) {
+			Normal_error = (float)error;
+		}else {
+			Tangent_error = (float)error;
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Turn a point on the unfolded octahedron back to a unit vector
+	 */
+	private static void decodeOctahedral(double u, double w, double[] Vector) {
+		double x = u, y = w;
+		final double z = 1.0 - Math.abs(u) - Math.abs(w);
+		if(z < 0.0) {
+			x = (1.0 - Math.abs(w)) * Math.signum(u == 0.0 ? 1.0 : u);
+			y = (1.0 - Math.abs(u)) * Math.signum(w == 0.0 ? 1.0 : w);
+		}
+		final double length = Math.sqrt(x * x + y * y + z * z);
+		Vector[0] = x / length;
+		Vector[1] = y / length;
+		Vector[2] = z / length;
+	}
+
+	private short[] encodeTextureCoordinates(float[] Texture) {
+		//Variables
+		final short[] returnValue = new short[2 * Vertex_size];
+		if(Texture_encoding == UNORM_16) {
+			for(int axis = 0; axis < 2; axis++) {
+				float min = Float.POSITIVE_INFINITY, max = Float.NEGATIVE_INFINITY;
+				for(int v = 0; v < Vertex_size; v++) {
+					min = Math.min(min, Texture[3 * v + axis]);
+					max = Math.max(max, Texture[3 * v + axis]);
+				}
+				Texture_offset[axis] = Vertex_size == 0 ? 0.0f : min;
+				Texture_scale[axis] = Vertex_size == 0 ? 0.0f : (max - min) / 65535.0f;
+			}
+		}
+		for(int v = 0; v < Vertex_size; v++) {
+			float error = 0.0f;
+			for(int axis = 0; axis < 2; axis++) {
+				final float value = Texture[3 * v + axis];
+				final float decoded;
+				if(Texture_encoding == HALF_FLOAT) {
+					returnValue[2 * v + axis] = toHalf(value);
+					decoded = fromHalf(returnValue[2 * v + axis]);
+				}else {
+					final int q = Texture_scale[axis] > 0.0f ? Math.round((value - Texture_offset[axis]) / Texture_scale[axis]) : 0;
+					returnValue[2 * v + axis] = (short)Math.max(0, Math.min(65535, q));
+					decoded = Texture_offset[axis] + (returnValue[2 * v + axis] & 0xFFFF) * Texture_scale[axis];
+				}
+				error += (decoded - value) * (decoded - value);
+			}
+			Texture_error = Math.max(Texture_error, (float)Math.sqrt(error));
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Convert a float to the bits of a half float, rounding to the nearest even value
+	 * @param Value The float
+	 * @return The half float
+	 */
+	static short toHalf(float Value) {
+		final int bits = Float.floatToIntBits(Value);
+		final int sign = (bits >>> 16) & 0x8000;
+		final int exponent = (bits >>> 23) & 0xFF;
+		int mantissa = bits & 0x7FFFFF;
+		if(exponent == 0xFF) {//infinity or NaN
+			return (short)(sign | 0x7C00 | (mantissa != 0 ? 0x200 : 0));
+		}
+		final int half_exponent = exponent - 127 + 15;
+		if(half_exponent >= 0x1F) {//too large, becomes infinity
+			return (short)(sign | 0x7C00);
+		}
+		if(half_exponent <= 0) {//subnormal half float or zero
+			if(half_exponent < -10) {
+				return (short)sign;
+			}
+			mantissa |= 0x800000;
+			final int shift = 14 - half_exponent;
+			int half = mantissa >> shift;
+			final int rest = mantissa & ((1 << shift) - 1), middle = 1 << (shift - 1);
+			if(rest > middle || rest == middle && (half & 1) != 0) {
+				half++;
+			}
+			return (short)(sign | half);
+		}
+		int half = (half_exponent << 10) | (mantissa >> 13);
+		final int rest = mantissa & 0x1FFF;
+		if(rest > 0x1000 || rest == 0x1000 && (half & 1) != 0) {
+			half++;//a carry into the exponent is still correct, up to infinity
+		}
+		return (short)(sign | half);
+	}
+
+	/**
+	 * Convert the bits of a half float to a float
+	 * @param Half The half float
+	 * @return The float
+	 */
+	static float fromHalf(short Half) {
+		final int sign = (Half & 0x8000) << 16;
+		final int exponent = (Half >>> 10) & 0x1F;
+		final int mantissa = Half & 0x3FF;
+		if(exponent == 0) {
+			final float value = mantissa * 0x1.0p-24f;
+			return sign != 0 ? -value : value;
+		}
+		if(exponent == 0x1F) {
+			return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+		}
+		return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+	}
+
+	/**
+	 * Retrieve the number of vertices
+	 * @return The number of vertices
+	 */
+	public int getVertexSize() {
+		return Vertex_size;
+	}
+
+	/**
+	 * Retrieve the number of bytes of one exported vertex
+	 * @return The stride in bytes
+	 */
+	public int getStride() {
+		return 8 + getUnitVectorBlock() + (TextureCoordinates != null ? 4 : 0);
+	}
+
+	/**
+	 * Retrieve the position of the attribute within one exported vertex
+	 * @param Type The attribute
+	 * @return The offset in bytes, or -1 if the attribute does not exist
+	 */
+	public int getOffset(Mesh.GLModelDataType Type) {
+		switch(Type) {
+		case Vertices : return 0;
+		case Normals : return Normals != null ? 8 : -1;
+		case Tangents : return Tangents != null ? 8 + getUnitVectorSize(Normals) : -1;
+		case TextureCoordinates : return TextureCoordinates != null ? 8 + getUnitVectorBlock() : -1;
+		default : return -1;
+		}
+	}
+
+	/**
+	 * @return The number of bytes of a normal or tangent in one vertex
+	 */
+	private int getUnitVectorSize(short[] Vector) {
+		return Vector == null ? 0 : Normal_encoding == OCTAHEDRAL_16 ? 4 : 2;
+	}
+
+	/**
+	 * @return The number of bytes of the normal and tangent in one vertex, padded to 4 bytes
+	 */
+	private int getUnitVectorBlock() {
+		return (getUnitVectorSize(Normals) + getUnitVectorSize(Tangents) + 3) & ~3;
+	}
+
+	/**
+	 * Write the vertices into a new direct buffer in native order
+	 * @return The buffer that contains the vertex data, with position 0 and limit at the end of the data
+	 */
+	public ByteBuffer exportVertices() {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(getStride() * Vertex_size).order(ByteOrder.nativeOrder());
+		exportVertices(buffer);
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Write the vertices into the buffer starting at its current position, the position is moved to the end of the data
+	 * @param Buffer The buffer to be written, its byte order is used
+	 * @throws BufferOverflowException If the buffer does not have enough space
+	 */
+	public void exportVertices(ByteBuffer Buffer) {
+		if(Buffer.remaining() < getStride() * Vertex_size) {
+			throw new BufferOverflowException();
+		}
+		for(int v = 0; v < Vertex_size; v++) {
+			Buffer.putShort(Positions[3 * v]).putShort(Positions[3 * v + 1]).putShort(Positions[3 * v + 2]);
+			Buffer.putShort(Tangent_signs != null && Tangent_signs[v] > 0.0f ? (short)0xFFFF : (short)0);
+			putUnitVector(Buffer, Normals, v);
+			putUnitVector(Buffer, Tangents, v);
+			if(getUnitVectorBlock() != getUnitVectorSize(Normals) + getUnitVectorSize(Tangents)) {
+				Buffer.putShort((short)0);
+			}
+			if(TextureCoordinates != null) {
+				Buffer.putShort(TextureCoordinates[2 * v]).putShort(TextureCoordinates[2 * v + 1]);
+			}
+		}
+	}
+
+	private void putUnitVector(ByteBuffer Buffer, short[] Vector, int v) {
+		if(Vector == null) {
+			return;
+		}
+		if(Normal_encoding == OCTAHEDRAL_16) {
+			Buffer.putShort(Vector[2 * v]).putShort(Vector[2 * v + 1]);
+		}else {
+			Buffer.put((byte)Vector[2 * v]).put((byte)Vector[2 * v + 1]);
+		}
+	}
+
+	/**
+	 * Retrieve the quantized positions given as {X0, Y0, Z0, X1, ...}, each value is an unsigned 16-bit integer
+	 * @return A copy of the positions
+	 */
+	public short[] getPositions() {
+		return Positions.clone();
+	}
+
+	/**
+	 * Retrieve the quantized normals given as {X0, Y0, X1, ...} on the unfolded octahedron
+	 * @return A copy of the normals, or null if the mesh has no normal
+	 */
+	public short[] getNormals() {
+		return Normals != null ? Normals.clone() : null;
+	}
+
+	/**
+	 * Retrieve the quantized tangents given as {X0, Y0, X1, ...} on the unfolded octahedron
+	 * @return A copy of the tangents, or null if the tangents were not calculated
+	 */
+	public short[] getTangents() {
+		return Tangents != null ? Tangents.clone() : null;
+	}
+
+	/**
+	 * Retrieve the quantized texture coordinates given as {U0, V0, U1, ...}
+	 * @return A copy of the texture coordinates, or null if the mesh has no texture coordinate
+	 */
+	public short[] getTextureCoordinates() {
+		return TextureCoordinates != null ? TextureCoordinates.clone() : null;
+	}
+
+	/**
+	 * Retrieve the minimum of the bounding box, which is added when decoding the positions
+	 * @return {X, Y, Z}
+	 */
+	public float[] getPositionOffset() {
+		return Position_offset.clone();
+	}
+
+	/**
+	 * Retrieve the size of one step of the quantized positions, which is multiplied when decoding the positions
+	 * @return {X, Y, Z}
+	 */
+	public float[] getPositionScale() {
+		return Position_scale.clone();
+	}
+
+	/**
+	 * Retrieve the value added when decoding unsigned normalized texture coordinates, 0 for half floats
+	 * @return {U, V}
+	 */
+	public float[] getTextureCoordinateOffset() {
+		return Texture_offset.clone();
+	}
+
+	/**
+	 * Retrieve the value multiplied when decoding unsigned normalized texture coordinates, 1 for half floats
+	 * @return {U, V}
+	 */
+	public float[] getTextureCoordinateScale() {
+		return Texture_scale.clone();
+	}
+
+	/**
+	 * Retrieve the encoding of normals and tangents
+	 * @return {@link #OCTAHEDRAL_16} or {@link #OCTAHEDRAL_8}
+	 */
+	public int getNormalEncoding() {
+		return Normal_encoding;
+	}
+
+	/**
+	 * Retrieve the encoding of texture coordinates
+	 * @return {@link #HALF_FLOAT} or {@link #UNORM_16}
+	 */
+	public int getTextureCoordinateEncoding() {
+		return Texture_encoding;
+	}
+
+	/**
+	 * Retrieve the largest distance between a decoded position and the original position
+	 * @return The error in the unit of the mesh
+	 */
+	public float getPositionError() {
+		return Position_error;
+	}
+
+	/**
+	 * Retrieve the largest angle between a decoded normal and the original normal
+	 * @return The error in radians
+	 */
+	public float getNormalError() {
+		return Normal_error;
+	}
+
+	/**
+	 * Retrieve the largest angle between a decoded tangent and the original tangent
+	 * @return The error in radians
+	 */
+	public float getTangentError() {
+		return Tangent_error;
+	}
+
+	/**
+	 * Retrieve the largest distance between a decoded texture coordinate and the original texture coordinate
+	 * @return The error in the unit of texture coordinates
+	 */
+	public float getTextureCoordinateError() {
+		return Texture_error;
+	}
+
+}
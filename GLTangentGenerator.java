@@ -0,0 +1,248 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * GLTangentGenerator calculates a smooth tangent and bitangent sign for each vertex in the way of MikkTSpace.
+ * The tangent of each face is found from the texture coordinates, then for each vertex the face tangents are projected onto
+ * the plane of the vertex normal and summed, weighted by the angle of the face at the vertex. The bitangent sign is the
+ * orientation of the texture coordinates of the faces relative to the normal, so the bitangent is sign * cross(normal, tangent).
+ * Vertices are not split where the texture coordinates are mirrored, such a vertex takes the orientation of the larger angle.
+ * The work is split by ranges of faces and then ranges of vertices on fork/join, only arrays of the task are written so
+ * several meshes can be calculated at the same time.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLTangentGenerator extends RecursiveAction{
+	/**
+	 * Serial Number
+	 */
+	private static final long serialVersionUID = 0x7a9c5d13L;
+	//Constant
+	/**
+	 * Ranges with fewer faces or vertices are not split further
+	 */
+	private static final int SPLIT_SIZE = 4096;
+	/**
+	 * The number of times a singular face is shifted by the bias before it is skipped
+	 */
+	static final int MAX_RETRIES = 8;
+
+	//Input
+	private final float[] position, texture, normal;
+	private final int[] index;
+	private final float bias;
+	/**
+	 * Corners of each vertex, stored as {corners of vertex 0, corners of vertex 1, ...}
+	 */
+	private final int[] start, corner;
+
+	//Working data
+	private final float[] face_tangent;
+	/**
+	 * 1 or -1 for the orientation of the texture coordinates relative to the winding, 0 if the face is skipped
+	 */
+	private final float[] face_sign;
+
+	//Output
+	private final float[] tangent, sign;
+
+	//Range of the task
+	private final boolean face_pass;
+	private final int from, to;
+	/**
+	 * Number of faces skipped in the range
+	 */
+	int Singular = 0;
+
+	private GLTangentGenerator(GLTangentGenerator Parent, boolean FacePass, int From, int To) {
+		position = Parent.position;
+		texture = Parent.texture;
+		normal = Parent.normal;
+		index = Parent.index;
+		bias = Parent.bias;
+		start = Parent.start;
+		corner = Parent.corner;
+		face_tangent = Parent.face_tangent;
+		face_sign = Parent.face_sign;
+		tangent = Parent.tangent;
+		sign = Parent.sign;
+		face_pass = FacePass;
+		from = From;
+		to = To;
+	}
+
+	private GLTangentGenerator(float[] Position, float[] Texture, float[] Normal, int[] Index, int FaceSize, int VertexSize, float Bias, float[] Tangent, float[] Sign) {
+		position = Position;
+		texture = Texture;
+		normal = Normal;
+		index = Index;
+		bias = Bias;
+		final GLVertexAdjacency adjacency = new GLVertexAdjacency(Index, null, FaceSize, VertexSize, false);
+		start = adjacency.start;
+		corner = adjacency.adjacency;
+		face_tangent = new float[3 * FaceSize];
+		face_sign = new float[FaceSize];
+		tangent = Tangent;
+		sign = Sign;
+		face_pass = true;
+		from = 0;
+		to = FaceSize;
+	}
+
+	/**
+	 * Calculate the tangents, the calling thread joins the work on the common fork/join pool
+	 * @param Position The vertices given as {X0, Y0, Z0, X1, ...}
+	 * @param Texture The texture coordinates given as {U0, V0, W0, U1, ...}, sharing the index of vertices
+	 * @param Normal The normals sharing the index of vertices, or null to use the normal of each face
+	 * @param Index The index of each face, three for each face
+	 * @param FaceSize The number of faces
+	 * @param VertexSize The number of vertices
+	 * @param Bias The shift of texture coordinates when the face is singular
+	 * @param Tangent The array to be written with the tangents, 3 * VertexSize
+	 * @param Sign The array to be written with the bitangent signs, VertexSize
+	 * @return The number of faces skipped because the texture coordinates are singular
+	 */
+	static int generate(float[] Position, float[] Texture, float[] Normal, int[] Index, int FaceSize, int VertexSize, float Bias, float[] Tangent, float[] Sign) {
+		final GLTangentGenerator faces = new GLTangentGenerator(Position, Texture, Normal, Index, FaceSize, VertexSize, Bias, Tangent, Sign);
+		faces.invoke();
+		new GLTangentGenerator(faces, false, 0, VertexSize).invoke();
+		return faces.Singular;
+	}
+
+	@Override
+	protected void compute() {
+		if(to - from > SPLIT_SIZE) {
+			final int middle = (from + to) >>> 1;
+			final GLTangentGenerator left = new GLTangentGenerator(this, face_pass, from, middle);
+			final GLTangentGenerator right = new GLTangentGenerator(this, face_pass, middle, to);
+			invokeAll(left, right);
+			Singular = left.Singular + right.Singular;
+		}else if(face_pass) {
+			for(int f = from; f < to; f++) {
+				computeFace(f);
+			}
+		}else {
+			for(int v = from; v < to; v++) {
+				computeVertex(v);
+			}
+		}
+	}
+
+	private void computeFace(int f) {
+		final int a = index[3 * f], b = index[3 * f + 1], c = index[3 * f + 2];
+		final float e1x = position[3 * b] - position[3 * a], e1y = position[3 * b + 1] - position[3 * a + 1], e1z = position[3 * b + 2] - position[3 * a + 2];
+		final float e2x = position[3 * c] - position[3 * a], e2y = position[3 * c + 1] - position[3 * a + 1], e2z = position[3 * c + 2] - position[3 * a + 2];
+		float du1 = texture[3 * b] - texture[3 * a], dv1 = texture[3 * b + 1] - texture[3 * a + 1];
+		float du2 = texture[3 * c] - texture[3 * a], dv2 = texture[3 * c + 1] - texture[3 * a + 1];
+		float determinant = du1 * dv2 - du2 * dv1;
+		//shift the texture coordinates of the second and third corner, a limited number of times
+		for(int retry = 0; determinant == 0.0f && retry < MAX_RETRIES; retry++) {
+			du1 += bias;
+			dv2 += bias;
+			determinant = du1 * dv2 - du2 * dv1;
+		}
+		if(determinant == 0.0f || !Float.isFinite(determinant)) {
+			face_sign[f] = 0.0f;
+			Singular++;
+			return;
+		}
+		final float inverse = 1.0f / determinant;
+		face_tangent[3 * f] = (e1x * dv2 - e2x * dv1) * inverse;
+		face_tangent[3 * f + 1] = (e1y * dv2 - e2y * dv1) * inverse;
+		face_tangent[3 * f + 2] = (e1z * dv2 - e2z * dv1) * inverse;
+		face_sign[f] = determinant > 0.0f ? 1.0f : -1.0f;
+	}
+
+	private void computeVertex(int v) {
+		//Variables
+		float tx = 0.0f, ty = 0.0f, tz = 0.0f;
+		float orientation = 0.0f;
+		float nx = 0.0f, ny = 0.0f, nz = 0.0f;
+		if(normal != null) {
+			nx = normal[3 * v];
+			ny = normal[3 * v + 1];
+			nz = normal[3 * v + 2];
+			final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			if(length > 0.0f) {
+				nx /= length;
+				ny /= length;
+				nz /= length;
+			}
+		}
+		final boolean face_normal = !(nx != 0.0f || ny != 0.0f || nz != 0.0f);
+
+		for(int k = start[v]; k < start[v + 1]; k++) {
+			final int f = corner[k] / 3, j = corner[k] % 3;
+			if(face_sign[f] == 0.0f) {
+				continue;
+			}
+			final int p = 3 * v;
+			final int q = 3 * index[3 * f + (j + 1) % 3], r = 3 * index[3 * f + (j + 2) % 3];
+			float ax = position[q] - position[p], ay = position[q + 1] - position[p + 1], az = position[q + 2] - position[p + 2];
+			float bx = position[r] - position[p], by = position[r + 1] - position[p + 1], bz = position[r + 2] - position[p + 2];
+			final float cx = ay * bz - az * by, cy = az * bx - ax * bz, cz = ax * by - ay * bx;
+			if(face_normal) {
+				final float length = (float)Math.sqrt(cx * cx + cy * cy + cz * cz);
+				if(!(length > 0.0f)) {
+					continue;
+				}
+				nx = cx / length;
+				ny = cy / length;
+				nz = cz / length;
+			}
+			//the face is mirrored when its winding is against the normal
+			final float winding = cx * nx + cy * ny + cz * nz < 0.0f ? -1.0f : 1.0f;
+			//project the face tangent and the edges onto the plane of the normal
+			float fx = face_tangent[3 * f], fy = face_tangent[3 * f + 1], fz = face_tangent[3 * f + 2];
+			float d = fx * nx + fy * ny + fz * nz;
+			fx -= nx * d;
+			fy -= ny * d;
+			fz -= nz * d;
+			final float tangent_length = (float)Math.sqrt(fx * fx + fy * fy + fz * fz);
+			if(!(tangent_length > 0.0f)) {
+				continue;
+			}
+			d = ax * nx + ay * ny + az * nz;
+			ax -= nx * d;
+			ay -= ny * d;
+			az -= nz * d;
+			d = bx * nx + by * ny + bz * nz;
+			bx -= nx * d;
+			by -= ny * d;
+			bz -= nz * d;
+			final float edge_length = (float)Math.sqrt((ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz));
+			final float angle = edge_length > 0.0f ? (float)Math.acos(Math.max(-1.0f, Math.min(1.0f, (ax * bx + ay * by + az * bz) / edge_length))) : 0.0f;
+
+			tx += fx / tangent_length * angle;
+			ty += fy / tangent_length * angle;
+			tz += fz / tangent_length * angle;
+			orientation += face_sign[f] * winding * angle;
+		}
+
+		final float length = (float)Math.sqrt(tx * tx + ty * ty + tz * tz);
+		if(length > 0.0f) {
+			tangent[3 * v] = tx / length;
+			tangent[3 * v + 1] = ty / length;
+			tangent[3 * v + 2] = tz / length;
+		}else if(!face_normal) {//no face gives a tangent, take any direction perpendicular to the normal
+			final boolean x_axis = Math.abs(nx) < 0.9f;
+			final float ux = x_axis ? 1.0f : 0.0f, uy = x_axis ? 0.0f : 1.0f;
+			final float d = ux * nx + uy * ny;
+			final float px = ux - nx * d, py = uy - ny * d, pz = -nz * d;
+			final float p_length = (float)Math.sqrt(px * px + py * py + pz * pz);
+			tangent[3 * v] = px / p_length;
+			tangent[3 * v + 1] = py / p_length;
+			tangent[3 * v + 2] = pz / p_length;
+		}else {
+			tangent[3 * v] = 1.0f;
+			tangent[3 * v + 1] = 0.0f;
+			tangent[3 * v + 2] = 0.0f;
+		}
+		sign[v] = orientation < 0.0f ? -1.0f : 1.0f;
+	}
+
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * GLTexture is a decoded texture image of a map in a material, see {@link GLTexturePrefetcher}. The pixels are stored in a
+ * direct buffer with one byte for each channel, row by row from the top of the image, so it can be given to glTexImage2D directly.
+ * Colour maps have 4 channels in RGBA order. Scalar maps (bump, displacement and decal) have 1 channel taken from the image as given
+ * by -imfchan.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLTexture {
+	//Variables
+	private final String Path;
+	private final int Width, Height, Channels;
+	private final ByteBuffer Data;
+
+	/**
+	 * Initialise the texture
+	 * @param path The file of the image
+	 * @param width The width in pixels
+	 * @param height The height in pixels
+	 * @param channels The number of bytes of each pixel
+	 * @param data The pixels
+	 */
+	GLTexture(String path, int width, int height, int channels, ByteBuffer data){
+		Path = path;
+		Width = width;
+		Height = height;
+		Channels = channels;
+		Data = data;
+	}
+
+	/**
+	 * @return The file of the image
+	 */
+	public String getPath() {
+		return Path;
+	}
+
+	/**
+	 * @return The width in pixels
+	 */
+	public int getWidth() {
+		return Width;
+	}
+
+	/**
+	 * @return The height in pixels
+	 */
+	public int getHeight() {
+		return Height;
+	}
+
+	/**
+	 * @return The number of bytes of each pixel, 4 for RGBA or 1 for a scalar map
+	 */
+	public int getChannels() {
+		return Channels;
+	}
+
+	/**
+	 * Get the pixels of the texture, the buffer shares the memory with the texture but has its own position
+	 * @return The pixels from the top row to the bottom row
+	 */
+	public ByteBuffer getData() {
+		return Data.duplicate();
+	}
+
+}
@@ -0,0 +1,227 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+/**
+ * GLTexturePrefetcher reads and decodes the images of the maps of materials on its own threads, so the textures are ready when
+ * the model is imported instead of being loaded one by one on the render thread. It is usually started by the importer as soon
+ * as the materials are imported, see {@link GLModelLoader#setTexturePrefetch(int)}, so the images are decoded while the obj file
+ * is parsed. Each image is decoded once even if it is used by several maps, and the result of each map is given as a future.
+ * <p>
+ * A map used as a scalar texture, which is displacement or decal, is decoded into the channel given by -imfchan, or the luminance
+ * if it is not given. A map_Bump or bump map is usually a tangent space normal map, so it is decoded into RGBA unless -imfchan is
+ * given for it. The other maps are decoded into RGBA. -clamp does not change the pixels, it should be applied to the sampler with {@link Material.Map#getClamp()}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLTexturePrefetcher {
+	//Constant
+	/**
+	 * The channel of the colour maps, which are decoded into RGBA
+	 */
+	private static final int RGBA = -1;
+
+	//Variables
+	private final File Directory;
+	/**
+	 * The texture of each image and channel
+	 */
+	private final HashMap<String, CompletableFuture<GLTexture>> Textures;
+
+	private GLTexturePrefetcher(File directory, HashMap<String, CompletableFuture<GLTexture>> textures){
+		Directory = directory;
+		Textures = textures;
+	}
+
+	/**
+	 * Start decoding the images of all maps of the materials. The method returns at once, the images are decoded by a fixed number of
+	 * threads which stop when all images are decoded.
+	 * @param Materials The materials
+	 * @param Directory The folder of the mtl file, the location of a map is relative to it unless it is absolute. Null for the working folder.
+	 * @param Threads The number of images decoded at the same time
+	 * @return The prefetcher which gives the textures
+	 * @throws GLModelLoadingException If the number of threads is less than one
+	 */
+	public static GLTexturePrefetcher prefetch(Material[] Materials, File Directory, int Threads) throws GLModelLoadingException{
+		if(Threads < 1) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Number Of Threads Must Be At Least One", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		//Variables
+		final HashMap<String, CompletableFuture<GLTexture>> textures = new HashMap<String, CompletableFuture<GLTexture>>();
+		final ArrayList<Runnable> tasks = new ArrayList<Runnable>();
+		for(Material material : Materials) {
+			final Material.Map[] maps = {material.Ambient_Map, material.Diffuse_Map, material.Specular_Map, material.Normal_Map,
+					material.Displacement_Map, material.Decal_Map, material.Reflection_Map};
+			for(Material.Map map : maps) {
+				if(map == null || map.getLocation() == null) {
+					continue;
+				}
+				final File file = getFile(Directory, map);
+				final int channel = getChannel(map);
+				final String key = getKey(file, channel);
+				if(textures.containsKey(key)) {
+					continue;
+				}
+				final CompletableFuture<GLTexture> future = new CompletableFuture<GLTexture>();
+				textures.put(key, future);
+				tasks.add(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							future.complete(decode(file, channel));
+						}catch(IOException | RuntimeException e) {
+							future.completeExceptionally(e);
+						}
+					}
+				});
+			}
+		}
+
+		if(!tasks.isEmpty()) {
+			final ExecutorService executor = Executors.newFixedThreadPool(Math.min(Threads, tasks.size()), GLExecutors.getThreadFactory("GLTexturePrefetcher"));
+			for(Runnable task : tasks) {
+				executor.execute(task);
+			}
+			executor.shutdown();//the threads stop after the submitted images
+		}
+		return new GLTexturePrefetcher(Directory, textures);
+	}
+
+	/**
+	 * Get the texture of a map
+	 * @param Map The map of a material given to {@link #prefetch(Material[], File, int)}
+	 * @return The future of the texture, it completes exceptionally with an IOException if the image cannot be read or decoded.
+	 * Null if the map is null or it is not prefetched. The texture has one channel if the map is decoded as a scalar texture,
+	 * see {@link GLTexturePrefetcher}.
+	 */
+	public CompletableFuture<GLTexture> getTexture(Material.Map Map) {
+		return Map == null || Map.getLocation() == null ? null : Textures.get(getKey(getFile(Directory, Map), getChannel(Map)));
+	}
+
+	/**
+	 * @return The future which completes when every texture is decoded or has failed
+	 */
+	public CompletableFuture<Void> getAll() {
+		return CompletableFuture.allOf(Textures.values().toArray(new CompletableFuture<?>[0]));
+	}
+
+	/**
+	 * @return The number of textures decoded, an image used with different channels is counted once for each channel
+	 */
+	public int getSize() {
+		return Textures.size();
+	}
+
+	private static File getFile(File Directory, Material.Map Map) {
+		final File file = new File(Map.getLocation());
+		return file.isAbsolute() || Directory == null ? file : new File(Directory, Map.getLocation());
+	}
+
+	private static String getKey(File File, int Channel) {
+		return File.getAbsolutePath() + "#" + Channel;
+	}
+
+	/**
+	 * Find the channel which the map is decoded into
+	 * @return The channel given by -imfchan for scalar maps, {@link #RGBA} for colour maps and normal maps without -imfchan
+	 */
+	private static int getChannel(Material.Map Map) {
+		switch(Map.getMapType()) {
+		case Normal :
+			return Map.isImfchanGiven() ? Map.getInfchan() : RGBA;
+		case Displacement :
+		case Decal :
+			return Map.getInfchan();
+		default:
+			return RGBA;
+		}
+	}
+
+	/**
+	 * Read and decode an image
+	 * @param File The image
+	 * @param Channel The channel to be kept, {@link #RGBA} to keep all channels
+	 * @return The texture
+	 * @throws IOException If the image cannot be read or the format is not supported
+	 */
+	private static GLTexture decode(File File, int Channel) throws IOException{
+		final BufferedImage image = ImageIO.read(File);
+		if(image == null) {
+			throw new IOException("Image Format Is Not Supported: " + File.getPath());
+		}
+		//Variables
+		final int width = image.getWidth(), height = image.getHeight();
+		final int channels = Channel == RGBA ? 4 : 1;
+		final ByteBuffer data = ByteBuffer.allocateDirect(width * height * channels);
+		final int[] row = new int[width];//ARGB of each pixel
+		final int type = image.getType();
+		//bytes of common images are read directly, so gray images are not converted to sRGB
+		final boolean raw = type == BufferedImage.TYPE_BYTE_GRAY || type == BufferedImage.TYPE_3BYTE_BGR || type == BufferedImage.TYPE_4BYTE_ABGR;
+		final Raster raster = image.getRaster();
+		final int bands = raster.getNumBands();
+		final byte[] bytes = raw ? new byte[width * bands] : null;
+
+		for(int y = 0; y < height; y++) {
+			if(raw) {
+				raster.getDataElements(0, y, width, 1, bytes);//in the order of the bands, which is R, G, B, A
+				for(int x = 0; x < width; x++) {
+					final int i = x * bands;
+					final int r = bytes[i] & 0xFF;
+					final int g = bands >= 3 ? bytes[i + 1] & 0xFF : r;
+					final int b = bands >= 3 ? bytes[i + 2] & 0xFF : r;
+					final int a = bands == 4 ? bytes[i + 3] & 0xFF : 0xFF;
+					row[x] = a << 24 | r << 16 | g << 8 | b;
+				}
+			}else {
+				image.getRGB(0, y, width, 1, row, 0, width);
+			}
+			for(int x = 0; x < width; x++) {
+				final int argb = row[x];
+				if(channels == 4) {
+					data.put((byte)(argb >> 16));
+					data.put((byte)(argb >> 8));
+					data.put((byte)argb);
+					data.put((byte)(argb >>> 24));
+				}else {
+					data.put((byte)getScalar(argb, Channel));
+				}
+			}
+		}
+		data.flip();
+		return new GLTexture(File.getPath(), width, height, channels, data);
+	}
+
+	/**
+	 * Get one channel of a pixel
+	 * @param ARGB The pixel
+	 * @param Channel The channel given by -imfchan, z depth has no channel in an image so the luminance is used
+	 * @return The value of the channel from 0 to 255
+	 */
+	private static int getScalar(int ARGB, int Channel) {
+		final int r = ARGB >> 16 & 0xFF, g = ARGB >> 8 & 0xFF, b = ARGB & 0xFF;
+		switch(Channel) {
+		case Material.Map.RED : return r;
+		case Material.Map.GREEN : return g;
+		case Material.Map.BLUE : return b;
+		case Material.Map.MATTE : return ARGB >>> 24;
+		default:
+			return (299 * r + 587 * g + 114 * b + 500) / 1000;
+		}
+	}
+
+}
@@ -0,0 +1,176 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * GLTriangulator splits a polygon face into triangles. Convex polygons are split as a fan from the first corner,
+ * concave polygons are split by ear clipping on the plane which the polygon is projected to.
+ * The working arrays are kept between calls so no array is created for each face, one triangulator should only be used by one thread.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLTriangulator {
+	//Variables
+	private float[] x = new float[8], y = new float[8];
+	private int[] previous = new int[8], next = new int[8];
+
+	/**
+	 * Initialise the triangulator
+	 */
+	GLTriangulator(){
+
+	}
+
+	/**
+	 * Split a polygon into triangles, the winding of the polygon is kept.
+	 * @param Position The position of each corner given as {X0, Y0, Z0, X1, ...}, or null if the positions are unknown
+	 * then the polygon is split as a fan
+	 * @param Count The number of corners, at least 3
+	 * @param Triangle The array to be written with the corners of each triangle, it needs to have 3 * (Count - 2) elements
+	 * @return The number of triangles written
+	 */
+	int triangulate(float[] Position, int Count, int[] Triangle) {
+		if(Count == 3 || Position == null || !project(Position, Count) || isConvex(Count)) {
+			return fan(Count, Triangle);
+		}
+		//ear clipping
+		for(int i = 0; i < Count; i++) {
+			previous[i] = i == 0 ? Count - 1 : i - 1;
+			next[i] = i == Count - 1 ? 0 : i + 1;
+		}
+		int written = 0;
+		int remaining = Count;
+		int current = 0;
+		int skipped = 0;
+		while(remaining > 3) {
+			final int p = previous[current], n = next[current];
+			//no ear can be found if the polygon is self-intersecting, then clip the corner anyway
+			if(isEar(p, current, n) || skipped > remaining) {
+				Triangle[written++] = p;
+				Triangle[written++] = current;
+				Triangle[written++] = n;
+				next[p] = n;
+				previous[n] = p;
+				remaining--;
+				skipped = 0;
+			}else {
+				skipped++;
+			}
+			current = n;
+		}
+		Triangle[written++] = previous[current];
+		Triangle[written++] = current;
+		Triangle[written++] = next[current];
+		return written / 3;
+	}
+
+	/**
+	 * Split a polygon into triangles which all share the first corner
+	 * @param Count The number of corners
+	 * @param Triangle The array to be written with the corners of each triangle
+	 * @return The number of triangles written
+	 */
+	private static int fan(int Count, int[] Triangle) {
+		for(int i = 0; i < Count - 2; i++) {
+			Triangle[3 * i] = 0;
+			Triangle[3 * i + 1] = i + 1;
+			Triangle[3 * i + 2] = i + 2;
+		}
+		return Count - 2;
+	}
+
+	/**
+	 * Project the polygon to the axis plane which it faces most, the projected polygon is always counter-clockwise.
+	 * @param Position The position of each corner
+	 * @param Count The number of corners
+	 * @return False if the polygon is degenerated
+	 */
+	private boolean project(float[] Position, int Count) {
+		if(x.length < Count) {
+			x = Arrays.copyOf(x, Count * 2);
+			y = Arrays.copyOf(y, Count * 2);
+			previous = Arrays.copyOf(previous, Count * 2);
+			next = Arrays.copyOf(next, Count * 2);
+		}
+		//Newell's method
+		float nx = 0.0f, ny = 0.0f, nz = 0.0f;
+		for(int i = 0, j = Count - 1; i < Count; j = i++) {
+			nx += (Position[3 * j + 1] - Position[3 * i + 1]) * (Position[3 * j + 2] + Position[3 * i + 2]);
+			ny += (Position[3 * j + 2] - Position[3 * i + 2]) * (Position[3 * j] + Position[3 * i]);
+			nz += (Position[3 * j] - Position[3 * i]) * (Position[3 * j + 1] + Position[3 * i + 1]);
+		}
+		final float ax = Math.abs(nx), ay = Math.abs(ny), az = Math.abs(nz);
+		if(!(ax + ay + az > 0.0f)) {//zero or NaN
+			return false;
+		}
+		//drop the dominant axis
+		final int u, v;
+		final boolean flip;
+		if(ax >= ay && ax >= az) {
+			u = 1;
+			v = 2;
+			flip = nx < 0.0f;
+		}else if(ay >= az) {
+			u = 2;
+			v = 0;
+			flip = ny < 0.0f;
+		}else {
+			u = 0;
+			v = 1;
+			flip = nz < 0.0f;
+		}
+		for(int i = 0; i < Count; i++) {
+			x[i] = Position[3 * i + u];
+			y[i] = flip ? -Position[3 * i + v] : Position[3 * i + v];
+		}
+		return true;
+	}
+
+	/**
+	 * @return True if no corner of the projected polygon turns clockwise
+	 */
+	private boolean isConvex(int Count) {
+		for(int i = 0; i < Count; i++) {
+			if(cross(i == 0 ? Count - 1 : i - 1, i, i == Count - 1 ? 0 : i + 1) < 0.0f) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return True if the corner is convex and no other remaining corner lies in the triangle
+	 */
+	private boolean isEar(int p, int c, int n) {
+		if(cross(p, c, n) <= 0.0f) {
+			return false;
+		}
+		for(int i = next[n]; i != p; i = next[i]) {
+			if(isInside(i, p, c, n)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return True if the corner lies in or on the edge of the triangle, corners at the same position as the triangle corners are ignored
+	 */
+	private boolean isInside(int i, int a, int b, int c) {
+		if(x[i] == x[a] && y[i] == y[a] || x[i] == x[b] && y[i] == y[b] || x[i] == x[c] && y[i] == y[c]) {
+			return false;
+		}
+		return cross(a, b, i) >= 0.0f && cross(b, c, i) >= 0.0f && cross(c, a, i) >= 0.0f;
+	}
+
+	/**
+	 * @return The z component of the cross product of (b - a) and (c - b)
+	 */
+	private float cross(int a, int b, int c) {
+		return (x[b] - x[a]) * (y[c] - y[b]) - (y[b] - y[a]) * (x[c] - x[b]);
+	}
+
+}
@@ -23,6 +23,19 @@ public final class GLVector3 {
 		Z = Component[2];
 	}
 	
+	/**
+	 * Vector3 class can store information about vertice, normals, etc. from the model file.
+	 * 
+	 * @param x X component of the vector
+	 * @param y Y component of the vector
+	 * @param z Z component of the vector
+	 */
+	GLVector3(float x, float y, float z){
+		X = x;
+		Y = y;
+		Z = z;
+	}
+	
 	/**
 	 * 
 	 * @return X component of the vector
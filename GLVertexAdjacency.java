@@ -0,0 +1,56 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+/**
+ * GLVertexAdjacency lists the corners or the faces around each vertex of a triangle mesh, so the faces sharing a vertex can be
+ * visited without searching all faces. The lists of all vertices are stored one after another in one array, each list is in the
+ * order of the corners in the index.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLVertexAdjacency {
+	//Output
+	/**
+	 * The list of vertex v is stored from start[v] to start[v + 1] - 1 of the adjacency, VertexSize + 1 elements
+	 */
+	final int[] start;
+	/**
+	 * The corners (position in the index) or the faces around each vertex, stored as {list of vertex 0, list of vertex 1, ...}
+	 */
+	final int[] adjacency;
+
+	/**
+	 * List the corners or the faces around each vertex
+	 * @param Index The vertex index of each face, three for each face
+	 * @param Remap The vertex each vertex is listed under, such as the first vertex at the same position, or null to use the index
+	 * @param FaceSize The number of faces
+	 * @param VertexSize The number of vertices
+	 * @param Faces True to list the face of each corner, false to list the corner
+	 */
+	GLVertexAdjacency(int[] Index, int[] Remap, int FaceSize, int VertexSize, boolean Faces){
+		start = new int[VertexSize + 1];
+		adjacency = new int[3 * FaceSize];
+		for(int i = 0; i < 3 * FaceSize; i++) {
+			start[(Remap != null ? Remap[Index[i]] : Index[i]) + 1]++;
+		}
+		for(int v = 0; v < VertexSize; v++) {
+			start[v + 1] += start[v];
+		}
+		final int[] fill = new int[VertexSize];
+		for(int i = 0; i < 3 * FaceSize; i++) {
+			final int v = Remap != null ? Remap[Index[i]] : Index[i];
+			adjacency[start[v] + fill[v]++] = Faces ? i / 3 : i;
+		}
+	}
+
+	/**
+	 * @param Vertex The vertex
+	 * @return The number of corners of the vertex
+	 */
+	int getSize(int Vertex) {
+		return start[Vertex + 1] - start[Vertex];
+	}
+
+}
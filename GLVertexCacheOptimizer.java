@@ -0,0 +1,257 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.util.Arrays;
+
+/**
+ * GLVertexCacheOptimizer reorders the triangles of an indexed mesh so that vertices are reused while they are still in the
+ * post-transform cache of the GPU, using Tom Forsyth's linear-speed vertex cache optimisation. Vertices are then reordered in
+ * the order they are first used by the new triangle order so that the vertex fetch is also sequential.
+ * @author Haoqian Stephen Xu
+ *
+ */
+final class GLVertexCacheOptimizer {
+	//Constant
+	/**
+	 * The size of the cache which is simulated when scoring vertices
+	 */
+	static final int CACHE_SIZE = 32;
+	private static final float CACHE_DECAY_POWER = 1.5f;
+	private static final float LAST_TRIANGLE_SCORE = 0.75f;
+	private static final float VALENCE_BOOST_SCALE = 2.0f;
+	private static final float VALENCE_BOOST_POWER = 0.5f;
+
+	/**
+	 * All methods are static so user will not be able to use the constructor
+	 */
+	private GLVertexCacheOptimizer() {
+
+	}
+
+	/**
+	 * Calculate the average cache miss ratio, which is the number of vertices transformed per triangle, with a first-in-first-out cache
+	 * @param Index The vertex index of each triangle
+	 * @param FaceSize The number of triangles
+	 * @param VertexSize The number of vertices
+	 * @param CacheSize The number of vertices in the cache
+	 * @return The average cache miss ratio, between 0.5 (best) and 3 (worst), or 0 if there is no triangle
+	 */
+	static float getACMR(int[] Index, int FaceSize, int VertexSize, int CacheSize) {
+		if(FaceSize == 0) {
+			return 0.0f;
+		}
+		//the number of misses when each vertex entered the cache, a vertex is still in the cache if it entered within the last CacheSize misses
+		final int[] entered = new int[VertexSize];
+		Arrays.fill(entered, -CacheSize);
+		int misses = 0;
+		for(int i = 0; i < 3 * FaceSize; i++) {
+			final int v = Index[i];
+			if(misses - entered[v] >= CacheSize) {
+				misses++;
+				entered[v] = misses;
+			}
+		}
+		return (float)misses / FaceSize;
+	}
+
+	/**
+	 * Reorder the triangles and vertices of the mesh, the original mesh is not changed
+	 * @param Raw_data The mesh which vertex, texture coordinate and normal share the same index
+	 * @return The optimised mesh
+	 */
+	static Mesh optimize(Mesh Raw_data) {
+		final int[] index = Raw_data.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+		final Mesh returning = reorder(Raw_data, getTriangleOrder(index, Raw_data.getFaceSize(), Raw_data.getVertexSize()));
+		returning.ACMR_Before = getACMR(index, Raw_data.getFaceSize(), Raw_data.getVertexSize(), CACHE_SIZE);
+		return returning;
+	}
+
+	/**
+	 * Create a mesh with the triangles in the given order, vertices are reordered in the order they are first used
+	 * @param Raw_data The mesh which vertex, texture coordinate and normal share the same index
+	 * @param Order The triangle at each position of the new order
+	 * @return The reordered mesh, the average cache miss ratio after reordering is recorded, and the ratio before reordering
+	 * is kept from the given mesh or measured if the mesh has not been reordered
+	 */
+	static Mesh reorder(Mesh Raw_data, int[] Order) {
+		//Variables
+		final int faces = Raw_data.getFaceSize();
+		final int vertices = Raw_data.getVertexSize();
+		final int[] index = Raw_data.getIndexArray(Mesh.GLModelDataType.Vertices).array();
+
+		//vertices are numbered in the order they are first used
+		final int[] remap = new int[vertices];
+		Arrays.fill(remap, -1);
+		final int[] triangles = new int[3 * faces];
+		int next = 0;
+		for(int i = 0; i < faces; i++) {
+			for(int j = 0; j < 3; j++) {
+				final int v = index[3 * Order[i] + j];
+				if(remap[v] == -1) {
+					remap[v] = next++;
+				}
+				triangles[3 * i + j] = remap[v];
+			}
+		}
+		//vertices which are not used by any triangle are kept at the end
+		for(int v = 0; v < vertices; v++) {
+			if(remap[v] == -1) {
+				remap[v] = next++;
+			}
+		}
+
+		final Mesh returning = new Mesh();
+		returning.setMeshName(Raw_data.getMeshName());
+		returning.setMtl(Raw_data.getMtl());
+		returning.Index_Eliminated = Raw_data.Index_Eliminated;
+		returning.ACMR_Before = Raw_data.ACMR_Before >= 0.0f ? Raw_data.ACMR_Before : getACMR(index, faces, vertices, CACHE_SIZE);
+		returning.ACMR_After = getACMR(triangles, faces, vertices, CACHE_SIZE);
+		returning.getBounds().set(Raw_data.getBounds());//vertices are only reordered
+		for(Mesh.GLModelDataType type : new Mesh.GLModelDataType[] {Mesh.GLModelDataType.Vertices, Mesh.GLModelDataType.TextureCoordinates, Mesh.GLModelDataType.Normals}) {
+			final GLFloatArray source = Raw_data.getDataArray(type);
+			if(source.size() != 3 * vertices) {//the attribute does not exist
+				continue;
+			}
+			final float[] data = new float[3 * vertices];
+			final float[] array = source.array();
+			for(int v = 0; v < vertices; v++) {
+				System.arraycopy(array, 3 * v, data, 3 * remap[v], 3);
+			}
+			returning.getDataArray(type).add(data, 0, data.length);
+		}
+		final int[] none = new int[3 * faces];
+		returning.newFaces(triangles, Raw_data.getTextureCoordinateSize() != 0 ? triangles : none, Raw_data.getNormalSize() != 0 ? triangles : none, faces);
+		return returning;
+	}
+
+	/**
+	 * Find the order of triangles which has the least cache misses
+	 * @param Index The vertex index of each triangle
+	 * @param FaceSize The number of triangles
+	 * @param VertexSize The number of vertices
+	 * @return The triangle at each position of the new order
+	 */
+	private static int[] getTriangleOrder(int[] Index, int FaceSize, int VertexSize) {
+		//triangles using each vertex, stored as {triangles of vertex 0, triangles of vertex 1, ...}
+		final GLVertexAdjacency triangles = new GLVertexAdjacency(Index, null, FaceSize, VertexSize, true);
+		final int[] start = triangles.start;
+		final int[] adjacency = triangles.adjacency;
+		final int[] remaining = new int[VertexSize];//number of triangles using the vertex which are not added yet
+		for(int v = 0; v < VertexSize; v++) {
+			remaining[v] = triangles.getSize(v);
+		}
+
+		final float[] vertex_score = new float[VertexSize];
+		for(int v = 0; v < VertexSize; v++) {
+			vertex_score[v] = getScore(-1, remaining[v]);
+		}
+		final float[] triangle_score = new float[FaceSize];
+		for(int t = 0; t < FaceSize; t++) {
+			triangle_score[t] = vertex_score[Index[3 * t]] + vertex_score[Index[3 * t + 1]] + vertex_score[Index[3 * t + 2]];
+		}
+		final boolean[] added = new boolean[FaceSize];
+		final int[] order = new int[FaceSize];
+		int[] cache = new int[CACHE_SIZE + 3];
+		int[] cache_next = new int[CACHE_SIZE + 3];
+		int cache_size = 0;
+		int scan = 0;//all triangles before it have been added
+
+		int best = -1;
+		for(int i = 0; i < FaceSize; i++) {
+			if(best == -1) {//no triangle in the cache can be added, take the next one in the original order
+				while(added[scan]) {
+					scan++;
+				}
+				best = scan;
+			}
+			order[i] = best;
+			added[best] = true;
+
+			//put the vertices of the triangle at the front of the cache
+			int size = 0;
+			for(int j = 0; j < 3; j++) {
+				final int v = Index[3 * best + j];
+				cache_next[size++] = v;
+				//the triangle no longer uses the vertex
+				for(int k = start[v]; k < start[v] + remaining[v]; k++) {
+					if(adjacency[k] == best) {
+						adjacency[k] = adjacency[start[v] + remaining[v] - 1];
+						remaining[v]--;
+						break;
+					}
+				}
+			}
+			for(int j = 0; j < cache_size; j++) {
+				final int v = cache[j];
+				if(v != cache_next[0] && v != cache_next[1] && v != cache_next[2]) {
+					cache_next[size++] = v;
+				}
+			}
+			final int[] swap = cache;
+			cache = cache_next;
+			cache_next = swap;
+			cache_size = Math.min(size, CACHE_SIZE);
+			//vertices pushed out of the cache
+			for(int j = cache_size; j < size; j++) {
+				updateScore(cache[j], -1, remaining, start, adjacency, vertex_score, triangle_score);
+			}
+
+			//update the vertices in the cache and find the best triangle using them
+			best = -1;
+			float best_score = -1.0f;
+			for(int j = 0; j < cache_size; j++) {
+				updateScore(cache[j], j, remaining, start, adjacency, vertex_score, triangle_score);
+			}
+			for(int j = 0; j < cache_size; j++) {
+				final int v = cache[j];
+				for(int k = start[v]; k < start[v] + remaining[v]; k++) {
+					final int t = adjacency[k];
+					if(triangle_score[t] > best_score) {
+						best_score = triangle_score[t];
+						best = t;
+					}
+				}
+			}
+		}
+		return order;
+	}
+
+	/**
+	 * Update the score of a vertex and add the change to the triangles using it
+	 */
+	private static void updateScore(int Vertex, int Position, int[] Remaining, int[] Start, int[] Adjacency, float[] VertexScore, float[] TriangleScore) {
+		final float score = getScore(Position, Remaining[Vertex]);
+		final float change = score - VertexScore[Vertex];
+		if(change == 0.0f) {
+			return;
+		}
+		VertexScore[Vertex] = score;
+		for(int k = Start[Vertex]; k < Start[Vertex] + Remaining[Vertex]; k++) {
+			TriangleScore[Adjacency[k]] += change;
+		}
+	}
+
+	/**
+	 * Calculate the score of a vertex, vertices which are recently used and used by fewer remaining triangles have higher score
+	 * @param Position The position of the vertex in the cache, -1 if it is not in the cache
+	 * @param Remaining The number of triangles using the vertex which are not added yet
+	 * @return The score
+	 */
+	private static float getScore(int Position, int Remaining) {
+		if(Remaining == 0) {//no triangle needs this vertex
+			return -1.0f;
+		}
+		float score = 0.0f;
+		if(Position >= 0) {
+			if(Position < 3) {//used by the last triangle
+				score = LAST_TRIANGLE_SCORE;
+			}else {
+				score = (float)Math.pow(1.0f - (Position - 3) / (float)(CACHE_SIZE - 3), CACHE_DECAY_POWER);
+			}
+		}
+		return score + VALENCE_BOOST_SCALE * (float)Math.pow(Remaining, -VALENCE_BOOST_POWER);
+	}
+
+}
@@ -0,0 +1,193 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+/**
+ * GLVertexLayout describes how the vertex data of a mesh is written into a buffer for uploading to opengl,
+ * including which attributes are included, the order of them, the number of components of each attribute and
+ * whether the attributes are interleaved or planar.
+ * The same layout can be used to setup the vertex attribute pointers, see {@link #getStride()} and {@link #getOffset(Mesh.GLModelDataType, int)}.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLVertexLayout {
+	//Constant of arrangement
+	/**
+	 * All attributes of one vertex are placed together, for example {X0, Y0, Z0, U0, V0, X1, ...}
+	 */
+	public static final int INTERLEAVED = 40001;
+	/**
+	 * Each attribute is placed in its own block one after another, for example {X0, Y0, Z0, X1, ..., U0, V0, U1, ...}
+	 */
+	public static final int PLANAR = 40101;
+
+	//Variables
+	private final int Arrangement;
+	private final Mesh.GLModelDataType[] Attributes;
+	private final int[] Components;
+	/**
+	 * Offset of each attribute within one vertex in number of floats, only used in interleaved layout
+	 */
+	private final int[] Offsets;
+	/**
+	 * Number of floats of one vertex, including padding
+	 */
+	private final int Stride;
+
+	/**
+	 * Initialise the layout with the default number of components: 3 for vertices, normals and tangents; 2 for texture coordinates.
+	 * The vertex is tightly packed.
+	 * @param arrangement {@link #INTERLEAVED} or {@link #PLANAR}
+	 * @param attributes The attributes to be included in the given order
+	 * @throws GLModelLoadingException If a wrong enum is given, no attribute is given or an attribute is given more than once
+	 */
+	public GLVertexLayout(int arrangement, Mesh.GLModelDataType... attributes) throws GLModelLoadingException{
+		this(arrangement, 0, attributes, getDefaultComponents(attributes));
+	}
+
+	/**
+	 * Initialise the layout
+	 * @param arrangement {@link #INTERLEAVED} or {@link #PLANAR}
+	 * @param stride The number of bytes between the start of two vertices, only used in interleaved layout.
+	 * 0 means the vertex is tightly packed. It must be a multiple of 4 and not less than the size of one vertex.
+	 * @param attributes The attributes to be included in the given order
+	 * @param components The number of components (1 to 3) of each attribute, in the same order as the attributes
+	 * @throws GLModelLoadingException If a wrong enum is given, the stride is illegal, no attribute is given
+	 * or an attribute is given more than once
+	 */
+	public GLVertexLayout(int arrangement, int stride, Mesh.GLModelDataType[] attributes, int[] components) throws GLModelLoadingException{
+		if(arrangement != INTERLEAVED && arrangement != PLANAR) {
+			throw newException("Wrong Enum Is Given");
+		}
+		if(attributes.length == 0 || attributes.length != components.length) {
+			throw newException("Each Attribute Must Have Its Number Of Components");
+		}
+		//Variables
+		Arrangement = arrangement;
+		Attributes = attributes.clone();
+		Components = components.clone();
+		Offsets = new int[attributes.length];
+		int packed = 0;
+
+		for(int i = 0; i < Attributes.length; i++) {
+			if(Components[i] < 1 || Components[i] > 3) {
+				throw newException("Number Of Components Must Be Between 1 And 3");
+			}
+			for(int j = 0; j < i; j++) {
+				if(Attributes[i] == Attributes[j]) {
+					throw newException("Attribute Is Given More Than Once");
+				}
+			}
+			Offsets[i] = packed;
+			packed += Components[i];
+		}
+		if(stride == 0 || arrangement == PLANAR) {
+			Stride = packed;
+		}else if(stride % 4 != 0 || stride / 4 < packed) {
+			throw newException("Illegal Stride");
+		}else {
+			Stride = stride / 4;
+		}
+	}
+
+	private static int[] getDefaultComponents(Mesh.GLModelDataType[] attributes) {
+		int[] components = new int[attributes.length];
+		for(int i = 0; i < attributes.length; i++) {
+			components[i] = attributes[i] == Mesh.GLModelDataType.TextureCoordinates ? 2 : 3;
+		}
+		return components;
+	}
+
+	private static GLModelLoadingException newException(String Message) {
+		Throwable th = new Throwable("GLModelLoadingException");
+		return new GLModelLoadingException(Message, th, th.getStackTrace(), "GLModelLoadingException");
+	}
+
+	/**
+	 * Retrieve the arrangement of the attributes
+	 * @return {@link #INTERLEAVED} or {@link #PLANAR}
+	 */
+	public int getArrangement() {
+		return Arrangement;
+	}
+
+	/**
+	 * Retrieve the number of attributes in the layout
+	 * @return The number of attributes
+	 */
+	public int getAttributeSize() {
+		return Attributes.length;
+	}
+
+	/**
+	 * Retrieve the attribute at the given position of the layout
+	 * @param Index The position of the attribute
+	 * @return The attribute
+	 */
+	public Mesh.GLModelDataType getAttribute(int Index) {
+		return Attributes[Index];
+	}
+
+	/**
+	 * Retrieve the number of components of the attribute at the given position of the layout
+	 * @param Index The position of the attribute
+	 * @return The number of components
+	 */
+	public int getComponent(int Index) {
+		return Components[Index];
+	}
+
+	/**
+	 * Retrieve the number of bytes between the start of two vertices in the interleaved layout, or the size of one vertex
+	 * in the planar layout.
+	 * @return The stride in bytes
+	 */
+	public int getStride() {
+		return 4 * Stride;
+	}
+
+	/**
+	 * Retrieve the position of the first component of the attribute in the buffer
+	 * @param Type The attribute
+	 * @param VertexSize The number of vertices in the buffer, only used in planar layout
+	 * @return The offset in bytes, or -1 if the attribute is not included in this layout
+	 */
+	public int getOffset(Mesh.GLModelDataType Type, int VertexSize) {
+		int planar = 0;
+		for(int i = 0; i < Attributes.length; i++) {
+			if(Attributes[i] == Type) {
+				return 4 * (Arrangement == INTERLEAVED ? Offsets[i] : planar);
+			}
+			planar += VertexSize * Components[i];
+		}
+		return -1;
+	}
+
+	/**
+	 * Retrieve the size of the buffer needed for the given number of vertices
+	 * @param VertexSize The number of vertices
+	 * @return The size in bytes
+	 */
+	public long getBufferSize(int VertexSize) {
+		return 4L * Stride * VertexSize;
+	}
+
+	/**
+	 * Retrieve the position of the attribute within one interleaved vertex in number of floats
+	 * @param Index The position of the attribute in the layout
+	 * @return The offset in floats
+	 */
+	int getFloatOffset(int Index) {
+		return Offsets[Index];
+	}
+
+	/**
+	 * Retrieve the number of floats between the start of two interleaved vertices
+	 * @return The stride in floats
+	 */
+	int getFloatStride() {
+		return Stride;
+	}
+
+}
@@ -54,4 +54,80 @@ public final class GLoaderInitiator {
 			
 		}
 	}
+	
+	/**
+	 * Initialisation of the ObjLoader
+	 * @param ObjPath Specify the location of the obj file
+	 * @param ReaderMode Specify how the obj file is read, {@link GLModelLoader#READER_BUFFERED} or {@link GLModelLoader#READER_CHANNEL}
+	 * @throws GLModelLoadingException - If file does not exist or for some reason it cannot be read or the file is not a obj file, 
+	 * or a wrong reader mode is given.
+	 * @return GLModelLoader The loader that has been loaded with the provided object paths.
+	 */
+	public static final GLModelLoader initModelLoader(File ObjPath, int ReaderMode) throws GLModelLoadingException{
+		GLModelLoader loader = null;
+		try {
+			loader = new GLModelImporter(ObjPath, ReaderMode);
+			return loader;
+		}catch(GLModelLoadingException gl) {
+			throw gl;
+		}finally {
+			
+		}
+	}
+	
+	/**
+	 * Initialisation of the ObjLoader
+	 * @param ObjPath Specify the location of the obj file
+	 * @param MtlPath Specify the location of the mtl file
+	 * @param ReaderMode Specify how the obj file is read, {@link GLModelLoader#READER_BUFFERED} or {@link GLModelLoader#READER_CHANNEL}
+	 * @throws GLModelLoadingException If file does not exist or for some reason it cannot be read or the file is not a obj or mtl file, 
+	 * or a wrong reader mode is given.
+	 * @return GLModelLoader The loader that has been loaded with the provided object paths.
+	 */
+	public static final GLModelLoader initModelLoader(File ObjPath, File MtlPath, int ReaderMode) throws GLModelLoadingException{
+		GLModelLoader loader = null;
+		try {
+			loader = new GLModelImporter(ObjPath, MtlPath, ReaderMode);
+			return loader;
+		}catch(GLModelLoadingException gl) {
+			throw gl;
+		}finally {
+			
+		}
+	}
+	
+	/**
+	 * Set the folder where the binary cache of imported models and materials is stored. When the cache is enabled, importing
+	 * an obj or mtl file which has been imported before with the same settings reads the cache instead of parsing the file.
+	 * The cache becomes invalid when the size or the last modified time of the file changes.
+	 * @param CacheDirectory The folder of the cache files, it will be created if it does not exist. Null to disable the cache.
+	 */
+	public static final void setCacheDirectory(File CacheDirectory) {
+		GLModelCache.setDirectory(CacheDirectory);
+	}
+	
+	/**
+	 * Set the number of material libraries kept in memory for the whole process. Obj files which use the same mtl file share
+	 * the parsed materials instead of parsing the file again, and the least recently used libraries are evicted. The default is 64.
+	 * @param Capacity The number of libraries, 0 to disable the cache
+	 */
+	public static final void setMaterialCacheCapacity(int Capacity) {
+		GLMaterialLibraryCache.setCapacity(Capacity);
+	}
+	
+	/**
+	 * Remove all material libraries kept in memory
+	 */
+	public static final void clearMaterialCache() {
+		GLMaterialLibraryCache.clear();
+	}
+	
+	/**
+	 * Get the statistics of the material libraries kept in memory
+	 * @return {Hits, Misses, Evictions}. A hit is an import which used a library parsed or being parsed by another import,
+	 * a miss is an import which parsed the library
+	 */
+	public static final long[] getMaterialCacheStatistics() {
+		return new long[] {GLMaterialLibraryCache.getHits(), GLMaterialLibraryCache.getMisses(), GLMaterialLibraryCache.getEvictions()};
+	}
 }
@@ -90,6 +90,7 @@ public final class Material {
 		private boolean Color_Correction = false;
 		private float Bump_multiplier = 1.0f;//-bm
 		private int Channel = LUMINACE;//-imfchan
+		private boolean Channel_Given = false;
 		private Range Texture_Color_Range = null;
 		private int Resolution = 2;
 		private Blend blending = null;
@@ -305,6 +306,15 @@ public final class Material {
 		 */
 		void setImfchan(int channel) {
 			Channel = channel;
+			Channel_Given = true;
+		}
+		
+		/**
+		 * Check whether the channel is given by -imfchan or it is the default luminance
+		 * @return True if -imfchan is given for this map
+		 */
+		boolean isImfchanGiven() {
+			return Channel_Given;
 		}
 		
 		/**
@@ -645,34 +655,22 @@ public final class Material {
 	/**
 	 * In the GLObjLoader package, Mesh classes record the name of the material classes. But the Material classes only
 	 * record the index of the Material classes by order. By this method, users can get the correspond Material array indices
-	 * that are used by each Mesh array elements.
+	 * that are used by each Mesh array elements. The names are looked up with a {@link GLMaterialRegistry}, which should be
+	 * used directly to resolve many meshes against the same materials or to give a fallback material instead of the exception.
 	 * @param checkedMesh The Mesh array that need to be got the indices
 	 * @param CorrespondedMtl The Material array that is used by the Mesh
 	 * @return The integer array that contains the indices of the material array, corresponded to the Mesh array.
 	 * @throws GLModelLoadingException Thrown if the given Material array is not corresponded to the given Mesh array
 	 */
 	public static int[] GetMeshMatrialIndex(Mesh[] checkedMesh, Material[] CorrespondedMtl) throws GLModelLoadingException{
-		final int length_mesh = checkedMesh.length;
-		final int length_mtl = CorrespondedMtl.length;
-		int[] Result = new int[length_mesh];
-		//Finding material
-		int mtl = -1;
-		String currentCheckedMeshMtl = "null";
-		//find the first occurrence
-		for(int mesh = 0; mesh < length_mesh; mesh++) {
-			mtl = -1;//reset
-			currentCheckedMeshMtl = checkedMesh[mesh].getMtl();
-			do {
-				mtl++;
-				if(mtl > length_mtl - 1) {//array WILL out of index, cannot find correspond material
-					StackTraceElement[] sel = {new StackTraceElement("Material", "GetMeshMatrialIndex", null, 303)};
-					Throwable th = new Throwable();
-					th.setStackTrace(sel);
-					throw new GLModelLoadingException("Material Cannot Be Found", th, sel, "MaterialNotFoundException");
-					//break;
-				}
-			}while(!currentCheckedMeshMtl.equals(CorrespondedMtl[mtl].getMtlName()));
-			Result[mesh] = mtl;
+		final int[] Result = GLMaterialRegistry.build(CorrespondedMtl).resolve(checkedMesh, GLMaterialRegistry.NOT_FOUND);
+		for(int mesh = 0; mesh < Result.length; mesh++) {
+			if(Result[mesh] == GLMaterialRegistry.NOT_FOUND) {//cannot find correspond material
+				StackTraceElement[] sel = {new StackTraceElement("Material", "GetMeshMatrialIndex", null, 303)};
+				Throwable th = new Throwable();
+				th.setStackTrace(sel);
+				throw new GLModelLoadingException("Material Cannot Be Found", th, sel, "MaterialNotFoundException");
+			}
 		}
 		return Result;
 	}
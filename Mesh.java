@@ -1,6 +1,11 @@
 package glModelLoader;
 
-import java.util.ArrayList;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
 
 /**
  * A mesh data from the the obj file. A mesh data is defined by the vertices, normals, texture coordinates, etc. which 
@@ -12,14 +17,33 @@ import java.util.ArrayList;
  */
 public final class Mesh{
 	//Variables
-	private ArrayList<GLVector3> Vertices = new ArrayList<GLVector3>(0);
-	private ArrayList<GLVector3> TextureCoordinates = new ArrayList<GLVector3>(0);
-	private ArrayList<GLVector3> Normals = new ArrayList<GLVector3>(0);
-	private ArrayList<Face> Indices = new ArrayList<Face>(0);
-	private ArrayList<GLVector3> Tangents = new ArrayList<GLVector3>(0);//Generate after the import process
+	//Vector data are stored as {X0, Y0, Z0, X1, Y1, Z1, ...}
+	private GLFloatArray Vertices = new GLFloatArray();
+	private GLFloatArray TextureCoordinates = new GLFloatArray();
+	private GLFloatArray Normals = new GLFloatArray();
+	//Indices are stored as {A0, B0, C0, A1, B1, C1, ...}, three indices for each face
+	private GLIntArray VertexIndices = new GLIntArray();
+	private GLIntArray TextureCoordinateIndices = new GLIntArray();
+	private GLIntArray NormalIndices = new GLIntArray();
+	/**
+	 * Smoothing group of each face given by the "s" lines, only recorded by the importer for GENERATE_NORMALS
+	 */
+	final GLIntArray SmoothingGroups = new GLIntArray(16);
+	private GLFloatArray Tangents = new GLFloatArray();//Generate after the import process
+	private float[] Tangent_signs = new float[0];//1 or -1 for each tangent
+	private final GLBounds Bounds = new GLBounds();//Updated when vertices are added
 	private String Name = "N/A";
 	private String Mtl = null;
+	private int Mtl_id = GLMaterialRegistry.NOT_FOUND;//Set by GLMaterialRegistry.assign
 	boolean Index_Eliminated = false;
+	/**
+	 * Average cache miss ratio before and after OPTIMIZE_VERTEX_CACHE, -1 if the mesh is not optimised
+	 */
+	float ACMR_Before = -1.0f, ACMR_After = -1.0f;
+	/**
+	 * The largest error of simplification relative to the size of the original mesh, 0 if the mesh is not simplified
+	 */
+	float Simplification_Error = 0.0f;
 	/**
 	 * Output the error message when calling {@link #calculateTangents(boolean, float)}
 	 */
@@ -33,93 +57,11 @@ public final class Mesh{
 	public static enum GLModelDataType{
 		Vertices,
 		Normals,
-		TextureCoordinates;
-	}
-	
-	/**
-	 * A simple vector class which is similar to jogl VectorUtil
-	 * @author Haoqian Xu
-	 *
-	 */
-	private static class SimpleMaths{
-		protected static int errors = 0;
+		TextureCoordinates,
 		/**
-		 * Subtract two vectors
-		 * @param VecA vector A 
-		 * @param VecB vector B
-		 * @return VecA - VecB
+		 * Only available after calling {@link Mesh#calculateTangents(boolean, float)}. Tangents share the index of vertices.
 		 */
-		static GLVector3 subVector3(final GLVector3 VecA, final GLVector3 VecB){
-			float[] subvec = {
-					VecA.getComponentX() - VecB.getComponentX(),
-					VecA.getComponentY() - VecB.getComponentY(),
-					VecA.getComponentZ() - VecB.getComponentZ()
-			};
-			return new GLVector3(subvec);
-		}
-		
-		/**
-		 * Normalise the vector
-		 * @param VecInput the vector that needed to be normalised
-		 * @return The normalised vector
-		 */
-		static GLVector3 normaliseVector3(final GLVector3 VecInput) {
-			float modulus = VecInput.getComponentX()*VecInput.getComponentX() + VecInput.getComponentY()*VecInput.getComponentY() + VecInput.getComponentZ()*VecInput.getComponentZ();
-			modulus = (float)Math.pow(modulus, 0.5);
-			modulus = 1.0f / modulus;
-			return new GLVector3(new float[] {
-					VecInput.getComponentX() * modulus, 
-					VecInput.getComponentY() * modulus, 
-					VecInput.getComponentZ() * modulus
-			});
-		}
-		
-		/**
-		 * Inverting a 2x2 matrix. Note that is the determinate of the matrix equals to zero then the matrix is singular
-		 * @param Mat2x2 The 2x2 matrix that need to be inverted
-		 * @return The inverted matrix or null if the matrix is singular
-		 */
-		static float[] Inverse_Mat2x2(final float[] Mat2x2) {
-			//2x2 matrix is defined as: {a,	b
-			//							 c,	d}
-			//Determinant of a 2x2 matrix is ad-bc
-			//co-factor of a 2x2 matrix is: {d,	-b
-			//								-c,	a}
-			//Then, inverse of a 2x2 matrix is given as: (1/det) * co-factor
-			float inverse_determinant = 1.0f * Mat2x2[0] * Mat2x2[3] - Mat2x2[1] * Mat2x2[2];//in case of integer matrix
-			//det has not yet inverted
-			final float[] co_factor = {
-					Mat2x2[3], -Mat2x2[1],
-					-Mat2x2[2], Mat2x2[0]
-			};
-			if(inverse_determinant == 0) {
-				errors++;
-				return null;
-			}else {
-				inverse_determinant = 1.0f / inverse_determinant;
-				return new float[] {
-						inverse_determinant * co_factor[0], inverse_determinant * co_factor[1],
-						inverse_determinant * co_factor[2], inverse_determinant * co_factor[3]
-				};
-			}
-		}
-		
-		/**
-		 * Multiply a 2x2 matrix with a 3x2 matrix. Note that the order of multiplication will be: Mat2x2 * Mat3x2
-		 * @param Mat2x2 Import of 2x2 matrix
-		 * @param Mat3x2 Import of 3x2 matrix
-		 * @return The resultant matrix, which is a 3x2 matrix
-		 */
-		static float[] Mat2x2multiMat3x2(final float[] Mat2x2, final float[] Mat3x2) {
-			//Consider matrix 2x2: {a,	b
-			//						c,	d}
-			//and matrix 3x2: {e,	f,	g
-			//				   h,	i,	j}
-			return new float[] {
-					1.0f * Mat2x2[0] * Mat3x2[0] + Mat2x2[1] * Mat3x2[3], 1.0f * Mat2x2[0] * Mat3x2[1] + Mat2x2[1] * Mat3x2[4], 1.0f * Mat2x2[0] * Mat3x2[2] + Mat2x2[1] * Mat3x2[5],
-					1.0f * Mat2x2[2] * Mat3x2[0] + Mat2x2[3] * Mat3x2[3], 1.0f * Mat2x2[2] * Mat3x2[1] + Mat2x2[3] * Mat3x2[4], 1.0f * Mat2x2[2] * Mat3x2[2] + Mat2x2[3] * Mat3x2[5]
-			};
-		}
+		Tangents;
 	}
 	
 	/**
@@ -129,22 +71,41 @@ public final class Mesh{
 	 * @param z Z component of a vector
 	 */
 	void newVertex(float x, float y, float z) {
-		Vertices.add(new GLVector3(new float[] {x, y, z}));
+		Vertices.add(x, y, z);
+		Bounds.add(x, y, z);
+	}
+	/**
+	 * Set up new vertex data in the mesh in bulk, new data will be placed at the end of the array.
+	 * @param Source The vertex data given as {X0, Y0, Z0, X1, ...}
+	 * @param Index The position of the first vertex in the source
+	 * @param Count The number of vertices to be added
+	 */
+	void newVertices(float[] Source, int Index, int Count) {
+		Vertices.add(Source, 3 * Index, 3 * Count);
+		Bounds.add(Source, Index, Count);
 	}
 	/**
-	 *  To get the vertex data
+	 *  To get the vertex data. A new vector is created in each call since vertices are stored in a float array.
 	 * @param Index The position of the vertex in the mesh
 	 * @return return the vector contains vertex data
 	 */
 	public GLVector3 getVertex(int Index) {
-		return Vertices.get(Index);
+		return Vertices.getVector3(Index);
 	}
 	/**
 	 * The number of elements in this vertex data.
 	 * @return Returns the number of elements in this vertex data.
 	 */
 	public int getVertexSize() {
-		return Vertices.size();
+		return Vertices.size() / 3;
+	}
+	/**
+	 * Get the bounding box and bounding sphere of the vertices. The bounds are found while the vertices are read, 
+	 * and they are kept by the post processing.
+	 * @return The bounds of this mesh, they are empty if there is no vertex
+	 */
+	public GLBounds getBounds() {
+		return Bounds;
 	}
 	
 	/**
@@ -155,22 +116,31 @@ public final class Mesh{
 	 */
 	
 	void newTextureCoordinate(float x, float y, float z) {
-		TextureCoordinates.add(new GLVector3(new float[] {x, y, z}));
+		TextureCoordinates.add(x, y, z);
+	}
+	/**
+	 * Set up new texture coordinate data in the mesh in bulk, new data will be placed at the end of the array.
+	 * @param Source The texture coordinate data given as {U0, V0, W0, U1, ...}
+	 * @param Index The position of the first texture coordinate in the source
+	 * @param Count The number of texture coordinates to be added
+	 */
+	void newTextureCoordinates(float[] Source, int Index, int Count) {
+		TextureCoordinates.add(Source, 3 * Index, 3 * Count);
 	}
 	/**
-	 * To get the texture coordinate data
+	 * To get the texture coordinate data. A new vector is created in each call since texture coordinates are stored in a float array.
 	 * @param Index The position of the texture coordinate in the mesh
 	 * @return return the vector contains texture coordinate data
 	 */
 	public GLVector3 getTextureCoordinate(int Index) {
-		return TextureCoordinates.get(Index);
+		return TextureCoordinates.getVector3(Index);
 	}
 	/**
 	 * The number of elements in this texture coordinate data.
 	 * @return Returns the number of elements in this texture coordinate data.
 	 */
 	public int getTextureCoordinateSize() {
-		return TextureCoordinates.size();
+		return TextureCoordinates.size() / 3;
 	}
 	
 	/**
@@ -180,45 +150,321 @@ public final class Mesh{
 	 * @param z Z component of a vector
 	 */
 	void newNormal(float x, float y, float z) {
-		Normals.add(new GLVector3(new float[] {x, y, z}));
+		Normals.add(x, y, z);
+	}
+	/**
+	 * Set up new normal data in the mesh in bulk, new data will be placed at the end of the array.
+	 * @param Source The normal data given as {X0, Y0, Z0, X1, ...}
+	 * @param Index The position of the first normal in the source
+	 * @param Count The number of normals to be added
+	 */
+	void newNormals(float[] Source, int Index, int Count) {
+		Normals.add(Source, 3 * Index, 3 * Count);
 	}
 	/**
-	 * To get the normal data
+	 * To get the normal data. A new vector is created in each call since normals are stored in a float array.
 	 * @param Index The position of the normal in the mesh
 	 * @return return the vector contains normal data
 	 */
 	public GLVector3 getNormal(int Index) {
-		return Normals.get(Index);
+		return Normals.getVector3(Index);
 	}
 	/**
 	 * The number of elements in this normal data.
 	 * @return Returns the number of elements in this normal data.
 	 */
 	public int getNormalSize() {
-		return Normals.size();
+		return Normals.size() / 3;
+	}
+	
+	/**
+	 * Copy all data of the given type into a float array, vectors are given as {X0, Y0, Z0, X1, Y1, Z1, ...}.
+	 * It is much faster than getting the vectors one by one.
+	 * @param Type The type of the data
+	 * @return The float array that contains the data, 3 floats for each element
+	 */
+	public float[] toFloatArray(GLModelDataType Type) {
+		float[] returnValue = null;
+		switch(Type) {
+		case Vertices : returnValue = Vertices.toArray();
+		break;
+		case TextureCoordinates : returnValue = TextureCoordinates.toArray();
+		break;
+		case Normals : returnValue = Normals.toArray();
+		break;
+		case Tangents : returnValue = Tangents.toArray();
+		break;
+		default:
+			returnValue = new float[0];
+			break;
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Get the storage of the given type of data
+	 * @param Type The type of the data
+	 * @return The storage
+	 */
+	GLFloatArray getDataArray(GLModelDataType Type) {
+		GLFloatArray returnValue = null;
+		switch(Type) {
+		case Vertices : returnValue = Vertices;
+		break;
+		case TextureCoordinates : returnValue = TextureCoordinates;
+		break;
+		case Normals : returnValue = Normals;
+		break;
+		case Tangents : returnValue = Tangents;
+		break;
+		default:
+			break;
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Get the number of vertices written by the layout. All attributes in the layout must have the same number of elements,
+	 * which is usually done by eliminating the index when importing.
+	 * @param Layout The layout of the vertex buffer
+	 * @return The number of vertices
+	 * @throws GLModelLoadingException If the attributes have different number of elements
+	 */
+	public int getExportSize(GLVertexLayout Layout) throws GLModelLoadingException{
+		final int size = getDataArray(Layout.getAttribute(0)).size() / 3;
+		for(int i = 1; i < Layout.getAttributeSize(); i++) {
+			if(getDataArray(Layout.getAttribute(i)).size() / 3 != size) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Attributes Have Different Number Of Elements", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+		}
+		return size;
+	}
+	
+	/**
+	 * Write the vertex data into a new direct buffer in native order, which can be uploaded to opengl directly.
+	 * @param Layout The layout of the vertex buffer
+	 * @return The buffer that contains the vertex data, with position 0 and limit at the end of the data
+	 * @throws GLModelLoadingException If the attributes have different number of elements
+	 */
+	public ByteBuffer exportVertices(GLVertexLayout Layout) throws GLModelLoadingException{
+		final ByteBuffer buffer = ByteBuffer.allocateDirect((int)Layout.getBufferSize(getExportSize(Layout))).order(ByteOrder.nativeOrder());
+		exportVertices(Layout, buffer);
+		buffer.flip();
+		return buffer;
+	}
+	
+	/**
+	 * Write the vertex data into the given buffer in native order, starting from the position of the buffer. The position is 
+	 * moved to the end of the written data. Bytes of the padding within the stride are not changed.
+	 * @param Layout The layout of the vertex buffer
+	 * @param Destination The buffer to be written, it must have at least {@link GLVertexLayout#getBufferSize(int)} bytes remaining
+	 * @throws GLModelLoadingException If the attributes have different number of elements or the buffer is too small
+	 */
+	public void exportVertices(GLVertexLayout Layout, ByteBuffer Destination) throws GLModelLoadingException{
+		final int size = getExportSize(Layout);
+		final int bytes = (int)Layout.getBufferSize(size);
+		if(Destination.remaining() < bytes) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Buffer Is Too Small", th, th.getStackTrace(), "BufferOverflowException");
+		}
+		exportVertices(Layout, Destination.duplicate().order(ByteOrder.nativeOrder()).asFloatBuffer());
+		Destination.position(Destination.position() + bytes);
+	}
+	
+	/**
+	 * Write the vertex data into the given buffer, starting from the position of the buffer. The position is moved to the end
+	 * of the written data. Floats of the padding within the stride are not changed.
+	 * @param Layout The layout of the vertex buffer
+	 * @param Destination The buffer to be written, it must have at least {@link GLVertexLayout#getBufferSize(int)} / 4 floats remaining
+	 * @throws GLModelLoadingException If the attributes have different number of elements or the buffer is too small
+	 */
+	public void exportVertices(GLVertexLayout Layout, FloatBuffer Destination) throws GLModelLoadingException{
+		//Variables
+		final int size = getExportSize(Layout);
+		final int stride = Layout.getFloatStride();
+		final int start = Destination.position();
+		if(Destination.remaining() < size * stride) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Buffer Is Too Small", th, th.getStackTrace(), "BufferOverflowException");
+		}
+		
+		int planar = start;
+		for(int i = 0; i < Layout.getAttributeSize(); i++) {
+			final float[] source = getDataArray(Layout.getAttribute(i)).array();
+			final int component = Layout.getComponent(i);
+			if(Layout.getArrangement() == GLVertexLayout.INTERLEAVED) {
+				int position = start + Layout.getFloatOffset(i);
+				for(int v = 0; v < size; v++, position += stride) {
+					for(int c = 0; c < component; c++) {
+						Destination.put(position + c, source[3 * v + c]);
+					}
+				}
+			}else if(component == 3) {//the storage can be copied directly
+				Destination.position(planar);
+				Destination.put(source, 0, 3 * size);
+				planar += 3 * size;
+			}else {
+				for(int v = 0; v < size; v++) {
+					for(int c = 0; c < component; c++) {
+						Destination.put(planar++, source[3 * v + c]);
+					}
+				}
+			}
+		}
+		Destination.position(start + size * stride);
+	}
+	
+	/**
+	 * Write the vertex indices into a new direct buffer in native order, three indices for each face. Once the index is eliminated,
+	 * the indices of vertices are the indices of all attributes.
+	 * @return The buffer that contains the indices, with position 0 and limit at the end of the data
+	 */
+	public IntBuffer exportIndices() {
+		final IntBuffer buffer = ByteBuffer.allocateDirect(4 * VertexIndices.size()).order(ByteOrder.nativeOrder()).asIntBuffer();
+		exportIndices(buffer);
+		buffer.flip();
+		return buffer;
+	}
+	
+	/**
+	 * Write the vertex indices into the given buffer, starting from the position of the buffer. The position is moved to the end
+	 * of the written data.
+	 * @param Destination The buffer to be written, it must have at least 3 * {@link #getFaceSize()} ints remaining
+	 * @throws BufferOverflowException If the buffer is too small
+	 */
+	public void exportIndices(IntBuffer Destination) {
+		Destination.put(VertexIndices.array(), 0, VertexIndices.size());
+	}
+	
+	/**
+	 * Write the vertex indices into a new direct buffer in native order as unsigned short, three indices for each face. 
+	 * It is only available when there are no more than 65536 vertices.
+	 * @return The buffer that contains the indices, with position 0 and limit at the end of the data
+	 * @throws GLModelLoadingException If any index cannot be represented by unsigned short
+	 */
+	public ShortBuffer exportShortIndices() throws GLModelLoadingException{
+		final ShortBuffer buffer = ByteBuffer.allocateDirect(2 * VertexIndices.size()).order(ByteOrder.nativeOrder()).asShortBuffer();
+		exportShortIndices(buffer);
+		buffer.flip();
+		return buffer;
+	}
+	
+	/**
+	 * Write the vertex indices into the given buffer as unsigned short, starting from the position of the buffer. The position
+	 * is moved to the end of the written data.
+	 * @param Destination The buffer to be written, it must have at least 3 * {@link #getFaceSize()} shorts remaining
+	 * @throws GLModelLoadingException If any index cannot be represented by unsigned short
+	 * @throws BufferOverflowException If the buffer is too small
+	 */
+	public void exportShortIndices(ShortBuffer Destination) throws GLModelLoadingException{
+		//Variables
+		final int[] source = VertexIndices.array();
+		final int size = VertexIndices.size();
+		for(int i = 0; i < size; i++) {
+			if(source[i] < 0 || source[i] > 0xFFFF) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Index Cannot Be Represented By Unsigned Short", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+		}
+		if(Destination.remaining() < size) {
+			throw new BufferOverflowException();
+		}
+		for(int i = 0; i < size; i++) {
+			Destination.put((short)source[i]);
+		}
 	}
 	
 	/**
 	 * Set up a new index data in the mesh, new data will be placed at the end of the array.
-	 * @param Index The new added face
+	 * @param VertexIndex The three vertex indices of the face
+	 * @param TextureCoordinateIndex The three texture coordinate indices of the face
+	 * @param NormalIndex The three normal indices of the face
+	 */
+	void newFace(int[] VertexIndex, int[] TextureCoordinateIndex, int[] NormalIndex) {
+		VertexIndices.add(VertexIndex[0], VertexIndex[1], VertexIndex[2]);
+		TextureCoordinateIndices.add(TextureCoordinateIndex[0], TextureCoordinateIndex[1], TextureCoordinateIndex[2]);
+		NormalIndices.add(NormalIndex[0], NormalIndex[1], NormalIndex[2]);
+	}
+	
+	/**
+	 * Set up a number of new index data in the mesh at once, new data will be placed at the end of the array.
+	 * @param VertexIndex The vertex indices given as {X0, Y0, Z0, X1, ...}
+	 * @param TextureCoordinateIndex The texture coordinate indices given as {X0, Y0, Z0, X1, ...}
+	 * @param NormalIndex The normal indices given as {X0, Y0, Z0, X1, ...}
+	 * @param Count The number of faces
 	 */
-	void newFace(Face IndexData) {
-		Indices.add(IndexData);
+	void newFaces(int[] VertexIndex, int[] TextureCoordinateIndex, int[] NormalIndex, int Count) {
+		VertexIndices.add(VertexIndex, 0, 3 * Count);
+		TextureCoordinateIndices.add(TextureCoordinateIndex, 0, 3 * Count);
+		NormalIndices.add(NormalIndex, 0, 3 * Count);
 	}
 	/**
-	 * To get the face data
+	 * To get the face data. The face is a view of the index data stored in this mesh.
 	 * @param Index The position of the index in the mesh
 	 * @return The vector contains face data
+	 * @throws IndexOutOfBoundsException If the index is out of range
 	 */
-	public Face getFace(int Index) {
-		return Indices.get(Index);
+	public Face getFace(int Index) throws IndexOutOfBoundsException{
+		if(Index < 0 || Index >= getFaceSize()) {
+			throw new IndexOutOfBoundsException("Index: " + Index + ", Size: " + getFaceSize());
+		}
+		return new Face(VertexIndices, TextureCoordinateIndices, NormalIndices, Index);
 	}
 	/**
 	 * To Get the number of elements in this face data.
 	 * @return Returns the number of elements in this face data.
 	 */
 	public int getFaceSize() {
-		return Indices.size();
+		return VertexIndices.size() / 3;
+	}
+	
+	/**
+	 * Copy the indices of all faces of the given type into the array, three indices for each face given as
+	 * {A0, B0, C0, A1, B1, C1, ...}. It is much faster than getting the faces one by one.
+	 * @param Type The type of the index
+	 * @param Destination The array to be written with indices, it must have at least 3 * {@link #getFaceSize()} 
+	 * elements after the offset
+	 * @param Offset The position in the destination to start writing
+	 * @return The number of indices written
+	 * @throws IndexOutOfBoundsException If the destination is not large enough
+	 */
+	public int getIndices(GLModelDataType Type, int[] Destination, int Offset) throws IndexOutOfBoundsException{
+		final GLIntArray source = getIndexArray(Type);
+		System.arraycopy(source.array(), 0, Destination, Offset, source.size());
+		return source.size();
+	}
+	
+	/**
+	 * Copy the indices of all faces of the given type into a new array, three indices for each face given as
+	 * {A0, B0, C0, A1, B1, C1, ...}.
+	 * @param Type The type of the index
+	 * @return The int array that contains the indices
+	 */
+	public int[] toIntArray(GLModelDataType Type) {
+		return getIndexArray(Type).toArray();
+	}
+	
+	/**
+	 * Get the index storage of the given type
+	 * @param Type The type of the index
+	 * @return The index storage
+	 */
+	GLIntArray getIndexArray(GLModelDataType Type) {
+		GLIntArray returnValue = null;
+		switch(Type) {
+		case Vertices : returnValue = VertexIndices;
+		break;
+		case TextureCoordinates : returnValue = TextureCoordinateIndices;
+		break;
+		case Normals : returnValue = NormalIndices;
+		break;
+		case Tangents : returnValue = VertexIndices;
+		break;
+		default:
+			break;
+		}
+		return returnValue;
 	}
 	
 	/**
@@ -236,6 +482,146 @@ public final class Mesh{
 		return Name;
 	}
 	
+	/**
+	 * Calculate the average cache miss ratio of the current triangle order, which is the number of vertices transformed
+	 * per triangle with a first-in-first-out post-transform cache. It is only meaningful when the index is welded.
+	 * @param CacheSize The number of vertices in the cache
+	 * @return The average cache miss ratio, between 0.5 (best) and 3 (worst)
+	 */
+	public float getACMR(int CacheSize) {
+		return GLVertexCacheOptimizer.getACMR(VertexIndices.array(), getFaceSize(), getVertexSize(), CacheSize);
+	}
+	
+	/**
+	 * Get the average cache miss ratio with a cache of 32 vertices before OPTIMIZE_VERTEX_CACHE or OPTIMIZE_OVERDRAW is applied
+	 * @return The average cache miss ratio, or -1 if the mesh is not optimised
+	 */
+	public float getACMRBefore() {
+		return ACMR_Before;
+	}
+	
+	/**
+	 * Get the average cache miss ratio with a cache of 32 vertices after OPTIMIZE_VERTEX_CACHE or OPTIMIZE_OVERDRAW is applied
+	 * @return The average cache miss ratio, or -1 if the mesh is not optimised
+	 */
+	public float getACMRAfter() {
+		return ACMR_After;
+	}
+	
+	/**
+	 * Create a simplified copy of this mesh by collapsing edges with the least quadric error. Only the position of vertices
+	 * are moved, onto one of their neighbours, so texture coordinates and normals stay exact. Vertices on open borders and on seams,
+	 * where vertices at the same position have different texture coordinates or normals, are not moved. The index must be
+	 * eliminated or welded when importing the mesh, the copies of a vertex made by elimination are simplified as one vertex so
+	 * both give the same triangles.
+	 * @param Ratio The ratio of triangles to be kept, between 0 and 1
+	 * @param MaxError The largest error allowed relative to the size of the mesh, the simplification stops before the ratio
+	 * is reached if no more edge can be collapsed within the error, infinity means the error is not limited
+	 * @return The simplified mesh, which can be exported and used to calculate tangents as usual
+	 * @throws GLModelLoadingException If the index is not eliminated, the ratio is not between 0 and 1 or the error is negative
+	 */
+	public Mesh simplify(float Ratio, float MaxError) throws GLModelLoadingException{
+		if(!Index_Eliminated) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Index Must Be Eliminated Before Simplification", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		if(!(Ratio >= 0.0f && Ratio <= 1.0f)) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Ratio Must Be Between 0 And 1", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+		checkMaxError(MaxError);
+		final Mesh returning = new GLMeshSimplifier(this).simplify((int)(getFaceSize() * Ratio), MaxError);
+		returning.Simplification_Error = Math.max(returning.Simplification_Error, Simplification_Error);
+		return returning;
+	}
+	
+	/**
+	 * Create a chain of level of detail meshes. Each level is simplified from the previous level so the chain is cheaper to
+	 * generate than simplifying this mesh for each level, see {@link #simplify(float, float)}.
+	 * @param Ratios The ratio of triangles to be kept by each level, relative to this mesh, in descending order
+	 * @param MaxError The largest error allowed for each level relative to the size of the mesh
+	 * @return The meshes of each level, a level keeps more triangles than its ratio if the error is reached
+	 * @throws GLModelLoadingException If the index is not eliminated, the ratios are not between 0 and 1 in descending order
+	 * or the error is negative
+	 */
+	public Mesh[] generateLOD(float[] Ratios, float MaxError) throws GLModelLoadingException{
+		checkMaxError(MaxError);
+		for(int i = 0; i < Ratios.length; i++) {
+			if(!(Ratios[i] >= 0.0f && Ratios[i] <= 1.0f)) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Ratio Must Be Between 0 And 1", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+			if(i > 0 && Ratios[i] > Ratios[i - 1]) {
+				Throwable th = new Throwable("GLModelLoadingException");
+				throw new GLModelLoadingException("Ratios Must Be In Descending Order", th, th.getStackTrace(), "GLModelLoadingException");
+			}
+		}
+		//Variables
+		final Mesh[] returnValue = new Mesh[Ratios.length];
+		Mesh previous = this;
+		for(int i = 0; i < Ratios.length; i++) {
+			final float ratio = previous.getFaceSize() == 0 ? 1.0f : Math.min(1.0f, getFaceSize() * Ratios[i] / previous.getFaceSize());
+			previous = previous.simplify(ratio, MaxError);
+			returnValue[i] = previous;
+		}
+		return returnValue;
+	}
+	
+	/**
+	 * Check the largest error of {@link #simplify(float, float)} and {@link #generateLOD(float[], float)}
+	 * @param MaxError The largest error allowed
+	 * @throws GLModelLoadingException If the error is negative or NaN
+	 */
+	private static void checkMaxError(float MaxError) throws GLModelLoadingException{
+		if(!(MaxError >= 0.0f)) {
+			Throwable th = new Throwable("GLModelLoadingException");
+			throw new GLModelLoadingException("Max Error Cannot Be Negative", th, th.getStackTrace(), "GLModelLoadingException");
+		}
+	}
+	
+	/**
+	 * Split this mesh into meshlets for cluster based rendering, see {@link GLMeshlets#build(Mesh[], int, int, int)} to split
+	 * several meshes in parallel. The index must be eliminated or welded when importing the mesh.
+	 * @param MaxVertices The largest number of vertices in one meshlet, for example 64
+	 * @param MaxTriangles The largest number of triangles in one meshlet, for example 124
+	 * @return The meshlets of this mesh
+	 * @throws GLModelLoadingException If the limits are out of range or the index is not eliminated
+	 */
+	public GLMeshlets buildMeshlets(int MaxVertices, int MaxTriangles) throws GLModelLoadingException{
+		return GLMeshlets.build(new Mesh[] {this}, MaxVertices, MaxTriangles, 1)[0];
+	}
+
+	/**
+	 * Build the bounding volume hierarchy of the triangles of this mesh for ray picking and closest point queries,
+	 * see {@link GLBVH}. Index correction must be applied when importing the mesh.
+	 * @param Parallelism The number of threads used, 1 means the tree is built on the calling thread
+	 * @return The hierarchy of this mesh
+	 * @throws GLModelLoadingException If the parallelism is less than one or a vertex index is out of range
+	 */
+	public GLBVH buildBVH(int Parallelism) throws GLModelLoadingException{
+		return GLBVH.build(this, Parallelism);
+	}
+	
+	/**
+	 * Encode the vertex data of this mesh with fewer bits, see {@link GLQuantizedMesh}. The index must be eliminated or welded
+	 * when importing the mesh, and tangents are included if they have been calculated.
+	 * @param NormalEncoding {@link GLQuantizedMesh#OCTAHEDRAL_16} or {@link GLQuantizedMesh#OCTAHEDRAL_8}
+	 * @param TextureEncoding {@link GLQuantizedMesh#HALF_FLOAT} or {@link GLQuantizedMesh#UNORM_16}
+	 * @return The quantized vertex data
+	 * @throws GLModelLoadingException If a wrong enum is given or the index is not eliminated
+	 */
+	public GLQuantizedMesh quantize(int NormalEncoding, int TextureEncoding) throws GLModelLoadingException{
+		return new GLQuantizedMesh(this, NormalEncoding, TextureEncoding);
+	}
+	
+	/**
+	 * Get the largest error of {@link #simplify(float, float)} which created this mesh
+	 * @return The error relative to the size of the mesh, 0 if the mesh is not simplified
+	 */
+	public float getSimplificationError() {
+		return Simplification_Error;
+	}
+	
 	/**
 	 * The material which is used by this mesh. It only reads the name of the material class but not actually loading it.
 	 * @param MtlName The given name of one material class
@@ -250,55 +636,49 @@ public final class Mesh{
 	public String getMtl() {
 		return Mtl;
 	}
+
+	/**
+	 * Set the id of the material in a {@link GLMaterialRegistry}
+	 * @param Id The id of the material
+	 */
+	void setMtlId(int Id) {
+		Mtl_id = Id;
+	}
+	/**
+	 * The material which is used by this mesh, resolved by {@link GLMaterialRegistry#assign(Mesh[], int)}
+	 * @return The id of the material in the registry, {@link GLMaterialRegistry#NOT_FOUND} if it is not resolved
+	 */
+	public int getMtlId() {
+		return Mtl_id;
+	}
 	
 	/**
-	 * Calculate the tangent lines in each triangle using UV coordinates and vertices. Be aware that tangents will
-	 * only be calculated when indices are eliminated when importing the mesh.
+	 * Calculate a smooth tangent and bitangent sign for each vertex in the way of MikkTSpace, see {@link GLTangentGenerator}.
+	 * Be aware that tangents will only be calculated when indices are eliminated or welded when importing the mesh and the mesh
+	 * has texture coordinates. The faces are split across the threads of the common fork/join pool, and several meshes can be
+	 * calculated at the same time.
 	 * @param Recalculate If the tangents have been calculated before and the value is true, all tangent lines
 	 * will be cleared. If the tangents have not been calculated then the parameter is ignored.
-	 * @param bias The calculation involves inverting a 2x2 matrix. If the matrix is singular then the U-coordinate will
-	 *  be shift by the magnitude of the bias value. Bias should not be zero but very close to zero.
-	 * @return True if tangents are calculated. If the face data has not been eliminated then will return false;
+	 * @param bias The calculation involves inverting a 2x2 matrix. If the matrix is singular then the texture coordinates will
+	 *  be shift by the magnitude of the bias value, at most 8 times before the face is skipped. Bias should not be zero but very close to zero.
+	 * @return True if tangents are calculated. If the face data has not been eliminated or there is no texture coordinate then will return false;
 	 */
 	public boolean calculateTangents(boolean Recalculate, float bias) {
-		if((Tangents.size() == 0 || Tangents.size() != 0 && Recalculate) && Index_Eliminated && bias != 0.0f) {
+		if((Tangents.size() == 0 || Tangents.size() != 0 && Recalculate) && Index_Eliminated && bias != 0.0f && TextureCoordinates.size() == Vertices.size()) {
 			//Reset
 			Tangents.clear();
 			Tangent_error_Mes = "No Error Found";
-			SimpleMaths.errors = 0;
+			//Variables
+			final int vertices = getVertexSize();
+			final float[] tangent = new float[3 * vertices];
+			final float[] sign = new float[vertices];
 			
-			for(int i = 0; i < Indices.size(); i++) {
-				//Calculate edges
-				GLVector3 edge1 = SimpleMaths.subVector3(Vertices.get(3 * i + 1), Vertices.get(3 * i));
-				GLVector3 edge2 = SimpleMaths.subVector3(Vertices.get(3 * i + 2), Vertices.get(3 * i));
-				float[] Edge_mat = {
-						edge1.getComponentX(), edge1.getComponentY(), edge1.getComponentZ(),
-						edge2.getComponentX(), edge2.getComponentY(), edge2.getComponentZ()
-				};
-				//calculate delta UVs
-				float[] UV_mat;
-				float bias_accumulate = 0.0f;
-				do {
-					GLVector3 deltaUV1 = SimpleMaths.subVector3(TextureCoordinates.get(3 * i + 1), TextureCoordinates.get(3 * i));
-					GLVector3 deltaUV2 = SimpleMaths.subVector3(TextureCoordinates.get(3 * i + 2), TextureCoordinates.get(3 * i));
-					UV_mat = new float[]{
-							deltaUV1.getComponentX() + bias_accumulate, deltaUV1.getComponentY() + bias_accumulate,
-							deltaUV2.getComponentX() + bias_accumulate, deltaUV2.getComponentY() + bias_accumulate,
-					};
-					
-					UV_mat = SimpleMaths.Inverse_Mat2x2(UV_mat);
-					bias_accumulate += bias;
-				}while(UV_mat == null);//singular
-				//Final calculation
-				float[] Tangent_Bitangent = SimpleMaths.Mat2x2multiMat3x2(UV_mat, Edge_mat);
-				GLVector3 Tangent = new GLVector3(new float[]{Tangent_Bitangent[0], Tangent_Bitangent[1], Tangent_Bitangent[2]});
-				Tangent = SimpleMaths.normaliseVector3(Tangent);
-				//add to tangent
-				for(int j = 0; j < 3; j++)
-					Tangents.add(Tangent);//one face shares the same tangent lines
-			}
-			if(SimpleMaths.errors != 0) {
-				Tangent_error_Mes = Integer.toString(SimpleMaths.errors) + " Singular Matrices Found";
+			final int singular = GLTangentGenerator.generate(Vertices.array(), TextureCoordinates.array(), Normals.size() == Vertices.size() ? Normals.array() : null,
+					VertexIndices.array(), getFaceSize(), vertices, bias, tangent, sign);
+			Tangents.add(tangent, 0, tangent.length);
+			Tangent_signs = sign;
+			if(singular != 0) {
+				Tangent_error_Mes = Integer.toString(singular) + " Singular Matrices Found";
 			}
 			return true;
 		}else {
@@ -326,16 +706,39 @@ public final class Mesh{
 			Throwable th = new Throwable("NullPointerException");
 			throw new GLModelLoadingException("No Tangent Data Exist", th, th.getStackTrace(), "NullPointerException");
 		}else {
-			return Tangents.get(Index);
+			return Tangents.getVector3(Index);
+		}
+	}
+	
+	/**
+	 * To get the sign of the bitangent, the bitangent is sign * cross(normal, tangent). User must call method
+	 * {@link #calculateTangents(boolean,float)} before calling this method.
+	 * @param Index The position of the tangent in the mesh
+	 * @return 1 or -1
+	 * @throws GLModelLoadingException Thrown if user did not call the specific method before retrieving tangents
+	 */
+	public float getTangentSign(int Index) throws GLModelLoadingException{
+		if(Tangents.size() == 0) {
+			Throwable th = new Throwable("NullPointerException");
+			throw new GLModelLoadingException("No Tangent Data Exist", th, th.getStackTrace(), "NullPointerException");
+		}else {
+			return Tangent_signs[Index];
 		}
 	}
 	
+	/**
+	 * @return The bitangent sign of each tangent, empty if tangents are not calculated
+	 */
+	float[] getTangentSigns() {
+		return Tangent_signs;
+	}
+	
 	/**
 	 * Return the number of tangent lines
 	 * @return The number of tangents
 	 */
 	public int getTangentSize() {
-		return Tangents.size();
+		return Tangents.size() / 3;
 	}
 	
 }
@@ -0,0 +1,84 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Measures the compression and the decoding throughput of {@link GLMeshCodec}.
+ * <p>
+ * Usage: GLMeshCodecBenchmark [obj file] [iterations]. Without a file a welded grid of 512 x 512 quads is used. The first mesh of the
+ * file is imported with index correction, welding and vertex cache optimisation, then its indices and the vertices quantized with
+ * OCTAHEDRAL_16 and HALF_FLOAT are decoded repeatedly. Throughput is given in MB of decoded output per second.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public final class GLMeshCodecBenchmark {
+	//Constant
+	private static final int ROUNDS = 5;
+
+	private GLMeshCodecBenchmark() {
+
+	}
+
+	public static void main(String[] args) throws GLModelLoadingException {
+		//Input
+		final Mesh mesh = args.length > 0 ? importMesh(new File(args[0])) : GLVertexCacheOptimizer.optimize(GLMeshCodecTest.createGrid(512));
+		final int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+		final IntBuffer indices = mesh.exportIndices();
+		final byte[] encoded_indices = GLMeshCodec.encodeIndices(indices);
+		final GLQuantizedMesh quantized = mesh.quantize(GLQuantizedMesh.OCTAHEDRAL_16, GLQuantizedMesh.HALF_FLOAT);
+		final ByteBuffer vertices = quantized.exportVertices();
+		final byte[] encoded_vertices = GLMeshCodec.encodeVertices(vertices, quantized.getStride());
+		System.out.printf("%d triangles: indices %d -> %d bytes (%.2f bytes per triangle)%n", mesh.getFaceSize(), 4 * indices.remaining(),
+				encoded_indices.length, encoded_indices.length / (double)mesh.getFaceSize());
+		System.out.printf("%d vertices: quantized vertices %d -> %d bytes (%.1f%%)%n", quantized.getVertexSize(), vertices.remaining(),
+				encoded_vertices.length, 100.0 * encoded_vertices.length / vertices.remaining());
+
+		//Variables
+		final GLMeshCodec codec = new GLMeshCodec();
+		final ByteBuffer index_source = ByteBuffer.allocateDirect(encoded_indices.length);
+		index_source.put(encoded_indices).flip();
+		final IntBuffer index_destination = ByteBuffer.allocateDirect(4 * indices.remaining()).order(ByteOrder.nativeOrder()).asIntBuffer();
+		final ByteBuffer vertex_source = ByteBuffer.allocateDirect(encoded_vertices.length);
+		vertex_source.put(encoded_vertices).flip();
+		final ByteBuffer vertex_destination = ByteBuffer.allocateDirect(vertices.remaining());
+		for(int round = 0; round < ROUNDS; round++) {//the first rounds warm up the compiler
+			final long start = System.nanoTime();
+			for(int i = 0; i < iterations; i++) {
+				index_source.rewind();
+				index_destination.clear();
+				codec.decodeIndices(index_source, index_destination);
+			}
+			final long middle = System.nanoTime();
+			for(int i = 0; i < iterations; i++) {
+				vertex_source.rewind();
+				vertex_destination.clear();
+				codec.decodeVertices(vertex_source, vertex_destination);
+			}
+			final long end = System.nanoTime();
+			System.out.printf("round %d: index decode %.0f MB/s, vertex decode %.0f MB/s%n", round,
+					4.0 * indices.remaining() * iterations * 1e3 / (middle - start), (double)vertices.remaining() * iterations * 1e3 / (end - middle));
+		}
+	}
+
+	private static Mesh importMesh(File File) throws GLModelLoadingException {
+		final GLModelLoader loader = GLoaderInitiator.initModelLoader(File, GLModelLoader.READER_CHANNEL);
+		loader.setObjPostProcessing(GLPostProcessingType.INDEX_CORRECTION, true);
+		loader.setIndexBehaviour(GLModelLoader.START_FROM_ONE);
+		loader.setObjPostProcessing(GLPostProcessingType.TRIANGULATE, true);
+		loader.setObjPostProcessing(GLPostProcessingType.INDEX_WELDING, true);
+		loader.setObjPostProcessing(GLPostProcessingType.OPTIMIZE_VERTEX_CACHE, true);
+		try {
+			return loader.ImportWaveFrontObj()[0];
+		}finally {
+			loader.dump();
+		}
+	}
+
+}
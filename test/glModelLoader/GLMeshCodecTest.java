@@ -0,0 +1,170 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the index and vertex buffers are decoded to the buffers which were encoded, and that corrupted data is reported.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLMeshCodecTest {
+	//Constant
+	/**
+	 * The number of quads on each side of the test grid
+	 */
+	private static final int GRID = 40;
+
+	@Test
+	public void randomIndicesRoundTrip() throws GLModelLoadingException {
+		final Random random = new Random(3);
+		final int[] index = new int[3 * 5000];
+		for(int i = 0; i < index.length; i++) {
+			index[i] = random.nextInt(i % 2 == 0 ? 100 : 1 << 24);//small and large deltas
+		}
+		checkIndices(index);
+		checkIndices(new int[0]);
+	}
+
+	@Test
+	public void optimisedIndicesRoundTrip() throws GLModelLoadingException {
+		final Mesh mesh = GLVertexCacheOptimizer.optimize(createGrid(GRID));
+		final IntBuffer indices = mesh.exportIndices();
+		final int[] index = new int[indices.remaining()];
+		indices.get(index);
+		final byte[] encoded = checkIndices(index);
+		assertTrue(encoded.length < 2 * mesh.getFaceSize(), "Optimised indices should take less than 2 bytes per triangle, " + encoded.length);
+	}
+
+	@Test
+	public void quantizedVerticesRoundTrip() throws GLModelLoadingException {
+		final Mesh mesh = GLVertexCacheOptimizer.optimize(createGrid(GRID));
+		final int[] encodings = {GLQuantizedMesh.OCTAHEDRAL_16, GLQuantizedMesh.OCTAHEDRAL_8};
+		for(int encoding : encodings) {
+			final GLQuantizedMesh quantized = mesh.quantize(encoding, GLQuantizedMesh.UNORM_16);
+			final byte[] encoded = checkVertices(quantized.exportVertices(), quantized.getStride());
+			assertTrue(encoded.length < quantized.getVertexSize() * quantized.getStride(), "Quantized vertices should be compressed");
+		}
+		//partial blocks and strides which are not a multiple of 4
+		final Random random = new Random(5);
+		final int[] strides = {1, 3, 7, 256};
+		for(int stride : strides) {
+			final byte[] data = new byte[stride * 300];
+			random.nextBytes(data);
+			checkVertices(ByteBuffer.wrap(data), stride);
+		}
+	}
+
+	@Test
+	public void corruptedDataIsRejected() throws GLModelLoadingException {
+		final GLQuantizedMesh quantized = createGrid(GRID).quantize(GLQuantizedMesh.OCTAHEDRAL_16, GLQuantizedMesh.UNORM_16);
+		final byte[] vertices = GLMeshCodec.encodeVertices(quantized.exportVertices(), quantized.getStride());
+		final ByteBuffer destination = ByteBuffer.allocate(quantized.getVertexSize() * quantized.getStride());
+		assertRejected(Arrays.copyOf(vertices, 5), destination, null);
+		assertRejected(Arrays.copyOf(vertices, vertices.length / 2), destination, null);
+		assertRejected(new byte[] {(byte)0xA1, (byte)0xFF, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F, 4}, destination, null);//negative count
+		//4 indices are not whole triangles
+		final IntBuffer indices = IntBuffer.allocate(6);
+		assertRejected(new byte[] {(byte)0xE1, 4, (byte)0xF7, 0}, null, indices);
+		assertRejected(new byte[] {(byte)0xE1, (byte)0xFD, (byte)0xFF, (byte)0xFF, (byte)0xFF, 0x0F}, null, indices);//negative count
+	}
+
+	/**
+	 * Encode and decode the indices, the triangles may be rotated
+	 * @return The encoded indices
+	 */
+	private static byte[] checkIndices(int[] Index) throws GLModelLoadingException {
+		final byte[] encoded = GLMeshCodec.encodeIndices(IntBuffer.wrap(Index));
+		final ByteBuffer source = ByteBuffer.allocateDirect(encoded.length);
+		source.put(encoded).flip();
+		assertEquals(Index.length, GLMeshCodec.getIndexSize(source));
+		final IntBuffer decoded = ByteBuffer.allocateDirect(4 * Index.length).order(ByteOrder.nativeOrder()).asIntBuffer();
+		new GLMeshCodec().decodeIndices(source, decoded);
+		assertEquals(encoded.length, source.position(), "The whole data should be read");
+		assertEquals(Index.length, decoded.position(), "The whole buffer should be written");
+		for(int t = 0; t < Index.length / 3; t++) {
+			boolean same = false;
+			for(int r = 0; r < 3; r++) {
+				same |= decoded.get(3 * t) == Index[3 * t + r] && decoded.get(3 * t + 1) == Index[3 * t + (r + 1) % 3]
+						&& decoded.get(3 * t + 2) == Index[3 * t + (r + 2) % 3];
+			}
+			assertTrue(same, "Triangle " + t + " is changed");
+		}
+		return encoded;
+	}
+
+	/**
+	 * Encode and decode the vertices, the bytes must be the same
+	 * @return The encoded vertices
+	 */
+	private static byte[] checkVertices(ByteBuffer Vertices, int Stride) throws GLModelLoadingException {
+		final byte[] encoded = GLMeshCodec.encodeVertices(Vertices, Stride);
+		final ByteBuffer source = ByteBuffer.wrap(encoded);
+		assertEquals(Vertices.remaining() / Stride, GLMeshCodec.getVertexSize(source));
+		assertEquals(Stride, GLMeshCodec.getVertexStride(source));
+		final ByteBuffer decoded = ByteBuffer.allocateDirect(Vertices.remaining());
+		new GLMeshCodec().decodeVertices(source, decoded);
+		assertEquals(encoded.length, source.position(), "The whole data should be read");
+		decoded.flip();
+		assertTrue(decoded.equals(Vertices), "Vertices with stride " + Stride + " are changed");
+		return encoded;
+	}
+
+	private static void assertRejected(byte[] Encoded, ByteBuffer Vertices, IntBuffer Indices) {
+		boolean rejected = false;
+		try {
+			if(Vertices != null) {
+				Vertices.clear();
+				new GLMeshCodec().decodeVertices(ByteBuffer.wrap(Encoded), Vertices);
+			}else {
+				Indices.clear();
+				new GLMeshCodec().decodeIndices(ByteBuffer.wrap(Encoded), Indices);
+			}
+		}catch(GLModelLoadingException e) {
+			rejected = true;
+		}
+		assertTrue(rejected, "Corrupted data of " + Encoded.length + " bytes should be rejected");
+	}
+
+	/**
+	 * Create a welded grid on a wave with normals and texture coordinates
+	 * @param Size The number of quads on each side
+	 */
+	static Mesh createGrid(int Size) {
+		//Variables
+		final Mesh mesh = new Mesh();
+		for(int j = 0; j <= Size; j++) {
+			for(int i = 0; i <= Size; i++) {
+				final float x = (float)i / Size, y = (float)j / Size;
+				final float z = 0.1f * (float)Math.sin(6.0f * x) * (float)Math.cos(6.0f * y);
+				final float nx = -0.6f * (float)Math.cos(6.0f * x) * (float)Math.cos(6.0f * y);
+				final float ny = 0.6f * (float)Math.sin(6.0f * x) * (float)Math.sin(6.0f * y);
+				final float length = (float)Math.sqrt(nx * nx + ny * ny + 1.0f);
+				mesh.newVertex(x, y, z);
+				mesh.newNormal(nx / length, ny / length, 1.0f / length);
+				mesh.newTextureCoordinate(x, y, 0.0f);
+			}
+		}
+		for(int j = 0; j < Size; j++) {
+			for(int i = 0; i < Size; i++) {
+				final int a = j * (Size + 1) + i, b = a + 1, c = a + Size + 1, d = c + 1;
+				mesh.newFace(new int[] {a, b, d}, new int[] {a, b, d}, new int[] {a, b, d});
+				mesh.newFace(new int[] {a, d, c}, new int[] {a, d, c}, new int[] {a, d, c});
+			}
+		}
+		mesh.Index_Eliminated = true;
+		return mesh;
+	}
+
+}
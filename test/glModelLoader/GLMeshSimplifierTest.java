@@ -0,0 +1,87 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that simplification never moves the vertices on open borders.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLMeshSimplifierTest {
+	//Constant
+	/**
+	 * The number of quads on each side of the test grid
+	 */
+	private static final int GRID = 8;
+
+	@Test
+	public void openBorderSurvivesUnlimitedError() throws GLModelLoadingException {
+		final Mesh simplified = createGrid().simplify(0.0f, Float.POSITIVE_INFINITY);
+		assertTrue(simplified.getFaceSize() > 0, "The border cannot be collapsed to nothing");
+		final float[] position = simplified.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		final int[] index = simplified.toIntArray(Mesh.GLModelDataType.Vertices);
+		//every vertex on the four sides is still used, including the corners
+		for(int v = 0; v <= GRID; v++) {
+			final float t = (float)v / GRID;
+			assertTrue(isUsed(position, index, t, 0.0f) && isUsed(position, index, t, 1.0f)
+					&& isUsed(position, index, 0.0f, t) && isUsed(position, index, 1.0f, t), "Border vertices at " + t + " should be kept");
+		}
+	}
+
+	@Test
+	public void negativeOrNaNErrorIsRejected() {
+		final float[] errors = {-1.0f, Float.NaN};
+		for(float error : errors) {
+			boolean simplify = false, lod = false;
+			try {
+				createGrid().simplify(0.5f, error);
+			}catch(GLModelLoadingException e) {
+				simplify = true;
+			}
+			try {
+				createGrid().generateLOD(new float[] {0.5f}, error);
+			}catch(GLModelLoadingException e) {
+				lod = true;
+			}
+			assertTrue(simplify && lod, "Error " + error + " should be rejected");
+		}
+	}
+
+	private static boolean isUsed(float[] Position, int[] Index, float x, float y) {
+		for(int i = 0; i < Index.length; i++) {
+			if(Position[3 * Index[i]] == x && Position[3 * Index[i] + 1] == y) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create a flat grid over [0, 1] x [0, 1] which is open on all four sides
+	 */
+	private static Mesh createGrid() {
+		//Variables
+		final Mesh mesh = new Mesh();
+		final int[] none = {0, 0, 0};
+		for(int j = 0; j <= GRID; j++) {
+			for(int i = 0; i <= GRID; i++) {
+				mesh.newVertex((float)i / GRID, (float)j / GRID, 0.0f);
+			}
+		}
+		for(int j = 0; j < GRID; j++) {
+			for(int i = 0; i < GRID; i++) {
+				final int a = j * (GRID + 1) + i, b = a + 1, c = a + GRID + 1, d = c + 1;
+				mesh.newFace(new int[] {a, b, d}, none, none);
+				mesh.newFace(new int[] {a, d, c}, none, none);
+			}
+		}
+		mesh.Index_Eliminated = true;
+		return mesh;
+	}
+
+}
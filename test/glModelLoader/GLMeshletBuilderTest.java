@@ -0,0 +1,129 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the normal cone of the meshlets: a camera which passes the cone culling test must not see the front of any triangle.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLMeshletBuilderTest {
+	//Constant
+	/**
+	 * The number of quads on each side of the test surfaces
+	 */
+	private static final int GRID = 6;
+
+	@Test
+	public void concaveMeshletIsNotCulledWhenTrianglesFaceTheCamera() throws GLModelLoadingException {
+		final GLMeshlets meshlets = createSurface(true).buildMeshlets(64, 124);
+		assertTrue(meshlets.getBounds()[10] < 1.0f, "The bowl should be cullable by its cone");
+		//the camera right above the centre of the bowl sees the inside of every triangle
+		assertFalse(isCulled(meshlets, 0, 0.0f, 0.0f, 0.24f));
+		checkCone(createSurface(true));
+	}
+
+	@Test
+	public void convexMeshletIsNotCulledWhenTrianglesFaceTheCamera() throws GLModelLoadingException {
+		checkCone(createSurface(false));
+	}
+
+	/**
+	 * Check cameras inside the culling cone of each meshlet and in a box around the mesh
+	 */
+	private static void checkCone(Mesh Surface) throws GLModelLoadingException {
+		//Variables
+		final GLMeshlets meshlets = Surface.buildMeshlets(16, 16);
+		final float[] bounds = meshlets.getBounds();
+		final Random random = new Random(7);
+		for(int m = 0; m < meshlets.getMeshletSize(); m++) {
+			final int o = GLMeshlets.BOUNDS_STRIDE * m;
+			for(int i = 0; i < 20000; i++) {
+				float x, y, z;
+				if(i % 2 == 0) {//a camera behind the apex inside the cone
+					final float dx = (float)random.nextGaussian(), dy = (float)random.nextGaussian(), dz = (float)random.nextGaussian();
+					final float length = (float)Math.sqrt(dx * dx + dy * dy + dz * dz);
+					final float distance = 4.0f * random.nextFloat();
+					x = bounds[o + 4] - dx / length * distance;
+					y = bounds[o + 5] - dy / length * distance;
+					z = bounds[o + 6] - dz / length * distance;
+				}else {
+					x = 4.0f * random.nextFloat() - 2.0f;
+					y = 4.0f * random.nextFloat() - 2.0f;
+					z = 4.0f * random.nextFloat() - 2.0f;
+				}
+				if(isCulled(meshlets, m, x, y, z)) {
+					assertFalse(isFrontFacing(Surface, meshlets, m, x, y, z), "Meshlet " + m + " is culled but faces the camera (" + x + ", " + y + ", " + z + ")");
+				}
+			}
+		}
+	}
+
+	/**
+	 * The culling test given by {@link GLMeshlets}
+	 */
+	private static boolean isCulled(GLMeshlets Meshlets, int Meshlet, float x, float y, float z) {
+		final float[] bounds = Meshlets.getBounds();
+		final int o = GLMeshlets.BOUNDS_STRIDE * Meshlet;
+		final float dx = bounds[o + 4] - x, dy = bounds[o + 5] - y, dz = bounds[o + 6] - z;
+		final float length = (float)Math.sqrt(dx * dx + dy * dy + dz * dz);
+		return length > 0.0f && (dx * bounds[o + 7] + dy * bounds[o + 8] + dz * bounds[o + 9]) / length >= bounds[o + 10];
+	}
+
+	/**
+	 * @return True if the camera is in front of any triangle of the meshlet
+	 */
+	private static boolean isFrontFacing(Mesh Surface, GLMeshlets Meshlets, int Meshlet, float x, float y, float z) {
+		final float[] position = Surface.getDataArray(Mesh.GLModelDataType.Vertices).array();
+		final int[] descriptor = Meshlets.getDescriptors();
+		final int d = GLMeshlets.DESCRIPTOR_STRIDE * Meshlet;
+		for(int t = descriptor[d + 2]; t < descriptor[d + 2] + descriptor[d + 3]; t++) {
+			final int a = 3 * Meshlets.getVertices()[descriptor[d] + (Meshlets.getTriangles()[3 * t] & 0xFF)];
+			final int b = 3 * Meshlets.getVertices()[descriptor[d] + (Meshlets.getTriangles()[3 * t + 1] & 0xFF)];
+			final int c = 3 * Meshlets.getVertices()[descriptor[d] + (Meshlets.getTriangles()[3 * t + 2] & 0xFF)];
+			final float ux = position[b] - position[a], uy = position[b + 1] - position[a + 1], uz = position[b + 2] - position[a + 2];
+			final float vx = position[c] - position[a], vy = position[c + 1] - position[a + 1], vz = position[c + 2] - position[a + 2];
+			final float nx = uy * vz - uz * vy, ny = uz * vx - ux * vz, nz = ux * vy - uy * vx;
+			final float length = (float)Math.sqrt(nx * nx + ny * ny + nz * nz);
+			final float side = (nx * (x - position[a]) + ny * (y - position[a + 1]) + nz * (z - position[a + 2])) / length;
+			if(side > 1e-5f) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Create a paraboloid over [-0.5, 0.5] x [-0.5, 0.5] with the triangles facing up
+	 * @param Concave True for the bowl z = x^2 + y^2, false for the dome z = -(x^2 + y^2)
+	 */
+	private static Mesh createSurface(boolean Concave) {
+		//Variables
+		final Mesh mesh = new Mesh();
+		final int[] none = {0, 0, 0};
+		for(int j = 0; j <= GRID; j++) {
+			for(int i = 0; i <= GRID; i++) {
+				final float x = -0.5f + (float)i / GRID, y = -0.5f + (float)j / GRID;
+				mesh.newVertex(x, y, Concave ? x * x + y * y : -(x * x + y * y));
+			}
+		}
+		for(int j = 0; j < GRID; j++) {
+			for(int i = 0; i < GRID; i++) {
+				final int a = j * (GRID + 1) + i, b = a + 1, c = a + GRID + 1, d = c + 1;
+				mesh.newFace(new int[] {a, b, d}, none, none);
+				mesh.newFace(new int[] {a, d, c}, none, none);
+			}
+		}
+		mesh.Index_Eliminated = true;
+		return mesh;
+	}
+
+}
@@ -0,0 +1,72 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the normals generated by the importer from the indices in the obj file.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLModelImporterTest {
+	//Constant
+	/**
+	 * A tilted triangle followed by a triangle in the plane z = 0, the last vertex is only used by the first face
+	 */
+	private static final String TRIANGLES = "o a\nv 0 0 0\nv 1 0 0\nv 0 1 0\nv 0 0 1\ns off\nf 2 3 4\nf 1 2 3\n";
+
+	@Test
+	public void normalsAreGeneratedFromCorrectedIndices() throws IOException, GLModelLoadingException {
+		final GLModelLoader loader = createLoader(TRIANGLES);
+		loader.setObjPostProcessing(GLPostProcessingType.INDEX_CORRECTION, true);
+		loader.setIndexBehaviour(GLModelLoader.START_FROM_ONE);
+		loader.setObjPostProcessing(GLPostProcessingType.GENERATE_NORMALS, true);
+		final Mesh mesh;
+		try {
+			mesh = loader.ImportWaveFrontObj()[0];
+		}finally {
+			loader.dump();
+		}
+		//the normals of the second face are the normal of the plane z = 0
+		final float[] normals = mesh.toFloatArray(Mesh.GLModelDataType.Normals);
+		final int[] index = mesh.toIntArray(Mesh.GLModelDataType.Normals);
+		for(int i = 3; i < 6; i++) {
+			assertEquals(0.0f, normals[3 * index[i]], "Normal x of corner " + i);
+			assertEquals(0.0f, normals[3 * index[i] + 1], "Normal y of corner " + i);
+			assertEquals(1.0f, normals[3 * index[i] + 2], "Normal z of corner " + i);
+		}
+	}
+
+	@Test
+	public void generatingNormalsWithoutIndexCorrectionIsRejected() throws IOException, GLModelLoadingException {
+		final GLModelLoader loader = createLoader(TRIANGLES);
+		loader.setObjPostProcessing(GLPostProcessingType.GENERATE_NORMALS, true);
+		boolean rejected = false;
+		try {
+			loader.ImportWaveFrontObj();
+		}catch(GLModelLoadingException e) {
+			rejected = e.getMessage().contains("INDEX_CORRECTION");
+		}finally {
+			loader.dump();
+		}
+		assertTrue(rejected, "GENERATE_NORMALS without INDEX_CORRECTION should be rejected");
+	}
+
+	private static GLModelLoader createLoader(String Content) throws IOException, GLModelLoadingException {
+		final File file = File.createTempFile("normals", ".obj");
+		file.deleteOnExit();
+		Files.write(file.toPath(), Content.getBytes(StandardCharsets.US_ASCII));
+		return GLoaderInitiator.initModelLoader(file);
+	}
+
+}
@@ -0,0 +1,147 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the normals of a vertex shared by many faces in several smoothing groups, against the sum of the faces calculated
+ * corner by corner.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLNormalGeneratorTest {
+	//Constant
+	/**
+	 * The number of faces around the centre of the fan
+	 */
+	private static final int FAN_SIZE = 6000;
+
+	@Test
+	public void fanWithoutCreaseSharesOneNormalPerGroup() {
+		final float[] position = createCone(FAN_SIZE);
+		final int[] index = createFan(FAN_SIZE);
+		final int[] group = createGroups(FAN_SIZE);
+		final int[] normal_index = new int[3 * FAN_SIZE];
+		final float[] normal = GLNormalGenerator.generate(position, index, group, FAN_SIZE, FAN_SIZE + 1, 180.0f, normal_index);
+		checkNormals(position, index, group, normal, normal_index, 180.0f);
+		//one normal for each of the two smooth groups and one for each flat face
+		final int[] first = {-1, -1, -1};
+		for(int f = 0; f < FAN_SIZE; f++) {
+			if(group[f] == GLNormalGenerator.SMOOTHING_OFF) {
+				continue;
+			}
+			if(first[group[f]] == -1) {
+				first[group[f]] = normal_index[3 * f];
+			}
+			assertEquals(first[group[f]], normal_index[3 * f], "Normal index of the centre of face " + f);
+		}
+	}
+
+	@Test
+	public void fanWithCreaseOnlySmoothsNearFaces() {
+		final float[] position = createCone(2000);
+		final int[] index = createFan(2000);
+		final int[] group = createGroups(2000);
+		final int[] normal_index = new int[3 * 2000];
+		final float[] normal = GLNormalGenerator.generate(position, index, group, 2000, 2000 + 1, 30.0f, normal_index);
+		checkNormals(position, index, group, normal, normal_index, 30.0f);
+		final int[] none = new int[3 * 2000];
+		checkNormals(position, index, null, GLNormalGenerator.generate(position, index, null, 2000, 2000 + 1, 30.0f, none), none, 30.0f);
+	}
+
+	/**
+	 * A steep cone, the centre is vertex 0 at the top and the rim vertices are around it
+	 */
+	private static float[] createCone(int Size) {
+		final float[] returnValue = new float[3 * (Size + 1)];
+		returnValue[2] = 2.0f;
+		for(int i = 0; i < Size; i++) {
+			returnValue[3 * (i + 1)] = (float)Math.cos(2.0 * Math.PI * i / Size);
+			returnValue[3 * (i + 1) + 1] = (float)Math.sin(2.0 * Math.PI * i / Size);
+		}
+		return returnValue;
+	}
+
+	private static int[] createFan(int Size) {
+		final int[] returnValue = new int[3 * Size];
+		for(int i = 0; i < Size; i++) {
+			returnValue[3 * i] = 0;
+			returnValue[3 * i + 1] = i + 1;
+			returnValue[3 * i + 2] = (i + 1) % Size + 1;
+		}
+		return returnValue;
+	}
+
+	/**
+	 * The faces take group 1, group 2 and no smoothing in turn, so the groups are mixed around the centre
+	 */
+	private static int[] createGroups(int Size) {
+		final int[] returnValue = new int[Size];
+		for(int i = 0; i < Size; i++) {
+			returnValue[i] = i % 3 == 2 ? GLNormalGenerator.SMOOTHING_OFF : i % 3 + 1;
+		}
+		return returnValue;
+	}
+
+	/**
+	 * Compare the normal of every corner with the angle weighted sum of the faces which are smoothed with it
+	 */
+	private static void checkNormals(float[] Position, int[] Index, int[] Group, float[] Normal, int[] NormalIndex, float CreaseAngle) {
+		final int faces = Index.length / 3;
+		final double[] face_normal = new double[3 * faces];
+		final double[] angle = new double[3 * faces];
+		for(int f = 0; f < faces; f++) {
+			final double[] n = cross(Position, Index[3 * f], Index[3 * f + 1], Index[3 * f + 2]);
+			final double length = Math.sqrt(n[0] * n[0] + n[1] * n[1] + n[2] * n[2]);
+			for(int j = 0; j < 3; j++) {
+				face_normal[3 * f + j] = n[j] / length;
+				final int p = Index[3 * f + j], q = Index[3 * f + (j + 1) % 3], r = Index[3 * f + (j + 2) % 3];
+				double dot = 0.0, a = 0.0, b = 0.0;
+				for(int d = 0; d < 3; d++) {
+					final double x = Position[3 * q + d] - Position[3 * p + d], y = Position[3 * r + d] - Position[3 * p + d];
+					dot += x * y;
+					a += x * x;
+					b += y * y;
+				}
+				angle[3 * f + j] = Math.acos(dot / Math.sqrt(a * b));
+			}
+		}
+		final double crease = Math.cos(Math.toRadians(CreaseAngle)) - 1e-6;
+		final GLVertexAdjacency corners = new GLVertexAdjacency(Index, null, faces, Position.length / 3, false);
+		for(int i = 0; i < 3 * faces; i++) {
+			final int f = i / 3;
+			final double[] sum = new double[3];
+			for(int l = corners.start[Index[i]]; l < corners.start[Index[i] + 1]; l++) {
+				final int k = corners.adjacency[l], g = k / 3;
+				final boolean grouped = Group == null || Group[f] != GLNormalGenerator.SMOOTHING_OFF && Group[f] == Group[g];
+				final double cosine = face_normal[3 * f] * face_normal[3 * g] + face_normal[3 * f + 1] * face_normal[3 * g + 1]
+						+ face_normal[3 * f + 2] * face_normal[3 * g + 2];
+				if(g == f || grouped && cosine >= crease) {
+					for(int d = 0; d < 3; d++) {
+						sum[d] += face_normal[3 * g + d] * angle[k];
+					}
+				}
+			}
+			final double length = Math.sqrt(sum[0] * sum[0] + sum[1] * sum[1] + sum[2] * sum[2]);
+			for(int d = 0; d < 3; d++) {
+				assertEquals((float)(sum[d] / length), Normal[3 * NormalIndex[i] + d], 1e-4f, "Normal of corner " + i);
+			}
+			assertTrue(NormalIndex[i] >= 0 && NormalIndex[i] < Normal.length / 3, "Normal index of corner " + i);
+		}
+	}
+
+	private static double[] cross(float[] Position, int A, int B, int C) {
+		final double[] e1 = new double[3], e2 = new double[3];
+		for(int d = 0; d < 3; d++) {
+			e1[d] = Position[3 * B + d] - Position[3 * A + d];
+			e2[d] = Position[3 * C + d] - Position[3 * A + d];
+		}
+		return new double[] {e1[1] * e2[2] - e1[2] * e2[1], e1[2] * e2[0] - e1[0] * e2[2], e1[0] * e2[1] - e1[1] * e2[0]};
+	}
+
+}
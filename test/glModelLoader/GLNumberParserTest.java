@@ -0,0 +1,234 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the numbers are parsed bit for bit the same as {@link Float#parseFloat(String)} and {@link Integer#parseInt(String)},
+ * from a String, a range of characters and a range of bytes.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLNumberParserTest {
+	//Constant
+	/**
+	 * A number which cannot be the result, used when the input is rejected
+	 */
+	private static final long REJECTED = Long.MIN_VALUE;
+
+	@Test
+	public void signsAndZeros() {
+		checkFloats("0", "-0", "+0", "0.0", "-0.0", "-0e10", "0e-400", "-1", "+1", "-1.5", "+2.25e3", "-.5", "5.", ".e1", "-", "+", "", ".");
+	}
+
+	@Test
+	public void midpointsBetweenFloats() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final Random random = new Random(11);
+		final float[] seeds = {1.0f, 16777216.0f, 0.1f, 3.0e-5f, 1.0e10f, Float.MIN_NORMAL, Float.MAX_VALUE / 2.0f};
+		for(int i = 0; i < 20000; i++) {
+			final float value = i < seeds.length ? seeds[i] : Float.intBitsToFloat(random.nextInt(0x7F000000) + 0x00800000);
+			//exactly between the float and the next one, and one digit either side of it
+			final BigDecimal middle = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+			final BigDecimal step = middle.ulp();
+			values.add(middle.toString());
+			values.add(middle.add(step).toString());
+			values.add(middle.subtract(step).toString());
+			//the same midpoint rounded to 9 significant digits, which is short enough for the fast path
+			values.add(middle.round(new MathContext(9)).toString());
+		}
+		for(int i = 0; i < 20000; i++) {
+			//15 or 16 digits near a midpoint of a float within the exact powers of ten are often rounded to the midpoint in double,
+			//but they are not the midpoint so rounding the double again to float may give the wrong float
+			final float value = (float)Math.pow(10.0, 12.0 * random.nextDouble() - 6.0);
+			final BigDecimal middle = new BigDecimal(value).add(new BigDecimal(Math.nextUp(value))).divide(BigDecimal.valueOf(2));
+			values.add(middle.round(new MathContext(15)).toString());
+			values.add(middle.round(new MathContext(16)).toString());
+			values.add(middle.round(new MathContext(16)).toPlainString());
+		}
+		//integers exactly between two floats
+		values.add("16777217");
+		values.add("33554434");
+		values.add("33554435");
+		values.add("16777217.000000000000000000001");
+		values.add("1.00000005960464477539062");
+		values.add("1.00000005960464477539063");
+		checkFloats(values.toArray(new String[0]));
+	}
+
+	@Test
+	public void longMantissas() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final Random random = new Random(13);
+		values.add("1.2345678901234567890123");
+		values.add("123456789012345678901234567890");
+		values.add("0.000000000000000000000000012345678901234567");
+		values.add("999999999999999999");
+		values.add("9999999999999999999");
+		values.add("100000000000000000000000000000000000001e-38");
+		values.add("000000000000000000000000000001.5");
+		for(int i = 0; i < 20000; i++) {
+			final StringBuilder value = new StringBuilder();
+			final int digits = 17 + random.nextInt(10);
+			for(int d = 0; d < digits; d++) {
+				value.append((char)('0' + random.nextInt(10)));
+				if(d == random.nextInt(digits)) {
+					value.append('.');
+				}
+			}
+			value.append('e').append(random.nextInt(80) - 50);
+			values.add(value.toString());
+		}
+		checkFloats(values.toArray(new String[0]));
+	}
+
+	@Test
+	public void subnormalAndOverflowBoundaries() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final float[] bounds = {Float.MIN_VALUE, 2.0f * Float.MIN_VALUE, Float.MIN_NORMAL, Math.nextDown(Float.MIN_NORMAL), Float.MAX_VALUE};
+		for(float bound : bounds) {
+			final BigDecimal exact = new BigDecimal(bound);
+			final BigDecimal up = new BigDecimal(Math.nextUp(bound) == Float.POSITIVE_INFINITY ? 2.0 * bound - Math.nextDown(bound) : Math.nextUp(bound));
+			final BigDecimal down = new BigDecimal(Math.nextDown(bound));
+			values.add(Float.toString(bound));
+			values.add(exact.toString());
+			values.add(exact.add(up).divide(BigDecimal.valueOf(2)).toString());//midpoint above, infinity for MAX_VALUE
+			values.add(exact.add(down).divide(BigDecimal.valueOf(2)).toString());//midpoint below, zero for MIN_VALUE
+		}
+		final String[] others = {"1e-45", "7e-46", "7.1e-46", "1e-46", "1.17549435E-38", "1.1754942E-38", "1e-38", "1e-39", "1e-40",
+				"3.4028235e38", "3.4028236e38", "3.40282357e38", "3.4028236e+38", "1e38", "1e39", "1e400", "-1e400", "1e-400", "-1e-400"};
+		for(String other : others) {
+			values.add(other);
+		}
+		checkFloats(values.toArray(new String[0]));
+	}
+
+	@Test
+	public void exponentsAroundTheExactRange() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final String[] mantissas = {"1", "9", "1.5", "123456789", "8388609", "16777217", "999999999999999999", "4.7"};
+		for(String mantissa : mantissas) {
+			for(int exponent = 19; exponent <= 26; exponent++) {
+				values.add(mantissa + "e" + exponent);
+				values.add(mantissa + "e-" + exponent);
+				values.add(mantissa + "E+" + exponent);
+			}
+		}
+		values.add("0.0000000000000000000001");
+		values.add("0.00000000000000000000001");
+		values.add("10000000000000000000000");
+		values.add("100000000000000000000000");
+		checkFloats(values.toArray(new String[0]));
+	}
+
+	@Test
+	public void randomFloats() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final Random random = new Random(17);
+		for(int i = 0; i < 50000; i++) {
+			final float value = Float.intBitsToFloat(random.nextInt());
+			values.add(Float.toString(value));
+			values.add(Double.toString(value));
+			values.add(String.format("%.6f", random.nextDouble() * 200.0 - 100.0));
+		}
+		checkFloats(values.toArray(new String[0]));
+	}
+
+	@Test
+	public void integers() {
+		final ArrayList<String> values = new ArrayList<String>();
+		final long[] bounds = {Integer.MIN_VALUE, Integer.MAX_VALUE, 0L, 1L, -1L};
+		for(long bound : bounds) {
+			for(long d = -1L; d <= 1L; d++) {
+				values.add(Long.toString(bound + d));
+			}
+		}
+		final String[] others = {"-0", "+0", "+7", "007", "-007", "", "-", "+", "1.0", "1e3", " 1", "12a", "99999999999999999999",
+				"-99999999999999999999", "4294967296", "-4294967296"};
+		for(String other : others) {
+			values.add(other);
+		}
+		final Random random = new Random(19);
+		for(int i = 0; i < 20000; i++) {
+			values.add(Integer.toString(random.nextInt() >> random.nextInt(32)));
+		}
+		for(String value : values) {
+			final long expected = getExpectedInt(value);
+			final String padded = "v " + value + " 9";
+			final ByteBuffer bytes = ByteBuffer.wrap(padded.getBytes(StandardCharsets.ISO_8859_1));
+			assertEquals(expected, getInt(value, null, 0, 0), "parseInt(String) of \"" + value + "\"");
+			assertEquals(expected, getInt(padded, null, 2, 2 + value.length()), "parseInt(CharSequence) of \"" + value + "\"");
+			assertEquals(expected, getInt(null, bytes, 2, 2 + value.length()), "parseInt(ByteBuffer) of \"" + value + "\"");
+		}
+	}
+
+	/**
+	 * Parse the values from a String, a range of characters and a range of bytes, and compare the bits with Float.parseFloat
+	 */
+	private static void checkFloats(String... Values) {
+		for(String value : Values) {
+			final long expected = getExpectedFloat(value);
+			final String padded = "v " + value + " 9";
+			final ByteBuffer bytes = ByteBuffer.wrap(padded.getBytes(StandardCharsets.ISO_8859_1));
+			assertEquals(expected, getFloat(value, null, 0, 0), "parseFloat(String) of \"" + value + "\"");
+			assertEquals(expected, getFloat(padded, null, 2, 2 + value.length()), "parseFloat(CharSequence) of \"" + value + "\"");
+			assertEquals(expected, getFloat(null, bytes, 2, 2 + value.length()), "parseFloat(ByteBuffer) of \"" + value + "\"");
+		}
+	}
+
+	private static long getExpectedFloat(String Value) {
+		try {
+			return Float.floatToRawIntBits(Float.parseFloat(Value));
+		}catch(NumberFormatException e) {
+			return REJECTED;
+		}
+	}
+
+	/**
+	 * @return The bits of the parsed float, from the whole String if there is no range
+	 */
+	private static long getFloat(String Value, ByteBuffer Bytes, int Start, int End) {
+		try {
+			if(Bytes != null) {
+				return Float.floatToRawIntBits(GLNumberParser.parseFloat(Bytes, Start, End));
+			}
+			return Float.floatToRawIntBits(End == 0 ? GLNumberParser.parseFloat(Value) : GLNumberParser.parseFloat(Value, Start, End));
+		}catch(NumberFormatException e) {
+			return REJECTED;
+		}
+	}
+
+	private static long getExpectedInt(String Value) {
+		try {
+			return Integer.parseInt(Value);
+		}catch(NumberFormatException e) {
+			return REJECTED;
+		}
+	}
+
+	/**
+	 * @return The parsed integer, from the whole String if there is no range
+	 */
+	private static long getInt(String Value, ByteBuffer Bytes, int Start, int End) {
+		try {
+			if(Bytes != null) {
+				return GLNumberParser.parseInt(Bytes, Start, End);
+			}
+			return End == 0 ? GLNumberParser.parseInt(Value) : GLNumberParser.parseInt(Value, Start, End);
+		}catch(NumberFormatException e) {
+			return REJECTED;
+		}
+	}
+
+}
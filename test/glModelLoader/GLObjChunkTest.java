@@ -0,0 +1,316 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the parallel import stitches the chunks into the same meshes as the sequential import.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLObjChunkTest {
+	//Constant
+	/**
+	 * Every padding line is a comment of this length, so the position of each line is known
+	 */
+	private static final String PADDING = "#pad.\n";
+	private static final String HEADER = "# test\no a\nv 0 0 0\nv 1 0 0\nv 0 1 0\nv 1 1 1\ns 1\nf 1 2 3\n";
+	private static final String SMOOTHING_OFF = "s off\n";
+	private static final String FACES = "f 1 2 3\nf 2 4 3\n";
+
+	@Test
+	public void smoothingGroupBeforeChunkBoundaryIsKept() throws IOException, GLModelLoadingException {
+		//the file is split into 3 chunks, "s off" is the last line of the first chunk and the faces after it start the second chunk
+		final int lines = 3 * GLObjTokenizer.CHUNK_SIZE / PADDING.length() + 1000;
+		final long size = HEADER.length() + SMOOTHING_OFF.length() + FACES.length() + (long)PADDING.length() * lines;
+		final int before = (int)((size / 3 - HEADER.length()) / PADDING.length());
+		final StringBuilder content = new StringBuilder((int)size);
+		content.append(HEADER);
+		for(int i = 0; i < before; i++) {
+			content.append(PADDING);
+		}
+		content.append(SMOOTHING_OFF);
+		content.append(FACES);
+		for(int i = before; i < lines; i++) {
+			content.append(PADDING);
+		}
+		final File file = File.createTempFile("smoothing", ".obj");
+		file.deleteOnExit();
+		Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.US_ASCII));
+
+		final Mesh sequential = importMesh(file, 1);
+		final Mesh parallel = importMesh(file, 2);
+		//the faces after "s off" are flat, so the second face has the normal of its plane
+		final float[] normals = sequential.toFloatArray(Mesh.GLModelDataType.Normals);
+		final int corner = sequential.toIntArray(Mesh.GLModelDataType.Normals)[3];
+		assertEquals(1.0f, normals[3 * corner + 2], "The face after \"s off\" should be flat");
+		assertArrayEquals(normals, parallel.toFloatArray(Mesh.GLModelDataType.Normals), "Normals of the parallel import");
+		assertArrayEquals(sequential.toIntArray(Mesh.GLModelDataType.Normals), parallel.toIntArray(Mesh.GLModelDataType.Normals), "Normal indices of the parallel import");
+	}
+
+	@Test
+	public void positiveIndicesAcrossChunks() throws IOException, GLModelLoadingException {
+		checkChunks(false, GLModelLoader.START_FROM_ONE);
+	}
+
+	@Test
+	public void negativeIndicesAcrossChunks() throws IOException, GLModelLoadingException {
+		checkChunks(true, GLModelLoader.START_FROM_NEGATIVE_NUM_OF_ELEMENT);
+	}
+
+	/**
+	 * Import a file of about 9.5 chunk sizes, which is split into 8 chunks with parallelism 2 and 9 chunks with parallelism 4,
+	 * with object names, material names and faces referring to the vertices of the previous chunk at the chunk boundaries.
+	 * Every mesh must be the same as the sequential import.
+	 * @param Negative True if the faces use negative indices
+	 * @param Behaviour The index behaviour of the indices in the file
+	 */
+	private static void checkChunks(boolean Negative, int Behaviour) throws IOException, GLModelLoadingException {
+		final ObjFile obj = new ObjFile(Negative);
+		obj.line("mtllib scene.mtl");
+		obj.line("o first");
+		obj.vertices(6);
+		obj.line("usemtl red");
+		obj.faces();
+		//an object starting a chunk of parallelism 4
+		obj.pad();
+		obj.split(9, 1);
+		obj.line("o second");
+		obj.vertices(5);
+		obj.line("usemtl blue");
+		obj.faces();
+		//an object ending a chunk of parallelism 2
+		obj.pad();
+		obj.line("o third_mesh");
+		obj.split(8, 1);
+		obj.vertices(4);
+		obj.faces();
+		//faces referring to the vertices of the previous chunk
+		obj.pad();
+		obj.vertices(4);
+		obj.split(9, 2);
+		obj.faces();
+		obj.pad();
+		obj.faces();
+		obj.split(8, 2);
+		obj.line("usemtl green");
+		obj.faces();
+		obj.pad();
+		obj.line("usemtl yellow");
+		obj.split(9, 3);
+		obj.faces();
+		obj.pad();
+		obj.vertices(3);
+		obj.split(8, 3);
+		obj.faces();
+		//an object without data ending a chunk, followed by an object starting the next chunk
+		obj.pad();
+		obj.line("o empty_mesh");
+		obj.split(8, 4);
+		obj.line("o fifth_mesh");
+		obj.vertices(4);
+		obj.faces();
+		obj.pad();
+		obj.split(9, 5);
+		obj.line("o sixth_mesh");
+		obj.vertices(6);
+		obj.line("usemtl red");
+		obj.faces();
+		final File file = obj.write(9L * GLObjTokenizer.CHUNK_SIZE + GLObjTokenizer.CHUNK_SIZE / 2);
+
+		final String[] library = new String[1];
+		final Mesh[] sequential = importMeshes(file, GLModelLoader.READER_CHANNEL, 1, Behaviour, library);
+		assertEquals(6, sequential.length, "Number of meshes");
+		assertEquals("scene.mtl", library[0], "Material library");
+		final int[] parallelism = {2, 4};
+		for(int p : parallelism) {
+			compareMeshes(sequential, importMeshes(file, GLModelLoader.READER_CHANNEL, p, Behaviour, library), "Parallelism " + p);
+			assertEquals("scene.mtl", library[0], "Material library with parallelism " + p);
+		}
+		compareMeshes(sequential, importMeshes(file, GLModelLoader.READER_BUFFERED, 1, Behaviour, library), "Buffered reader");
+	}
+
+	private static void compareMeshes(Mesh[] Expected, Mesh[] Actual, String Import) {
+		final Mesh.GLModelDataType[] types = {Mesh.GLModelDataType.Vertices, Mesh.GLModelDataType.TextureCoordinates, Mesh.GLModelDataType.Normals};
+		assertEquals(Expected.length, Actual.length, Import + ": number of meshes");
+		for(int m = 0; m < Expected.length; m++) {
+			final String mesh = Import + ", mesh " + Expected[m].getMeshName();
+			assertEquals(Expected[m].getMeshName(), Actual[m].getMeshName(), mesh + ": name");
+			assertEquals(Expected[m].getMtl(), Actual[m].getMtl(), mesh + ": material");
+			assertEquals(Expected[m].getFaceSize(), Actual[m].getFaceSize(), mesh + ": number of faces");
+			for(Mesh.GLModelDataType type : types) {
+				assertArrayEquals(Expected[m].toFloatArray(type), Actual[m].toFloatArray(type), mesh + ": " + type + " data");
+				assertArrayEquals(Expected[m].toIntArray(type), Actual[m].toIntArray(type), mesh + ": " + type + " indices");
+			}
+		}
+	}
+
+	private static Mesh[] importMeshes(File File, int Reader, int Parallelism, int Behaviour, String[] Library) throws GLModelLoadingException {
+		final GLModelLoader loader = GLoaderInitiator.initModelLoader(File, Reader);
+		loader.setParallelism(Parallelism);
+		loader.setObjPostProcessing(GLPostProcessingType.INDEX_CORRECTION, true);
+		loader.setObjPostProcessing(GLPostProcessingType.TRIANGULATE, true);
+		loader.setIndexBehaviour(Behaviour);
+		try {
+			final Mesh[] returnValue = loader.ImportWaveFrontObj();
+			Library[0] = loader.getMtl();
+			return returnValue;
+		}finally {
+			loader.dump();
+		}
+	}
+
+	private static Mesh importMesh(File File, int Parallelism) throws GLModelLoadingException {
+		final GLModelLoader loader = GLoaderInitiator.initModelLoader(File, GLModelLoader.READER_CHANNEL);
+		loader.setParallelism(Parallelism);
+		loader.setObjPostProcessing(GLPostProcessingType.INDEX_CORRECTION, true);
+		loader.setIndexBehaviour(GLModelLoader.START_FROM_ONE);
+		loader.setObjPostProcessing(GLPostProcessingType.GENERATE_NORMALS, true);
+		try {
+			return loader.ImportWaveFrontObj()[0];
+		}finally {
+			loader.dump();
+		}
+	}
+
+	/**
+	 * ObjFile writes an obj file with padding lines, so that chosen lines start a chunk for a given number of chunks.
+	 * Each call of {@link #pad()} is followed by one call of {@link #split(int, int)}, the padding is only inserted at the pad.
+	 * @author Haoqian Stephen Xu
+	 *
+	 */
+	private static final class ObjFile {
+		private final StringBuilder text = new StringBuilder();
+		/**
+		 * {pad position, split position, number of chunks, boundary} of each split
+		 */
+		private final ArrayList<long[]> splits = new ArrayList<long[]>();
+		private final boolean negative;
+		private int pad = -1;
+		/**
+		 * The number of vertices in the current object
+		 */
+		private int vertices = 0;
+		private int face = 0;
+
+		private ObjFile(boolean Negative) {
+			negative = Negative;
+		}
+
+		private void line(String Line) {
+			if(Line.startsWith("o ")) {
+				vertices = 0;
+			}
+			text.append(Line).append('\n');
+		}
+
+		private void vertices(int Count) {
+			for(int i = 0; i < Count; i++) {
+				final int v = vertices + i;
+				line("v " + (v % 3) + "." + v + " " + (v % 5) + " -" + v + ".25");
+				line("vt 0." + v + " " + (v % 2));
+				line("vn 0 " + (v % 2) + " 1");
+			}
+			vertices += Count;
+		}
+
+		/**
+		 * Write faces with each form of corner, using the last vertices of the current object
+		 */
+		private void faces() {
+			final int[][] faces = {{1, 2, 3}, {3, 1, 2}, {2, 3, 1}, {1, 2, 3, 4}};
+			for(int[] back : faces) {
+				if(back.length > vertices) {
+					continue;
+				}
+				final StringBuilder line = new StringBuilder("f");
+				for(int b : back) {
+					final String index = negative ? Integer.toString(-b) : Integer.toString(vertices - b + 1);
+					switch(face % 4) {
+					case 0 : line.append(' ').append(index);
+					break;
+					case 1 : line.append(' ').append(index).append('/').append(index);
+					break;
+					case 2 : line.append(' ').append(index).append("//").append(index);
+					break;
+					default : line.append(' ').append(index).append('/').append(index).append('/').append(index);
+					break;
+					}
+				}
+				face++;
+				line(line.toString());
+			}
+		}
+
+		/**
+		 * Mark the position where the padding lines are inserted
+		 */
+		private void pad() {
+			pad = text.length();
+		}
+
+		/**
+		 * Mark the next line as the first line of a chunk
+		 * @param Chunks The number of chunks of the file
+		 * @param Boundary The chunk which starts with the next line
+		 */
+		private void split(int Chunks, int Boundary) {
+			splits.add(new long[] {pad, text.length(), Chunks, Boundary});
+		}
+
+		/**
+		 * Write the file, padded to the given size
+		 * @return The temporary file
+		 */
+		private File write(long Size) throws IOException {
+			//Variables
+			final long lines = (Size - text.length()) / PADDING.length();
+			final long size = text.length() + lines * PADDING.length();
+			final StringBuilder content = new StringBuilder((int)size);
+			final long[] position = new long[splits.size()];
+			long used = 0L;
+			int last = 0;
+			for(int s = 0; s < position.length; s++) {
+				final long[] split = splits.get(s);
+				content.append(text, last, (int)split[0]);
+				last = (int)split[0];
+				//the line feed before the split must be the first one at or after size * boundary / chunks
+				final long target = size * split[3] / split[2];
+				final long start = content.length() + split[1] - split[0];
+				final long count = Math.max(0L, (target + 1 - start + PADDING.length() - 1) / PADDING.length());
+				for(long i = 0; i < count; i++) {
+					content.append(PADDING);
+				}
+				used += count;
+				position[s] = start + count * PADDING.length();
+			}
+			content.append(text, last, text.length());
+			for(long i = used; i < lines; i++) {
+				content.append(PADDING);
+			}
+			assertEquals(size, content.length(), "The padding does not fit in the file");
+			//the boundaries are found in the same way as the importer
+			for(int s = 0; s < position.length; s++) {
+				final long[] split = splits.get(s);
+				final long boundary = content.indexOf("\n", (int)(size * split[3] / split[2])) + 1;
+				assertEquals(position[s], boundary, "Chunk " + split[3] + " of " + split[2] + " does not start at the split");
+			}
+			final File file = File.createTempFile("chunks", ".obj");
+			file.deleteOnExit();
+			Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.US_ASCII));
+			return file;
+		}
+	}
+
+}
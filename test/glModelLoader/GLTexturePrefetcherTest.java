@@ -0,0 +1,72 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutionException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the channels which the maps of the materials are decoded into.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLTexturePrefetcherTest {
+	//Constant
+	/**
+	 * A tangent space normal pointing up and a tilted one
+	 */
+	private static final int[] PIXELS = {0x8080FF, 0xC04080};
+
+	@Test
+	public void normalMapIsDecodedAsRGBAUnlessChannelIsGiven() throws IOException, GLModelLoadingException, InterruptedException, ExecutionException {
+		final File directory = Files.createTempDirectory("textures").toFile();
+		final BufferedImage image = new BufferedImage(2, 1, BufferedImage.TYPE_3BYTE_BGR);
+		image.setRGB(0, 0, PIXELS[0]);
+		image.setRGB(1, 0, PIXELS[1]);
+		final File png = new File(directory, "normal.png");
+		ImageIO.write(image, "png", png);
+		final File mtl = new File(directory, "scene.mtl");
+		Files.write(mtl.toPath(), ("newmtl tangent\nbump normal.png\nnewmtl height\nmap_Bump -imfchan r normal.png\n"
+				+ "newmtl decal\ndecal normal.png\n").getBytes(StandardCharsets.US_ASCII));
+		final File obj = new File(directory, "scene.obj");
+		Files.write(obj.toPath(), "mtllib scene.mtl\n".getBytes(StandardCharsets.US_ASCII));
+
+		final GLModelLoader loader = GLoaderInitiator.initModelLoader(obj, mtl);
+		final Material[] materials;
+		try {
+			materials = loader.ImportWaveFrontMtl();
+		}finally {
+			loader.dump();
+		}
+		final GLTexturePrefetcher textures = GLTexturePrefetcher.prefetch(materials, directory, 2);
+		//the normal map keeps every channel
+		final GLTexture normal = textures.getTexture(materials[0].Normal_Map).get();
+		assertEquals(4, normal.getChannels(), "Channels of the normal map");
+		final ByteBuffer data = normal.getData();
+		for(int x = 0; x < PIXELS.length; x++) {
+			assertEquals(PIXELS[x] >> 16 & 0xFF, data.get(4 * x) & 0xFF, "Red of pixel " + x);
+			assertEquals(PIXELS[x] >> 8 & 0xFF, data.get(4 * x + 1) & 0xFF, "Green of pixel " + x);
+			assertEquals(PIXELS[x] & 0xFF, data.get(4 * x + 2) & 0xFF, "Blue of pixel " + x);
+		}
+		//the bump map with -imfchan keeps the given channel
+		final GLTexture height = textures.getTexture(materials[1].Normal_Map).get();
+		assertEquals(1, height.getChannels(), "Channels of the bump map with -imfchan");
+		assertEquals(PIXELS[1] >> 16 & 0xFF, height.getData().get(1) & 0xFF, "Red channel of pixel 1");
+		//a decal without -imfchan is still a scalar texture
+		assertEquals(1, textures.getTexture(materials[2].Decal_Map).get().getChannels(), "Channels of the decal");
+		assertEquals(3, textures.getSize(), "The image is decoded once for RGBA, red and luminance");
+	}
+
+}
@@ -0,0 +1,35 @@
+/**
+ * 
+ */
+package glModelLoader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the average cache miss ratios recorded by the vertex cache and overdraw optimisations.
+ * @author Haoqian Stephen Xu
+ *
+ */
+public class GLVertexCacheOptimizerTest {
+
+	@Test
+	public void overdrawWithoutVertexCacheMeasuresTheInput() {
+		final Mesh mesh = GLMeshCodecTest.createGrid(30);
+		final Mesh optimised = GLOverdrawOptimizer.optimize(mesh, 1.05f);
+		assertEquals(mesh.getACMR(32), optimised.getACMRBefore(), "Ratio before the overdraw optimisation");
+		assertEquals(optimised.getACMR(32), optimised.getACMRAfter(), "Ratio after the overdraw optimisation");
+	}
+
+	@Test
+	public void overdrawAfterVertexCacheKeepsTheFirstRatio() {
+		final Mesh mesh = GLMeshCodecTest.createGrid(30);
+		final Mesh cached = GLVertexCacheOptimizer.optimize(mesh);
+		final Mesh optimised = GLOverdrawOptimizer.optimize(cached, 1.05f);
+		assertEquals(mesh.getACMR(32), optimised.getACMRBefore(), "Ratio before both optimisations");
+		assertTrue(optimised.getACMRAfter() <= 1.05f * cached.getACMRAfter() + 1e-6f, "The overdraw optimisation should keep the threshold");
+	}
+
+}